@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.discovery.builders;
 
+import com.nimbusds.jose.JWSAlgorithm;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.ServerConfigurationException;
@@ -34,6 +35,10 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
 import java.net.URISyntaxException;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -100,9 +105,7 @@ public class ProviderConfigBuilder {
             throw new ServerConfigurationException("Error while retrieving OIDC claim dialect", e);
         }
         try {
-            providerConfig.setIdTokenSigningAlgValuesSupported(new String[]{
-                OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm
-                        (OAuthServerConfiguration.getInstance().getIdTokenSignatureAlgorithm()).getName()});
+            providerConfig.setIdTokenSigningAlgValuesSupported(getIdTokenSigningAlgValuesSupported(tenantDomain));
         } catch (IdentityOAuth2Exception e) {
             throw new ServerConfigurationException("Unsupported signature algorithm configured.", e);
         }
@@ -142,4 +145,41 @@ public class ProviderConfigBuilder {
         }
         return providerConfig;
     }
+
+    /**
+     * Get the ID token signing algorithms supported for the tenant. Apart from the server level ID token signature
+     * algorithm, service providers can select any algorithm usable with the signing key of the tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Supported ID token signing algorithms, starting with the server level algorithm.
+     * @throws IdentityOAuth2Exception If the server level algorithm is not supported.
+     */
+    private String[] getIdTokenSigningAlgValuesSupported(String tenantDomain) throws IdentityOAuth2Exception {
+
+        Set<String> algorithms = new LinkedHashSet<>();
+        algorithms.add(OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm(
+                OAuthServerConfiguration.getInstance().getIdTokenSignatureAlgorithm()).getName());
+
+        Certificate certificate;
+        try {
+            certificate = OAuth2Util.getCertificate(tenantDomain, OAuth2Util.getTenantId(tenantDomain));
+        } catch (IdentityOAuth2Exception e) {
+            log.warn("Error while retrieving the signing certificate of the tenant: " + tenantDomain + ". Only the " +
+                    "server level ID token signature algorithm is advertised.");
+            return algorithms.toArray(new String[0]);
+        }
+        if (certificate != null && certificate.getPublicKey() instanceof ECPublicKey) {
+            JWSAlgorithm algorithm =
+                    OAuth2Util.getSignatureAlgorithmForECKey((ECPublicKey) certificate.getPublicKey());
+            if (algorithm != null) {
+                algorithms.add(algorithm.getName());
+            }
+        } else if (certificate != null && certificate.getPublicKey() instanceof RSAPublicKey) {
+            algorithms.add(JWSAlgorithm.RS256.getName());
+            algorithms.add(JWSAlgorithm.RS384.getName());
+            algorithms.add(JWSAlgorithm.RS512.getName());
+            algorithms.add(JWSAlgorithm.PS256.getName());
+        }
+        return algorithms.toArray(new String[0]);
+    }
 }
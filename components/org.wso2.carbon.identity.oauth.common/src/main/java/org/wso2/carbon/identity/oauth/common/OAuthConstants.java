@@ -467,6 +467,7 @@ public final class OAuthConstants {
         public static final String ID_TOKEN_ENCRYPTED = "idTokenEncrypted";
         public static final String ID_TOKEN_ENCRYPTION_ALGORITHM = "idTokenEncryptionAlgorithm";
         public static final String ID_TOKEN_ENCRYPTION_METHOD = "idTokenEncryptionMethod";
+        public static final String TOKEN_SIGNATURE_ALGORITHM = "tokenSignatureAlgorithm";
         public static final String NO_LOGOUT_SELECTED = "none";
         public static final String BACK_CHANNEL_LOGOUT = "backchannel";
         public static final String FRONT_CHANNEL_LOGOUT = "frontchannel";
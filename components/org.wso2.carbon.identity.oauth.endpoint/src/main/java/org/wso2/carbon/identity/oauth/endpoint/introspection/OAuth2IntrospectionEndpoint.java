@@ -30,6 +30,7 @@ import org.wso2.carbon.identity.oauth2.IntrospectionDataProvider;
 import org.wso2.carbon.identity.oauth2.OAuth2TokenValidationService;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2IntrospectionResponseDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationRequestDTO;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
 
 import java.util.HashMap;
 import java.util.List;
@@ -60,6 +61,10 @@ public class OAuth2IntrospectionEndpoint {
     private static final String INVALID_INPUT = "Invalid input";
 
     private static final String ACCESS_TOKEN_HINT = "access_token";
+    private static final String BATCH_RESULTS = "results";
+
+    private static final String MAX_BATCH_SIZE = "OAuth.TokenIntrospection.MaxBatchSize";
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
 
     /**
      * Token introspection endpoint.
@@ -116,7 +121,106 @@ public class OAuth2IntrospectionEndpoint {
         }
 
         // validate the access token against the OAuth2TokenValidationService OSGi service.
-        introspectionRequest = new OAuth2TokenValidationRequestDTO();
+        introspectionRequest = buildIntrospectionRequest(token, tokenTypeHint, claimsUris);
+
+        OAuth2TokenValidationService tokenService = (OAuth2TokenValidationService) PrivilegedCarbonContext
+                .getThreadLocalCarbonContext().getOSGiService(OAuth2TokenValidationService.class);
+
+        introspectionResponse = tokenService.buildIntrospectionResponse(introspectionRequest);
+
+        // Retrieve list of registered IntrospectionDataProviders.
+        List<Object> introspectionDataProviders = PrivilegedCarbonContext
+                .getThreadLocalCarbonContext().getOSGiServices(IntrospectionDataProvider.class, null);
+
+        try {
+            return Response.ok(buildIntrospectionResponseBody(introspectionRequest, introspectionResponse,
+                    requiredClaims, introspectionDataProviders), MediaType.APPLICATION_JSON)
+                    .status(Response.Status.OK).build();
+        } catch (IdentityOAuth2Exception e) {
+            return buildAdditionalDataErrorResponse(e);
+        } catch (JSONException e) {
+            return buildJSONErrorResponse(e);
+        }
+    }
+
+    /**
+     * Batch token introspection endpoint. Introspects each of the given tokens as the token introspection endpoint
+     * does, and returns the introspection results in the order of the tokens. The access tokens are retrieved from
+     * the database together, hence this avoids a round trip per token when a large number of tokens needs to be
+     * introspected, i.e. when warming up the token cache of a gateway.
+     *
+     * @param tokens        access tokens or refresh tokens, given as repeated token parameters
+     * @param tokenTypeHint hint for the type of the tokens submitted for introspection
+     * @return
+     */
+    @POST
+    @Path("/batch")
+    public Response introspectBatch(@FormParam("token") List<String> tokens,
+                                    @FormParam("token_type_hint") String tokenTypeHint) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Batch introspection request received for " + (tokens == null ? 0 : tokens.size()) +
+                    " tokens with token type hint: " + tokenTypeHint);
+        }
+
+        if (tokens == null || tokens.isEmpty() || tokens.stream().anyMatch(StringUtils::isBlank)) {
+            if (LoggerUtils.isDiagnosticLogsEnabled()) {
+                LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
+                        OAuthConstants.LogConstants.FAILED, "'token' parameters cannot be empty.",
+                        "validate-input-parameters", null);
+            }
+            OAuth2IntrospectionResponseDTO introspectionResponse = new OAuth2IntrospectionResponseDTO();
+            introspectionResponse.setError(INVALID_INPUT);
+            triggerOnIntrospectionExceptionListeners(null, introspectionResponse);
+            return Response.status(Response.Status.BAD_REQUEST).
+                    entity("{\"error\": \"" + INVALID_INPUT + "\"}").build();
+        }
+
+        int maxBatchSize = IdentityConfigUtils.getPositiveIntProperty(MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE);
+        if (tokens.size() > maxBatchSize) {
+            if (log.isDebugEnabled()) {
+                log.debug("Batch introspection request with " + tokens.size() + " tokens exceeds the maximum " +
+                        "batch size: " + maxBatchSize);
+            }
+            return Response.status(Response.Status.BAD_REQUEST).entity("{\"error\": \"A maximum of " +
+                    maxBatchSize + " tokens can be introspected in a single request\"}").build();
+        }
+
+        OAuth2TokenValidationRequestDTO[] introspectionRequests = new OAuth2TokenValidationRequestDTO[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            introspectionRequests[i] = buildIntrospectionRequest(tokens.get(i), tokenTypeHint, null);
+        }
+
+        OAuth2TokenValidationService tokenService = (OAuth2TokenValidationService) PrivilegedCarbonContext
+                .getThreadLocalCarbonContext().getOSGiService(OAuth2TokenValidationService.class);
+        OAuth2IntrospectionResponseDTO[] introspectionResponses =
+                tokenService.buildIntrospectionResponses(introspectionRequests);
+
+        List<Object> introspectionDataProviders = PrivilegedCarbonContext
+                .getThreadLocalCarbonContext().getOSGiServices(IntrospectionDataProvider.class, null);
+
+        StringBuilder responseBody = new StringBuilder("{\"" + BATCH_RESULTS + "\":[");
+        try {
+            for (int i = 0; i < introspectionRequests.length; i++) {
+                if (i > 0) {
+                    responseBody.append(',');
+                }
+                responseBody.append(buildIntrospectionResponseBody(introspectionRequests[i],
+                        introspectionResponses[i], null, introspectionDataProviders));
+            }
+        } catch (IdentityOAuth2Exception e) {
+            return buildAdditionalDataErrorResponse(e);
+        } catch (JSONException e) {
+            return buildJSONErrorResponse(e);
+        }
+        responseBody.append("]}");
+        return Response.ok(responseBody.toString(), MediaType.APPLICATION_JSON).status(Response.Status.OK).build();
+    }
+
+    private OAuth2TokenValidationRequestDTO buildIntrospectionRequest(String token, String tokenTypeHint,
+                                                                      String[] claimsUris) {
+
+        OAuth2TokenValidationRequestDTO introspectionRequest = new OAuth2TokenValidationRequestDTO();
         OAuth2TokenValidationRequestDTO.OAuth2AccessToken oAuth2Token = introspectionRequest.new OAuth2AccessToken();
 
         if (tokenTypeHint == null || StringUtils.equals(tokenTypeHint, ACCESS_TOKEN_HINT)) {
@@ -128,17 +232,19 @@ public class OAuth2IntrospectionEndpoint {
         oAuth2Token.setIdentifier(token);
         introspectionRequest.setAccessToken(oAuth2Token);
         introspectionRequest.setRequiredClaimURIs(claimsUris);
+        return introspectionRequest;
+    }
 
-        OAuth2TokenValidationService tokenService = (OAuth2TokenValidationService) PrivilegedCarbonContext
-                .getThreadLocalCarbonContext().getOSGiService(OAuth2TokenValidationService.class);
-
-        introspectionResponse = tokenService.buildIntrospectionResponse(introspectionRequest);
+    private String buildIntrospectionResponseBody(OAuth2TokenValidationRequestDTO introspectionRequest,
+                                                  OAuth2IntrospectionResponseDTO introspectionResponse,
+                                                  String requiredClaims, List<Object> introspectionDataProviders)
+            throws IdentityOAuth2Exception, JSONException {
 
         if (introspectionResponse.getError() != null) {
             if (log.isDebugEnabled()) {
                 log.debug("The error why token is made inactive: " + introspectionResponse.getError());
             }
-            return Response.status(Response.Status.OK).entity("{\"active\":false}").build();
+            return "{\"active\":false}";
         }
 
         IntrospectionResponseBuilder respBuilder = new IntrospectionResponseBuilder()
@@ -172,10 +278,6 @@ public class OAuth2IntrospectionEndpoint {
             respBuilder.setBindingReference(introspectionResponse.getBindingReference());
         }
 
-        // Retrieve list of registered IntrospectionDataProviders.
-        List<Object> introspectionDataProviders = PrivilegedCarbonContext
-                .getThreadLocalCarbonContext().getOSGiServices(IntrospectionDataProvider.class, null);
-
         for (Object dataProvider : introspectionDataProviders) {
             if (dataProvider instanceof IntrospectionDataProvider) {
 
@@ -190,32 +292,34 @@ public class OAuth2IntrospectionEndpoint {
                 if (log.isDebugEnabled()) {
                     log.debug("Executing introspection data provider: " + dataProvider.getClass().getName());
                 }
-                try {
-                    respBuilder.setAdditionalData(
-                            (((IntrospectionDataProvider) dataProvider).getIntrospectionData(
-                                    introspectionRequest, introspectionResponse)));
-                } catch (IdentityOAuth2Exception e) {
-                    LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
-                            OAuthConstants.LogConstants.FAILED, "System error occurred.",
-                            "generate-introspect-response", null);
-                    log.error("Error occurred while processing additional token introspection data.", e);
-
-                    return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                            .entity("{\"error\": \"Error occurred while building the introspection " +
-                                    "response.\"}")
-                            .build();
-                }
+                respBuilder.setAdditionalData(
+                        (((IntrospectionDataProvider) dataProvider).getIntrospectionData(
+                                introspectionRequest, introspectionResponse)));
             }
         }
 
-        try {
-            return Response.ok(respBuilder.build(), MediaType.APPLICATION_JSON).status(Response.Status.OK).build();
-        } catch (JSONException e) {
-            LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
-                    OAuthConstants.LogConstants.FAILED, "System error occurred.", "generate-introspect-response", null);
-            log.error("Error occurred while building the json response.", e);
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("{\"error\": \"Error occurred while building the json response.\"}").build();
-        }
+        return respBuilder.build();
+    }
+
+    private Response buildAdditionalDataErrorResponse(IdentityOAuth2Exception e) {
+
+        LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
+                OAuthConstants.LogConstants.FAILED, "System error occurred.",
+                "generate-introspect-response", null);
+        log.error("Error occurred while processing additional token introspection data.", e);
+
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error occurred while building the introspection " +
+                        "response.\"}")
+                .build();
+    }
+
+    private Response buildJSONErrorResponse(JSONException e) {
+
+        LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
+                OAuthConstants.LogConstants.FAILED, "System error occurred.", "generate-introspect-response", null);
+        log.error("Error occurred while building the json response.", e);
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error occurred while building the json response.\"}").build();
     }
 }
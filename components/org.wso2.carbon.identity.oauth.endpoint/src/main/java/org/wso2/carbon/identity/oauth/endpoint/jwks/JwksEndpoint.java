@@ -18,6 +18,9 @@
 package org.wso2.carbon.identity.oauth.endpoint.jwks;
 
 import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.util.Base64;
@@ -35,25 +38,36 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.utils.CarbonUtils;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.security.KeyStore;
+import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.jws.WebService;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 /**
  * Rest implementation for JWKS endpoint.
@@ -67,47 +81,206 @@ public class JwksEndpoint {
     private static final String SECURITY_KEY_STORE_PW = "Security.KeyStore.Password";
     private static final String KEYS = "keys";
     private static final String ADD_PREVIOUS_VERSION_KID = "JWTValidatorConfigs.JWKSEndpoint.AddPreviousVersionKID";
+    private static final String NEXT_KEY_ALIASES = "JWTValidatorConfigs.JWKSEndpoint.NextKeyAliases";
+    private static final String CACHE_MAX_AGE = "JWTValidatorConfigs.JWKSEndpoint.CacheMaxAge";
+    private static final String TENANT_KEY_SET_REFRESH_INTERVAL =
+            "JWTValidatorConfigs.JWKSEndpoint.TenantKeySetRefreshInterval";
+    private static final long DEFAULT_CACHE_MAX_AGE_IN_SECONDS = 300;
+    private static final long DEFAULT_TENANT_KEY_SET_REFRESH_INTERVAL_IN_SECONDS = 300;
+    private static final String WILDCARD_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
+    private final ConcurrentMap<String, JwksSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> snapshotBuildLocks = new ConcurrentHashMap<>();
 
     @GET
     @Path(value = "/jwks")
     @Produces(MediaType.APPLICATION_JSON)
-    public String jwks() {
+    public Response jwks(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
 
         String tenantDomain = getTenantDomain();
-        String keystorePath = CarbonUtils.getServerConfiguration().getFirstProperty(SECURITY_KEY_STORE_LOCATION);
+        try {
+            JwksSnapshot snapshot = getSnapshot(tenantDomain);
+            return buildCacheableResponse(snapshot.getKeySet(), snapshot.getKeySetETag(), ifNoneMatch);
+        } catch (Exception e) {
+            String errorMessage = "Error while generating the keyset for tenant domain: " + tenantDomain;
+            return Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR)
+                    .entity(logAndReturnError(errorMessage, e)).build();
+        }
+    }
+
+    /**
+     * Returns the keys staged to become signing keys, so that clients can fetch them ahead of a key rotation.
+     *
+     * @param ifNoneMatch Value of the If-None-Match header of the request.
+     * @return Key set of the staged keys.
+     */
+    @GET
+    @Path(value = "/jwks/next")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response nextJwks(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+
+        String tenantDomain = getTenantDomain();
+        try {
+            JwksSnapshot snapshot = getSnapshot(tenantDomain);
+            return buildCacheableResponse(snapshot.getNextKeySet(), snapshot.getNextKeySetETag(), ifNoneMatch);
+        } catch (Exception e) {
+            String errorMessage = "Error while generating the next keyset for tenant domain: " + tenantDomain;
+            return Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR)
+                    .entity(logAndReturnError(errorMessage, e)).build();
+        }
+    }
+
+    /**
+     * Get the JWKS snapshot of the tenant. The snapshot of the super tenant is rebuilt when the key store file is
+     * modified, while the snapshots of the other tenants are rebuilt once the refresh interval elapses.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return JWKS snapshot of the tenant.
+     * @throws Exception If an error occurred while building the snapshot.
+     */
+    private JwksSnapshot getSnapshot(String tenantDomain) throws Exception {
+
+        File keyStoreFile = null;
+        if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equalsIgnoreCase(tenantDomain)) {
+            keyStoreFile = new File(CarbonUtils.getServerConfiguration().getFirstProperty(SECURITY_KEY_STORE_LOCATION));
+        }
+        JwksSnapshot snapshot = snapshots.get(tenantDomain);
+        if (isSnapshotValid(snapshot, keyStoreFile)) {
+            return snapshot;
+        }
 
-        try (FileInputStream file = new FileInputStream(keystorePath)) {
-            final KeyStore keystore;
-            List<CertificateInfo> certificateInfoList = new ArrayList<>();
-            if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equalsIgnoreCase(tenantDomain)) {
+        Object buildLock = snapshotBuildLocks.computeIfAbsent(tenantDomain, key -> new Object());
+        synchronized (buildLock) {
+            // Another thread may have rebuilt the snapshot while waiting for the lock.
+            snapshot = snapshots.get(tenantDomain);
+            if (isSnapshotValid(snapshot, keyStoreFile)) {
+                return snapshot;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Building the JWKS snapshot of the tenant: " + tenantDomain);
+            }
+            snapshot = buildSnapshot(tenantDomain, keyStoreFile);
+            snapshots.put(tenantDomain, snapshot);
+            return snapshot;
+        }
+    }
+
+    private boolean isSnapshotValid(JwksSnapshot snapshot, File keyStoreFile) {
+
+        if (snapshot == null) {
+            return false;
+        }
+        if (keyStoreFile != null) {
+            return snapshot.isBuiltFrom(keyStoreFile.lastModified(), keyStoreFile.length());
+        }
+        return System.currentTimeMillis() - snapshot.getCreatedTime() < getTenantKeySetRefreshInterval();
+    }
+
+    private JwksSnapshot buildSnapshot(String tenantDomain, File keyStoreFile) throws Exception {
+
+        // Capture the state of the key store file before loading it, so that a modification done while loading
+        // results in a rebuild on the next request.
+        long keyStoreLastModified = keyStoreFile != null ? keyStoreFile.lastModified() : 0;
+        long keyStoreLength = keyStoreFile != null ? keyStoreFile.length() : 0;
+
+        final KeyStore keystore;
+        if (keyStoreFile != null) {
+            try (FileInputStream file = new FileInputStream(keyStoreFile)) {
                 keystore = KeyStore.getInstance(KeyStore.getDefaultType());
                 String password = CarbonUtils.getServerConfiguration().getFirstProperty(SECURITY_KEY_STORE_PW);
                 keystore.load(file, password.toCharArray());
-            } else {
-                try {
-                    int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-                    IdentityTenantUtil.initializeRegistry(tenantId);
-                    FrameworkUtils.startTenantFlow(tenantDomain);
-                    KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
-                    keystore = keyStoreManager.getKeyStore(generateKSNameFromDomainName(tenantDomain));
-                } finally {
-                    FrameworkUtils.endTenantFlow();
+            }
+        } else {
+            try {
+                int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+                IdentityTenantUtil.initializeRegistry(tenantId);
+                FrameworkUtils.startTenantFlow(tenantDomain);
+                KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
+                keystore = keyStoreManager.getKeyStore(generateKSNameFromDomainName(tenantDomain));
+            } finally {
+                FrameworkUtils.endTenantFlow();
+            }
+        }
+
+        List<String> nextKeyAliases = getNextKeyAliases();
+        List<CertificateInfo> certificateInfoList = new ArrayList<>();
+        List<CertificateInfo> nextCertificateInfoList = new ArrayList<>();
+        Enumeration enumeration = keystore.aliases();
+        while (enumeration.hasMoreElements()) {
+            String alias = (String) enumeration.nextElement();
+            if (keystore.isKeyEntry(alias)) {
+                CertificateInfo certificateInfo = new CertificateInfo(keystore.getCertificate(alias), alias);
+                certificateInfo.setCertificateChain(keystore.getCertificateChain(alias));
+                certificateInfoList.add(certificateInfo);
+                if (nextKeyAliases.contains(alias)) {
+                    nextCertificateInfoList.add(certificateInfo);
                 }
             }
-            Enumeration enumeration = keystore.aliases();
-            while (enumeration.hasMoreElements()) {
-                String alias = (String) enumeration.nextElement();
-                if (keystore.isKeyEntry(alias)) {
-                    CertificateInfo certificateInfo = new CertificateInfo(keystore.getCertificate(alias), alias);
-                    certificateInfo.setCertificateChain(keystore.getCertificateChain(alias));
-                    certificateInfoList.add(certificateInfo);
+        }
+        return new JwksSnapshot(buildResponse(certificateInfoList), buildResponse(nextCertificateInfoList),
+                keyStoreLastModified, keyStoreLength);
+    }
+
+    private Response buildCacheableResponse(byte[] keySet, String eTag, String ifNoneMatch) {
+
+        String cacheControl = "public, max-age=" + getCacheMaxAge();
+        if (isETagMatched(ifNoneMatch, eTag)) {
+            return Response.notModified()
+                    .header(HttpHeaders.ETAG, eTag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+        return Response.ok(keySet, MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.ETAG, eTag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .build();
+    }
+
+    private boolean isETagMatched(String ifNoneMatch, String eTag) {
+
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (WILDCARD_ETAG.equals(value)) {
+                return true;
+            }
+            // If-None-Match uses the weak comparison.
+            if (value.startsWith(WEAK_ETAG_PREFIX)) {
+                value = value.substring(WEAK_ETAG_PREFIX.length());
+            }
+            if (eTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> getNextKeyAliases() {
+
+        List<String> nextKeyAliases = new ArrayList<>();
+        String configuredAliases = IdentityUtil.getProperty(NEXT_KEY_ALIASES);
+        if (StringUtils.isNotBlank(configuredAliases)) {
+            for (String alias : configuredAliases.split(",")) {
+                if (StringUtils.isNotBlank(alias)) {
+                    nextKeyAliases.add(alias.trim());
                 }
             }
-            return buildResponse(certificateInfoList);
-        } catch (Exception e) {
-            String errorMessage = "Error while generating the keyset for tenant domain: " + tenantDomain;
-            return logAndReturnError(errorMessage, e);
         }
+        return nextKeyAliases;
+    }
+
+    private long getCacheMaxAge() {
+
+        return IdentityConfigUtils.getLongProperty(CACHE_MAX_AGE, DEFAULT_CACHE_MAX_AGE_IN_SECONDS, 0);
+    }
+
+    private long getTenantKeySetRefreshInterval() {
+
+        return TimeUnit.SECONDS.toMillis(IdentityConfigUtils.getLongProperty(TENANT_KEY_SET_REFRESH_INTERVAL,
+                DEFAULT_TENANT_KEY_SET_REFRESH_INTERVAL_IN_SECONDS, 0));
     }
 
     private String buildResponse(List<CertificateInfo> certInfoList)
@@ -142,32 +315,75 @@ public class JwksEndpoint {
             throws IdentityOAuth2Exception, ParseException, CertificateEncodingException {
 
         for (CertificateInfo certInfo : certInfoList) {
-            for (JWSAlgorithm algorithm : diffAlgorithms) {
+            X509Certificate cert = (X509Certificate) certInfo.getCertificate();
+            for (JWSAlgorithm algorithm : getAlgorithmsForKey(cert.getPublicKey(), diffAlgorithms)) {
                 String alias = certInfo.getCertificateAlias();
-                X509Certificate cert = (X509Certificate) certInfo.getCertificate();
                 Certificate[] certChain = certInfo.getCertificateChain();
                 List<Base64> encodedCertList = generateEncodedCertList(certChain, alias);
-                RSAKey.Builder jwk = getJWK(algorithm, encodedCertList, cert,
-                        hashingAlgorithm, alias);
-                jwksArray.add(jwk.build().toJSONObject());
+                JWK jwk = getJWK(algorithm, encodedCertList, cert, hashingAlgorithm, alias);
+                jwksArray.add(jwk.toJSONObject());
             }
         }
     }
 
-    private RSAKey.Builder getJWK(JWSAlgorithm algorithm, List<Base64> encodedCertList, X509Certificate certificate,
-                                  String kidAlgorithm, String alias)
+    private JWK getJWK(JWSAlgorithm algorithm, List<Base64> encodedCertList, X509Certificate certificate,
+                       String kidAlgorithm, String alias)
             throws ParseException, IdentityOAuth2Exception {
-        RSAKey.Builder jwk = new RSAKey.Builder((RSAPublicKey) certificate.getPublicKey());
+
+        String keyID;
         if (kidAlgorithm.equals(OAuthConstants.SignatureAlgorithms.KID_HASHING_ALGORITHM)) {
-            jwk.keyID(OAuth2Util.getKID(certificate, algorithm, getTenantDomain()));
+            keyID = OAuth2Util.getKID(certificate, algorithm, getTenantDomain());
         } else {
-            jwk.keyID(OAuth2Util.getPreviousKID(certificate, algorithm, getTenantDomain()));
+            keyID = OAuth2Util.getPreviousKID(certificate, algorithm, getTenantDomain());
         }
+        Base64URL thumbprint = Base64URL.encode(OAuth2Util.getThumbPrint(certificate, alias));
+        if (certificate.getPublicKey() instanceof ECPublicKey) {
+            ECPublicKey publicKey = (ECPublicKey) certificate.getPublicKey();
+            ECKey.Builder jwk = new ECKey.Builder(Curve.forECParameterSpec(publicKey.getParams()), publicKey);
+            jwk.keyID(keyID);
+            jwk.algorithm(algorithm);
+            jwk.keyUse(KeyUse.parse(KEY_USE));
+            jwk.x509CertChain(encodedCertList);
+            jwk.x509CertSHA256Thumbprint(thumbprint);
+            return jwk.build();
+        }
+        RSAKey.Builder jwk = new RSAKey.Builder((RSAPublicKey) certificate.getPublicKey());
+        jwk.keyID(keyID);
         jwk.algorithm(algorithm);
         jwk.keyUse(KeyUse.parse(KEY_USE));
         jwk.x509CertChain(encodedCertList);
-        jwk.x509CertSHA256Thumbprint(Base64URL.encode(OAuth2Util.getThumbPrint(certificate, alias)));
-        return jwk;
+        jwk.x509CertSHA256Thumbprint(thumbprint);
+        return jwk.build();
+    }
+
+    /**
+     * Get the algorithms to be advertised for the given public key. Only the configured algorithms usable with the
+     * type of the key are returned. EC keys are always advertised with the algorithm of their curve, as an EC key can
+     * only be used with that algorithm and service providers can select ECDSA signing regardless of the server level
+     * configuration.
+     *
+     * @param publicKey            Public key of the certificate.
+     * @param configuredAlgorithms Signature algorithms configured in identity.xml.
+     * @return Algorithms to be advertised for the key.
+     */
+    private List<JWSAlgorithm> getAlgorithmsForKey(PublicKey publicKey, List<JWSAlgorithm> configuredAlgorithms) {
+
+        List<JWSAlgorithm> algorithms = new ArrayList<>();
+        if (publicKey instanceof ECPublicKey) {
+            JWSAlgorithm curveAlgorithm = OAuth2Util.getSignatureAlgorithmForECKey((ECPublicKey) publicKey);
+            if (curveAlgorithm != null) {
+                algorithms.add(curveAlgorithm);
+            } else if (log.isDebugEnabled()) {
+                log.debug("Curve of the EC key is not supported for signing. Hence the key is not advertised.");
+            }
+            return algorithms;
+        }
+        for (JWSAlgorithm algorithm : configuredAlgorithms) {
+            if (!JWSAlgorithm.Family.EC.contains(algorithm)) {
+                algorithms.add(algorithm);
+            }
+        }
+        return algorithms;
     }
 
     /**
@@ -187,6 +403,10 @@ public class JwksEndpoint {
 
         for (CertificateInfo certInfo : certInfoList) {
             X509Certificate cert = (X509Certificate) certInfo.getCertificate();
+            if (!(cert.getPublicKey() instanceof RSAPublicKey)) {
+                // Old KeyIDs were only issued for RSA keys.
+                continue;
+            }
             RSAPublicKey publicKey = (RSAPublicKey) cert.getPublicKey();
             RSAKey.Builder jwk = new RSAKey.Builder(publicKey);
             jwk.keyID(OAuth2Util.getThumbPrintWithPrevAlgorithm(cert));
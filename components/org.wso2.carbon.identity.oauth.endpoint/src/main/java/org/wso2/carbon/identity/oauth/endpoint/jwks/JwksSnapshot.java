@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.endpoint.jwks;
+
+import com.nimbusds.jose.util.Base64URL;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Pre-serialized JWKS documents of a tenant, i.e. the published key set and the set of keys staged for rotation,
+ * along with their entity tags and the state of the key store they were built from.
+ */
+public class JwksSnapshot {
+
+    private static final String ETAG_HASHING_ALGORITHM = "SHA-256";
+
+    private final byte[] keySet;
+    private final String keySetETag;
+    private final byte[] nextKeySet;
+    private final String nextKeySetETag;
+    private final long keyStoreLastModified;
+    private final long keyStoreLength;
+    private final long createdTime;
+
+    JwksSnapshot(String keySet, String nextKeySet, long keyStoreLastModified, long keyStoreLength)
+            throws NoSuchAlgorithmException {
+
+        this.keySet = keySet.getBytes(StandardCharsets.UTF_8);
+        this.keySetETag = generateETag(this.keySet);
+        this.nextKeySet = nextKeySet.getBytes(StandardCharsets.UTF_8);
+        this.nextKeySetETag = generateETag(this.nextKeySet);
+        this.keyStoreLastModified = keyStoreLastModified;
+        this.keyStoreLength = keyStoreLength;
+        this.createdTime = System.currentTimeMillis();
+    }
+
+    public byte[] getKeySet() {
+
+        return keySet;
+    }
+
+    public String getKeySetETag() {
+
+        return keySetETag;
+    }
+
+    public byte[] getNextKeySet() {
+
+        return nextKeySet;
+    }
+
+    public String getNextKeySetETag() {
+
+        return nextKeySetETag;
+    }
+
+    public long getCreatedTime() {
+
+        return createdTime;
+    }
+
+    /**
+     * Check whether the snapshot was built from the key store file in the given state.
+     *
+     * @param lastModified Last modified time of the key store file.
+     * @param length       Length of the key store file.
+     * @return True if the key store file did not change since the snapshot was built.
+     */
+    public boolean isBuiltFrom(long lastModified, long length) {
+
+        return keyStoreLastModified == lastModified && keyStoreLength == length;
+    }
+
+    private static String generateETag(byte[] content) throws NoSuchAlgorithmException {
+
+        byte[] digest = MessageDigest.getInstance(ETAG_HASHING_ALGORITHM).digest(content);
+        return "\"" + Base64URL.encode(digest).toString() + "\"";
+    }
+}
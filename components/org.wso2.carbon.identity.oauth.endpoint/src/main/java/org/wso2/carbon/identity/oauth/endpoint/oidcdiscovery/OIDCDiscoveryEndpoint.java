@@ -24,12 +24,17 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.base.ServerConfigurationException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.discovery.OIDCDiscoveryEndPointException;
 import org.wso2.carbon.identity.discovery.OIDCProcessor;
 import org.wso2.carbon.identity.discovery.builders.OIDProviderResponseBuilder;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCacheEntry;
+
+import java.util.Date;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -38,6 +43,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 /**
@@ -49,6 +55,8 @@ public class OIDCDiscoveryEndpoint {
     private static final Log log = LogFactory.getLog(OIDCDiscoveryEndpoint.class);
     private static final String DISCOVERY_ENDPOINT_PATH_COMPONENT_VALUE_TOKEN = "token";
     private static final String DISCOVERY_ENDPOINT_PATH_COMPONENT_VALUE_OIDCDISCOVERY = "oidcdiscovery";
+    // Clients may store the document but have to revalidate it, which is answered with a 304 response if unchanged.
+    private static final String CACHE_CONTROL_NO_CACHE = "no-cache";
     private OIDProviderResponseBuilder oidProviderResponseBuilder;
 
     @GET
@@ -96,11 +104,10 @@ public class OIDCDiscoveryEndpoint {
 
     private Response getResponse(HttpServletRequest request, String tenant) {
 
-        String response;
         OIDCProcessor processor = EndpointUtil.getOIDCService();
+        OIDCDiscoveryDocumentCacheEntry document;
         try {
-            OIDProviderResponseBuilder responseBuilder = getOidProviderResponseBuilder();
-            response = responseBuilder.getOIDProviderConfigString(processor.getResponse(request, tenant));
+            document = getProviderConfiguration(request, tenant, processor);
         } catch (OIDCDiscoveryEndPointException e) {
             Response.ResponseBuilder errorResponse = Response.status(processor.handleError(e));
             return errorResponse.entity(e.getMessage()).build();
@@ -109,8 +116,51 @@ public class OIDCDiscoveryEndpoint {
             Response.ResponseBuilder errorResponse = Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             return errorResponse.entity("Error in reading configuration.").build();
         }
-        Response.ResponseBuilder responseBuilder = Response.status(HttpServletResponse.SC_OK);
-        return responseBuilder.entity(response).build();
+
+        Response.ResponseBuilder responseBuilder;
+        if (document.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), getIfModifiedSince(request))) {
+            responseBuilder = Response.notModified();
+        } else {
+            responseBuilder = Response.status(HttpServletResponse.SC_OK).entity(document.getDocument());
+        }
+        return responseBuilder
+                .header(HttpHeaders.ETAG, document.getETag())
+                .lastModified(new Date(document.getLastModified()))
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_NO_CACHE)
+                .build();
+    }
+
+    private OIDCDiscoveryDocumentCacheEntry getProviderConfiguration(HttpServletRequest request, String tenant,
+                                                                     OIDCProcessor processor)
+            throws OIDCDiscoveryEndPointException, ServerConfigurationException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenant);
+        OIDCDiscoveryDocumentCache discoveryDocumentCache = OIDCDiscoveryDocumentCache.getInstance();
+        OIDCDiscoveryDocumentCacheEntry document = discoveryDocumentCache.getDocument(
+                OIDCDiscoveryDocumentCache.PROVIDER_CONFIGURATION, tenantId);
+        if (document != null) {
+            return document;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Cache miss for the OpenID provider configuration of the tenant: " + tenant);
+        }
+        OIDProviderResponseBuilder responseBuilder = getOidProviderResponseBuilder();
+        document = new OIDCDiscoveryDocumentCacheEntry(
+                responseBuilder.getOIDProviderConfigString(processor.getResponse(request, tenant)));
+        discoveryDocumentCache.addDocument(OIDCDiscoveryDocumentCache.PROVIDER_CONFIGURATION, document, tenantId);
+        return document;
+    }
+
+    private long getIfModifiedSince(HttpServletRequest request) {
+
+        try {
+            return request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Ignoring the If-Modified-Since header as it is not a valid HTTP date.");
+            }
+            return -1;
+        }
     }
 
     @Autowired
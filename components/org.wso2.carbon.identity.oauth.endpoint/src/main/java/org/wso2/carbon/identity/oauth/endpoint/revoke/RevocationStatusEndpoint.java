@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.endpoint.revoke;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.tokenprocessor.TokenHasher;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.validators.RevokedTokenRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Rest implementation of the revocation status list endpoint. Publishes the revoked access tokens which are not expired
+ * yet, so that resource servers can cache introspection results for the lifetime of the tokens and drop the ones of
+ * the revoked tokens.
+ * <p>
+ * Tokens are identified by the hex encoded digest of the persisted token identifier, i.e. the JTI of a JWT access token
+ * or the opaque access token itself, computed with the published hash algorithm. The full list is a Bloom filter of
+ * the digests, as described in {@link RevocationStatusSnapshot}. Passing the list ID and the version of a previously
+ * fetched list returns the digests of the tokens revoked since that version instead. The full list is returned when
+ * the list ID does not match, e.g. as the versions are local to each node.
+ */
+@Path("/revocation-status")
+public class RevocationStatusEndpoint {
+
+    private static final Log log = LogFactory.getLog(RevocationStatusEndpoint.class);
+
+    private static final String FALSE_POSITIVE_RATE = "OAuth.RevocationStatusList.FalsePositiveRate";
+    private static final String CACHE_MAX_AGE = "OAuth.RevocationStatusList.CacheMaxAge";
+
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+    private static final long DEFAULT_CACHE_MAX_AGE_IN_SECONDS = 60;
+    private static final int MIN_DIGEST_LENGTH = 16;
+    private static final String SINCE = "since";
+    private static final String REVOKED = "revoked";
+    private static final String WILDCARD_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
+    private volatile RevocationStatusSnapshot snapshot;
+
+    @GET
+    @Path("/")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getRevocationStatus(@QueryParam(RevocationStatusSnapshot.LIST_ID) String listId,
+                                        @QueryParam(SINCE) String since,
+                                        @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+
+        RevokedTokenRegistry registry = RevokedTokenRegistry.getInstance();
+        if (!registry.isStatusListEnabled()) {
+            return Response.status(HttpServletResponse.SC_NOT_FOUND).build();
+        }
+        if (!registry.isReconciled()) {
+            // The registry does not reflect the revocations made on the other nodes yet.
+            return Response.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE).build();
+        }
+
+        try {
+            TokenHasher tokenHasher = TokenHasher.getInstance(OAuthServerConfiguration.getInstance()
+                    .getHashAlgorithm());
+            long version = registry.getVersion();
+            long sinceVersion = NumberUtils.toLong(since);
+            if (registry.getListId().equals(listId) && sinceVersion > 0 && sinceVersion <= version) {
+                return buildCacheableResponse(buildDelta(registry, tokenHasher, sinceVersion, version),
+                        RevocationStatusSnapshot.buildETag(registry.getListId(), sinceVersion, version), ifNoneMatch);
+            }
+            RevocationStatusSnapshot currentSnapshot = getSnapshot(registry, tokenHasher, version);
+            return buildCacheableResponse(currentSnapshot.getStatusList(), currentSnapshot.getETag(), ifNoneMatch);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while building the revocation status list.", e);
+            return Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get the snapshot of the given registry version. The snapshot is also rebuilt once the cache max age elapses, so
+     * that the tokens which expired meanwhile are dropped from the filter.
+     */
+    private RevocationStatusSnapshot getSnapshot(RevokedTokenRegistry registry, TokenHasher tokenHasher,
+                                                 long version) {
+
+        RevocationStatusSnapshot currentSnapshot = snapshot;
+        if (isSnapshotValid(currentSnapshot, version)) {
+            return currentSnapshot;
+        }
+        synchronized (this) {
+            // Another thread may have rebuilt the snapshot while waiting for the lock.
+            currentSnapshot = snapshot;
+            if (isSnapshotValid(currentSnapshot, version)) {
+                return currentSnapshot;
+            }
+            List<byte[]> digests = new ArrayList<>();
+            for (String accessTokenHash : registry.getRevokedAccessTokenHashes(0, version)) {
+                byte[] digest = decodeDigest(tokenHasher, accessTokenHash);
+                if (digest != null) {
+                    digests.add(digest);
+                }
+            }
+            currentSnapshot = new RevocationStatusSnapshot(registry.getListId(), version,
+                    tokenHasher.getAlgorithm(), digests, getFalsePositiveRate());
+            snapshot = currentSnapshot;
+            if (log.isDebugEnabled()) {
+                log.debug("Built the revocation status list of version: " + version + " with " + digests.size() +
+                        " revoked tokens.");
+            }
+            return currentSnapshot;
+        }
+    }
+
+    private boolean isSnapshotValid(RevocationStatusSnapshot currentSnapshot, long version) {
+
+        return currentSnapshot != null && currentSnapshot.getVersion() == version &&
+                System.currentTimeMillis() - currentSnapshot.getCreatedTime() < getCacheMaxAge() * 1000;
+    }
+
+    private byte[] buildDelta(RevokedTokenRegistry registry, TokenHasher tokenHasher, long sinceVersion,
+                              long version) {
+
+        JSONArray revokedTokens = new JSONArray();
+        for (String accessTokenHash : registry.getRevokedAccessTokenHashes(sinceVersion, version)) {
+            String digest = tokenHasher.getDigest(accessTokenHash);
+            if (digest != null) {
+                revokedTokens.add(digest);
+            }
+        }
+        JSONObject delta = new JSONObject();
+        delta.put(RevocationStatusSnapshot.LIST_ID, registry.getListId());
+        delta.put(RevocationStatusSnapshot.VERSION, version);
+        delta.put(SINCE, sinceVersion);
+        delta.put(RevocationStatusSnapshot.HASH_ALGORITHM, tokenHasher.getAlgorithm());
+        delta.put(REVOKED, revokedTokens);
+        return delta.toJSONString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] decodeDigest(TokenHasher tokenHasher, String accessTokenHash) {
+
+        String digest = tokenHasher.getDigest(accessTokenHash);
+        if (digest == null) {
+            // Hashed with a previously configured algorithm.
+            return null;
+        }
+        try {
+            byte[] decodedDigest = Hex.decodeHex(digest.toCharArray());
+            return decodedDigest.length >= MIN_DIGEST_LENGTH ? decodedDigest : null;
+        } catch (DecoderException e) {
+            log.warn("Ignoring the malformed access token hash while building the revocation status list.");
+            return null;
+        }
+    }
+
+    private Response buildCacheableResponse(byte[] statusList, String eTag, String ifNoneMatch) {
+
+        String cacheControl = "public, max-age=" + getCacheMaxAge();
+        if (isETagMatched(ifNoneMatch, eTag)) {
+            return Response.notModified()
+                    .header(HttpHeaders.ETAG, eTag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+        return Response.ok(statusList, MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.ETAG, eTag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .build();
+    }
+
+    private boolean isETagMatched(String ifNoneMatch, String eTag) {
+
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (WILDCARD_ETAG.equals(value)) {
+                return true;
+            }
+            // If-None-Match uses the weak comparison.
+            if (value.startsWith(WEAK_ETAG_PREFIX)) {
+                value = value.substring(WEAK_ETAG_PREFIX.length());
+            }
+            if (eTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long getCacheMaxAge() {
+
+        return IdentityConfigUtils.getLongProperty(CACHE_MAX_AGE, DEFAULT_CACHE_MAX_AGE_IN_SECONDS, 0);
+    }
+
+    private double getFalsePositiveRate() {
+
+        String value = IdentityUtil.getProperty(FALSE_POSITIVE_RATE);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                double falsePositiveRate = Double.parseDouble(value.trim());
+                if (falsePositiveRate > 0 && falsePositiveRate < 1) {
+                    return falsePositiveRate;
+                }
+            } catch (NumberFormatException e) {
+                // Fall back to the default value below.
+            }
+            log.warn("Invalid value: " + value + " configured for " + FALSE_POSITIVE_RATE + ". Using the default " +
+                    "value: " + DEFAULT_FALSE_POSITIVE_RATE);
+        }
+        return DEFAULT_FALSE_POSITIVE_RATE;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.endpoint.revoke;
+
+import com.nimbusds.jose.util.Base64URL;
+import net.minidev.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Pre-serialized revocation status list of a given version of the revoked token registry, i.e. a Bloom filter of the
+ * digests of the revoked tokens which are not expired yet, along with its entity tag.
+ * <p>
+ * The filter has {@code bits} bits and uses {@code hashes} hash functions. For a token digest, {@code h1} and
+ * {@code h2} are the big-endian signed longs of the first and the second 8 bytes of the digest, and the i-th bit
+ * position is {@code floorMod(h1 + i * h2, bits)} for i from 0 to {@code hashes - 1}. Bit {@code p} is the bit
+ * {@code p % 8} of byte {@code p / 8} of the filter, counting from the least significant bit.
+ */
+public class RevocationStatusSnapshot {
+
+    static final String LIST_ID = "list_id";
+    static final String VERSION = "version";
+    static final String HASH_ALGORITHM = "hash_alg";
+    private static final String TYPE = "type";
+    private static final String BLOOM_FILTER_TYPE = "bloom";
+    private static final String BITS = "bits";
+    private static final String HASHES = "hashes";
+    private static final String FILTER = "filter";
+    private static final String COUNT = "count";
+    private static final int MIN_BIT_COUNT = 64;
+
+    private final long version;
+    private final byte[] statusList;
+    private final String eTag;
+    private final long createdTime;
+
+    RevocationStatusSnapshot(String listId, long version, String hashAlgorithm, List<byte[]> digests,
+                             double falsePositiveRate) {
+
+        this.version = version;
+        int bitCount = getBitCount(digests.size(), falsePositiveRate);
+        int hashCount = getHashCount(digests.size(), bitCount);
+
+        JSONObject statusListObject = new JSONObject();
+        statusListObject.put(LIST_ID, listId);
+        statusListObject.put(VERSION, version);
+        statusListObject.put(HASH_ALGORITHM, hashAlgorithm);
+        statusListObject.put(TYPE, BLOOM_FILTER_TYPE);
+        statusListObject.put(BITS, bitCount);
+        statusListObject.put(HASHES, hashCount);
+        statusListObject.put(COUNT, digests.size());
+        statusListObject.put(FILTER, Base64URL.encode(buildBloomFilter(digests, bitCount, hashCount)).toString());
+        this.statusList = statusListObject.toJSONString().getBytes(StandardCharsets.UTF_8);
+        this.eTag = buildETag(listId, 0, version);
+        this.createdTime = System.currentTimeMillis();
+    }
+
+    public long getVersion() {
+
+        return version;
+    }
+
+    public byte[] getStatusList() {
+
+        return statusList;
+    }
+
+    public String getETag() {
+
+        return eTag;
+    }
+
+    public long getCreatedTime() {
+
+        return createdTime;
+    }
+
+    /**
+     * Check whether the given token digest may be contained in a Bloom filter built by this class.
+     *
+     * @param filter    Bloom filter.
+     * @param hashCount Number of hash functions of the filter.
+     * @param digest    Token digest.
+     * @return False if the digest is not in the filter, true if it may be.
+     */
+    static boolean mightContain(byte[] filter, int hashCount, byte[] digest) {
+
+        int bitCount = filter.length * 8;
+        long hash1 = toLong(digest, 0);
+        long hash2 = toLong(digest, 8);
+        for (int i = 0; i < hashCount; i++) {
+            int position = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+            if ((filter[position >>> 3] & (1 << (position & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build the entity tag of a status list, which is either the full list of a version or the delta between two
+     * versions.
+     *
+     * @param listId       ID of the revoked token registry.
+     * @param sinceVersion Version the delta starts from, 0 for the full list.
+     * @param version      Version of the list.
+     * @return Entity tag.
+     */
+    static String buildETag(String listId, long sinceVersion, long version) {
+
+        return "\"" + listId + "." + sinceVersion + "." + version + "\"";
+    }
+
+    private static byte[] buildBloomFilter(List<byte[]> digests, int bitCount, int hashCount) {
+
+        byte[] filter = new byte[bitCount / 8];
+        for (byte[] digest : digests) {
+            long hash1 = toLong(digest, 0);
+            long hash2 = toLong(digest, 8);
+            for (int i = 0; i < hashCount; i++) {
+                int position = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+                filter[position >>> 3] |= (byte) (1 << (position & 7));
+            }
+        }
+        return filter;
+    }
+
+    private static int getBitCount(int entryCount, double falsePositiveRate) {
+
+        // Optimal size of a Bloom filter for the entry count and the false positive rate, in whole bytes.
+        double optimalBitCount = -Math.max(entryCount, 1) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int bitCount = (int) Math.min(Math.ceil(optimalBitCount), Integer.MAX_VALUE - 7);
+        return Math.max(MIN_BIT_COUNT, (bitCount + 7) / 8 * 8);
+    }
+
+    private static int getHashCount(int entryCount, int bitCount) {
+
+        return Math.max(1, (int) Math.round((double) bitCount / Math.max(entryCount, 1) * Math.log(2)));
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+}
@@ -16,6 +16,7 @@ import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.central.log.mgt.utils.LoggerUtils;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
 import org.wso2.carbon.identity.oauth2.OAuth2TokenValidationService;
@@ -23,7 +24,11 @@ import org.wso2.carbon.identity.oauth2.dto.OAuth2IntrospectionResponseDTO;
 import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Response;
 
@@ -31,12 +36,14 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.AssertJUnit.assertEquals;
 
-@PrepareForTest({PrivilegedCarbonContext.class, LoggerUtils.class, IdentityTenantUtil.class,
+@PrepareForTest({PrivilegedCarbonContext.class, LoggerUtils.class, IdentityTenantUtil.class, IdentityUtil.class,
         OAuthServerConfiguration.class, TokenPersistenceProcessor.class})
 public class OAuth2IntrospectionEndpointTest extends PowerMockIdentityBaseTest {
 
@@ -108,6 +115,62 @@ public class OAuth2IntrospectionEndpointTest extends PowerMockIdentityBaseTest {
 
     }
 
+    @Test
+    public void testIntrospectBatch() throws Exception {
+
+        OAuth2TokenValidationService mockedTokenService = mockTokenService(null);
+
+        OAuth2IntrospectionResponseDTO activeResponse = new OAuth2IntrospectionResponseDTO();
+        activeResponse.setActive(true);
+        activeResponse.setClientId("clientId");
+        activeResponse.setTokenType("Bearer");
+        OAuth2IntrospectionResponseDTO inactiveResponse = new OAuth2IntrospectionResponseDTO();
+        inactiveResponse.setError("Invalid access token");
+        when(mockedTokenService.buildIntrospectionResponses(anyVararg()))
+                .thenReturn(new OAuth2IntrospectionResponseDTO[]{inactiveResponse, activeResponse});
+
+        Response response = oAuth2IntrospectionEndpoint.introspectBatch(Arrays.asList("TOKEN1", "TOKEN2"),
+                BEARER_TOKEN_TYPE_HINT);
+        assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+
+        Map<String, List<Map<String, Object>>> body = new Gson().fromJson((String) response.getEntity(),
+                new TypeToken<Map<String, List<Map<String, Object>>>>() {
+                }.getType());
+        List<Map<String, Object>> results = body.get("results");
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).get("active"), false);
+        assertEquals(results.get(1).get("active"), true);
+        assertEquals(results.get(1).get("client_id"), "clientId");
+    }
+
+    @Test
+    public void testIntrospectBatchWithInvalidInput() throws Exception {
+
+        OAuth2TokenValidationService mockedTokenService = mockTokenService("2");
+
+        assertEquals(oAuth2IntrospectionEndpoint.introspectBatch(Collections.emptyList(), null).getStatus(),
+                Response.Status.BAD_REQUEST.getStatusCode());
+        assertEquals(oAuth2IntrospectionEndpoint.introspectBatch(Arrays.asList("TOKEN1", " "), null).getStatus(),
+                Response.Status.BAD_REQUEST.getStatusCode());
+        assertEquals(oAuth2IntrospectionEndpoint.introspectBatch(Arrays.asList("TOKEN1", "TOKEN2", "TOKEN3"), null)
+                .getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+        verify(mockedTokenService, never()).buildIntrospectionResponses(anyVararg());
+    }
+
+    private OAuth2TokenValidationService mockTokenService(String maxBatchSize) throws Exception {
+
+        OAuth2TokenValidationService mockedTokenService = mock(OAuth2TokenValidationService.class);
+        mockStatic(LoggerUtils.class);
+        when(LoggerUtils.isDiagnosticLogsEnabled()).thenReturn(false);
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getProperty(anyString())).thenReturn(maxBatchSize);
+        mockOAuthServerConfiguration();
+        mockStatic(PrivilegedCarbonContext.class);
+        when(PrivilegedCarbonContext.getThreadLocalCarbonContext()).thenReturn(mockedPrivilegedCarbonContext);
+        when(mockedPrivilegedCarbonContext.getOSGiService(any())).thenReturn(mockedTokenService);
+        return mockedTokenService;
+    }
+
     private void mockOAuthServerConfiguration() throws Exception {
 
         mockStatic(OAuthServerConfiguration.class);
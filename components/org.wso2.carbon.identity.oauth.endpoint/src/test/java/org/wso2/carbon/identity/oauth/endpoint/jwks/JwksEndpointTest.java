@@ -47,12 +47,17 @@ import java.io.FileInputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
@@ -60,6 +65,7 @@ import static org.powermock.api.mockito.PowerMockito.doNothing;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -140,6 +146,79 @@ public class JwksEndpointTest extends PowerMockIdentityBaseTest {
     @Test(dataProvider = "provideTenantDomain")
     public void testJwks(String tenantDomain, int tenantId) throws Exception {
 
+        ThreadLocal<Map<String, Object>> threadLocalProperties = prepareJwksRequest(tenantDomain, tenantId);
+
+        String result = getEntity(jwksEndpoint.jwks(null));
+
+        try {
+            JSONObject jwksJson = new JSONObject(result);
+            JSONArray objectArray = jwksJson.getJSONArray("keys");
+            JSONObject keyObject = objectArray.getJSONObject(0);
+            assertEquals(keyObject.get("kid"), CERT_THUMB_PRINT, "Incorrect kid value");
+            assertEquals(keyObject.get("alg"), ALG, "Incorrect alg value");
+            assertEquals(keyObject.get("use"), USE, "Incorrect use value");
+            assertEquals(keyObject.get("kty"), "RSA", "Incorrect kty value");
+            assertEquals(keyObject.get("x5t#S256"), X5T, "Incorrect x5t#S256 value");
+            if ("foo.com".equals(tenantDomain)) {
+                assertEquals(objectArray.length(), 2, "Incorrect no of keysets");
+                assertEquals(((JSONArray) keyObject.get("x5c")).get(0), X5C_ARRAY.get(0), "Incorrect x5c value");
+            } else {
+                assertEquals(objectArray.length(), 3, "Incorrect no of keysets");
+                assertEquals(((JSONArray) keyObject.get("x5c")).get(0), X5C_ARRAY.get(1), "Incorrect x5c value");
+            }
+        } catch (JSONException e) {
+            if ("invalid.com".equals(tenantDomain)) {
+                // This is expected. We don't validate for invalid tenants.
+                assertTrue(true);
+            } else if (tenantDomain == null) {
+                assertTrue(result.contains("Error while generating the keyset for"),
+                        "Error message for thrown exception is not found");
+            } else {
+                fail("Unexpected exception: " + e.getMessage());
+            }
+        }
+
+        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+    }
+
+    @Test
+    public void testJwksConditionalRequest() throws Exception {
+
+        ThreadLocal<Map<String, Object>> threadLocalProperties = prepareJwksRequest("foo.com", 1);
+
+        Response response = jwksEndpoint.jwks(null);
+        assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
+        String eTag = (String) response.getMetadata().getFirst(HttpHeaders.ETAG);
+        assertNotNull(eTag, "ETag header is not set");
+        assertTrue(((String) response.getMetadata().getFirst(HttpHeaders.CACHE_CONTROL)).contains("max-age="),
+                "Cache-Control header is not set");
+
+        assertEquals(jwksEndpoint.jwks(eTag).getStatus(), HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals(jwksEndpoint.jwks("\"other\", W/" + eTag).getStatus(), HttpServletResponse.SC_NOT_MODIFIED);
+        Response modifiedResponse = jwksEndpoint.jwks("\"other\"");
+        assertEquals(modifiedResponse.getStatus(), HttpServletResponse.SC_OK);
+        assertEquals(getEntity(modifiedResponse), getEntity(response), "Key set should be served from the snapshot");
+
+        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+    }
+
+    @Test
+    public void testNextJwks() throws Exception {
+
+        ThreadLocal<Map<String, Object>> threadLocalProperties = prepareJwksRequest("foo.com", 1);
+
+        Response response = jwksEndpoint.nextJwks(null);
+        assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
+        assertNotNull(response.getMetadata().getFirst(HttpHeaders.ETAG), "ETag header is not set");
+        // No keys are staged for rotation.
+        assertEquals(new JSONObject(getEntity(response)).getJSONArray("keys").length(), 0,
+                "Incorrect no of next keysets");
+
+        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+    }
+
+    private ThreadLocal<Map<String, Object>> prepareJwksRequest(String tenantDomain, int tenantId) throws Exception {
+
         Path keystorePath = Paths.get(System.getProperty(CarbonBaseConstants.CARBON_HOME), "repository", "resources",
                 "security", "wso2carbon.jks");
         mockOAuthServerConfiguration();
@@ -200,38 +279,16 @@ public class JwksEndpointTest extends PowerMockIdentityBaseTest {
         mockStatic(KeyStoreManager.class);
         when(KeyStoreManager.getInstance(anyInt())).thenReturn(keyStoreManager);
         when(keyStoreManager.getKeyStore("foo-com.jks")).thenReturn(getKeyStoreFromFile("foo-com.jks", "foo.com"));
+        return threadLocalProperties;
+    }
 
-        String result = jwksEndpoint.jwks();
+    private String getEntity(Response response) {
 
-        try {
-            JSONObject jwksJson = new JSONObject(result);
-            JSONArray objectArray = jwksJson.getJSONArray("keys");
-            JSONObject keyObject = objectArray.getJSONObject(0);
-            assertEquals(keyObject.get("kid"), CERT_THUMB_PRINT, "Incorrect kid value");
-            assertEquals(keyObject.get("alg"), ALG, "Incorrect alg value");
-            assertEquals(keyObject.get("use"), USE, "Incorrect use value");
-            assertEquals(keyObject.get("kty"), "RSA", "Incorrect kty value");
-            assertEquals(keyObject.get("x5t#S256"), X5T, "Incorrect x5t#S256 value");
-            if ("foo.com".equals(tenantDomain)) {
-                assertEquals(objectArray.length(), 2, "Incorrect no of keysets");
-                assertEquals(((JSONArray) keyObject.get("x5c")).get(0), X5C_ARRAY.get(0), "Incorrect x5c value");
-            } else {
-                assertEquals(objectArray.length(), 3, "Incorrect no of keysets");
-                assertEquals(((JSONArray) keyObject.get("x5c")).get(0), X5C_ARRAY.get(1), "Incorrect x5c value");
-            }
-        } catch (JSONException e) {
-            if ("invalid.com".equals(tenantDomain)) {
-                // This is expected. We don't validate for invalid tenants.
-                assertTrue(true);
-            } else if (tenantDomain == null) {
-                assertTrue(result.contains("Error while generating the keyset for"),
-                        "Error message for thrown exception is not found");
-            } else {
-                fail("Unexpected exception: " + e.getMessage());
-            }
+        Object entity = response.getEntity();
+        if (entity instanceof byte[]) {
+            return new String((byte[]) entity, StandardCharsets.UTF_8);
         }
-
-        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+        return (String) entity;
     }
 
     private void mockOAuthServerConfiguration() throws Exception {
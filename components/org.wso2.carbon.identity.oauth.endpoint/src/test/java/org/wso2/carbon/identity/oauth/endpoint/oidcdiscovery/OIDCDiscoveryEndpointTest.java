@@ -23,6 +23,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.discovery.DefaultOIDCProcessor;
 import org.wso2.carbon.identity.discovery.OIDCDiscoveryEndPointException;
@@ -30,6 +31,8 @@ import org.wso2.carbon.identity.discovery.OIDProviderConfigResponse;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.endpoint.oidcdiscovery.impl.OIDProviderJSONResponseBuilder;
 import org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCacheEntry;
 import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 
 import java.lang.reflect.Field;
@@ -40,16 +43,23 @@ import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 /**
  * This class does unit test coverage for OIDCDiscoveryEndpoint class.
  */
-@PrepareForTest({IdentityUtil.class, EndpointUtil.class})
+@PrepareForTest({IdentityUtil.class, EndpointUtil.class, IdentityTenantUtil.class, OIDCDiscoveryDocumentCache.class})
 public class OIDCDiscoveryEndpointTest extends PowerMockIdentityBaseTest {
 
     @Mock
@@ -89,6 +99,57 @@ public class OIDCDiscoveryEndpointTest extends PowerMockIdentityBaseTest {
             String tokenEp, Map<String, Object> configMap, int expectedResponse)
             throws Exception {
 
+        ThreadLocal<Map<String, Object>> threadLocalProperties = prepareThreadLocalProperties();
+        mockDiscoveryDocumentCache();
+
+        mockStatic(EndpointUtil.class);
+        when(EndpointUtil.getOIDCService()).thenReturn(defaultOIDCProcessor);
+        when(defaultOIDCProcessor.getResponse(any(HttpServletRequest.class), any(String.class)))
+                .thenReturn(oidProviderConfigResponse);
+        when(oidProviderConfigResponse.getConfigMap()).thenReturn(configMap);
+        when(defaultOIDCProcessor.handleError(any(OIDCDiscoveryEndPointException.class)))
+                .thenReturn(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        oidcDiscoveryEndpoint.setOidProviderResponseBuilder(new OIDProviderJSONResponseBuilder());
+        Response response = oidcDiscoveryEndpoint.getOIDProviderConfiguration(tokenEp, httpServletRequest);
+        Assert.assertEquals(expectedResponse, response.getStatus());
+        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+    }
+
+    @Test
+    public void testConditionalGetOIDProviderConfiguration() throws Exception {
+
+        ThreadLocal<Map<String, Object>> threadLocalProperties = prepareThreadLocalProperties();
+        OIDCDiscoveryDocumentCache oidcDiscoveryDocumentCache = mockDiscoveryDocumentCache();
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        OIDCDiscoveryDocumentCacheEntry document = new OIDCDiscoveryDocumentCacheEntry("{\"issuer\":\"issuer\"}");
+        when(oidcDiscoveryDocumentCache.getDocument(eq(OIDCDiscoveryDocumentCache.PROVIDER_CONFIGURATION),
+                anyInt())).thenReturn(document);
+        mockStatic(EndpointUtil.class);
+        when(EndpointUtil.getOIDCService()).thenReturn(defaultOIDCProcessor);
+        oidcDiscoveryEndpoint.setOidProviderResponseBuilder(new OIDProviderJSONResponseBuilder());
+
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(document.getETag());
+        Response response = oidcDiscoveryEndpoint.getOIDProviderConfiguration("token", request);
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        Assert.assertEquals(document.getETag(), response.getHeaderString(HttpHeaders.ETAG));
+
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"outdated\"");
+        response = oidcDiscoveryEndpoint.getOIDProviderConfiguration("token", request);
+        Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Assert.assertEquals(document.getDocument(), response.getEntity());
+
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
+        when(request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE)).thenReturn(document.getLastModified());
+        response = oidcDiscoveryEndpoint.getOIDProviderConfiguration("token", request);
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+        verify(oidcDiscoveryDocumentCache, never()).addDocument(anyString(),
+                any(OIDCDiscoveryDocumentCacheEntry.class), anyInt());
+        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+    }
+
+    private ThreadLocal<Map<String, Object>> prepareThreadLocalProperties() throws Exception {
+
         ThreadLocal<Map<String, Object>> threadLocalProperties = new ThreadLocal() {
             protected Map<String, Object> initialValue() {
 
@@ -116,18 +177,17 @@ public class OIDCDiscoveryEndpointTest extends PowerMockIdentityBaseTest {
 
         threadLocalPropertiesField.setAccessible(true);
         threadLocalPropertiesField.set(identityUtilObj, threadLocalProperties);
+        return threadLocalProperties;
+    }
 
-        mockStatic(EndpointUtil.class);
-        when(EndpointUtil.getOIDCService()).thenReturn(defaultOIDCProcessor);
-        when(defaultOIDCProcessor.getResponse(any(HttpServletRequest.class), any(String.class)))
-                .thenReturn(oidProviderConfigResponse);
-        when(oidProviderConfigResponse.getConfigMap()).thenReturn(configMap);
-        when(defaultOIDCProcessor.handleError(any(OIDCDiscoveryEndPointException.class)))
-                .thenReturn(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-        oidcDiscoveryEndpoint.setOidProviderResponseBuilder(new OIDProviderJSONResponseBuilder());
-        Response response = oidcDiscoveryEndpoint.getOIDProviderConfiguration(tokenEp, httpServletRequest);
-        Assert.assertEquals(expectedResponse, response.getStatus());
-        threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
+    private OIDCDiscoveryDocumentCache mockDiscoveryDocumentCache() {
+
+        OIDCDiscoveryDocumentCache oidcDiscoveryDocumentCache = mock(OIDCDiscoveryDocumentCache.class);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(MultitenantConstants.SUPER_TENANT_ID);
+        mockStatic(OIDCDiscoveryDocumentCache.class);
+        when(OIDCDiscoveryDocumentCache.getInstance()).thenReturn(oidcDiscoveryDocumentCache);
+        return oidcDiscoveryDocumentCache;
     }
 
     private Map<String, Object> getSampleConfigMap() {
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.endpoint.revoke;
+
+import com.nimbusds.jose.util.Base64URL;
+import org.apache.commons.codec.binary.Hex;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.tokenprocessor.TokenHasher;
+import org.wso2.carbon.identity.oauth2.validators.RevokedTokenRegistry;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import static org.mockito.Matchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for RevocationStatusEndpoint.
+ */
+@PrepareForTest({RevokedTokenRegistry.class, OAuthServerConfiguration.class, IdentityUtil.class})
+public class RevocationStatusEndpointTest extends PowerMockIdentityBaseTest {
+
+    private static final String LIST_ID = "2f1c0e7a-5b8d-4c3e-9a6f-1d2e3f4a5b6c";
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    @Mock
+    private RevokedTokenRegistry mockedRegistry;
+
+    @Mock
+    private OAuthServerConfiguration mockedServerConfig;
+
+    private TokenHasher tokenHasher;
+    private String revokedTokenHash;
+    private String newlyRevokedTokenHash;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        mockStatic(RevokedTokenRegistry.class);
+        when(RevokedTokenRegistry.getInstance()).thenReturn(mockedRegistry);
+        mockStatic(OAuthServerConfiguration.class);
+        when(OAuthServerConfiguration.getInstance()).thenReturn(mockedServerConfig);
+        when(mockedServerConfig.getHashAlgorithm()).thenReturn(HASH_ALGORITHM);
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getProperty(anyString())).thenReturn(null);
+
+        tokenHasher = TokenHasher.getInstance(HASH_ALGORITHM);
+        revokedTokenHash = tokenHasher.hash("revokedJti");
+        newlyRevokedTokenHash = tokenHasher.hash("newlyRevokedJti");
+        when(mockedRegistry.isStatusListEnabled()).thenReturn(true);
+        when(mockedRegistry.isReconciled()).thenReturn(true);
+        when(mockedRegistry.getListId()).thenReturn(LIST_ID);
+        when(mockedRegistry.getVersion()).thenReturn(2L);
+        when(mockedRegistry.getRevokedAccessTokenHashes(0, 2))
+                .thenReturn(Arrays.asList(revokedTokenHash, newlyRevokedTokenHash));
+        when(mockedRegistry.getRevokedAccessTokenHashes(1, 2))
+                .thenReturn(Collections.singletonList(newlyRevokedTokenHash));
+    }
+
+    @Test
+    public void testGetFullStatusList() throws Exception {
+
+        RevocationStatusEndpoint endpoint = new RevocationStatusEndpoint();
+        Response response = endpoint.getRevocationStatus(null, null, null);
+        assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
+
+        JSONObject statusList = new JSONObject(new String((byte[]) response.getEntity(), StandardCharsets.UTF_8));
+        assertEquals(statusList.getString("list_id"), LIST_ID);
+        assertEquals(statusList.getLong("version"), 2);
+        assertEquals(statusList.getString("hash_alg"), HASH_ALGORITHM);
+        assertEquals(statusList.getInt("count"), 2);
+
+        byte[] filter = new Base64URL(statusList.getString("filter")).decode();
+        assertEquals(filter.length * 8, statusList.getInt("bits"));
+        int hashCount = statusList.getInt("hashes");
+        assertTrue(RevocationStatusSnapshot.mightContain(filter, hashCount, getDigest(revokedTokenHash)));
+        assertTrue(RevocationStatusSnapshot.mightContain(filter, hashCount, getDigest(newlyRevokedTokenHash)));
+        assertFalse(RevocationStatusSnapshot.mightContain(filter, hashCount,
+                getDigest(tokenHasher.hash("activeJti"))));
+
+        // The list is served from the snapshot until the version changes.
+        String eTag = response.getHeaderString(HttpHeaders.ETAG);
+        Response notModifiedResponse = endpoint.getRevocationStatus(null, null, eTag);
+        assertEquals(notModifiedResponse.getStatus(), HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void testGetDeltaStatusList() throws Exception {
+
+        Response response = new RevocationStatusEndpoint().getRevocationStatus(LIST_ID, "1", null);
+        assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
+
+        JSONObject delta = new JSONObject(new String((byte[]) response.getEntity(), StandardCharsets.UTF_8));
+        assertEquals(delta.getLong("since"), 1);
+        assertEquals(delta.getLong("version"), 2);
+        JSONArray revokedTokens = delta.getJSONArray("revoked");
+        assertEquals(revokedTokens.length(), 1);
+        assertEquals(revokedTokens.getString(0), tokenHasher.getDigest(newlyRevokedTokenHash));
+
+        // A version of another node results in the full list.
+        response = new RevocationStatusEndpoint().getRevocationStatus("otherListId", "1", null);
+        JSONObject statusList = new JSONObject(new String((byte[]) response.getEntity(), StandardCharsets.UTF_8));
+        assertTrue(statusList.has("filter"));
+    }
+
+    @Test
+    public void testStatusListNotAvailable() {
+
+        when(mockedRegistry.isReconciled()).thenReturn(false);
+        assertEquals(new RevocationStatusEndpoint().getRevocationStatus(null, null, null).getStatus(),
+                HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        when(mockedRegistry.isStatusListEnabled()).thenReturn(false);
+        assertEquals(new RevocationStatusEndpoint().getRevocationStatus(null, null, null).getStatus(),
+                HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    private byte[] getDigest(String accessTokenHash) throws Exception {
+
+        return Hex.decodeHex(tokenHasher.getDigest(accessTokenHash).toCharArray());
+    }
+}
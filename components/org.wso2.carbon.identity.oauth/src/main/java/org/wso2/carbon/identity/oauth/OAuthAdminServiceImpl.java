@@ -16,6 +16,7 @@
 
 package org.wso2.carbon.identity.oauth;
 
+import com.nimbusds.jose.JWSAlgorithm;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
@@ -32,6 +33,7 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.cache.AppInfoCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
+import org.wso2.carbon.identity.oauth.cache.VerifiedClientSecretCache;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
@@ -58,8 +60,10 @@ import org.wso2.carbon.identity.oauth2.authz.handlers.ResponseTypeHandler;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.ReadReplicaRouter;
 import org.wso2.carbon.identity.oauth2.validators.OAuth2ScopeValidator;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
@@ -327,6 +331,8 @@ public class OAuthAdminServiceImpl {
                         }
                         app.setBypassClientCredentials(application.isBypassClientCredentials());
                         app.setRenewRefreshTokenEnabled(application.getRenewRefreshTokenEnabled());
+                        validateTokenSignatureAlgorithm(application.getTokenSignatureAlgorithm(), tenantDomain);
+                        app.setTokenSignatureAlgorithm(application.getTokenSignatureAlgorithm());
                         validateBindingType(application.getTokenBindingType());
                         app.setTokenBindingType(application.getTokenBindingType());
                         app.setTokenBindingValidationEnabled(application.isTokenBindingValidationEnabled());
@@ -409,6 +415,43 @@ public class OAuthAdminServiceImpl {
         }
     }
 
+    /**
+     * Validate the token signature algorithm of the application. Only the asymmetric algorithms which can be used
+     * with the signing key of the tenant are allowed, i.e. the RSA algorithms for an RSA key and the ECDSA algorithm
+     * matching the curve of an EC key.
+     *
+     * @param tokenSignatureAlgorithm Signature algorithm in the identity.xml format, e.g. SHA256withEC.
+     * @param tenantDomain            Tenant domain of the application.
+     * @throws IdentityOAuthAdminException If the algorithm is not allowed or the signing key cannot be loaded.
+     */
+    private void validateTokenSignatureAlgorithm(String tokenSignatureAlgorithm, String tenantDomain)
+            throws IdentityOAuthAdminException {
+
+        if (StringUtils.isBlank(tokenSignatureAlgorithm)) {
+            return;
+        }
+        JWSAlgorithm jwsAlgorithm;
+        try {
+            jwsAlgorithm = OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm(tokenSignatureAlgorithm);
+        } catch (IdentityOAuth2Exception e) {
+            jwsAlgorithm = null;
+        }
+        if (jwsAlgorithm == null || !(JWSAlgorithm.Family.RSA.contains(jwsAlgorithm) ||
+                JWSAlgorithm.Family.EC.contains(jwsAlgorithm))) {
+            String msg = String.format("'%s' token signature algorithm is not allowed.", tokenSignatureAlgorithm);
+            throw handleClientError(INVALID_REQUEST, msg);
+        }
+        try {
+            if (!TenantSigningKeyRegistry.getInstance().isSupported(tenantDomain, jwsAlgorithm)) {
+                String msg = String.format("'%s' token signature algorithm cannot be used with the signing key of " +
+                        "the tenant: %s.", tokenSignatureAlgorithm, tenantDomain);
+                throw handleClientError(INVALID_REQUEST, msg);
+            }
+        } catch (IdentityOAuth2Exception e) {
+            throw handleError("Error while loading the signing key of the tenant: " + tenantDomain, e);
+        }
+    }
+
     private IdentityOAuthClientException handleClientError(Error errorMessage, String msg) {
 
         return new IdentityOAuthClientException(errorMessage.getErrorCode(), msg);
@@ -535,6 +578,8 @@ public class OAuthAdminServiceImpl {
             oauthappdo.setBackChannelLogoutUrl(consumerAppDTO.getBackChannelLogoutUrl());
             oauthappdo.setFrontchannelLogoutUrl(consumerAppDTO.getFrontchannelLogoutUrl());
             oauthappdo.setRenewRefreshTokenEnabled(consumerAppDTO.getRenewRefreshTokenEnabled());
+            validateTokenSignatureAlgorithm(consumerAppDTO.getTokenSignatureAlgorithm(), tenantDomain);
+            oauthappdo.setTokenSignatureAlgorithm(consumerAppDTO.getTokenSignatureAlgorithm());
             validateBindingType(consumerAppDTO.getTokenBindingType());
             oauthappdo.setTokenBindingType(consumerAppDTO.getTokenBindingType());
             oauthappdo.setTokenRevocationWithIDPSessionTerminationEnabled(consumerAppDTO
@@ -543,6 +588,7 @@ public class OAuthAdminServiceImpl {
         }
         dao.updateConsumerApplication(oauthappdo);
         AppInfoCache.getInstance().addToCache(oauthappdo.getOauthConsumerKey(), oauthappdo);
+        VerifiedClientSecretCache.getInstance().clearVerified(oauthConsumerKey);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Oauth Application update success : " + consumerAppDTO.getApplicationName() + " in " +
                     "tenant domain: " + tenantDomain);
@@ -811,6 +857,7 @@ public class OAuthAdminServiceImpl {
             properties.setProperty(OAuthConstants.ACTION_PROPERTY_KEY, OAuthConstants.ACTION_REVOKE);
 
             AppInfoCache.getInstance().clearCacheEntry(consumerKey);
+            VerifiedClientSecretCache.getInstance().clearVerified(consumerKey);
             updateAppAndRevokeTokensAndAuthzCodes(consumerKey, properties);
 
             if (LOG.isDebugEnabled()) {
@@ -853,6 +900,7 @@ public class OAuthAdminServiceImpl {
         properties.setProperty(OAuthConstants.OAUTH_APP_NEW_STATE, APP_STATE_ACTIVE);
 
         AppInfoCache.getInstance().clearCacheEntry(consumerKey);
+        VerifiedClientSecretCache.getInstance().clearVerified(consumerKey);
         updateAppAndRevokeTokensAndAuthzCodes(consumerKey, properties);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Client Secret for OAuth app with consumerKey: " + consumerKey + " updated in OAuthCache.");
@@ -879,8 +927,7 @@ public class OAuthAdminServiceImpl {
                 accessTokens[countToken] = token;
                 countToken++;
 
-                OAuthCacheKey cacheKeyToken = new OAuthCacheKey(token);
-                OAuthCache.getInstance().clearCacheEntry(cacheKeyToken);
+                OAuthUtil.clearOAuthCacheByAccessToken(token);
 
                 String scope = buildScopeString(detailToken.getScope());
                 String authorizedUser = detailToken.getAuthzUser().getUserId();
@@ -974,6 +1021,7 @@ public class OAuthAdminServiceImpl {
         // Remove client credentials from cache.
         OAuthCache.getInstance().clearCacheEntry(new OAuthCacheKey(consumerKey));
         AppInfoCache.getInstance().clearCacheEntry(consumerKey);
+        VerifiedClientSecretCache.getInstance().clearVerified(consumerKey);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Client credentials are removed from the cache for OAuth App with consumerKey: " + consumerKey);
         }
@@ -1429,14 +1477,13 @@ public class OAuthAdminServiceImpl {
         String token = accessTokenDO.getAccessToken();
         AuthenticatedUser authenticatedUser = accessTokenDO.getAuthzUser();
 
-        OAuthCacheKey cacheKeyToken = new OAuthCacheKey(token);
         String scope = buildScopeString(accessTokenDO.getScope());
         TokenBinding tokenBinding = accessTokenDO.getTokenBinding();
         String tokenBindingReference = (tokenBinding != null &&
                 StringUtils.isNotBlank(tokenBinding.getBindingReference())) ?
                 tokenBinding.getBindingReference() : NONE;
 
-        OAuthCache.getInstance().clearCacheEntry(cacheKeyToken);
+        OAuthUtil.clearOAuthCacheByAccessToken(token);
         OAuthUtil.clearOAuthCache(consumerKey, authenticatedUser, scope, tokenBindingReference);
         OAuthUtil.clearOAuthCache(consumerKey, authenticatedUser, scope);
         OAuthUtil.clearOAuthCache(consumerKey, authenticatedUser);
@@ -1752,7 +1799,15 @@ public class OAuthAdminServiceImpl {
         }
 
         OAuthAppDAO dao = new OAuthAppDAO();
-        oauthApp = dao.getAppInformation(consumerKey);
+        // An application which is cached is read from the primary database, as a stale replica row would be kept in
+        // the cache.
+        boolean cached = AppInfoCache.getInstance().isEnabled();
+        ReadReplicaRouter.getInstance().startPrimaryReads(cached);
+        try {
+            oauthApp = dao.getAppInformation(consumerKey);
+        } finally {
+            ReadReplicaRouter.getInstance().endPrimaryReads(cached);
+        }
         if (oauthApp != null) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("OAuth app with consumerKey: " + consumerKey + " retrieved from database.");
@@ -18,7 +18,6 @@
 
 package org.wso2.carbon.identity.oauth;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.Charsets;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -44,9 +43,13 @@ import org.wso2.carbon.identity.oauth.util.ClaimCacheKey;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2ClientException;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2ServerException;
+import org.wso2.carbon.identity.oauth2.dao.AccessTokenDAO;
+import org.wso2.carbon.identity.oauth2.dao.AccessTokenWriteBehindPersister;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.validators.IntrospectionResultCache;
 import org.wso2.carbon.identity.organization.management.service.exception.OrganizationManagementException;
 import org.wso2.carbon.registry.core.utils.UUIDGenerator;
 import org.wso2.carbon.user.api.Tenant;
@@ -79,6 +82,8 @@ public final class OAuthUtil {
 
     public static final Log LOG = LogFactory.getLog(OAuthUtil.class);
     private static final String ALGORITHM = "HmacSHA1";
+    private static final String USER_TOKEN_REVOCATION_BATCH_SIZE = "OAuth.UserTokenRevocation.BatchSize";
+    private static final int DEFAULT_USER_TOKEN_REVOCATION_BATCH_SIZE = 100;
 
     private OAuthUtil() {
 
@@ -348,9 +353,53 @@ public final class OAuthUtil {
             LOG.debug("Clearing cache for access token as cache key of user: " +
                     accessTokenDO.getAuthzUser().getLoggableUserId());
         }
-        OAuthCacheKey cacheKey = new OAuthCacheKey(accessTokenDO.getAccessToken());
         String tenantDomain = accessTokenDO.getAuthzUser().getTenantDomain();
-        OAuthCache.getInstance().clearCacheEntry(cacheKey,  tenantDomain);
+        clearOAuthCacheByAccessToken(accessTokenDO.getAccessToken(), tenantDomain);
+    }
+
+    /**
+     * Clear the OAuthCache entry of an access token.
+     *
+     * @param accessToken Plain text access token or the processed access token read from the database.
+     */
+    public static void clearOAuthCacheByAccessToken(String accessToken) {
+
+        clearOAuthCacheByAccessToken(accessToken, null);
+    }
+
+    /**
+     * Clear the OAuthCache entry of an access token. When token hashing is enabled the entries are indexed by the
+     * hashed token, while the given token can either be the plain text token or the hashed token read from the
+     * database. Hence, both the given token and its hash are cleared. The cached introspection result of the token is
+     * cleared as well.
+     *
+     * @param accessToken  Plain text access token or the processed access token read from the database.
+     * @param tenantDomain Tenant domain of the token. The current tenant is used if null.
+     */
+    public static void clearOAuthCacheByAccessToken(String accessToken, String tenantDomain) {
+
+        if (StringUtils.isBlank(accessToken)) {
+            return;
+        }
+        clearAccessTokenCacheEntry(accessToken, tenantDomain);
+        if (OAuth2Util.isHashEnabled()) {
+            try {
+                clearAccessTokenCacheEntry(OAuth2Util.getAccessTokenCacheKeyString(accessToken), tenantDomain);
+            } catch (IdentityOAuth2Exception e) {
+                LOG.error("Error while hashing the access token to clear the OAuthCache entry.", e);
+            }
+        }
+        IntrospectionResultCache.getInstance().clearResult(accessToken);
+    }
+
+    private static void clearAccessTokenCacheEntry(String accessTokenCacheKeyString, String tenantDomain) {
+
+        OAuthCacheKey cacheKey = new OAuthCacheKey(accessTokenCacheKeyString);
+        if (tenantDomain == null) {
+            OAuthCache.getInstance().clearCacheEntry(cacheKey);
+        } else {
+            OAuthCache.getInstance().clearCacheEntry(cacheKey, tenantDomain);
+        }
     }
 
     public static AuthenticatedUser getAuthenticatedUser(String fullyQualifiedUserName) {
@@ -446,6 +495,7 @@ public final class OAuthUtil {
         dto.setIdTokenEncryptionEnabled(appDO.isIdTokenEncryptionEnabled());
         dto.setIdTokenEncryptionAlgorithm(appDO.getIdTokenEncryptionAlgorithm());
         dto.setIdTokenEncryptionMethod(appDO.getIdTokenEncryptionMethod());
+        dto.setTokenSignatureAlgorithm(appDO.getTokenSignatureAlgorithm());
         dto.setBackChannelLogoutUrl(appDO.getBackChannelLogoutUrl());
         dto.setFrontchannelLogoutUrl(appDO.getFrontchannelLogoutUrl());
         dto.setTokenType(appDO.getTokenType());
@@ -494,6 +544,52 @@ public final class OAuthUtil {
         }
     }
 
+    /**
+     * This will be called after a batch of tokens is revoked through listeners directly.
+     *
+     * @param accessTokenDOs Revoked access tokens.
+     * @param params         Additional parameters.
+     */
+    public static void invokePostRevocationBySystemListeners(List<AccessTokenDO> accessTokenDOs,
+                                                             Map<String, Object> params) {
+
+        OAuthEventInterceptor oAuthEventInterceptorProxy = OAuthComponentServiceHolder.getInstance()
+                .getOAuthEventInterceptorProxy();
+        if (oAuthEventInterceptorProxy == null || !oAuthEventInterceptorProxy.isEnabled()) {
+            return;
+        }
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            try {
+                oAuthEventInterceptorProxy.onPostTokenRevocationBySystem(accessTokenDO, params);
+            } catch (IdentityOAuth2Exception e) {
+                LOG.error("Error while triggering listener for post token revocation by system.", e);
+            }
+        }
+    }
+
+    /**
+     * This will be called before a batch of tokens is revoked through listeners directly.
+     *
+     * @param accessTokenDOs Access tokens to be revoked.
+     * @param params         Additional parameters.
+     */
+    public static void invokePreRevocationBySystemListeners(List<AccessTokenDO> accessTokenDOs,
+                                                            Map<String, Object> params) {
+
+        OAuthEventInterceptor oAuthEventInterceptorProxy = OAuthComponentServiceHolder.getInstance()
+                .getOAuthEventInterceptorProxy();
+        if (oAuthEventInterceptorProxy == null || !oAuthEventInterceptorProxy.isEnabled()) {
+            return;
+        }
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            try {
+                oAuthEventInterceptorProxy.onPreTokenRevocationBySystem(accessTokenDO, params);
+            } catch (IdentityOAuth2Exception e) {
+                LOG.error("Error while triggering listener for pre token revocation by system.", e);
+            }
+        }
+    }
+
     /**
      * Remove user claims from ClaimCache
      *
@@ -542,101 +638,85 @@ public final class OAuthUtil {
             }
         }
 
-        Set<String> clientIds;
+        boolean isTokenPreservingAtPasswordUpdateEnabled =
+                Boolean.parseBoolean(IdentityUtil.getProperty(PRESERVE_LOGGED_IN_SESSION_AT_PASSWORD_UPDATE));
+        String currentTokenBindingReference = "";
+        String currentTokenReference = "";
+        if (isTokenPreservingAtPasswordUpdateEnabled) {
+            if (IdentityUtil.threadLocalProperties.get().get(CURRENT_SESSION_IDENTIFIER) != null) {
+                currentTokenBindingReference = (String) IdentityUtil.threadLocalProperties.get()
+                        .get(CURRENT_SESSION_IDENTIFIER);
+            }
+            if (IdentityUtil.threadLocalProperties.get().get(CURRENT_TOKEN_IDENTIFIER) != null) {
+                currentTokenReference = (String) IdentityUtil.threadLocalProperties.get()
+                        .get(CURRENT_TOKEN_IDENTIFIER);
+            }
+        }
+
+        // The user id is resolved once, as it is a part of the cache keys of all the tokens of the user.
+        String userId = null;
         try {
-            // get all the distinct client Ids authorized by this user
-            clientIds = OAuthTokenPersistenceFactory.getInstance()
-                    .getTokenManagementDAO().getAllTimeAuthorizedClientIds(authenticatedUser);
-        } catch (IdentityOAuth2Exception e) {
-            LOG.error("Error occurred while retrieving apps authorized by User ID : " + authenticatedUser, e);
-            throw new UserStoreException(e);
+            userId = authenticatedUser.getUserId();
+        } catch (UserIdNotFoundException e) {
+            LOG.error("User id cannot be found for user: " + authenticatedUser.getLoggableUserId());
         }
-        boolean isErrorOnRevokingTokens = false;
-        for (String clientId : clientIds) {
-            try {
-                Set<AccessTokenDO> accessTokenDOs;
-                try {
-                    // retrieve all ACTIVE or EXPIRED access tokens for particular client authorized by this user
-                    accessTokenDOs = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                            .getAccessTokens(clientId, authenticatedUser, userStoreDomain, true);
-                } catch (IdentityOAuth2Exception e) {
-                    String errorMsg = "Error occurred while retrieving access tokens issued for " +
-                            "Client ID : " + clientId + ", User ID : " + authenticatedUser;
-                    LOG.error(errorMsg, e);
-                    throw new UserStoreException(e);
-                }
 
-                if (LOG.isDebugEnabled() && CollectionUtils.isNotEmpty(accessTokenDOs)) {
-                    LOG.debug("ACTIVE or EXPIRED access tokens found for the client: " + clientId + " for the user: "
-                            + username);
-                }
-                boolean isTokenPreservingAtPasswordUpdateEnabled =
-                        Boolean.parseBoolean(IdentityUtil.getProperty(PRESERVE_LOGGED_IN_SESSION_AT_PASSWORD_UPDATE));
-                String currentTokenBindingReference = "";
-                String currentTokenReference = "";
-                if (isTokenPreservingAtPasswordUpdateEnabled) {
-                    if (IdentityUtil.threadLocalProperties.get().get(CURRENT_SESSION_IDENTIFIER) != null) {
-                        currentTokenBindingReference = (String) IdentityUtil.threadLocalProperties.get()
-                                .get(CURRENT_SESSION_IDENTIFIER);
-                    }
-                    if (IdentityUtil.threadLocalProperties.get().get(CURRENT_TOKEN_IDENTIFIER) != null) {
-                        currentTokenReference = (String) IdentityUtil.threadLocalProperties.get()
-                                .get(CURRENT_TOKEN_IDENTIFIER);
-                    }
-                }
+        // Tokens pending write-behind persistence are not yet in the database, hence they are captured before the
+        // database is paged through so that a token persisted in between is found in at least one of them.
+        List<AccessTokenDO> pendingAccessTokenDOs =
+                AccessTokenWriteBehindPersister.getInstance().getPendingAccessTokensOfUser(authenticatedUser);
+        Set<String> revokedTokenIds = new HashSet<>();
 
-                Set<String> scopes = new HashSet<>();
-                List<AccessTokenDO> accessTokens = new ArrayList<>();
-                boolean tokenBindingEnabled = false;
-                for (AccessTokenDO accessTokenDO : accessTokenDOs) {
-                    // Clear cache
-                    String tokenBindingReference = NONE;
-                    if (accessTokenDO.getTokenBinding() != null && StringUtils
-                            .isNotBlank(accessTokenDO.getTokenBinding().getBindingReference())) {
-                        tokenBindingReference = accessTokenDO.getTokenBinding().getBindingReference();
-                        tokenBindingEnabled = true;
-                        // Skip current token from being revoked.
-                        if (StringUtils.equals(accessTokenDO.getTokenBinding().getBindingValue(),
-                                currentTokenBindingReference)) {
-                            continue;
-                        }
-                    }
-                    // Skip current token from being revoked. When the token is generated using password grant.
-                    if (isTokenPreservingAtPasswordUpdateEnabled && StringUtils.equals(accessTokenDO.getTokenId(),
-                            currentTokenReference)) {
-                        continue;
-                    }
-                    OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                            OAuth2Util.buildScopeString(accessTokenDO.getScope()), tokenBindingReference);
-                    OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                            OAuth2Util.buildScopeString(accessTokenDO.getScope()), tokenBindingReference);
-                    OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                            OAuth2Util.buildScopeString(accessTokenDO.getScope()));
-                    OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
-                    OAuthUtil.clearOAuthCache(accessTokenDO);
-                    // Get unique scopes list
-                    scopes.add(OAuth2Util.buildScopeString(accessTokenDO.getScope()));
-                    accessTokens.add(accessTokenDO);
-                }
+        AccessTokenDAO accessTokenDAO = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO();
+        int batchSize = IdentityConfigUtils.getPositiveIntProperty(USER_TOKEN_REVOCATION_BATCH_SIZE,
+                DEFAULT_USER_TOKEN_REVOCATION_BATCH_SIZE);
+        boolean isErrorOnRevokingTokens = false;
+        String lastTokenId = null;
+        List<AccessTokenDO> accessTokenDOs;
+        do {
+            try {
+                // Retrieve the next batch of ACTIVE or EXPIRED access tokens authorized by this user for any client.
+                accessTokenDOs = accessTokenDAO.getAccessTokensOfUser(authenticatedUser, userStoreDomain,
+                        lastTokenId, batchSize);
+            } catch (IdentityOAuth2Exception e) {
+                LOG.error("Error occurred while retrieving access tokens issued for User ID : " + authenticatedUser, e);
+                throw new UserStoreException(e);
+            }
+            if (accessTokenDOs.isEmpty()) {
+                break;
+            }
+            lastTokenId = accessTokenDOs.get(accessTokenDOs.size() - 1).getTokenId();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(accessTokenDOs.size() + " ACTIVE or EXPIRED access tokens found for the user: " + username);
+            }
 
-                if (!tokenBindingEnabled && OAuth2Util.isHashDisabled()) {
-                    revokeLatestTokensWithScopes(scopes, clientId, authenticatedUser);
-                } else {
-                    // If the hashed token is enabled, there can be multiple active tokens with a user with same scope.
-                    // Also, if token binding is enabled, there can be multiple active tokens for the same user, scope
-                    // and client combination.
-                    // So need to revoke all the tokens.
-                    try {
-                        revokeTokens(accessTokens);
-                    } catch (IdentityOAuth2Exception e) {
-                        String errorMsg = "Error occurred while revoking Access Token";
-                        LOG.error(errorMsg, e);
-                        throw new UserStoreException(e);
-                    }
-                }
-            } catch (UserStoreException e) {
+            for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+                revokedTokenIds.add(accessTokenDO.getTokenId());
+            }
+            List<AccessTokenDO> accessTokens = getTokensToRevoke(accessTokenDOs, currentTokenBindingReference,
+                    isTokenPreservingAtPasswordUpdateEnabled, currentTokenReference);
+            try {
+                revokeTokens(authenticatedUser, userStoreDomain, userId, accessTokens);
+            } catch (IdentityOAuth2Exception e) {
+                LOG.error("Error occurred while revoking Access Tokens of User ID : " + authenticatedUser, e);
                 // Set a flag to throw an exception after revoking all the possible access tokens.
-                // The error details are logged at the same place they are throwing.
+                isErrorOnRevokingTokens = true;
+            }
+        } while (accessTokenDOs.size() == batchSize);
+
+        // Revoke the pending tokens which were not persisted by the time the database was paged through.
+        pendingAccessTokenDOs.removeIf(accessTokenDO -> revokedTokenIds.contains(accessTokenDO.getTokenId()));
+        if (!pendingAccessTokenDOs.isEmpty()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(pendingAccessTokenDOs.size() + " access tokens pending persistence found for the user: " +
+                        username);
+            }
+            try {
+                revokeTokens(authenticatedUser, userStoreDomain, userId, getTokensToRevoke(pendingAccessTokenDOs,
+                        currentTokenBindingReference, isTokenPreservingAtPasswordUpdateEnabled,
+                        currentTokenReference));
+            } catch (IdentityOAuth2Exception e) {
+                LOG.error("Error occurred while revoking pending Access Tokens of User ID : " + authenticatedUser, e);
                 isErrorOnRevokingTokens = true;
             }
         }
@@ -648,49 +728,94 @@ public final class OAuthUtil {
         return true;
     }
 
-    private static void revokeTokens(List<AccessTokenDO> accessTokens) throws IdentityOAuth2Exception {
-
-        if (!accessTokens.isEmpty()) {
-            // Revoking token from database.
-            for (AccessTokenDO accessToken : accessTokens) {
-                OAuthUtil.invokePreRevocationBySystemListeners(accessToken, Collections.emptyMap());
-                OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                        .revokeAccessTokens(new String[]{accessToken.getAccessToken()}, OAuth2Util.isHashEnabled());
-                OAuthUtil.invokePostRevocationBySystemListeners(accessToken, Collections.emptyMap());
+    /**
+     * Filter out the token of the current session from the tokens of the user to be revoked.
+     */
+    private static List<AccessTokenDO> getTokensToRevoke(List<AccessTokenDO> accessTokenDOs,
+                                                         String currentTokenBindingReference,
+                                                         boolean isTokenPreservingAtPasswordUpdateEnabled,
+                                                         String currentTokenReference) {
+
+        List<AccessTokenDO> accessTokens = new ArrayList<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            // Skip current token from being revoked.
+            if (accessTokenDO.getTokenBinding() != null && StringUtils
+                    .isNotBlank(accessTokenDO.getTokenBinding().getBindingReference()) && StringUtils.equals(
+                    accessTokenDO.getTokenBinding().getBindingValue(), currentTokenBindingReference)) {
+                continue;
+            }
+            // Skip current token from being revoked. When the token is generated using password grant.
+            if (isTokenPreservingAtPasswordUpdateEnabled && StringUtils.equals(accessTokenDO.getTokenId(),
+                    currentTokenReference)) {
+                continue;
             }
+            accessTokens.add(accessTokenDO);
         }
+        return accessTokens;
     }
 
-    private static void revokeLatestTokensWithScopes(Set<String> scopes, String clientId,
-                                                        AuthenticatedUser authenticatedUser) throws
-            UserStoreException {
+    /**
+     * Revoke a batch of access tokens of the user. The tokens are revoked with a single update, while the caches are
+     * cleared and the listeners are invoked for the batch.
+     */
+    private static void revokeTokens(AuthenticatedUser authenticatedUser, String userStoreDomain, String userId,
+                                     List<AccessTokenDO> accessTokens) throws IdentityOAuth2Exception {
 
-        for (String scope : scopes) {
-            AccessTokenDO scopedToken = null;
-            try {
-                // Retrieve latest access token for particular client, user and scope combination
-                // if its ACTIVE or EXPIRED.
-                scopedToken = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                        .getLatestAccessToken(clientId, authenticatedUser, authenticatedUser.getUserStoreDomain(),
-                                scope, true);
-            } catch (IdentityOAuth2Exception e) {
-                String errorMsg = "Error occurred while retrieving latest access token issued for Client ID : " +
-                        clientId + ", User ID : " + authenticatedUser + " and Scope : " + scope;
-                LOG.error(errorMsg, e);
-                throw new UserStoreException(e);
+        if (accessTokens.isEmpty()) {
+            return;
+        }
+        clearOAuthCache(accessTokens, userId);
+        invokePreRevocationBySystemListeners(accessTokens, Collections.emptyMap());
+        OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                .revokeAccessTokensOfUser(authenticatedUser, userStoreDomain, accessTokens);
+        // Caches are cleared before revoking, hence drop any introspection result cached in between.
+        for (AccessTokenDO accessToken : accessTokens) {
+            IntrospectionResultCache.getInstance().clearResult(accessToken.getAccessToken());
+        }
+        invokePostRevocationBySystemListeners(accessTokens, Collections.emptyMap());
+    }
+
+    /**
+     * Clear the OAuthCache entries of the given access tokens of a user, i.e. the entries indexed by the client, user,
+     * scope and binding of each token and the entries indexed by the token itself.
+     *
+     * @param accessTokenDOs Access tokens of the user.
+     * @param userId         Id of the user. The entries indexed by the user are not cleared if null.
+     */
+    private static void clearOAuthCache(List<AccessTokenDO> accessTokenDOs, String userId) {
+
+        Set<OAuthCacheKey> tenantCacheKeys = new HashSet<>();
+        Set<OAuthCacheKey> cacheKeys = new HashSet<>();
+        String tenantDomain = null;
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            tenantDomain = accessTokenDO.getAuthzUser().getTenantDomain();
+            if (userId != null) {
+                String consumerKey = accessTokenDO.getConsumerKey();
+                String scope = OAuth2Util.buildScopeString(accessTokenDO.getScope());
+                String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(accessTokenDO.getAuthzUser());
+                String tokenBindingReference = NONE;
+                if (accessTokenDO.getTokenBinding() != null && StringUtils
+                        .isNotBlank(accessTokenDO.getTokenBinding().getBindingReference())) {
+                    tokenBindingReference = accessTokenDO.getTokenBinding().getBindingReference();
+                }
+                tenantCacheKeys.add(new OAuthCacheKey(OAuth2Util.buildCacheKeyStringForTokenWithUserId(consumerKey,
+                        scope, userId, authenticatedIDP, tokenBindingReference)));
+                tenantCacheKeys.add(new OAuthCacheKey(OAuth2Util.buildCacheKeyStringForTokenWithUserId(consumerKey,
+                        scope, userId, authenticatedIDP)));
+                cacheKeys.add(new OAuthCacheKey(consumerKey + ":" + userId + ":" + authenticatedIDP));
             }
-            if (scopedToken != null) {
+            tenantCacheKeys.add(new OAuthCacheKey(accessTokenDO.getAccessToken()));
+            if (OAuth2Util.isHashEnabled()) {
                 try {
-                    // Revoking token from database
-                    revokeTokens(Collections.singletonList(scopedToken));
+                    tenantCacheKeys.add(new OAuthCacheKey(
+                            OAuth2Util.getAccessTokenCacheKeyString(accessTokenDO.getAccessToken())));
                 } catch (IdentityOAuth2Exception e) {
-                    String errorMsg = "Error occurred while revoking " + "Access Token : "
-                            + scopedToken.getAccessToken() + " for user " + authenticatedUser;
-                    LOG.error(errorMsg, e);
-                    throw new UserStoreException(e);
+                    LOG.error("Error while hashing the access token to clear the OAuthCache entry.", e);
                 }
             }
         }
+        OAuthCache.getInstance().clearCacheEntries(tenantCacheKeys, tenantDomain);
+        OAuthCache.getInstance().clearCacheEntries(cacheKeys, null);
     }
 
     /**
@@ -28,6 +28,7 @@ import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.utils.CarbonUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -97,6 +98,31 @@ public class OAuthCache extends AuthenticationBaseCache<OAuthCacheKey, CacheEntr
     }
 
 
+    /**
+     * Clear the cache entries of the given keys. Unlike clearing the entries one by one, this does not look up the
+     * entries before and after clearing them.
+     *
+     * @param keys         Keys of the cache entries to be cleared.
+     * @param tenantDomain Tenant domain of the entries. The entries of the current tenant are cleared if blank.
+     */
+    public void clearCacheEntries(Collection<OAuthCacheKey> keys, String tenantDomain) {
+
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Clearing " + keys.size() + " OAuthCache entries in tenant domain: " + tenantDomain);
+        }
+        boolean isTenantDomainAvailable = StringUtils.isNotBlank(tenantDomain);
+        for (OAuthCacheKey key : keys) {
+            if (isTenantDomainAvailable) {
+                super.clearCacheEntry(key, tenantDomain);
+            } else {
+                super.clearCacheEntry(key);
+            }
+        }
+    }
+
     @Override
     public CacheEntry getValueFromCache(OAuthCacheKey key, String tenantDomain) {
 
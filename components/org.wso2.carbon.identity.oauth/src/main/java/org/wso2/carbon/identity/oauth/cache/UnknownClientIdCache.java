@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.authentication.framework.cache.AuthenticationBaseCache;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UnknownClientIdCache is used to cache the client ids which are not associated with any OAuth application.
+ * <p>
+ * Requests carrying unknown client ids miss the {@link AppInfoCache} and query the database for every request. Once
+ * the database reports a client id as unknown, it is cached so that the following lookups of the client id are
+ * rejected without querying the database. Entries are indexed by the SHA-256 hash of the client id, hence arbitrarily
+ * long client ids do not grow the cache. The time to live and the capacity of the cache are taken from the cache
+ * configuration in identity.xml, and the entry of a client id is cleared across the cluster as soon as an application
+ * is created with it.
+ * <p>
+ * Creating an application is the only event which turns an unknown client id into a known one, as the client id of an
+ * application never changes. Deleting an application leaves no entry to clear, and a client id is only cached once
+ * the database misses it. Changing the state of an application keeps its row, so its client id is never cached here.
+ */
+public class UnknownClientIdCache extends AuthenticationBaseCache<String, UnknownClientIdCacheEntry> {
+
+    private static final Log log = LogFactory.getLog(UnknownClientIdCache.class);
+
+    private static final String UNKNOWN_CLIENT_ID_CACHE_NAME = "UnknownClientIdCache";
+    private static final String ENABLE = "OAuth.UnknownClientIdCache.Enable";
+
+    private static volatile UnknownClientIdCache instance;
+
+    private final boolean negativeCachingEnabled;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    UnknownClientIdCache(boolean negativeCachingEnabled) {
+
+        super(UNKNOWN_CLIENT_ID_CACHE_NAME);
+        this.negativeCachingEnabled = negativeCachingEnabled;
+    }
+
+    /**
+     * Returns UnknownClientIdCache instance.
+     *
+     * @return instance of UnknownClientIdCache
+     */
+    public static UnknownClientIdCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (UnknownClientIdCache.class) {
+                if (instance == null) {
+                    instance = new UnknownClientIdCache(Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE)));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether a client id was recently found not to be associated with any OAuth application.
+     *
+     * @param clientId Client id.
+     * @return True if the client id is known to be unknown, false if it has to be looked up in the database.
+     */
+    public boolean isUnknown(String clientId) {
+
+        if (!negativeCachingEnabled || clientId == null) {
+            return false;
+        }
+        if (getValueFromCache(DigestUtils.sha256Hex(clientId)) == null) {
+            missCount.incrementAndGet();
+            return false;
+        }
+        hitCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record that a client id is not associated with any OAuth application.
+     *
+     * @param clientId Client id.
+     */
+    public void addUnknown(String clientId) {
+
+        if (!negativeCachingEnabled || clientId == null) {
+            return;
+        }
+        addToCache(DigestUtils.sha256Hex(clientId), new UnknownClientIdCacheEntry());
+    }
+
+    /**
+     * Clear the entry of a client id. To be called whenever an OAuth application is created with the client id. Other
+     * changes to an application do not need to clear it, as they never make an unknown client id valid.
+     *
+     * @param clientId Client id.
+     */
+    public void clearUnknown(String clientId) {
+
+        if (!negativeCachingEnabled || StringUtils.isEmpty(clientId)) {
+            return;
+        }
+        clearCacheEntry(DigestUtils.sha256Hex(clientId));
+        invalidationCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the unknown client id cache entry of client: " + clientId);
+        }
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    public long getInvalidationCount() {
+
+        return invalidationCount.get();
+    }
+}
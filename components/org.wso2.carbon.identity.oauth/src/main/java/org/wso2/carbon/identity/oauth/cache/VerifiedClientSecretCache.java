@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.authentication.framework.cache.AuthenticationBaseCache;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * VerifiedClientSecretCache is used to cache the client secrets verified against the hashed or encrypted secrets of
+ * the OAuth applications.
+ * <p>
+ * When client secrets are not persisted in plain text, every client authentication processes the presented secret
+ * before comparing it with the persisted one. Once a secret is verified, an HMAC of it, computed with a key generated per node at
+ * start up, is cached against the client id along with the persisted secret it was verified against, so that the
+ * following authentications of the client only compute the HMAC. Like {@link AppInfoCache}, the entries are shared
+ * across tenants as client ids are unique. The time to live and the capacity of the cache are taken from the cache
+ * configuration in identity.xml, and clearing the entry of a client is propagated to the other nodes of the cluster.
+ */
+public class VerifiedClientSecretCache extends AuthenticationBaseCache<String, VerifiedClientSecretCacheEntry> {
+
+    private static final Log log = LogFactory.getLog(VerifiedClientSecretCache.class);
+
+    private static final String VERIFIED_CLIENT_SECRET_CACHE_NAME = "VerifiedClientSecretCache";
+    private static final String ENABLE = "OAuth.VerifiedClientSecretCache.Enable";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int HMAC_KEY_LENGTH = 32;
+
+    private static volatile VerifiedClientSecretCache instance;
+
+    private final boolean verificationCachingEnabled;
+    private final SecretKeySpec hmacKey;
+    private final ThreadLocal<Mac> macs;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    VerifiedClientSecretCache(boolean verificationCachingEnabled) {
+
+        super(VERIFIED_CLIENT_SECRET_CACHE_NAME);
+        this.verificationCachingEnabled = verificationCachingEnabled;
+        byte[] key = new byte[HMAC_KEY_LENGTH];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::createMac);
+    }
+
+    /**
+     * Returns VerifiedClientSecretCache instance.
+     *
+     * @return instance of VerifiedClientSecretCache
+     */
+    public static VerifiedClientSecretCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (VerifiedClientSecretCache.class) {
+                if (instance == null) {
+                    instance = new VerifiedClientSecretCache(Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE)));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether the presented secret of a client was recently verified against the given persisted secret.
+     *
+     * @param clientId        Client id of the application.
+     * @param presentedSecret Client secret presented by the client.
+     * @param persistedSecret Processed client secret currently persisted for the application.
+     * @return True if the presented secret is verified, false if it has to be verified against the persisted secret.
+     */
+    public boolean isVerified(String clientId, String presentedSecret, String persistedSecret) {
+
+        if (!verificationCachingEnabled || StringUtils.isBlank(clientId) || presentedSecret == null ||
+                persistedSecret == null) {
+            return false;
+        }
+        VerifiedClientSecretCacheEntry entry = getValueFromCache(clientId);
+        // An entry verified against a previous secret of the application is replaced once the secret is verified.
+        if (entry == null || !persistedSecret.equals(entry.getPersistedSecret())) {
+            missCount.incrementAndGet();
+            return false;
+        }
+        byte[] presentedSecretHmac = computeHmac(presentedSecret);
+        if (presentedSecretHmac == null || !MessageDigest.isEqual(entry.getSecretHmac(), presentedSecretHmac)) {
+            missCount.incrementAndGet();
+            return false;
+        }
+        hitCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record that the presented secret of a client was verified against the given persisted secret.
+     *
+     * @param clientId        Client id of the application.
+     * @param presentedSecret Client secret presented by the client.
+     * @param persistedSecret Processed client secret the presented secret was verified against.
+     */
+    public void addVerified(String clientId, String presentedSecret, String persistedSecret) {
+
+        if (!verificationCachingEnabled || StringUtils.isBlank(clientId) || presentedSecret == null ||
+                persistedSecret == null) {
+            return;
+        }
+        byte[] presentedSecretHmac = computeHmac(presentedSecret);
+        if (presentedSecretHmac == null) {
+            return;
+        }
+        addToCache(clientId, new VerifiedClientSecretCacheEntry(presentedSecretHmac, persistedSecret));
+    }
+
+    /**
+     * Clear the verified secret of a client. To be called whenever the secret or the state of the application changes.
+     *
+     * @param clientId Client id of the application.
+     */
+    public void clearVerified(String clientId) {
+
+        if (!verificationCachingEnabled || StringUtils.isBlank(clientId)) {
+            return;
+        }
+        clearCacheEntry(clientId);
+        invalidationCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the verified client secret of client: " + clientId);
+        }
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    public long getInvalidationCount() {
+
+        return invalidationCount.get();
+    }
+
+    private byte[] computeHmac(String secret) {
+
+        Mac mac = macs.get();
+        if (mac == null) {
+            return null;
+        }
+        return mac.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac createMac() {
+
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            log.error("Error while initializing " + HMAC_ALGORITHM + " for the verified client secret cache. " +
+                    "Client secrets will be verified against the persisted secrets.", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+/**
+ * Cache entry of {@link VerifiedClientSecretCache} holding the HMAC of a verified client secret along with the
+ * persisted secret it was verified against.
+ */
+public class VerifiedClientSecretCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -4179032558362471305L;
+
+    private final byte[] secretHmac;
+    private final String persistedSecret;
+
+    public VerifiedClientSecretCacheEntry(byte[] secretHmac, String persistedSecret) {
+
+        this.secretHmac = secretHmac.clone();
+        this.persistedSecret = persistedSecret;
+    }
+
+    public byte[] getSecretHmac() {
+
+        return secretHmac.clone();
+    }
+
+    public String getPersistedSecret() {
+
+        return persistedSecret;
+    }
+}
@@ -36,6 +36,7 @@ import org.wso2.carbon.identity.oauth.Error;
 import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
 import org.wso2.carbon.identity.oauth.IdentityOAuthClientException;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth.cache.UnknownClientIdCache;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
@@ -45,6 +46,7 @@ import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.ReadReplicaRouter;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
@@ -78,6 +80,7 @@ import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigPro
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.TOKEN_BINDING_TYPE_NONE;
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.TOKEN_BINDING_VALIDATION;
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.TOKEN_REVOCATION_WITH_IDP_SESSION_TERMINATION;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.TOKEN_SIGNATURE_ALGORITHM;
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OIDCConfigProperties.TOKEN_TYPE;
 import static org.wso2.carbon.identity.oauth2.util.OAuth2Util.OPENID_CONNECT_AUDIENCE;
 
@@ -162,6 +165,7 @@ public class OAuthAppDAO {
                     // Handle OIDC Related Properties. These are persisted in IDN_OIDC_PROPERTY table.
                     addServiceProviderOIDCProperties(connection, consumerAppDO, processedClientId, spTenantId);
                     IdentityDatabaseUtil.commitTransaction(connection);
+                    UnknownClientIdCache.getInstance().clearUnknown(consumerAppDO.getOauthConsumerKey());
                 } catch (SQLException e1) {
                     IdentityDatabaseUtil.rollbackTransaction(connection);
                     if (isDuplicateClient(e1)) {
@@ -228,6 +232,7 @@ public class OAuthAppDAO {
                 prepStmt.execute();
 
                 IdentityDatabaseUtil.commitTransaction(connection);
+                UnknownClientIdCache.getInstance().clearUnknown(consumerKey);
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(connection);
                 String sqlStmt = SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_CONSUMER;
@@ -319,8 +324,44 @@ public class OAuthAppDAO {
     public OAuthAppDO getAppInformation(String consumerKey) throws
             InvalidOAuthClientException, IdentityOAuth2Exception {
 
+        UnknownClientIdCache unknownClientIdCache = UnknownClientIdCache.getInstance();
+        if (unknownClientIdCache.isUnknown(consumerKey)) {
+            // Reject client ids recently found not to exist without querying the database again.
+            handleRequestForANonExistingConsumerKey(consumerKey);
+        }
+        try {
+            return getAppInformationFromDB(consumerKey);
+        } catch (InvalidOAuthClientException e) {
+            unknownClientIdCache.addUnknown(consumerKey);
+            throw e;
+        }
+    }
+
+    private OAuthAppDO getAppInformationFromDB(String consumerKey) throws
+            InvalidOAuthClientException, IdentityOAuth2Exception {
+
+        ReadReplicaRouter readReplicaRouter = ReadReplicaRouter.getInstance();
+        if (!readReplicaRouter.isEnabled()) {
+            return getAppInformation(consumerKey, IdentityDatabaseUtil.getDBConnection());
+        }
+        try {
+            return getAppInformation(consumerKey, readReplicaRouter.getReadConnection());
+        } catch (InvalidOAuthClientException e) {
+            // The application may not have been replicated yet.
+            readReplicaRouter.recordReplicaMiss();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("OAuth application with consumer key: " + consumerKey + " is not available in the " +
+                        "read replica. Retrieving it from the primary database.");
+            }
+            return getAppInformation(consumerKey, IdentityDatabaseUtil.getDBConnection());
+        }
+    }
+
+    private OAuthAppDO getAppInformation(String consumerKey, Connection dbConnection) throws
+            InvalidOAuthClientException, IdentityOAuth2Exception {
+
         OAuthAppDO oauthApp = null;
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection()) {
+        try (Connection connection = dbConnection) {
             String sqlQuery = SQLQueries.OAuthAppDAOSQLQueries.GET_APP_INFO_WITH_PKCE;
 
             try (PreparedStatement prepStmt = connection.prepareStatement(sqlQuery)) {
@@ -375,7 +416,9 @@ public class OAuthAppDAO {
                     if (!appExists) {
                         handleRequestForANonExistingConsumerKey(consumerKey);
                     }
-                    connection.commit();
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
                 }
             }
         } catch (SQLException e) {
@@ -630,6 +673,10 @@ public class OAuthAppDAO {
                 String.valueOf(oauthAppDO.getIdTokenEncryptionMethod()),
                 prepStatementForPropertyAdd, preparedStatementForPropertyUpdate);
 
+        addOrUpdateOIDCSpProperty(preprocessedClientId, spTenantId, spOIDCProperties, TOKEN_SIGNATURE_ALGORITHM,
+                oauthAppDO.getTokenSignatureAlgorithm(), prepStatementForPropertyAdd,
+                preparedStatementForPropertyUpdate);
+
         addOrUpdateOIDCSpProperty(preprocessedClientId, spTenantId, spOIDCProperties, BACK_CHANNEL_LOGOUT_URL,
                 oauthAppDO.getBackChannelLogoutUrl(), prepStatementForPropertyAdd, preparedStatementForPropertyUpdate);
 
@@ -1210,6 +1257,9 @@ public class OAuthAppDAO {
             addToBatchForOIDCPropertyAdd(processedClientId, spTenantId, prepStmtAddOIDCProperty,
                     ID_TOKEN_ENCRYPTION_METHOD, String.valueOf(consumerAppDO.getIdTokenEncryptionMethod()));
 
+            addToBatchForOIDCPropertyAdd(processedClientId, spTenantId, prepStmtAddOIDCProperty,
+                    TOKEN_SIGNATURE_ALGORITHM, consumerAppDO.getTokenSignatureAlgorithm());
+
             addToBatchForOIDCPropertyAdd(processedClientId, spTenantId, prepStmtAddOIDCProperty,
                     BACK_CHANNEL_LOGOUT_URL, consumerAppDO.getBackChannelLogoutUrl());
 
@@ -1313,6 +1363,9 @@ public class OAuthAppDAO {
         String idTokenEncryptionMethod = getFirstPropertyValue(spOIDCProperties, ID_TOKEN_ENCRYPTION_METHOD);
         oauthApp.setIdTokenEncryptionMethod(idTokenEncryptionMethod);
 
+        String tokenSignatureAlgorithm = getFirstPropertyValue(spOIDCProperties, TOKEN_SIGNATURE_ALGORITHM);
+        oauthApp.setTokenSignatureAlgorithm(tokenSignatureAlgorithm);
+
         String backChannelLogoutUrl = getFirstPropertyValue(spOIDCProperties, BACK_CHANNEL_LOGOUT_URL);
         oauthApp.setBackChannelLogoutUrl(backChannelLogoutUrl);
 
@@ -65,6 +65,7 @@ public class OAuthAppDO implements Serializable {
     private boolean idTokenEncryptionEnabled;
     private String idTokenEncryptionAlgorithm;
     private String idTokenEncryptionMethod;
+    private String tokenSignatureAlgorithm;
     private String backChannelLogoutUrl;
     private String frontchannelLogoutUrl;
     @XmlTransient
@@ -251,6 +252,22 @@ public class OAuthAppDO implements Serializable {
         this.idTokenEncryptionMethod = idTokenEncryptionMethod;
     }
 
+    /**
+     * Signature algorithm used to sign the JWT access tokens and ID tokens issued to the application, in the
+     * identity.xml format, e.g. SHA256withEC. If not set, the server level signature algorithms are used.
+     *
+     * @return Signature algorithm of the application.
+     */
+    public String getTokenSignatureAlgorithm() {
+
+        return tokenSignatureAlgorithm;
+    }
+
+    public void setTokenSignatureAlgorithm(String tokenSignatureAlgorithm) {
+
+        this.tokenSignatureAlgorithm = tokenSignatureAlgorithm;
+    }
+
     public void setBackChannelLogoutUrl(String backChannelLogoutUrl) {
 
         this.backChannelLogoutUrl = backChannelLogoutUrl;
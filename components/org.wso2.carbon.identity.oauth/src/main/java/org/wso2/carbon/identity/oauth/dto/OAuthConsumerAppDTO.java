@@ -45,6 +45,7 @@ public class OAuthConsumerAppDTO {
     private boolean isIdTokenEncryptionEnabled;
     private String idTokenEncryptionAlgorithm;
     private String idTokenEncryptionMethod;
+    private String tokenSignatureAlgorithm;
     private String backChannelLogoutUrl;
     private String frontchannelLogoutUrl;
     private long idTokenExpiryTime;
@@ -207,6 +208,14 @@ public class OAuthConsumerAppDTO {
         this.idTokenEncryptionMethod = idTokenEncryptionMethod;
     }
 
+    public String getTokenSignatureAlgorithm() {
+        return tokenSignatureAlgorithm;
+    }
+
+    public void setTokenSignatureAlgorithm(String tokenSignatureAlgorithm) {
+        this.tokenSignatureAlgorithm = tokenSignatureAlgorithm;
+    }
+
     public void setIdTokenEncryptionEnabled(boolean idTokenEncryptionEnabled) {
         this.isIdTokenEncryptionEnabled = idTokenEncryptionEnabled;
     }
@@ -22,6 +22,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.application.authentication.framework.exception.UserIdNotFoundException;
 import org.wso2.carbon.identity.core.cache.AbstractCacheListener;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth.cache.CacheEntry;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
@@ -63,8 +64,8 @@ public class OAuthCacheRemoveListener extends AbstractCacheListener<OAuthCacheKe
 
         OAuthCache oauthCache = OAuthCache.getInstance();
 
-        OAuthCacheKey oauthcacheKey = new OAuthCacheKey(accessTokenDO.getAccessToken());
-        oauthCache.clearCacheEntry(oauthcacheKey, accessTokenDO.getAuthzUser().getTenantDomain());
+        OAuthUtil.clearOAuthCacheByAccessToken(accessTokenDO.getAccessToken(),
+                accessTokenDO.getAuthzUser().getTenantDomain());
 
         try {
             String userId = accessTokenDO.getAuthzUser().getUserId();
@@ -22,13 +22,10 @@ package org.wso2.carbon.identity.oauth.tokenprocessor;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.json.JSONObject;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.List;
 
 /**
  * An implementation of <Code>TokenPersistenceProcessor</Code>
@@ -101,6 +98,25 @@ public class HashingPersistenceProcessor implements TokenPersistenceProcessor {
         return processedRefreshToken;
     }
 
+    /**
+     * Hash a batch of access token identifiers with a single lookup of the hashing configuration.
+     *
+     * @param accessTokenIdentifiers Access token identifiers to be hashed.
+     * @return Hashed access token identifiers, in the order of the given identifiers.
+     * @throws IdentityOAuth2Exception If an identifier is empty or the hash algorithm is not supported.
+     */
+    @Override
+    public List<String> getProcessedAccessTokenIdentifiers(List<String> accessTokenIdentifiers)
+            throws IdentityOAuth2Exception {
+
+        for (String accessTokenIdentifier : accessTokenIdentifiers) {
+            if (StringUtils.isEmpty(accessTokenIdentifier)) {
+                throw new IdentityOAuth2Exception("plainText value is null or empty to be hash.");
+            }
+        }
+        return getTokenHasher().hash(accessTokenIdentifiers);
+    }
+
     /**
      * Method to generate hash value
      *
@@ -112,31 +128,11 @@ public class HashingPersistenceProcessor implements TokenPersistenceProcessor {
         if (StringUtils.isEmpty(plainText)) {
             throw new IdentityOAuth2Exception("plainText value is null or empty to be hash.");
         }
-
-        MessageDigest messageDigest = null;
-        byte[] hash = null;
-        String hashAlgorithm = OAuthServerConfiguration.getInstance().getHashAlgorithm();
-        try {
-            messageDigest = MessageDigest.getInstance(hashAlgorithm);
-            messageDigest.update(plainText.getBytes(StandardCharsets.UTF_8));
-            hash = messageDigest.digest();
-
-        } catch (NoSuchAlgorithmException e) {
-            throw new IdentityOAuth2Exception(
-                    "Error while retrieving MessageDigest for the provided hash algorithm: " + hashAlgorithm, e);
-        }
-        JSONObject object = new JSONObject();
-        object.put(ALGORITHM, hashAlgorithm);
-        object.put(HASH, bytesToHex(hash));
-        return object.toString();
+        return getTokenHasher().hash(plainText);
     }
 
-    private static String bytesToHex(byte[] bytes) {
+    private TokenHasher getTokenHasher() throws IdentityOAuth2Exception {
 
-        StringBuilder result = new StringBuilder();
-        for (byte byt : bytes) {
-            result.append(Integer.toString((byt & 0xff) + 0x100, 16).substring(1));
-        }
-        return result.toString();
+        return TokenHasher.getInstance(OAuthServerConfiguration.getInstance().getHashAlgorithm());
     }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.tokenprocessor;
+
+import org.json.JSONObject;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Computes the hashed form of tokens, authorization codes and client secrets persisted by
+ * {@link HashingPersistenceProcessor}, i.e. <Code>{"algorithm":"...","hash":"..."}</Code>.
+ * <p>
+ * One instance is kept per hash algorithm. Message digests are confined to the calling thread and reused, the digest
+ * is hex encoded through a lookup table and the JSON envelope is rendered once per algorithm, so that hashing does
+ * not allocate more than the resulting string.
+ */
+public final class TokenHasher {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String HASH_PLACEHOLDER = "HASH_VALUE_PLACEHOLDER";
+    private static final ConcurrentMap<String, TokenHasher> HASHERS = new ConcurrentHashMap<>();
+
+    private final String algorithm;
+    private final String envelopePrefix;
+    private final String envelopeSuffix;
+    private final ThreadLocal<MessageDigest> messageDigest;
+
+    private TokenHasher(String algorithm) throws NoSuchAlgorithmException {
+
+        // Fail early for unknown algorithms, so that the thread local initializer does not need to handle it.
+        MessageDigest.getInstance(algorithm);
+        this.algorithm = algorithm;
+        this.messageDigest = ThreadLocal.withInitial(this::createMessageDigest);
+
+        // Render the envelope with the same JSON serializer used for the persisted values, so that the output stays
+        // identical to the previously persisted hashes regardless of the key order or escaping of the algorithm.
+        JSONObject envelope = new JSONObject();
+        envelope.put(HashingPersistenceProcessor.ALGORITHM, algorithm);
+        envelope.put(HashingPersistenceProcessor.HASH, HASH_PLACEHOLDER);
+        String renderedEnvelope = envelope.toString();
+        int placeholderIndex = renderedEnvelope.indexOf("\"" + HASH_PLACEHOLDER + "\"") + 1;
+        this.envelopePrefix = renderedEnvelope.substring(0, placeholderIndex);
+        this.envelopeSuffix = renderedEnvelope.substring(placeholderIndex + HASH_PLACEHOLDER.length());
+    }
+
+    /**
+     * Get the hasher of the given hash algorithm.
+     *
+     * @param algorithm Name of the hash algorithm, e.g. SHA-256.
+     * @return Hasher of the algorithm.
+     * @throws IdentityOAuth2Exception If the algorithm is not supported.
+     */
+    public static TokenHasher getInstance(String algorithm) throws IdentityOAuth2Exception {
+
+        if (algorithm == null) {
+            throw new IdentityOAuth2Exception("Hash algorithm is not provided.");
+        }
+        TokenHasher tokenHasher = HASHERS.get(algorithm);
+        if (tokenHasher == null) {
+            try {
+                tokenHasher = new TokenHasher(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IdentityOAuth2Exception(
+                        "Error while retrieving MessageDigest for the provided hash algorithm: " + algorithm, e);
+            }
+            TokenHasher existingTokenHasher = HASHERS.putIfAbsent(algorithm, tokenHasher);
+            if (existingTokenHasher != null) {
+                tokenHasher = existingTokenHasher;
+            }
+        }
+        return tokenHasher;
+    }
+
+    public String getAlgorithm() {
+
+        return algorithm;
+    }
+
+    /**
+     * Hash the given value.
+     *
+     * @param plainText Value to be hashed.
+     * @return Hashed value wrapped in the JSON envelope.
+     */
+    public String hash(String plainText) {
+
+        MessageDigest digest = messageDigest.get();
+        digest.reset();
+        return toEnvelope(digest.digest(plainText.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Hash the given values, reusing the digest of the calling thread for all of them.
+     *
+     * @param plainTexts Values to be hashed.
+     * @return Hashed values, in the iteration order of the given values.
+     */
+    public List<String> hash(Collection<String> plainTexts) {
+
+        List<String> hashes = new ArrayList<>(plainTexts.size());
+        MessageDigest digest = messageDigest.get();
+        for (String plainText : plainTexts) {
+            digest.reset();
+            hashes.add(toEnvelope(digest.digest(plainText.getBytes(StandardCharsets.UTF_8))));
+        }
+        return hashes;
+    }
+
+    /**
+     * Get the hex encoded digest of a value hashed by this hasher, i.e. the value without the JSON envelope.
+     *
+     * @param hashedValue Hashed value wrapped in the JSON envelope.
+     * @return Hex encoded digest, or null if the value was not hashed with the algorithm of this hasher.
+     */
+    public String getDigest(String hashedValue) {
+
+        if (hashedValue == null || hashedValue.length() <= envelopePrefix.length() + envelopeSuffix.length() ||
+                !hashedValue.startsWith(envelopePrefix) || !hashedValue.endsWith(envelopeSuffix)) {
+            return null;
+        }
+        return hashedValue.substring(envelopePrefix.length(), hashedValue.length() - envelopeSuffix.length());
+    }
+
+    private String toEnvelope(byte[] hash) {
+
+        char[] envelope = new char[envelopePrefix.length() + (hash.length * 2) + envelopeSuffix.length()];
+        envelopePrefix.getChars(0, envelopePrefix.length(), envelope, 0);
+        int position = envelopePrefix.length();
+        for (byte hashByte : hash) {
+            envelope[position++] = HEX_DIGITS[(hashByte >> 4) & 0xf];
+            envelope[position++] = HEX_DIGITS[hashByte & 0xf];
+        }
+        envelopeSuffix.getChars(0, envelopeSuffix.length(), envelope, position);
+        return new String(envelope);
+    }
+
+    private MessageDigest createMessageDigest() {
+
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // Not expected, as the algorithm is validated when creating the hasher.
+            throw new IllegalStateException("Hash algorithm: " + algorithm + " is no longer available.", e);
+        }
+    }
+}
@@ -20,6 +20,9 @@ package org.wso2.carbon.identity.oauth.tokenprocessor;
 
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <Code>TokenPersistenceProcessor</Code> implementations are used to
  * process keys and secrets just before storing them in the database.
@@ -51,4 +54,20 @@ public interface TokenPersistenceProcessor {
     public String getPreprocessedRefreshToken(String processedRefreshToken)
             throws IdentityOAuth2Exception;
 
+    /**
+     * Process a batch of access token identifiers, e.g. when revoking tokens in bulk.
+     *
+     * @param accessTokenIdentifiers Access token identifiers to be processed.
+     * @return Processed access token identifiers, in the order of the given identifiers.
+     * @throws IdentityOAuth2Exception If an error occurs while processing an identifier.
+     */
+    default List<String> getProcessedAccessTokenIdentifiers(List<String> accessTokenIdentifiers)
+            throws IdentityOAuth2Exception {
+
+        List<String> processedAccessTokenIdentifiers = new ArrayList<>(accessTokenIdentifiers.size());
+        for (String accessTokenIdentifier : accessTokenIdentifiers) {
+            processedAccessTokenIdentifiers.add(getProcessedAccessTokenIdentifier(accessTokenIdentifier));
+        }
+        return processedAccessTokenIdentifiers;
+    }
 }
@@ -35,6 +35,8 @@ import org.wso2.carbon.identity.oauth2.scopeservice.ScopeMetadata;
 import org.wso2.carbon.identity.oauth2.scopeservice.ScopeMetadataService;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oauth2.util.Oauth2ScopeUtils;
+import org.wso2.carbon.identity.oauth2.util.ReadReplicaRouter;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
 import org.wso2.carbon.identity.openidconnect.cache.OIDCScopeClaimCache;
 
 import java.util.ArrayList;
@@ -218,6 +220,10 @@ public class OAuth2ScopeService implements ScopeMetadataService {
         scope = OAuthScopeCache.getInstance().getValueFromCache(new OAuthScopeCacheKey(name), tenantID);
 
         if (scope == null) {
+            // A scope which is cached is read from the primary database, as a stale replica row would be kept in the
+            // cache.
+            boolean cached = OAuthScopeCache.getInstance().isEnabled();
+            ReadReplicaRouter.getInstance().startPrimaryReads(cached);
             try {
                 scope = OAuthTokenPersistenceFactory.getInstance().getOAuthScopeDAO().getScopeByName(name, tenantID);
                 if (scope != null) {
@@ -230,6 +236,8 @@ public class OAuth2ScopeService implements ScopeMetadataService {
             } catch (IdentityOAuth2ScopeServerException e) {
                 throw Oauth2ScopeUtils.generateServerException(Oauth2ScopeConstants.ErrorMessages.
                         ERROR_CODE_FAILED_TO_GET_SCOPE_BY_NAME, name, e);
+            } finally {
+                ReadReplicaRouter.getInstance().endPrimaryReads(cached);
             }
         }
 
@@ -362,6 +370,7 @@ public class OAuth2ScopeService implements ScopeMetadataService {
         OAuthScopeCache.getInstance().addToCache(new OAuthScopeCacheKey(updatedScope.getName()), updatedScope,
                 tenantID);
         OIDCScopeClaimCache.getInstance().clearScopeClaimMap(tenantID);
+        OIDCDiscoveryDocumentCache.getInstance().clearDocuments(tenantID);
         return updatedScope;
     }
 
@@ -30,6 +30,7 @@ import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationResponseDTO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oauth2.validators.TokenValidationHandler;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -128,6 +129,26 @@ public class OAuth2TokenValidationService extends AbstractAdmin {
         return oAuth2IntrospectionResponseDTO;
     }
 
+    /**
+     * Returns back the introspection responses of the given requests, in the order of the requests. The access
+     * tokens of the requests are resolved together, while each request is validated as in
+     * {@link #buildIntrospectionResponse(OAuth2TokenValidationRequestDTO)}.
+     *
+     * @param validationRequests Introspection requests.
+     * @return Introspection responses.
+     */
+    public OAuth2IntrospectionResponseDTO[] buildIntrospectionResponses(
+            OAuth2TokenValidationRequestDTO[] validationRequests) {
+
+        TokenValidationHandler.getInstance().prefetchAccessTokens(Arrays.asList(validationRequests));
+        OAuth2IntrospectionResponseDTO[] introspectionResponses =
+                new OAuth2IntrospectionResponseDTO[validationRequests.length];
+        for (int i = 0; i < validationRequests.length; i++) {
+            introspectionResponses[i] = buildIntrospectionResponse(validationRequests[i]);
+        }
+        return introspectionResponses;
+    }
+
     private void triggerPreValidationListeners(OAuth2TokenValidationRequestDTO requestDTO)
             throws IdentityOAuth2Exception {
         OAuthEventInterceptor oAuthEventInterceptorProxy = OAuthComponentServiceHolder.getInstance()
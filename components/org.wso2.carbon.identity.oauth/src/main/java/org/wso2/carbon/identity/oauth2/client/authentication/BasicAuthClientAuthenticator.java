@@ -26,6 +26,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.oltu.oauth2.common.OAuth;
 import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
+import org.wso2.carbon.identity.oauth.cache.VerifiedClientSecretCache;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
@@ -88,7 +89,12 @@ public class BasicAuthClientAuthenticator extends AbstractOAuthClientAuthenticat
         } catch (IdentityOAuthAdminException e) {
             throw new OAuthClientAuthnException(OAuth2ErrorCodes.INVALID_CLIENT, "Error while authenticating " +
                     "client", e);
-        } catch (InvalidOAuthClientException | IdentityOAuth2Exception e) {
+        } catch (InvalidOAuthClientException e) {
+            // The client is no longer valid, hence a secret verified for it earlier must not be trusted anymore.
+            VerifiedClientSecretCache.getInstance().clearVerified(oAuthClientAuthnContext.getClientId());
+            throw new OAuthClientAuthnException(OAuth2ErrorCodes.INVALID_CLIENT,
+                    "Invalid Client : " + oAuthClientAuthnContext.getClientId(), e);
+        } catch (IdentityOAuth2Exception e) {
             throw new OAuthClientAuthnException(OAuth2ErrorCodes.INVALID_CLIENT,
                     "Invalid Client : " + oAuthClientAuthnContext.getClientId(), e);
         }
@@ -101,4 +101,9 @@ abstract class AbstractOAuthDAO {
         return IdentityDatabaseUtil.getDBConnection();
     }
 
+    protected Connection getConnection(boolean shouldApplyTransaction) {
+
+        return IdentityDatabaseUtil.getDBConnection(shouldApplyTransaction);
+    }
+
 }
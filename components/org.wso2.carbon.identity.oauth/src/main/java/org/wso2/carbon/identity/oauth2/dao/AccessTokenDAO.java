@@ -23,9 +23,16 @@ package org.wso2.carbon.identity.oauth2.dao;
 import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -40,6 +47,29 @@ public interface AccessTokenDAO {
                               AccessTokenDO newAccessTokenDO, AccessTokenDO existingAccessTokenDO,
                               String rawUserStoreDomain) throws IdentityOAuth2Exception;
 
+    /**
+     * Persist a batch of access tokens. Each entry expires its existing token, if any, and inserts the new token.
+     *
+     * @param accessContextTokenDOs Access tokens to be persisted.
+     * @return Access tokens of the batch which could not be persisted, empty if the whole batch is persisted.
+     * @throws IdentityOAuth2Exception If the batch could not be persisted at all.
+     */
+    default List<AccessContextTokenDO> insertAccessTokens(List<AccessContextTokenDO> accessContextTokenDOs)
+            throws IdentityOAuth2Exception {
+
+        List<AccessContextTokenDO> failedAccessContextTokenDOs = new ArrayList<>();
+        for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+            try {
+                insertAccessToken(accessContextTokenDO.getAccessToken(), accessContextTokenDO.getConsumerKey(),
+                        accessContextTokenDO.getNewAccessTokenDO(), accessContextTokenDO.getExistingAccessTokenDO(),
+                        accessContextTokenDO.getUserStoreDomain());
+            } catch (IdentityOAuth2Exception e) {
+                failedAccessContextTokenDOs.add(accessContextTokenDO);
+            }
+        }
+        return failedAccessContextTokenDOs;
+    }
+
     AccessTokenDO getLatestAccessToken(String consumerKey, AuthenticatedUser authzUser, String userStoreDomain,
                                        String scope, boolean includeExpiredTokens) throws IdentityOAuth2Exception;
 
@@ -89,6 +119,92 @@ public interface AccessTokenDAO {
 
     AccessTokenDO getAccessToken(String accessTokenIdentifier, boolean includeExpired) throws IdentityOAuth2Exception;
 
+    /**
+     * Retrieve the access tokens of the given token identifiers.
+     *
+     * @param accessTokenIdentifiers Access token identifiers.
+     * @param includeExpired         Whether to include expired tokens.
+     * @return Access tokens found, mapped by their token identifier.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the access tokens.
+     */
+    default Map<String, AccessTokenDO> getAccessTokens(Collection<String> accessTokenIdentifiers,
+                                                       boolean includeExpired) throws IdentityOAuth2Exception {
+
+        Map<String, AccessTokenDO> accessTokenDOs = new HashMap<>();
+        for (String accessTokenIdentifier : accessTokenIdentifiers) {
+            AccessTokenDO accessTokenDO = getAccessToken(accessTokenIdentifier, includeExpired);
+            if (accessTokenDO != null) {
+                accessTokenDOs.put(accessTokenIdentifier, accessTokenDO);
+            }
+        }
+        return accessTokenDOs;
+    }
+
+    /**
+     * Retrieve the hashes of the access tokens issued after the given time which are revoked or invalidated, along
+     * with the time each of those tokens would have expired.
+     *
+     * @param issuedAfter Issued time after which the revoked tokens are retrieved.
+     * @return Expiry time in milliseconds of the revoked tokens, mapped by the access token hash.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the tokens or if the retrieval is not
+     *                                 supported by the implementation.
+     */
+    default Map<String, Long> getRevokedAccessTokenHashes(Timestamp issuedAfter) throws IdentityOAuth2Exception {
+
+        throw new IdentityOAuth2Exception("Retrieving revoked access tokens is not supported by " +
+                getClass().getName());
+    }
+
+    /**
+     * Retrieve a batch of the ACTIVE or EXPIRED access tokens issued to the given user for any of the clients, ordered
+     * by the token id, so that the tokens of a user can be processed batch by batch.
+     * The default implementation reads the tokens of each client the user has authorized, with
+     * {@link #getAccessTokens(String, AuthenticatedUser, String, boolean)}, and pages them in memory.
+     *
+     * @param authenticatedUser Authenticated user.
+     * @param userStoreDomain   User store domain used to resolve the partitioned access token table.
+     * @param lastTokenId       Token id of the last token of the previous batch, or null to retrieve the first batch.
+     * @param limit             Maximum number of tokens in the batch.
+     * @return Access tokens of the batch, where the access token is the identifier persisted in the database.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the tokens.
+     */
+    default List<AccessTokenDO> getAccessTokensOfUser(AuthenticatedUser authenticatedUser, String userStoreDomain,
+                                                      String lastTokenId, int limit) throws IdentityOAuth2Exception {
+
+        List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
+        Set<String> clientIds = OAuthTokenPersistenceFactory.getInstance().getTokenManagementDAO()
+                .getAllTimeAuthorizedClientIds(authenticatedUser);
+        for (String clientId : clientIds) {
+            for (AccessTokenDO accessTokenDO : getAccessTokens(clientId, authenticatedUser, userStoreDomain, true)) {
+                if (lastTokenId == null || accessTokenDO.getTokenId().compareTo(lastTokenId) > 0) {
+                    accessTokenDOs.add(accessTokenDO);
+                }
+            }
+        }
+        accessTokenDOs.sort(Comparator.comparing(AccessTokenDO::getTokenId));
+        if (accessTokenDOs.size() > limit) {
+            return new ArrayList<>(accessTokenDOs.subList(0, limit));
+        }
+        return accessTokenDOs;
+    }
+
+    /**
+     * Revoke the given access tokens of the user, retrieved with
+     * {@link #getAccessTokensOfUser(AuthenticatedUser, String, String, int)}.
+     *
+     * @param authenticatedUser Authenticated user.
+     * @param userStoreDomain   User store domain used to resolve the partitioned access token table.
+     * @param accessTokenDOs    Access tokens of the user to be revoked.
+     * @throws IdentityOAuth2Exception If an error occurs while revoking the tokens.
+     */
+    default void revokeAccessTokensOfUser(AuthenticatedUser authenticatedUser, String userStoreDomain,
+                                          List<AccessTokenDO> accessTokenDOs) throws IdentityOAuth2Exception {
+
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            revokeAccessTokens(new String[]{accessTokenDO.getAccessToken()}, OAuth2Util.isHashEnabled());
+        }
+    }
+
     Set<String> getAccessTokensByUser(AuthenticatedUser authenticatedUser) throws IdentityOAuth2Exception;
 
     default Set<AccessTokenDO> getAccessTokensByUserForOpenidScope(AuthenticatedUser authenticatedUser)
@@ -36,6 +36,7 @@ import org.wso2.carbon.identity.application.mgt.util.JdbcUtils;
 import org.wso2.carbon.identity.base.IdentityConstants;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
@@ -47,6 +48,10 @@ import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.ReadReplicaRouter;
+import org.wso2.carbon.identity.oauth2.validators.RevokedTokenRegistry;
+import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAO;
+import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAOImpl;
 
 import java.sql.Connection;
 import java.sql.DataTruncation;
@@ -58,15 +63,18 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.wso2.carbon.identity.core.util.IdentityUtil.getProperty;
@@ -83,12 +91,24 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
     private static final String OAUTH_TOKEN_PERSISTENCE_RETRY_COUNT = "OAuth.TokenPersistence.RetryCount";
     private static final int DEFAULT_TOKEN_PERSIST_RETRY_COUNT = 5;
+    private static final String OAUTH_TOKEN_PERSISTENCE_CONFLICT_UPSERT_ENABLE =
+            "OAuth.TokenPersistence.ConflictUpsert.Enable";
     private static final String IDN_OAUTH2_ACCESS_TOKEN = "IDN_OAUTH2_ACCESS_TOKEN";
     private static final String CONSENTED_TOKEN_COLUMN_NAME = "CONSENTED_TOKEN";
+    private static final String ACCESS_TOKEN_HASH_COLUMN_NAME = "ACCESS_TOKEN_HASH";
+    private static final String TOKEN_STATE_COLUMN_NAME = "TOKEN_STATE";
+    // Upper bound of the token hashes bound to a single IN clause, kept well below the limits of the databases.
+    private static final int MAX_TOKENS_PER_QUERY = 100;
     private boolean isTokenCleanupFeatureEnabled = OAuthServerConfiguration.getInstance().isTokenCleanupEnabled();
     private static final String DEFAULT_TOKEN_TO_SESSION_MAPPING = "DEFAULT";
 
     private static final Log log = LogFactory.getLog(AccessTokenDAOImpl.class);
+
+    // Counters of the 'CON_APP_KEY' conflict handling of this DAO instance.
+    private final AtomicLong conflictUpsertCount = new AtomicLong();
+    private final AtomicLong conflictRetryCount = new AtomicLong();
+    private final AtomicLong conflictRetryExhaustedCount = new AtomicLong();
+
     OldTokensCleanDAO oldTokenCleanupObject = new OldTokensCleanDAO();
 
     @Override
@@ -126,23 +146,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     "Authorized user should be available for further execution.");
         }
 
-        String accessTokenHash = accessToken;
-        try {
-            OauthTokenIssuer oauthTokenIssuer = OAuth2Util.getOAuthTokenIssuerForOAuthApp(consumerKey);
-            //check for persist alias for the token type
-            if (oauthTokenIssuer.usePersistedAccessTokenAlias()) {
-                accessTokenHash = oauthTokenIssuer.getAccessTokenHash(accessToken);
-            }
-        } catch (OAuthSystemException e) {
-            if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
-                log.debug("Error while getting access token hash for token(hashed): " + DigestUtils
-                        .sha256Hex(accessTokenHash));
-            }
-            throw new IdentityOAuth2Exception("Error while getting access token hash.", e);
-        } catch (InvalidOAuthClientException e) {
-            throw new IdentityOAuth2Exception(
-                    "Error while retrieving oauth issuer for the app with clientId: " + consumerKey, e);
-        }
+        String accessTokenHash = getPersistedAccessTokenIdentifier(accessToken, consumerKey);
 
         if (log.isDebugEnabled()) {
             if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
@@ -171,85 +175,22 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             log.debug("Userstore domain for user: " + username + " is " + userDomain);
         }
 
-        String sql;
-        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-            if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                sql = SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN_WITH_IDP_NAME_WITH_CONSENTED_TOKEN;
-            } else {
-                sql = SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN_WITH_IDP_NAME;
-            }
-        } else {
-            if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                sql = SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN_WITH_CONSENTED_TOKEN;
-            } else {
-                sql = SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN;
-            }
-        }
-        sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userDomain);
+        String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(getInsertAccessTokenSQL(), userDomain);
         String sqlAddScopes = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.INSERT_OAUTH2_TOKEN_SCOPE,
                 userDomain);
+        // Retries are already resolving a conflict, hence the conflicting token is expired only on the first attempt.
+        boolean expireConflictingToken = retryAttemptCounter == 0 && isConflictUpsertApplicable(consumerKey);
 
         try {
-            insertTokenPrepStmt = connection.prepareStatement(sql);
-            insertTokenPrepStmt.setString(1, getPersistenceProcessor().getProcessedAccessTokenIdentifier(
-                    accessTokenHash));
-
-            if (accessTokenDO.getRefreshToken() != null) {
-                insertTokenPrepStmt.setString(2,
-                        getPersistenceProcessor().getProcessedRefreshToken(accessTokenDO.getRefreshToken()));
-            } else {
-                insertTokenPrepStmt.setString(2, accessTokenDO.getRefreshToken());
-            }
-
-            insertTokenPrepStmt.setString(3, accessTokenDO.getAuthzUser().getUserName());
             int tenantId = OAuth2Util.getTenantId(accessTokenDO.getAuthzUser().getTenantDomain());
-            insertTokenPrepStmt.setInt(4, tenantId);
-            insertTokenPrepStmt.setString(5, OAuth2Util.getSanitizedUserStoreDomain(userDomain));
-            insertTokenPrepStmt
-                    .setTimestamp(6, accessTokenDO.getIssuedTime(), Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-            insertTokenPrepStmt.setTimestamp(7, accessTokenDO.getRefreshTokenIssuedTime(), Calendar.getInstance(TimeZone
-                    .getTimeZone(UTC)));
-            insertTokenPrepStmt.setLong(8, accessTokenDO.getValidityPeriodInMillis());
-            insertTokenPrepStmt.setLong(9, accessTokenDO.getRefreshTokenValidityPeriodInMillis());
-            insertTokenPrepStmt.setString(10, OAuth2Util.hashScopes(accessTokenDO.getScope()));
-            insertTokenPrepStmt.setString(11, accessTokenDO.getTokenState());
-            insertTokenPrepStmt.setString(12, accessTokenDO.getTokenType());
-            insertTokenPrepStmt.setString(13, accessTokenDO.getTokenId());
-            insertTokenPrepStmt.setString(14, accessTokenDO.getGrantType());
-            insertTokenPrepStmt.setString(15, accessTokenDO.getAuthzUser().getAuthenticatedSubjectIdentifier());
-            insertTokenPrepStmt
-                    .setString(16, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenHash));
-            if (accessTokenDO.getRefreshToken() != null) {
-                insertTokenPrepStmt.setString(17,
-                        getHashingPersistenceProcessor().getProcessedRefreshToken(accessTokenDO.getRefreshToken()));
-            } else {
-                insertTokenPrepStmt.setString(17, accessTokenDO.getRefreshToken());
+            if (expireConflictingToken) {
+                expireConflictingActiveAccessTokens(connection, consumerKey, accessTokenDO, userDomain,
+                        authenticatedIDP, tenantId);
             }
+            insertTokenPrepStmt = connection.prepareStatement(sql);
             boolean tokenBindingAvailable = isTokenBindingAvailable(accessTokenDO.getTokenBinding());
-            if (tokenBindingAvailable) {
-                insertTokenPrepStmt.setString(18, accessTokenDO.getTokenBinding().getBindingReference());
-            } else {
-                insertTokenPrepStmt.setString(18, NONE);
-            }
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                    insertTokenPrepStmt.setString(19, Boolean.toString(accessTokenDO.isConsentedToken()));
-                    insertTokenPrepStmt.setString(20, authenticatedIDP);
-                    insertTokenPrepStmt.setInt(21, tenantId);
-                    insertTokenPrepStmt.setString(22, getPersistenceProcessor().getProcessedClientId(consumerKey));
-                } else {
-                    insertTokenPrepStmt.setString(19, authenticatedIDP);
-                    insertTokenPrepStmt.setInt(20, tenantId);
-                    insertTokenPrepStmt.setString(21, getPersistenceProcessor().getProcessedClientId(consumerKey));
-                }
-            } else {
-                if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                    insertTokenPrepStmt.setString(19, Boolean.toString(accessTokenDO.isConsentedToken()));
-                    insertTokenPrepStmt.setString(20, getPersistenceProcessor().getProcessedClientId(consumerKey));
-                } else {
-                    insertTokenPrepStmt.setString(19, getPersistenceProcessor().getProcessedClientId(consumerKey));
-                }
-            }
+            setAccessTokenInsertParameters(insertTokenPrepStmt, accessTokenHash, consumerKey, accessTokenDO,
+                    userDomain, authenticatedIDP, tenantId);
             insertTokenPrepStmt.executeUpdate();
 
             String accessTokenId = accessTokenDO.getTokenId();
@@ -289,6 +230,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         } catch (SQLIntegrityConstraintViolationException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             if (retryAttemptCounter >= getTokenPersistRetryCount()) {
+                conflictRetryExhaustedCount.incrementAndGet();
                 log.error("'CON_APP_KEY' constrain violation retry count exceeds above the maximum count - " +
                         getTokenPersistRetryCount());
                 String errorMsg = "Access Token for consumer key : " + consumerKey + ", user : " +
@@ -308,6 +250,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             // SQLIntegrityConstraintViolationException
             if (StringUtils.containsIgnoreCase(e.getMessage(), "CON_APP_KEY")) {
                 if (retryAttemptCounter >= getTokenPersistRetryCount()) {
+                    conflictRetryExhaustedCount.incrementAndGet();
                     log.error("'CON_APP_KEY' constrain violation retry count exceeds above the maximum count - " +
                             getTokenPersistRetryCount());
                     String errorMsg = "Access Token for consumer key : " + consumerKey + ", user : " +
@@ -331,6 +274,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     || (e.getCause() != null && e.getCause().getCause() != null &&
                     StringUtils.containsIgnoreCase(e.getCause().getCause().getMessage(), "CON_APP_KEY"))) {
                 if (retryAttemptCounter >= getTokenPersistRetryCount()) {
+                    conflictRetryExhaustedCount.incrementAndGet();
                     log.error("'CON_APP_KEY' constrain violation retry count exceeds above the maximum count - " +
                             getTokenPersistRetryCount());
                     String errorMsg = "Access Token for consumer key : " + consumerKey + ", user : " +
@@ -352,6 +296,265 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
     }
 
+    @Override
+    public List<AccessContextTokenDO> insertAccessTokens(List<AccessContextTokenDO> accessContextTokenDOs)
+            throws IdentityOAuth2Exception {
+
+        if (!isPersistenceEnabled() || accessContextTokenDOs == null || accessContextTokenDOs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (accessContextTokenDOs.size() == 1) {
+            return insertAccessTokensIndividually(accessContextTokenDOs);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Persisting a batch of " + accessContextTokenDOs.size() + " access tokens.");
+        }
+
+        Connection connection = getConnection(true);
+        Map<String, PreparedStatement> insertTokenStatements = new LinkedHashMap<>();
+        Map<String, PreparedStatement> addScopeStatements = new LinkedHashMap<>();
+        PreparedStatement storeTokenBindingStatement = null;
+        boolean batchPersisted = false;
+        try {
+            for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+                AccessTokenDO accessTokenDO = accessContextTokenDO.getNewAccessTokenDO();
+                AccessTokenDO existingAccessTokenDO = accessContextTokenDO.getExistingAccessTokenDO();
+                if (accessTokenDO == null || accessTokenDO.getAuthzUser() == null) {
+                    throw new IdentityOAuth2Exception("Access token data object with an authorized user should be " +
+                            "available for further execution.");
+                }
+                String userStoreDomain =
+                        OAuth2Util.getSanitizedUserStoreDomain(accessContextTokenDO.getUserStoreDomain());
+                if (existingAccessTokenDO != null) {
+                    updateAccessTokenState(connection, existingAccessTokenDO.getTokenId(),
+                            OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, UUID.randomUUID().toString(),
+                            userStoreDomain, existingAccessTokenDO.getGrantType());
+                }
+
+                String consumerKey = accessContextTokenDO.getConsumerKey();
+                String accessTokenHash =
+                        getPersistedAccessTokenIdentifier(accessContextTokenDO.getAccessToken(), consumerKey);
+                String userDomain = OAuth2Util.getUserStoreDomain(accessTokenDO.getAuthzUser());
+                String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(accessTokenDO.getAuthzUser());
+                int tenantId = OAuth2Util.getTenantId(accessTokenDO.getAuthzUser().getTenantDomain());
+
+                PreparedStatement insertTokenPrepStmt = getBatchStatement(connection, insertTokenStatements,
+                        OAuth2Util.getTokenPartitionedSqlByUserStore(getInsertAccessTokenSQL(), userDomain));
+                setAccessTokenInsertParameters(insertTokenPrepStmt, accessTokenHash, consumerKey, accessTokenDO,
+                        userDomain, authenticatedIDP, tenantId);
+                insertTokenPrepStmt.addBatch();
+
+                if (accessTokenDO.getScope() != null && accessTokenDO.getScope().length > 0) {
+                    PreparedStatement addScopePrepStmt = getBatchStatement(connection, addScopeStatements,
+                            OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.INSERT_OAUTH2_TOKEN_SCOPE,
+                                    userDomain));
+                    for (String scope : accessTokenDO.getScope()) {
+                        addScopePrepStmt.setString(1, accessTokenDO.getTokenId());
+                        addScopePrepStmt.setString(2, scope);
+                        addScopePrepStmt.setInt(3, tenantId);
+                        addScopePrepStmt.addBatch();
+                    }
+                }
+
+                if (isTokenBindingAvailable(accessTokenDO.getTokenBinding())) {
+                    if (storeTokenBindingStatement == null) {
+                        storeTokenBindingStatement = connection.prepareStatement(STORE_TOKEN_BINDING);
+                    }
+                    storeTokenBindingStatement.setString(1, accessTokenDO.getTokenId());
+                    storeTokenBindingStatement.setString(2, accessTokenDO.getTokenBinding().getBindingType());
+                    storeTokenBindingStatement.setString(3, accessTokenDO.getTokenBinding().getBindingReference());
+                    storeTokenBindingStatement.setString(4, accessTokenDO.getTokenBinding().getBindingValue());
+                    storeTokenBindingStatement.setInt(5, tenantId);
+                    storeTokenBindingStatement.addBatch();
+                }
+            }
+
+            // Scopes and bindings reference the token rows, hence the token rows are written first.
+            for (PreparedStatement insertTokenPrepStmt : insertTokenStatements.values()) {
+                insertTokenPrepStmt.executeBatch();
+            }
+            for (PreparedStatement addScopePrepStmt : addScopeStatements.values()) {
+                addScopePrepStmt.executeBatch();
+            }
+            if (storeTokenBindingStatement != null) {
+                storeTokenBindingStatement.executeBatch();
+            }
+            if (isInlineTokenCleanupEnabled()) {
+                for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+                    if (accessContextTokenDO.getExistingAccessTokenDO() != null) {
+                        oldTokenCleanupObject.cleanupTokenByTokenId(
+                                accessContextTokenDO.getExistingAccessTokenDO().getTokenId(), connection);
+                    }
+                }
+            }
+            IdentityDatabaseUtil.commitTransaction(connection);
+            batchPersisted = true;
+            for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+                if (accessContextTokenDO.getExistingAccessTokenDO() != null) {
+                    archiveReplacedToken(accessContextTokenDO.getExistingAccessTokenDO().getTokenId(),
+                            OAuth2Util.getSanitizedUserStoreDomain(accessContextTokenDO.getUserStoreDomain()),
+                            connection);
+                }
+            }
+        } catch (SQLException | IdentityOAuth2Exception e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            // A conflicting token (i.e. 'CON_APP_KEY' violation) fails the whole batch. Retry the tokens one by one
+            // so that the conflict recovery of the individual insert is applied.
+            log.warn("Error while persisting a batch of " + accessContextTokenDOs.size() + " access tokens. " +
+                    "Retrying to persist them individually.");
+            if (log.isDebugEnabled()) {
+                log.debug("Error while persisting the batch of access tokens.", e);
+            }
+        } finally {
+            for (PreparedStatement insertTokenPrepStmt : insertTokenStatements.values()) {
+                IdentityDatabaseUtil.closeStatement(insertTokenPrepStmt);
+            }
+            for (PreparedStatement addScopePrepStmt : addScopeStatements.values()) {
+                IdentityDatabaseUtil.closeStatement(addScopePrepStmt);
+            }
+            IdentityDatabaseUtil.closeStatement(storeTokenBindingStatement);
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+
+        if (batchPersisted) {
+            return Collections.emptyList();
+        }
+        return insertAccessTokensIndividually(accessContextTokenDOs);
+    }
+
+    private List<AccessContextTokenDO> insertAccessTokensIndividually(
+            List<AccessContextTokenDO> accessContextTokenDOs) {
+
+        List<AccessContextTokenDO> failedAccessContextTokenDOs = new ArrayList<>();
+        for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+            try {
+                insertAccessToken(accessContextTokenDO.getAccessToken(), accessContextTokenDO.getConsumerKey(),
+                        accessContextTokenDO.getNewAccessTokenDO(), accessContextTokenDO.getExistingAccessTokenDO(),
+                        accessContextTokenDO.getUserStoreDomain());
+            } catch (IdentityOAuth2Exception e) {
+                failedAccessContextTokenDOs.add(accessContextTokenDO);
+                log.error("Error while persisting access token for client: " +
+                        accessContextTokenDO.getConsumerKey(), e);
+            }
+        }
+        return failedAccessContextTokenDOs;
+    }
+
+    private PreparedStatement getBatchStatement(Connection connection, Map<String, PreparedStatement> statements,
+                                                String sql) throws SQLException {
+
+        PreparedStatement prepStmt = statements.get(sql);
+        if (prepStmt == null) {
+            prepStmt = connection.prepareStatement(sql);
+            statements.put(sql, prepStmt);
+        }
+        return prepStmt;
+    }
+
+    /**
+     * Get the identifier which is persisted for the given access token. This is the access token itself, unless the
+     * token issuer of the application persists an alias (i.e. the JTI of a JWT access token).
+     */
+    protected String getPersistedAccessTokenIdentifier(String accessToken, String consumerKey)
+            throws IdentityOAuth2Exception {
+
+        try {
+            OauthTokenIssuer oauthTokenIssuer = OAuth2Util.getOAuthTokenIssuerForOAuthApp(consumerKey);
+            //check for persist alias for the token type
+            if (oauthTokenIssuer.usePersistedAccessTokenAlias()) {
+                return oauthTokenIssuer.getAccessTokenHash(accessToken);
+            }
+            return accessToken;
+        } catch (OAuthSystemException e) {
+            if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
+                log.debug("Error while getting access token hash for token(hashed): " + DigestUtils
+                        .sha256Hex(accessToken));
+            }
+            throw new IdentityOAuth2Exception("Error while getting access token hash.", e);
+        } catch (InvalidOAuthClientException e) {
+            throw new IdentityOAuth2Exception(
+                    "Error while retrieving oauth issuer for the app with clientId: " + consumerKey, e);
+        }
+    }
+
+    private String getInsertAccessTokenSQL() {
+
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+                return SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN_WITH_IDP_NAME_WITH_CONSENTED_TOKEN;
+            }
+            return SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN_WITH_IDP_NAME;
+        }
+        if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+            return SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN_WITH_CONSENTED_TOKEN;
+        }
+        return SQLQueries.INSERT_OAUTH2_ACCESS_TOKEN;
+    }
+
+    private void setAccessTokenInsertParameters(PreparedStatement insertTokenPrepStmt, String accessTokenHash,
+                                                String consumerKey, AccessTokenDO accessTokenDO, String userDomain,
+                                                String authenticatedIDP, int tenantId)
+            throws SQLException, IdentityOAuth2Exception {
+
+        insertTokenPrepStmt.setString(1, getPersistenceProcessor().getProcessedAccessTokenIdentifier(
+                accessTokenHash));
+
+        if (accessTokenDO.getRefreshToken() != null) {
+            insertTokenPrepStmt.setString(2,
+                    getPersistenceProcessor().getProcessedRefreshToken(accessTokenDO.getRefreshToken()));
+        } else {
+            insertTokenPrepStmt.setString(2, accessTokenDO.getRefreshToken());
+        }
+
+        insertTokenPrepStmt.setString(3, accessTokenDO.getAuthzUser().getUserName());
+        insertTokenPrepStmt.setInt(4, tenantId);
+        insertTokenPrepStmt.setString(5, OAuth2Util.getSanitizedUserStoreDomain(userDomain));
+        insertTokenPrepStmt
+                .setTimestamp(6, accessTokenDO.getIssuedTime(), Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+        insertTokenPrepStmt.setTimestamp(7, accessTokenDO.getRefreshTokenIssuedTime(), Calendar.getInstance(TimeZone
+                .getTimeZone(UTC)));
+        insertTokenPrepStmt.setLong(8, accessTokenDO.getValidityPeriodInMillis());
+        insertTokenPrepStmt.setLong(9, accessTokenDO.getRefreshTokenValidityPeriodInMillis());
+        insertTokenPrepStmt.setString(10, OAuth2Util.hashScopes(accessTokenDO.getScope()));
+        insertTokenPrepStmt.setString(11, accessTokenDO.getTokenState());
+        insertTokenPrepStmt.setString(12, accessTokenDO.getTokenType());
+        insertTokenPrepStmt.setString(13, accessTokenDO.getTokenId());
+        insertTokenPrepStmt.setString(14, accessTokenDO.getGrantType());
+        insertTokenPrepStmt.setString(15, accessTokenDO.getAuthzUser().getAuthenticatedSubjectIdentifier());
+        insertTokenPrepStmt
+                .setString(16, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenHash));
+        if (accessTokenDO.getRefreshToken() != null) {
+            insertTokenPrepStmt.setString(17,
+                    getHashingPersistenceProcessor().getProcessedRefreshToken(accessTokenDO.getRefreshToken()));
+        } else {
+            insertTokenPrepStmt.setString(17, accessTokenDO.getRefreshToken());
+        }
+        if (isTokenBindingAvailable(accessTokenDO.getTokenBinding())) {
+            insertTokenPrepStmt.setString(18, accessTokenDO.getTokenBinding().getBindingReference());
+        } else {
+            insertTokenPrepStmt.setString(18, NONE);
+        }
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+                insertTokenPrepStmt.setString(19, Boolean.toString(accessTokenDO.isConsentedToken()));
+                insertTokenPrepStmt.setString(20, authenticatedIDP);
+                insertTokenPrepStmt.setInt(21, tenantId);
+                insertTokenPrepStmt.setString(22, getPersistenceProcessor().getProcessedClientId(consumerKey));
+            } else {
+                insertTokenPrepStmt.setString(19, authenticatedIDP);
+                insertTokenPrepStmt.setInt(20, tenantId);
+                insertTokenPrepStmt.setString(21, getPersistenceProcessor().getProcessedClientId(consumerKey));
+            }
+        } else {
+            if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+                insertTokenPrepStmt.setString(19, Boolean.toString(accessTokenDO.isConsentedToken()));
+                insertTokenPrepStmt.setString(20, getPersistenceProcessor().getProcessedClientId(consumerKey));
+            } else {
+                insertTokenPrepStmt.setString(19, getPersistenceProcessor().getProcessedClientId(consumerKey));
+            }
+        }
+    }
+
     @Override
     public boolean insertAccessToken(String accessToken, String consumerKey,
                                      AccessTokenDO newAccessTokenDO, AccessTokenDO existingAccessTokenDO,
@@ -375,7 +578,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
         String userStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(rawUserStoreDomain);
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        Connection connection = getConnection();
         try {
             if (existingAccessTokenDO != null) {
                 //  Mark the existing access token as expired on database if a token exist for the user
@@ -385,10 +588,13 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
             insertAccessToken(accessToken, consumerKey, newAccessTokenDO, connection, userStoreDomain);
 
-            if (isTokenCleanupFeatureEnabled && existingAccessTokenDO != null) {
+            if (isInlineTokenCleanupEnabled() && existingAccessTokenDO != null) {
                 oldTokenCleanupObject.cleanupTokenByTokenId(existingAccessTokenDO.getTokenId(), connection);
             }
             IdentityDatabaseUtil.commitTransaction(connection);
+            if (existingAccessTokenDO != null) {
+                archiveReplacedToken(existingAccessTokenDO.getTokenId(), userStoreDomain, connection);
+            }
             return true;
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -415,6 +621,15 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             log.debug("Retrieving latest access token for client: " + consumerKey + " user: "
                     + authzUser.getLoggableUserId() + " scope: " + scope);
         }
+        AccessTokenDO pendingAccessTokenDO = AccessTokenWriteBehindPersister.getInstance()
+                .getPendingLatestAccessToken(consumerKey, authzUser, scope, tokenBindingReference);
+        if (isPendingAccessTokenUsable(pendingAccessTokenDO, includeExpiredTokens)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Latest access token for client: " + consumerKey + " is pending persistence. Returning " +
+                        "it from the write-behind queue.");
+            }
+            return pendingAccessTokenDO;
+        }
         String tenantDomain = authzUser.getTenantDomain();
         int tenantId = OAuth2Util.getTenantId(tenantDomain);
         boolean isUsernameCaseSensitive
@@ -423,7 +638,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         String userDomain = OAuth2Util.getUserStoreDomain(authzUser);
         String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(authzUser);
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         try {
@@ -850,7 +1065,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         userStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(userStoreDomain);
         String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(userName);
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         Map<String, AccessTokenDO> accessTokenDOMap = new HashMap<>();
@@ -949,6 +1164,269 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         return new HashSet<>(accessTokenDOMap.values());
     }
 
+    @Override
+    public List<AccessTokenDO> getAccessTokensOfUser(AuthenticatedUser authenticatedUser, String userStoreDomain,
+                                                     String lastTokenId, int limit) throws IdentityOAuth2Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieving a batch of " + limit + " access tokens of user: " +
+                    authenticatedUser.getLoggableUserId() + " after token id: " + lastTokenId);
+        }
+
+        String tenantDomain = authenticatedUser.getTenantDomain();
+        String tenantAwareUsernameWithNoUserDomain = authenticatedUser.getUserName();
+        String userDomain = OAuth2Util.getUserStoreDomain(authenticatedUser);
+        int tenantId = OAuth2Util.getTenantId(tenantDomain);
+        boolean isUsernameCaseSensitive
+                = IdentityUtil.isUserStoreCaseSensitive(authenticatedUser.getUserStoreDomain(), tenantId);
+        userStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(userStoreDomain);
+        String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(authenticatedUser);
+
+        String sql;
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_OF_USER_IDP_NAME;
+        } else {
+            sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_OF_USER;
+        }
+        if (lastTokenId != null) {
+            sql += SQLQueries.ACCESS_TOKENS_OF_USER_AFTER_TOKEN_ID;
+        }
+        sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql + SQLQueries.ACCESS_TOKENS_OF_USER_ORDER_BY_TOKEN_ID,
+                userStoreDomain);
+        if (!isUsernameCaseSensitive) {
+            sql = sql.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
+        }
+
+        List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
+        try (Connection connection = getConnection(false)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+                int parameterIndex = 1;
+                if (isUsernameCaseSensitive) {
+                    prepStmt.setString(parameterIndex++, tenantAwareUsernameWithNoUserDomain);
+                } else {
+                    prepStmt.setString(parameterIndex++, tenantAwareUsernameWithNoUserDomain.toLowerCase());
+                }
+                prepStmt.setInt(parameterIndex++, tenantId);
+                prepStmt.setString(parameterIndex++, userDomain);
+                if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                    prepStmt.setString(parameterIndex++, authenticatedIDP);
+                }
+                if (lastTokenId != null) {
+                    prepStmt.setString(parameterIndex, lastTokenId);
+                }
+                // Row limiting is done through the driver to keep the query portable across the databases.
+                prepStmt.setMaxRows(limit);
+
+                // The service provider of a client is resolved once per batch to set the subject identifiers.
+                Map<String, ServiceProvider> serviceProviders = new HashMap<>();
+                try (ResultSet resultSet = prepStmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
+                        String accessToken = getPersistenceProcessor()
+                                .getPreprocessedAccessTokenIdentifier(resultSet.getString(2));
+                        String refreshToken = getPersistenceProcessor()
+                                .getPreprocessedRefreshToken(resultSet.getString(3));
+                        Timestamp issuedTime = resultSet.getTimestamp(4,
+                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(5,
+                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        long validityPeriodInMillis = resultSet.getLong(6);
+                        long refreshTokenValidityPeriodMillis = resultSet.getLong(7);
+                        String tokenType = resultSet.getString(8);
+                        String tokenId = resultSet.getString(9);
+                        String subjectIdentifier = resultSet.getString(10);
+                        String tokenBindingReference = resultSet.getString(11);
+
+                        ServiceProvider serviceProvider = serviceProviders.get(consumerKey);
+                        if (serviceProvider == null) {
+                            serviceProvider = getServiceProvider(consumerKey, tenantDomain);
+                            serviceProviders.put(consumerKey, serviceProvider);
+                        }
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(
+                                tenantAwareUsernameWithNoUserDomain, userDomain, tenantDomain, authenticatedIDP);
+                        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+                        AccessTokenDO dataDO = new AccessTokenDO(consumerKey, user, new String[0], issuedTime,
+                                refreshTokenIssuedTime, validityPeriodInMillis, refreshTokenValidityPeriodMillis,
+                                tokenType);
+                        dataDO.setAccessToken(accessToken);
+                        dataDO.setRefreshToken(refreshToken);
+                        dataDO.setTokenId(tokenId);
+                        dataDO.setTenantID(tenantId);
+                        if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
+                            // Marks the token to be looked up for its binding.
+                            TokenBinding tokenBinding = new TokenBinding();
+                            tokenBinding.setBindingReference(tokenBindingReference);
+                            dataDO.setTokenBinding(tokenBinding);
+                        }
+                        accessTokenDOs.add(dataDO);
+                    }
+                }
+            }
+            if (!accessTokenDOs.isEmpty()) {
+                setScopesToAccessTokenDOs(connection, accessTokenDOs, userStoreDomain);
+                setTokenBindingsToAccessTokenDOs(connection, accessTokenDOs);
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving 'ACTIVE or EXPIRED' access tokens " +
+                    "of user: " + authenticatedUser.getLoggableUserId(), e);
+        }
+        return accessTokenDOs;
+    }
+
+    private ServiceProvider getServiceProvider(String consumerKey, String tenantDomain)
+            throws IdentityOAuth2Exception {
+
+        try {
+            return OAuth2ServiceComponentHolder.getApplicationMgtService().getServiceProviderByClientId(consumerKey,
+                    OAuthConstants.Scope.OAUTH2, tenantDomain);
+        } catch (IdentityApplicationManagementException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
+                    "for client id " + consumerKey, e);
+        }
+    }
+
+    /**
+     * Set the scopes of the given access tokens with a single query on the partitioned access token scope table.
+     */
+    private void setScopesToAccessTokenDOs(Connection connection, List<AccessTokenDO> accessTokenDOs,
+                                           String userStoreDomain) throws SQLException, IdentityOAuth2Exception {
+
+        Map<String, AccessTokenDO> accessTokenDOsByTokenId = new HashMap<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            accessTokenDOsByTokenId.put(accessTokenDO.getTokenId(), accessTokenDO);
+        }
+        String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.RETRIEVE_ACCESS_TOKEN_SCOPES_BY_TOKEN_IDS,
+                userStoreDomain);
+        try (PreparedStatement prepStmt = prepareStatementWithTokenIds(connection, sql,
+                accessTokenDOsByTokenId.keySet()); ResultSet resultSet = prepStmt.executeQuery()) {
+            while (resultSet.next()) {
+                AccessTokenDO accessTokenDO = accessTokenDOsByTokenId.get(resultSet.getString(1));
+                String scope = resultSet.getString(2);
+                if (accessTokenDO != null && StringUtils.isNotBlank(scope)) {
+                    accessTokenDO.setScope((String[]) ArrayUtils.add(accessTokenDO.getScope(), scope.trim()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the token bindings of the given access tokens which are bound, with a single query.
+     */
+    private void setTokenBindingsToAccessTokenDOs(Connection connection, List<AccessTokenDO> accessTokenDOs)
+            throws SQLException {
+
+        Map<String, AccessTokenDO> accessTokenDOsByTokenId = new HashMap<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            if (accessTokenDO.getTokenBinding() != null) {
+                accessTokenDOsByTokenId.put(accessTokenDO.getTokenId(), accessTokenDO);
+                // Only the tokens which have a binding other than the default token to session mapping keep it.
+                accessTokenDO.setTokenBinding(null);
+            }
+        }
+        if (accessTokenDOsByTokenId.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement prepStmt = prepareStatementWithTokenIds(connection,
+                SQLQueries.RETRIEVE_TOKEN_BINDINGS_BY_TOKEN_IDS, accessTokenDOsByTokenId.keySet());
+             ResultSet resultSet = prepStmt.executeQuery()) {
+            while (resultSet.next()) {
+                AccessTokenDO accessTokenDO = accessTokenDOsByTokenId.get(resultSet.getString(1));
+                if (accessTokenDO == null ||
+                        StringUtils.equals(DEFAULT_TOKEN_TO_SESSION_MAPPING, resultSet.getString(2))) {
+                    continue;
+                }
+                TokenBinding tokenBinding = new TokenBinding();
+                tokenBinding.setBindingType(resultSet.getString(2));
+                tokenBinding.setBindingReference(resultSet.getString(3));
+                tokenBinding.setBindingValue(resultSet.getString(4));
+                accessTokenDO.setTokenBinding(tokenBinding);
+            }
+        }
+    }
+
+    private PreparedStatement prepareStatementWithTokenIds(Connection connection, String sql,
+                                                           Collection<String> tokenIds) throws SQLException {
+
+        String placeholders = String.join(", ", Collections.nCopies(tokenIds.size(), "?"));
+        PreparedStatement prepStmt = connection.prepareStatement(
+                sql.replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, placeholders));
+        int parameterIndex = 1;
+        for (String tokenId : tokenIds) {
+            prepStmt.setString(parameterIndex++, tokenId);
+        }
+        return prepStmt;
+    }
+
+    /**
+     * Revoke the given access tokens of the user with a single update on the access token table the tokens of the
+     * user are partitioned into, instead of an update per token.
+     */
+    @Override
+    public void revokeAccessTokensOfUser(AuthenticatedUser authenticatedUser, String userStoreDomain,
+                                         List<AccessTokenDO> accessTokenDOs) throws IdentityOAuth2Exception {
+
+        if (accessTokenDOs == null || accessTokenDOs.isEmpty()) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Revoking " + accessTokenDOs.size() + " access tokens of user: " +
+                    authenticatedUser.getLoggableUserId());
+        }
+
+        int tenantId = OAuth2Util.getTenantId(authenticatedUser.getTenantDomain());
+        boolean isUsernameCaseSensitive
+                = IdentityUtil.isUserStoreCaseSensitive(authenticatedUser.getUserStoreDomain(), tenantId);
+        String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.REVOKE_ACCESS_TOKENS_OF_USER,
+                OAuth2Util.getSanitizedUserStoreDomain(userStoreDomain));
+        String username = authenticatedUser.getUserName();
+        if (!isUsernameCaseSensitive) {
+            sql = sql.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
+            username = username.toLowerCase();
+        }
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            AccessTokenWriteBehindPersister.getInstance().updatePendingAccessTokenStateById(
+                    accessTokenDO.getTokenId(), OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(accessTokenDOs.size(), "?"));
+        sql = sql.replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, placeholders);
+
+        List<String> tokens = new ArrayList<>();
+        Connection connection = getConnection(true);
+        try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+            prepStmt.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+            prepStmt.setString(2, username);
+            prepStmt.setInt(3, tenantId);
+            prepStmt.setString(4, OAuth2Util.getUserStoreDomain(authenticatedUser));
+            int parameterIndex = 5;
+            for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+                prepStmt.setString(parameterIndex++, accessTokenDO.getTokenId());
+                tokens.add(accessTokenDO.getAccessToken());
+            }
+            int revokedCount = prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+            if (log.isDebugEnabled()) {
+                log.debug("Revoked " + revokedCount + " access tokens of user: " +
+                        authenticatedUser.getLoggableUserId());
+            }
+            for (String token : tokens) {
+                RevokedTokenRegistry.getInstance().addRevokedAccessToken(token);
+            }
+            // To revoke request objects which have persisted against the access tokens.
+            OAuth2TokenUtil.postUpdateAccessTokens(tokens, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+            if (isTokenCleanupFeatureEnabled) {
+                for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+                    oldTokenCleanupObject.cleanupTokenByTokenId(accessTokenDO.getTokenId(), connection);
+                }
+            }
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw new IdentityOAuth2Exception("Error occurred while revoking access tokens of user: " +
+                    authenticatedUser.getLoggableUserId(), e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
     @Override
     public AccessTokenDO getAccessToken(String accessTokenIdentifier, boolean includeExpired)
             throws IdentityOAuth2Exception {
@@ -958,8 +1436,53 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     (accessTokenIdentifier));
         }
 
+        AccessTokenDO pendingAccessTokenDO =
+                AccessTokenWriteBehindPersister.getInstance().getPendingAccessToken(accessTokenIdentifier);
+        if (pendingAccessTokenDO != null) {
+            if (!isPendingAccessTokenUsable(pendingAccessTokenDO, includeExpired)) {
+                // The token was revoked or expired while pending persistence.
+                return null;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Access token with id: " + pendingAccessTokenDO.getTokenId() + " is pending " +
+                        "persistence. Returning it from the write-behind queue.");
+            }
+            pendingAccessTokenDO.setAccessToken(accessTokenIdentifier);
+            return pendingAccessTokenDO;
+        }
+
+        ReadReplicaRouter readReplicaRouter = ReadReplicaRouter.getInstance();
+        if (!isReadReplicaRoutingEnabled()) {
+            return getAccessToken(accessTokenIdentifier, includeExpired, getConnection(false));
+        }
+        AccessTokenDO accessTokenDO = getAccessToken(accessTokenIdentifier, includeExpired,
+                readReplicaRouter.getReadConnection());
+        if (accessTokenDO == null) {
+            // The token may not have been replicated yet.
+            readReplicaRouter.recordReplicaMiss();
+            accessTokenDO = getAccessToken(accessTokenIdentifier, includeExpired, getConnection(false));
+        }
+        return accessTokenDO;
+    }
+
+    /**
+     * Check whether a token pending write-behind persistence can be served in place of the token row, given the
+     * state change recorded against it while pending.
+     */
+    private boolean isPendingAccessTokenUsable(AccessTokenDO pendingAccessTokenDO, boolean includeExpired) {
+
+        if (pendingAccessTokenDO == null) {
+            return false;
+        }
+        String tokenState = pendingAccessTokenDO.getTokenState();
+        return OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(tokenState) ||
+                (includeExpired && OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED.equals(tokenState));
+    }
+
+    private AccessTokenDO getAccessToken(String accessTokenIdentifier, boolean includeExpired, Connection connection)
+            throws IdentityOAuth2Exception {
+
         AccessTokenDO dataDO = null;
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         try {
@@ -1002,60 +1525,8 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             while (resultSet.next()) {
 
                 if (iterateId == 0) {
-
-                    String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
-                    String authorizedUser = resultSet.getString(2);
-                    int tenantId = resultSet.getInt(3);
-                    String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
-                    String userDomain = resultSet.getString(4);
-                    String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(5));
-                    Timestamp issuedTime = resultSet.getTimestamp(6, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(7,
-                            Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    long validityPeriodInMillis = resultSet.getLong(8);
-                    long refreshTokenValidityPeriodMillis = resultSet.getLong(9);
-                    String tokenType = resultSet.getString(10);
-                    String refreshToken = resultSet.getString(11);
-                    String tokenId = resultSet.getString(12);
-                    String grantType = resultSet.getString(13);
-                    String subjectIdentifier = resultSet.getString(14);
-                    String authenticatedIDP = null;
-                    String tokenBindingReference = resultSet.getString(15);
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = resultSet.getString(16);
-                    }
-
-                    boolean isConsentedToken = false;
-                    if (isConsentedColumnDataFetched) {
-                        int consentedTokenColumnIndex = resultSet.findColumn(CONSENTED_TOKEN_COLUMN_NAME);
-                        isConsentedToken = resultSet.getBoolean(consentedTokenColumnIndex);
-                    }
-
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authorizedUser,
-                            userDomain, tenantDomain, authenticatedIDP);
-                    ServiceProvider serviceProvider;
-                    try {
-                        serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
-                                getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
-                    } catch (IdentityApplicationManagementException e) {
-                        throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
-                                "for client id " + consumerKey, e);
-                    }
-
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
-
-                    dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime, refreshTokenIssuedTime,
-                            validityPeriodInMillis, refreshTokenValidityPeriodMillis, tokenType);
-                    dataDO.setAccessToken(accessTokenIdentifier);
-                    dataDO.setRefreshToken(refreshToken);
-                    dataDO.setTokenId(tokenId);
-                    dataDO.setGrantType(grantType);
-                    dataDO.setTenantID(tenantId);
-                    dataDO.setIsConsentedToken(isConsentedToken);
-
-                    if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
-                        setTokenBindingToAccessTokenDO(dataDO, connection, tokenId);
-                    }
+                    dataDO = buildAccessTokenDO(resultSet, connection, accessTokenIdentifier,
+                            isConsentedColumnDataFetched, includeExpired);
                 } else {
                     scopes.add(resultSet.getString(5));
                 }
@@ -1077,6 +1548,197 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         return dataDO;
     }
 
+    @Override
+    public Map<String, AccessTokenDO> getAccessTokens(Collection<String> accessTokenIdentifiers,
+                                                      boolean includeExpired) throws IdentityOAuth2Exception {
+
+        if (!includeExpired) {
+            return AccessTokenDAO.super.getAccessTokens(accessTokenIdentifiers, false);
+        }
+
+        Map<String, AccessTokenDO> accessTokenDOs = new HashMap<>();
+        String sql;
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_BY_HASH_IDP_NAME;
+        } else {
+            sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_BY_HASH;
+        }
+
+        // Group the token identifiers by the partitioned query, indexed by the persisted token hash.
+        Map<String, Map<String, String>> tokenIdentifiersBySql = new LinkedHashMap<>();
+        for (String accessTokenIdentifier : accessTokenIdentifiers) {
+            if (StringUtils.isBlank(accessTokenIdentifier) || accessTokenDOs.containsKey(accessTokenIdentifier)) {
+                continue;
+            }
+            AccessTokenDO pendingAccessTokenDO =
+                    AccessTokenWriteBehindPersister.getInstance().getPendingAccessToken(accessTokenIdentifier);
+            if (pendingAccessTokenDO != null) {
+                if (isPendingAccessTokenUsable(pendingAccessTokenDO, true)) {
+                    pendingAccessTokenDO.setAccessToken(accessTokenIdentifier);
+                    accessTokenDOs.put(accessTokenIdentifier, pendingAccessTokenDO);
+                }
+                continue;
+            }
+            String partitionedSql = OAuth2Util.getTokenPartitionedSqlByToken(sql, accessTokenIdentifier);
+            tokenIdentifiersBySql.computeIfAbsent(partitionedSql, key -> new LinkedHashMap<>()).put(
+                    getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenIdentifier),
+                    accessTokenIdentifier);
+        }
+        if (tokenIdentifiersBySql.isEmpty()) {
+            return accessTokenDOs;
+        }
+
+        ReadReplicaRouter readReplicaRouter = ReadReplicaRouter.getInstance();
+        if (isReadReplicaRoutingEnabled()) {
+            retrieveAccessTokens(readReplicaRouter.getReadConnection(), tokenIdentifiersBySql, accessTokenDOs);
+            // Tokens which were not found may not have been replicated yet. Look them up on the primary database.
+            Map<String, Map<String, String>> missedTokenIdentifiersBySql = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : tokenIdentifiersBySql.entrySet()) {
+                for (Map.Entry<String, String> tokenIdentifier : entry.getValue().entrySet()) {
+                    if (!accessTokenDOs.containsKey(tokenIdentifier.getValue())) {
+                        missedTokenIdentifiersBySql.computeIfAbsent(entry.getKey(), key -> new LinkedHashMap<>())
+                                .put(tokenIdentifier.getKey(), tokenIdentifier.getValue());
+                    }
+                }
+            }
+            if (!missedTokenIdentifiersBySql.isEmpty()) {
+                readReplicaRouter.recordReplicaMiss();
+                retrieveAccessTokens(getConnection(false), missedTokenIdentifiersBySql,
+                        accessTokenDOs);
+            }
+        } else {
+            retrieveAccessTokens(getConnection(false), tokenIdentifiersBySql, accessTokenDOs);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieved " + accessTokenDOs.size() + " access tokens out of " +
+                    accessTokenIdentifiers.size() + " token identifiers with " + tokenIdentifiersBySql.size() +
+                    " partitioned queries.");
+        }
+        return accessTokenDOs;
+    }
+
+    private void retrieveAccessTokens(Connection dbConnection, Map<String, Map<String, String>> tokenIdentifiersBySql,
+                                      Map<String, AccessTokenDO> accessTokenDOs) throws IdentityOAuth2Exception {
+
+        try (Connection connection = dbConnection) {
+            for (Map.Entry<String, Map<String, String>> entry : tokenIdentifiersBySql.entrySet()) {
+                List<String> tokenHashes = new ArrayList<>(entry.getValue().keySet());
+                for (int fromIndex = 0; fromIndex < tokenHashes.size(); fromIndex += MAX_TOKENS_PER_QUERY) {
+                    List<String> tokenHashChunk = tokenHashes.subList(fromIndex,
+                            Math.min(fromIndex + MAX_TOKENS_PER_QUERY, tokenHashes.size()));
+                    retrieveAccessTokens(connection, entry.getKey(), tokenHashChunk, entry.getValue(),
+                            accessTokenDOs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error when retrieving access tokens.", e);
+        }
+    }
+
+    private void retrieveAccessTokens(Connection connection, String sql, List<String> tokenHashes,
+                                      Map<String, String> tokenIdentifiersByHash,
+                                      Map<String, AccessTokenDO> accessTokenDOs)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String placeholders = String.join(", ", Collections.nCopies(tokenHashes.size(), "?"));
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                sql.replace(SQLQueries.ACCESS_TOKEN_HASH_LIST_PLACEHOLDER, placeholders))) {
+            for (int i = 0; i < tokenHashes.size(); i++) {
+                prepStmt.setString(i + 1, tokenHashes.get(i));
+            }
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    String accessTokenIdentifier = tokenIdentifiersByHash.get(
+                            resultSet.getString(ACCESS_TOKEN_HASH_COLUMN_NAME));
+                    if (accessTokenIdentifier == null) {
+                        continue;
+                    }
+                    AccessTokenDO dataDO = accessTokenDOs.get(accessTokenIdentifier);
+                    if (dataDO == null) {
+                        accessTokenDOs.put(accessTokenIdentifier,
+                                buildAccessTokenDO(resultSet, connection, accessTokenIdentifier, false, true));
+                    } else {
+                        // Each scope of the token is returned in a separate row.
+                        dataDO.setScope((String[]) ArrayUtils.add(dataDO.getScope(), resultSet.getString(5)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the access token of the current row of a result set retrieved with one of the access token retrieval
+     * queries. Only the first scope of the token is set, as each scope of the token is returned in a separate row.
+     * The queries which also return expired tokens select the state of the token, the others only return active
+     * tokens.
+     */
+    private AccessTokenDO buildAccessTokenDO(ResultSet resultSet, Connection connection, String accessTokenIdentifier,
+                                             boolean isConsentedColumnDataFetched, boolean isTokenStateFetched)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
+        String authorizedUser = resultSet.getString(2);
+        int tenantId = resultSet.getInt(3);
+        String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
+        String userDomain = resultSet.getString(4);
+        String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(5));
+        Timestamp issuedTime = resultSet.getTimestamp(6, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+        Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(7,
+                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+        long validityPeriodInMillis = resultSet.getLong(8);
+        long refreshTokenValidityPeriodMillis = resultSet.getLong(9);
+        String tokenType = resultSet.getString(10);
+        String refreshToken = resultSet.getString(11);
+        String tokenId = resultSet.getString(12);
+        String grantType = resultSet.getString(13);
+        String subjectIdentifier = resultSet.getString(14);
+        String authenticatedIDP = null;
+        String tokenBindingReference = resultSet.getString(15);
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            authenticatedIDP = resultSet.getString(16);
+        }
+
+        boolean isConsentedToken = false;
+        if (isConsentedColumnDataFetched) {
+            int consentedTokenColumnIndex = resultSet.findColumn(CONSENTED_TOKEN_COLUMN_NAME);
+            isConsentedToken = resultSet.getBoolean(consentedTokenColumnIndex);
+        }
+
+        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authorizedUser,
+                userDomain, tenantDomain, authenticatedIDP);
+        ServiceProvider serviceProvider;
+        try {
+            serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
+                    getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
+        } catch (IdentityApplicationManagementException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
+                    "for client id " + consumerKey, e);
+        }
+
+        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+
+        AccessTokenDO dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime, refreshTokenIssuedTime,
+                validityPeriodInMillis, refreshTokenValidityPeriodMillis, tokenType);
+        dataDO.setAccessToken(accessTokenIdentifier);
+        dataDO.setRefreshToken(refreshToken);
+        dataDO.setTokenId(tokenId);
+        dataDO.setGrantType(grantType);
+        dataDO.setTenantID(tenantId);
+        dataDO.setIsConsentedToken(isConsentedToken);
+        if (isTokenStateFetched) {
+            dataDO.setTokenState(resultSet.getString(TOKEN_STATE_COLUMN_NAME));
+        } else {
+            dataDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        }
+
+        if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
+            setTokenBindingToAccessTokenDO(dataDO, connection, tokenId);
+        }
+
+        return dataDO;
+    }
+
     private void setTokenBindingToAccessTokenDO(AccessTokenDO dataDO, Connection connection, String tokenId)
             throws SQLException {
 
@@ -1187,7 +1849,8 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     public void updateAccessTokenState(String tokenId, String tokenState, String grantType)
             throws IdentityOAuth2Exception {
         boolean tokenUpdateSuccessful;
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+        AccessTokenWriteBehindPersister.getInstance().updatePendingAccessTokenStateById(tokenId, tokenState);
+        try (Connection connection = getConnection(true)) {
             if (log.isDebugEnabled()) {
                 log.debug("Changing status of access token with id: " + tokenId + " to: " + tokenState);
             }
@@ -1201,11 +1864,22 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 prepStmt.executeUpdate();
                 tokenUpdateSuccessful = true;
 
+                // Read the token hash before the cleanup moves the token out of the token table.
+                String tokenHash = null;
+                if (RevokedTokenRegistry.getInstance().isEnabled() &&
+                        !OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(tokenState)) {
+                    tokenHash = getAccessTokenHashByTokenId(tokenId, connection);
+                }
+
                 if (isTokenCleanupFeatureEnabled && !OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(tokenState)) {
                     oldTokenCleanupObject.cleanupTokenByTokenId(tokenId, connection);
                 }
 
                 IdentityDatabaseUtil.commitTransaction(connection);
+                if (tokenHash != null) {
+                    RevokedTokenRegistry.getInstance()
+                            .addRevokedAccessTokenHashes(Collections.singletonList(tokenHash));
+                }
             } catch (SQLException e) {
                 IdentityDatabaseUtil.rollbackTransaction(connection);
                 throw new IdentityOAuth2Exception("Error while updating Access Token with ID : " +
@@ -1226,7 +1900,17 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         }
     }
 
-    private boolean isPreviousTokenConsented(Connection connection, String tokenId)
+    private String getAccessTokenHashByTokenId(String tokenId, Connection connection) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.RETRIEVE_TOKEN_HASH_BY_TOKEN_ID)) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    protected boolean isPreviousTokenConsented(Connection connection, String tokenId)
             throws SQLException {
 
         String sql = SQLQueries.GET_TOKEN_IS_CONSENTED_OR_NOT;
@@ -1250,6 +1934,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 log.debug("Changing status of access token with id: " + tokenId + " to: " + tokenState +
                         " userStoreDomain: " + userStoreDomain);
             }
+            AccessTokenWriteBehindPersister.getInstance().updatePendingAccessTokenStateById(tokenId, tokenState);
 
             String sql = SQLQueries.UPDATE_TOKEN_STATE;
             sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userStoreDomain);
@@ -1358,28 +2043,27 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 log.debug("Revoking access tokens in batch mode");
             }
         }
+        markPendingAccessTokensRevoked(tokens, isHashedToken);
         String accessTokenStoreTable = OAuthConstants.ACCESS_TOKEN_STORE_TABLE;
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        Connection connection = getConnection();
         PreparedStatement ps = null;
         if (tokens.length > 1) {
             try {
-                List<String> oldTokens = new ArrayList<>();
+                // Hash all the tokens at once, as each token hash is used both to revoke and to clean up the token.
+                List<String> oldTokens = isHashedToken ? Arrays.asList(tokens) :
+                        getHashingPersistenceProcessor().getProcessedAccessTokenIdentifiers(Arrays.asList(tokens));
                 String sqlQuery = SQLQueries.REVOKE_ACCESS_TOKEN.replace(IDN_OAUTH2_ACCESS_TOKEN,
                         accessTokenStoreTable);
                 ps = connection.prepareStatement(sqlQuery);
-                for (String token : tokens) {
+                for (String oldToken : oldTokens) {
                     ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
                     ps.setString(2, UUID.randomUUID().toString());
-                    if (isHashedToken) {
-                        ps.setString(3, token);
-                    } else {
-                        ps.setString(3, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
-                    }
+                    ps.setString(3, oldToken);
                     ps.addBatch();
-                    oldTokens.add(getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
                 }
                 ps.executeBatch();
                 IdentityDatabaseUtil.commitTransaction(connection);
+                RevokedTokenRegistry.getInstance().addRevokedAccessTokenHashes(oldTokens);
                 // To revoke request objects which have persisted against the access token.
                 OAuth2TokenUtil.postUpdateAccessTokens(Arrays.asList(tokens), OAuthConstants.TokenStates.
                         TOKEN_STATE_REVOKED);
@@ -1402,12 +2086,11 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 ps = connection.prepareStatement(sqlQuery);
                 ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
                 ps.setString(2, UUID.randomUUID().toString());
-                if (isHashedToken) {
-                    ps.setString(3, tokens[0]);
-                } else {
-                    ps.setString(3, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(tokens[0]));
-                }
+                String tokenHash = isHashedToken ? tokens[0] :
+                        getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(tokens[0]);
+                ps.setString(3, tokenHash);
                 ps.executeUpdate();
+                RevokedTokenRegistry.getInstance().addRevokedAccessTokenHashes(Collections.singletonList(tokenHash));
 
                 // To revoke request objects which have persisted against the access token.
                 OAuth2TokenUtil.postUpdateAccessTokens(Arrays.asList(tokens), OAuthConstants.TokenStates.
@@ -1426,6 +2109,21 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         }
     }
 
+    /**
+     * Record the revocation of the tokens which are pending write-behind persistence, so that it is applied once they
+     * are persisted. Hashed tokens are read from the database, hence they are never pending.
+     */
+    private void markPendingAccessTokensRevoked(String[] tokens, boolean isHashedToken) {
+
+        if (isHashedToken) {
+            return;
+        }
+        for (String token : tokens) {
+            AccessTokenWriteBehindPersister.getInstance().updatePendingAccessTokenState(token,
+                    OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        }
+    }
+
     /**
      * Revoke the access token(s) individually. Token(s) which is reached here will be a plain text tokens.
      *
@@ -1461,19 +2159,20 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
         }
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        markPendingAccessTokensRevoked(tokens, isHashedToken);
+        Connection connection = getConnection();
         PreparedStatement ps = null;
+        List<String> revokedTokenHashes = new ArrayList<>();
         try {
             for (String token : tokens) {
                 String sqlQuery = OAuth2Util.getTokenPartitionedSqlByToken(SQLQueries.REVOKE_ACCESS_TOKEN, token);
                 ps = connection.prepareStatement(sqlQuery);
                 ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
                 ps.setString(2, UUID.randomUUID().toString());
-                if (isHashedToken) {
-                    ps.setString(3, token);
-                } else {
-                    ps.setString(3, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
-                }
+                String tokenHash = isHashedToken ? token :
+                        getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token);
+                ps.setString(3, tokenHash);
+                revokedTokenHashes.add(tokenHash);
                 int count = ps.executeUpdate();
                 if (log.isDebugEnabled()) {
                     log.debug("Number of rows being updated : " + count);
@@ -1493,6 +2192,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 }
             }
             IdentityDatabaseUtil.commitTransaction(connection);
+            RevokedTokenRegistry.getInstance().addRevokedAccessTokenHashes(revokedTokenHashes);
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw new IdentityOAuth2Exception("Error occurred while revoking Access Token : " +
@@ -1513,9 +2213,11 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         if (log.isDebugEnabled()) {
             log.debug("Revoking access token with id: " + tokenId + " user: " + userId);
         }
+        AccessTokenWriteBehindPersister.getInstance().updatePendingAccessTokenStateById(tokenId,
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
         boolean revoked;
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        Connection connection = getConnection();
         PreparedStatement ps = null;
         try {
             String sqlQuery = OAuth2Util.getTokenPartitionedSqlByUserId(SQLQueries.REVOKE_ACCESS_TOKEN_BY_TOKEN_ID,
@@ -1564,7 +2266,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         boolean isUsernameCaseSensitive =
                 IdentityUtil.isUserStoreCaseSensitive(authenticatedUser.getUserStoreDomain(), tenantId);
         boolean isIdTokenIssuedForClientCredentialsGrant = isIdTokenIssuedForApplicationTokens();
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement ps = null;
         ResultSet rs;
         Set<String> accessTokens = new HashSet<>();
@@ -1630,7 +2332,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         int tenantId = OAuth2Util.getTenantId(authenticatedUser.getTenantDomain());
         boolean isUsernameCaseSensitive =
                 IdentityUtil.isUserStoreCaseSensitive(authenticatedUser.getUserStoreDomain(), tenantId);
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        Connection connection = getConnection();
         PreparedStatement ps = null;
         ResultSet rs;
         Set<AccessTokenDO> accessTokens;
@@ -1773,7 +2475,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     private Set<String> getActiveAccessTokensByConsumerKey(String consumerKey, String userStoreDomain)
             throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement ps = null;
         ResultSet rs = null;
         Set<String> accessTokens = new HashSet<>();
@@ -1799,6 +2501,61 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         return accessTokens;
     }
 
+    @Override
+    public Map<String, Long> getRevokedAccessTokenHashes(Timestamp issuedAfter) throws IdentityOAuth2Exception {
+
+        Map<String, Long> revokedTokens = new HashMap<>();
+        String accessTokenQuery = SQLQueries.GET_REVOKED_ACCESS_TOKEN_HASHES;
+        retrieveRevokedAccessTokenHashes(OAuth2Util.getTokenPartitionedSqlByUserStore(accessTokenQuery,
+                IdentityUtil.getPrimaryDomainName()), issuedAfter, true, revokedTokens);
+        if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
+            Map<String, String> availableDomainMappings = OAuth2Util.getAvailableUserStoreDomainMappings();
+            for (Map.Entry<String, String> availableDomainMapping : availableDomainMappings.entrySet()) {
+                retrieveRevokedAccessTokenHashes(OAuth2Util.getTokenPartitionedSqlByUserStore(accessTokenQuery,
+                        availableDomainMapping.getKey()), issuedAfter, true, revokedTokens);
+            }
+        }
+        // Revoked and invalidated tokens are moved out of the token table when the token cleanup is enabled.
+        if (OAuthServerConfiguration.getInstance().useRetainOldAccessTokens()) {
+            retrieveRevokedAccessTokenHashes(SQLQueries.GET_REVOKED_ACCESS_TOKEN_HASHES_FROM_AUDIT, issuedAfter,
+                    false, revokedTokens);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieved " + revokedTokens.size() + " revoked access tokens issued after: " + issuedAfter);
+        }
+        return revokedTokens;
+    }
+
+    private void retrieveRevokedAccessTokenHashes(String sql, Timestamp issuedAfter, boolean filterByState,
+                                                  Map<String, Long> revokedTokens) throws IdentityOAuth2Exception {
+
+        try (Connection connection = getConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+            int parameterIndex = 1;
+            if (filterByState) {
+                prepStmt.setString(parameterIndex++, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+                prepStmt.setString(parameterIndex++, OAuthConstants.TokenStates.TOKEN_STATE_INACTIVE);
+            }
+            prepStmt.setTimestamp(parameterIndex, issuedAfter, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    String accessTokenHash = resultSet.getString(1);
+                    if (accessTokenHash == null) {
+                        continue;
+                    }
+                    long issuedTime = resultSet.getTimestamp(2, Calendar.getInstance(TimeZone.getTimeZone(UTC)))
+                            .getTime();
+                    long validityPeriod = resultSet.getLong(3);
+                    long expiryTime = validityPeriod < 0 || issuedTime + validityPeriod < issuedTime ?
+                            Long.MAX_VALUE : issuedTime + validityPeriod;
+                    revokedTokens.merge(accessTokenHash, expiryTime, Math::max);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving revoked access tokens.", e);
+        }
+    }
+
     /**
      * Retrieves active AccessTokenDOs for the given consumer key.
      *
@@ -1837,7 +2594,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     private Set<AccessTokenDO> getActiveAcessTokenDataByConsumerKey(String consumerKey, String userStoreDomain)
             throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement ps = null;
         ResultSet rs = null;
         Set<AccessTokenDO> activeDetailedTokens;
@@ -1950,7 +2707,21 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
         }
         boolean tokenUpdateSuccessful;
-        Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+        boolean isRequestObjectFlow = !StringUtils.equals(grantType, OAuthConstants.GrantTypes.CLIENT_CREDENTIALS) &&
+                !StringUtils.equals(grantType, OAuthConstants.GrantTypes.PASSWORD);
+        // Move the request object reference of the old token to the new token in the same transaction, instead of in
+        // a separate one when the token refresh event is handled.
+        RequestObjectDAOImpl requestObjectDAO = null;
+        if (oldAccessTokenId != null && isRequestObjectFlow && isRequestObjectReferenceColocated() &&
+                OAuthServerConfiguration.getInstance().isRequestObjectEnabled()) {
+            RequestObjectDAO configuredRequestObjectDAO =
+                    OAuthTokenPersistenceFactory.getInstance().getRequestObjectDAO();
+            if (configuredRequestObjectDAO instanceof RequestObjectDAOImpl) {
+                requestObjectDAO = (RequestObjectDAOImpl) configuredRequestObjectDAO;
+            }
+        }
+        boolean moveRequestObjectReference = requestObjectDAO != null;
+        Connection connection = getConnection(true);
         try {
             if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled() && !accessTokenDO.isConsentedToken()) {
                 // Check whether the previous token is issued for a consent required grant or not.
@@ -1968,10 +2739,19 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 updateTokenIdIfAutzCodeGrantType(oldAccessTokenId, accessTokenDO.getTokenId(), connection);
             }
 
-            if (isTokenCleanupFeatureEnabled && oldAccessTokenId != null) {
+            // The reference has to be moved before the old token is cleaned up, as it is removed along with the token.
+            if (moveRequestObjectReference) {
+                requestObjectDAO.refreshRequestObjectReference(connection, oldAccessTokenId,
+                        accessTokenDO.getTokenId());
+            }
+
+            if (isInlineTokenCleanupEnabled() && oldAccessTokenId != null) {
                 oldTokenCleanupObject.cleanupTokenByTokenId(oldAccessTokenId, connection);
             }
             IdentityDatabaseUtil.commitTransaction(connection);
+            if (oldAccessTokenId != null) {
+                archiveReplacedToken(oldAccessTokenId, userStoreDomain, connection);
+            }
             tokenUpdateSuccessful = true;
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -1982,12 +2762,8 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         }
         if (tokenUpdateSuccessful) {
             // Post refresh access token event
-            if (StringUtils.equals(grantType, OAuthConstants.GrantTypes.CLIENT_CREDENTIALS) ||
-                    StringUtils.equals(grantType, OAuthConstants.GrantTypes.PASSWORD)) {
-                OAuth2TokenUtil.postRefreshAccessToken(oldAccessTokenId, accessTokenDO.getTokenId(), tokenState, false);
-            } else {
-                OAuth2TokenUtil.postRefreshAccessToken(oldAccessTokenId, accessTokenDO.getTokenId(), tokenState, true);
-            }
+            OAuth2TokenUtil.postRefreshAccessToken(oldAccessTokenId, accessTokenDO.getTokenId(), tokenState,
+                    isRequestObjectFlow, moveRequestObjectReference);
         }
     }
 
@@ -2027,7 +2803,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     private Set<AccessTokenDO> getAccessTokensByTenant(int tenantId, String userStoreDomain)
             throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         Map<String, AccessTokenDO> accessTokenDOMap = new HashMap<>();
@@ -2101,7 +2877,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     "id: " + tenantId);
         }
         // we do not support access token partitioning here
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
 
         userStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(userStoreDomain);
         PreparedStatement prepStmt = null;
@@ -2179,7 +2955,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         // we do not support access token partitioning here
         currentUserStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(currentUserStoreDomain);
         newUserStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(newUserStoreDomain);
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        Connection connection = getConnection();
         PreparedStatement ps = null;
         try {
 
@@ -2242,7 +3018,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
      */
     private String getTokenIdByAccessToken(String token, String userStoreDomain) throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
 
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
@@ -2302,7 +3078,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
      */
     private String getAccessTokenByTokenId(String tokenId, String userStoreDomain) throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         try {
@@ -2328,7 +3104,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
     }
 
-    private void updateTokenIdIfAutzCodeGrantType(String oldAccessTokenId, String newAccessTokenId, Connection
+    protected void updateTokenIdIfAutzCodeGrantType(String oldAccessTokenId, String newAccessTokenId, Connection
             connection) throws IdentityOAuth2Exception {
 
         if (log.isDebugEnabled()) {
@@ -2354,6 +3130,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     private void recoverFromConAppKeyConstraintViolation(String accessToken, String consumerKey, AccessTokenDO
             accessTokenDO, Connection connection, String userStoreDomain, int retryAttemptCounter)
             throws IdentityOAuth2Exception {
+        conflictRetryCount.incrementAndGet();
         try {
             connection.setAutoCommit(false);
             log.warn("Retry attempt to recover 'CON_APP_KEY' constraint violation : " + retryAttemptCounter);
@@ -2445,6 +3222,125 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         }
     }
 
+    /**
+     * Check whether an active token conflicting with the token being persisted should be expired upfront, instead
+     * of recovering from the 'CON_APP_KEY' constraint violation afterwards. This is only done for issuers which
+     * renew the token per request, as otherwise the recovery flow reuses the existing active token.
+     *
+     * @param consumerKey Consumer key of the application.
+     * @return true if the conflicting active token should be expired before inserting the new token.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the token issuer of the application.
+     */
+    private boolean isConflictUpsertApplicable(String consumerKey) throws IdentityOAuth2Exception {
+
+        if (!Boolean.parseBoolean(getProperty(OAUTH_TOKEN_PERSISTENCE_CONFLICT_UPSERT_ENABLE))) {
+            return false;
+        }
+        try {
+            return OAuth2Util.getOAuthTokenIssuerForOAuthApp(consumerKey)
+                    .renewAccessTokenPerRequest(OAuth2Util.getTokenRequestContext());
+        } catch (InvalidOAuthClientException e) {
+            throw new IdentityOAuth2Exception(
+                    "Error while retrieving oauth issuer for the app with clientId: " + consumerKey + ".", e);
+        }
+    }
+
+    /**
+     * Expire the active tokens which would violate the 'CON_APP_KEY' constraint when inserting the given token. The
+     * conflicting rows are locked so that concurrent issuers of the same client/user/scope/binding are serialized
+     * on the database, within the transaction which inserts the new token.
+     */
+    private void expireConflictingActiveAccessTokens(Connection connection, String consumerKey,
+                                                     AccessTokenDO accessTokenDO, String userDomain,
+                                                     String authenticatedIDP, int tenantId)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(getConflictingActiveAccessTokenSQL(connection),
+                userDomain);
+        Map<String, String> conflictingTokens = new HashMap<>();
+        Map<String, String> conflictingAccessTokens = new HashMap<>();
+        try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
+            prepStmt.setString(2, accessTokenDO.getAuthzUser().getUserName());
+            prepStmt.setInt(3, tenantId);
+            prepStmt.setString(4, OAuth2Util.getSanitizedUserStoreDomain(userDomain));
+            prepStmt.setString(5, accessTokenDO.getTokenType());
+            prepStmt.setString(6, OAuth2Util.hashScopes(accessTokenDO.getScope()));
+            if (isTokenBindingAvailable(accessTokenDO.getTokenBinding())) {
+                prepStmt.setString(7, accessTokenDO.getTokenBinding().getBindingReference());
+            } else {
+                prepStmt.setString(7, NONE);
+            }
+            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                prepStmt.setString(8, authenticatedIDP);
+                prepStmt.setInt(9, tenantId);
+            }
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    conflictingTokens.put(resultSet.getString(1), resultSet.getString(2));
+                    conflictingAccessTokens.put(resultSet.getString(1), resultSet.getString(3));
+                }
+            }
+        }
+
+        for (Map.Entry<String, String> conflictingToken : conflictingTokens.entrySet()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Expiring conflicting active access token with id: " + conflictingToken.getKey() +
+                        " of client: " + consumerKey + " before persisting the new token.");
+            }
+            updateAccessTokenState(connection, conflictingToken.getKey(), OAuthConstants.TokenStates
+                    .TOKEN_STATE_EXPIRED, UUID.randomUUID().toString(), userDomain, conflictingToken.getValue());
+            // The expired token would otherwise still be served as active from the cache.
+            OAuthUtil.clearOAuthCacheByAccessToken(getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(
+                    conflictingAccessTokens.get(conflictingToken.getKey())),
+                    accessTokenDO.getAuthzUser().getTenantDomain());
+            conflictUpsertCount.incrementAndGet();
+        }
+    }
+
+    private String getConflictingActiveAccessTokenSQL(Connection connection) throws SQLException {
+
+        String driverName = connection.getMetaData().getDriverName();
+        // SQL Server does not support 'FOR UPDATE' on plain selects, hence the rows are locked with table hints.
+        boolean isMSSQL = driverName.contains("MS SQL") || driverName.contains("Microsoft");
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            return isMSSQL ? SQLQueries.RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE_IDP_NAME_MSSQL :
+                    SQLQueries.RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE_IDP_NAME;
+        }
+        return isMSSQL ? SQLQueries.RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE_MSSQL :
+                SQLQueries.RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE;
+    }
+
+    /**
+     * Get the number of active tokens expired upfront to avoid a 'CON_APP_KEY' constraint violation.
+     *
+     * @return Number of conflicting tokens expired before insertion.
+     */
+    public long getConflictUpsertCount() {
+
+        return conflictUpsertCount.get();
+    }
+
+    /**
+     * Get the number of retry attempts made to recover from a 'CON_APP_KEY' constraint violation.
+     *
+     * @return Number of conflict recovery retries.
+     */
+    public long getConflictRetryCount() {
+
+        return conflictRetryCount.get();
+    }
+
+    /**
+     * Get the number of token insertions failed after exhausting the 'CON_APP_KEY' recovery retries.
+     *
+     * @return Number of insertions failed due to exhausted retries.
+     */
+    public long getConflictRetryExhaustedCount() {
+
+        return conflictRetryExhaustedCount.get();
+    }
+
     private int getTokenPersistRetryCount() {
 
         int tokenPersistRetryCount = DEFAULT_TOKEN_PERSIST_RETRY_COUNT;
@@ -2457,6 +3353,60 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         return tokenPersistRetryCount;
     }
 
+    protected JdbcTemplate getJdbcTemplate() {
+
+        return JdbcUtils.getNewTemplate();
+    }
+
+    /**
+     * Check whether the lookups of tokens by their identifiers are to be routed to the read replica.
+     */
+    protected boolean isReadReplicaRoutingEnabled() {
+
+        return ReadReplicaRouter.getInstance().isEnabled();
+    }
+
+    /**
+     * Check whether the request object references are kept in the database which holds the tokens of this DAO, so
+     * that they can be updated within the token transactions.
+     */
+    protected boolean isRequestObjectReferenceColocated() {
+
+        return true;
+    }
+
+    /**
+     * Check whether the tokens replaced while issuing new tokens are to be cleaned up within the issuing transaction.
+     * They are left to the {@link TokenPurgeService} when it is enabled, and are archived after the issuing
+     * transaction by the {@link OldTokenArchiver} when asynchronous archiving is enabled.
+     */
+    private boolean isInlineTokenCleanupEnabled() {
+
+        return isTokenCleanupFeatureEnabled && !TokenPurgeService.getInstance().isEnabled() &&
+                !OldTokenArchiver.getInstance().isEnabled();
+    }
+
+    /**
+     * Hand over a token replaced by a committed issuing transaction to the {@link OldTokenArchiver}, or clean it up
+     * in a separate transaction if the archiving queue is full.
+     */
+    private void archiveReplacedToken(String tokenId, String userStoreDomain, Connection connection) {
+
+        if (!isTokenCleanupFeatureEnabled || TokenPurgeService.getInstance().isEnabled() ||
+                !OldTokenArchiver.getInstance().isEnabled()) {
+            return;
+        }
+        if (OldTokenArchiver.getInstance().enqueue(tokenId, userStoreDomain)) {
+            return;
+        }
+        try {
+            oldTokenCleanupObject.cleanupTokenByTokenId(tokenId, connection);
+        } catch (SQLException e) {
+            // The new token is already persisted, hence the replaced token is left to be purged later.
+            log.error("Error occurred while cleaning up the replaced access token: " + tokenId, e);
+        }
+    }
+
     @Deprecated
     public AccessTokenDO getAccessTokenDOfromTokenIdentifier(String accessTokenIdentifier) throws
             IdentityOAuth2Exception {
@@ -2508,7 +3458,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         String userDomain = OAuth2Util.getUserStoreDomain(authzUser);
         String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(authzUser);
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         boolean sqlAltered = false;
@@ -2726,7 +3676,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                                                                                   String userStoreDomain)
             throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        Connection connection = getConnection();
         PreparedStatement ps = null;
         ResultSet rs = null;
         Set<AccessTokenDO> accessTokens = new HashSet<>();
@@ -2785,7 +3735,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     "reference " + bindingRef);
         }
 
-        JdbcTemplate jdbcTemplate = JdbcUtils.getNewTemplate();
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
         try {
             String sqlQuery = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries
                     .GET_ACCESS_TOKENS_BY_BINDING_REFERENCE_AND_USER, user.getUserStoreDomain());
@@ -2853,7 +3803,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             log.debug("Retrieving active access tokens issued with binding reference : " + bindingRef);
         }
 
-        JdbcTemplate jdbcTemplate = JdbcUtils.getNewTemplate();
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
         try {
             String sqlQuery = GET_ACCESS_TOKENS_BY_BINDING_REFERENCE;
             Map<String, AccessTokenDO> tokenMap = new HashMap<>();
@@ -2927,7 +3877,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
 
             String sql = SQLQueries.UPDATE_TOKEN_CONSENTED_TOKEN;
-            try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (Connection connection = getConnection(true)) {
                 try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
                     prepStmt.setString(1, Boolean.toString(isConsentedGrant));
                     prepStmt.setString(2, tokenId);
@@ -0,0 +1,723 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
+import org.wso2.carbon.identity.application.authentication.framework.exception.UserIdNotFoundException;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.TokenBindings.NONE;
+
+/**
+ * Opt-in write-behind pipeline for access token persistence.
+ * <p>
+ * When enabled, newly issued access tokens are handed over to a bounded set of queues and persisted by a pool of
+ * {@link TokenPersistenceTask} consumers using JDBC batch inserts, instead of being written on the request thread.
+ * Tokens are routed to a queue by their client/user/scope/binding combination so that successive tokens of the same
+ * combination are always persisted in order by the same consumer.
+ * <p>
+ * Until a queued token reaches the database it is served from an in-memory pending index, so that lookups through
+ * {@link AccessTokenDAO#getAccessToken(String, boolean)} and
+ * {@link AccessTokenDAO#getLatestAccessToken(String, AuthenticatedUser, String, String, String, boolean)} observe the
+ * token even when it was evicted from (or never added to) the OAuthCache. When a queue is full the token is not
+ * enqueued and the caller falls back to the synchronous insert, which throttles the request threads to the rate the
+ * database can absorb.
+ * <p>
+ * A state change of a pending token (i.e. revocation or expiry) is recorded against the pending token, and applied
+ * to the token row once the token is persisted. Tokens which could not be persisted are retried, and as they are
+ * already held by their clients, a token which still fails is parked and kept pending instead of being dropped. The
+ * consumers retry the parked tokens along with their next batches, and the tokens which are still parked when the
+ * consumers are stopped are given a last synchronous attempt.
+ */
+public class AccessTokenWriteBehindPersister {
+
+    private static final Log log = LogFactory.getLog(AccessTokenWriteBehindPersister.class);
+
+    private static final String WRITE_BEHIND_ENABLE = "OAuth.TokenPersistence.WriteBehind.Enable";
+    private static final String WRITE_BEHIND_POOL_SIZE = "OAuth.TokenPersistence.WriteBehind.PoolSize";
+    private static final String WRITE_BEHIND_QUEUE_SIZE = "OAuth.TokenPersistence.WriteBehind.QueueSize";
+    private static final String WRITE_BEHIND_BATCH_SIZE = "OAuth.TokenPersistence.WriteBehind.BatchSize";
+    private static final String WRITE_BEHIND_ENQUEUE_TIMEOUT = "OAuth.TokenPersistence.WriteBehind.EnqueueTimeout";
+    private static final String WRITE_BEHIND_RETRY_COUNT = "OAuth.TokenPersistence.WriteBehind.RetryCount";
+    private static final String WRITE_BEHIND_RETRY_INTERVAL = "OAuth.TokenPersistence.WriteBehind.RetryInterval";
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_ENQUEUE_TIMEOUT_MILLIS = 10;
+    private static final int DEFAULT_RETRY_COUNT = 3;
+    private static final long DEFAULT_RETRY_INTERVAL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    // Upper bound for a request thread to wait for a consumer which already picked up the token it flushes.
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+    private static volatile AccessTokenWriteBehindPersister instance;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long enqueueTimeoutMillis;
+    private final int retryCount;
+    private final long retryIntervalMillis;
+    private final AccessTokenDAO accessTokenDAO;
+    private final List<BlockingDeque<AccessContextTokenDO>> queues = new ArrayList<>();
+    private final Map<String, PendingAccessToken> pendingTokensByIdentifier = new ConcurrentHashMap<>();
+    private final Map<String, PendingAccessToken> pendingTokensByKey = new ConcurrentHashMap<>();
+    private final Map<String, PendingAccessToken> pendingTokensById = new ConcurrentHashMap<>();
+    private final Queue<AccessContextTokenDO> parkedTokens = new ConcurrentLinkedQueue<>();
+    private ExecutorService consumerPool;
+    private volatile boolean running;
+    // Set once the consumers are stopped, after which tokens which can not be persisted are no longer parked.
+    private volatile boolean stopped;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong persistedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushLatencyMillis = new AtomicLong();
+    private final AtomicLong maxFlushLatencyMillis = new AtomicLong();
+
+    private AccessTokenWriteBehindPersister() {
+
+        this(Boolean.parseBoolean(IdentityUtil.getProperty(WRITE_BEHIND_ENABLE)),
+                IdentityConfigUtils.getPositiveIntProperty(WRITE_BEHIND_POOL_SIZE, DEFAULT_POOL_SIZE),
+                IdentityConfigUtils.getPositiveIntProperty(WRITE_BEHIND_QUEUE_SIZE, DEFAULT_QUEUE_SIZE),
+                IdentityConfigUtils.getPositiveIntProperty(WRITE_BEHIND_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                IdentityConfigUtils.getPositiveIntProperty(WRITE_BEHIND_ENQUEUE_TIMEOUT,
+                        (int) DEFAULT_ENQUEUE_TIMEOUT_MILLIS),
+                IdentityConfigUtils.getPositiveIntProperty(WRITE_BEHIND_RETRY_COUNT, DEFAULT_RETRY_COUNT),
+                IdentityConfigUtils.getPositiveIntProperty(WRITE_BEHIND_RETRY_INTERVAL,
+                        (int) DEFAULT_RETRY_INTERVAL_MILLIS), null);
+    }
+
+    AccessTokenWriteBehindPersister(boolean enabled, int poolSize, int queueSize, int batchSize,
+                                    long enqueueTimeoutMillis, int retryCount, long retryIntervalMillis,
+                                    AccessTokenDAO accessTokenDAO) {
+
+        this.enabled = enabled;
+        this.accessTokenDAO = accessTokenDAO;
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.retryCount = retryCount;
+        this.retryIntervalMillis = retryIntervalMillis;
+        if (enabled) {
+            int perQueueCapacity = Math.max(1, queueSize / poolSize);
+            for (int i = 0; i < poolSize; i++) {
+                queues.add(new LinkedBlockingDeque<>(perQueueCapacity));
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Access token write-behind persistence is enabled with " + poolSize + " consumers, " +
+                        "queue capacity: " + perQueueCapacity + " per consumer and batch size: " + batchSize);
+            }
+        }
+    }
+
+    public static AccessTokenWriteBehindPersister getInstance() {
+
+        if (instance == null) {
+            synchronized (AccessTokenWriteBehindPersister.class) {
+                if (instance == null) {
+                    instance = new AccessTokenWriteBehindPersister();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start the persistence consumers. Has no effect if write-behind persistence is not enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || running) {
+            return;
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        consumerPool = Executors.newFixedThreadPool(queues.size(), runnable -> {
+            Thread thread = new Thread(runnable, "oauth-token-persister-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        stopped = false;
+        for (BlockingDeque<AccessContextTokenDO> queue : queues) {
+            consumerPool.execute(new TokenPersistenceTask(queue, batchSize, this));
+        }
+        log.info("Started " + queues.size() + " access token write-behind persistence consumers.");
+    }
+
+    /**
+     * Stop the persistence consumers and synchronously flush whatever is left in the queues.
+     */
+    public synchronized void shutdown() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        consumerPool.shutdownNow();
+        try {
+            if (!consumerPool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Access token write-behind persistence consumers did not terminate in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped = true;
+        for (BlockingDeque<AccessContextTokenDO> queue : queues) {
+            List<AccessContextTokenDO> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                persist(remaining);
+            }
+        }
+        if (!parkedTokens.isEmpty()) {
+            persist(Collections.emptyList());
+        }
+        log.info("Access token write-behind persistence consumers stopped.");
+    }
+
+    public boolean isEnabled() {
+
+        return enabled && running;
+    }
+
+    /**
+     * Hand over an access token to the write-behind pipeline.
+     *
+     * @param accessContextTokenDO Token to be persisted.
+     * @return {@code true} if the token was queued, {@code false} if the caller has to persist it synchronously,
+     * either because write-behind persistence is not enabled or because the target queue is full.
+     */
+    public boolean enqueue(AccessContextTokenDO accessContextTokenDO) {
+
+        if (!isEnabled()) {
+            return false;
+        }
+        AccessTokenDO newAccessTokenDO = accessContextTokenDO.getNewAccessTokenDO();
+        String identifier = getPersistedIdentifier(accessContextTokenDO);
+        String key = getTokenKey(accessContextTokenDO.getConsumerKey(), newAccessTokenDO.getAuthzUser(),
+                OAuth2Util.buildScopeString(newAccessTokenDO.getScope()), getTokenBindingReference(newAccessTokenDO));
+        if (identifier == null || key == null || newAccessTokenDO.getTokenId() == null) {
+            return false;
+        }
+
+        // Publish the token before it is queued so that it is visible as soon as the consumer could pick it up.
+        PendingAccessToken pendingAccessToken = new PendingAccessToken(accessContextTokenDO, identifier, key);
+        pendingTokensByIdentifier.put(identifier, pendingAccessToken);
+        pendingTokensByKey.put(key, pendingAccessToken);
+        pendingTokensById.put(newAccessTokenDO.getTokenId(), pendingAccessToken);
+        BlockingDeque<AccessContextTokenDO> queue = queues.get((key.hashCode() & Integer.MAX_VALUE) % queues.size());
+        boolean queued;
+        try {
+            queued = queue.offer(accessContextTokenDO, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            removePendingAccessToken(pendingAccessToken);
+            rejectedCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Access token write-behind queue is full. Persisting the token for client: " +
+                        accessContextTokenDO.getConsumerKey() + " synchronously.");
+            }
+            return false;
+        }
+        enqueuedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Get an access token which is queued but not yet persisted.
+     *
+     * @param accessTokenIdentifier Persisted identifier of the access token.
+     * @return A copy of the pending access token carrying its current state, or {@code null} if there is no such
+     * pending token.
+     */
+    public AccessTokenDO getPendingAccessToken(String accessTokenIdentifier) {
+
+        if (!enabled || accessTokenIdentifier == null) {
+            return null;
+        }
+        PendingAccessToken pendingAccessToken = pendingTokensByIdentifier.get(accessTokenIdentifier);
+        return pendingAccessToken != null ? pendingAccessToken.getAccessTokenDO() : null;
+    }
+
+    /**
+     * Get the latest access token of a client/user/scope/binding combination which is queued but not yet persisted.
+     *
+     * @return A copy of the pending access token carrying its current state, or {@code null} if there is no such
+     * pending token.
+     */
+    public AccessTokenDO getPendingLatestAccessToken(String consumerKey, AuthenticatedUser authzUser, String scope,
+                                                     String tokenBindingReference) {
+
+        if (!enabled) {
+            return null;
+        }
+        String key = getTokenKey(consumerKey, authzUser, scope, tokenBindingReference);
+        if (key == null) {
+            return null;
+        }
+        PendingAccessToken pendingAccessToken = pendingTokensByKey.get(key);
+        return pendingAccessToken != null ? pendingAccessToken.getAccessTokenDO() : null;
+    }
+
+    /**
+     * Get the access tokens of a user which are queued but not yet persisted.
+     *
+     * @param authenticatedUser User whose tokens are retrieved.
+     * @return Copies of the pending access tokens of the user, where the access token is the persisted identifier.
+     */
+    public List<AccessTokenDO> getPendingAccessTokensOfUser(AuthenticatedUser authenticatedUser) {
+
+        List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
+        if (!enabled || authenticatedUser == null || pendingTokensById.isEmpty()) {
+            return accessTokenDOs;
+        }
+        boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreCaseSensitive(authenticatedUser.getUserStoreDomain(),
+                IdentityTenantUtil.getTenantId(authenticatedUser.getTenantDomain()));
+        for (PendingAccessToken pendingAccessToken : pendingTokensById.values()) {
+            AuthenticatedUser authzUser = pendingAccessToken.accessContextTokenDO.getNewAccessTokenDO().getAuthzUser();
+            if (isSameUser(authzUser, authenticatedUser, isUsernameCaseSensitive)) {
+                AccessTokenDO accessTokenDO = pendingAccessToken.getAccessTokenDO();
+                accessTokenDO.setAccessToken(pendingAccessToken.identifier);
+                accessTokenDOs.add(accessTokenDO);
+            }
+        }
+        return accessTokenDOs;
+    }
+
+    /**
+     * Record a state change of a pending access token, so that it is applied once the token is persisted.
+     *
+     * @param accessTokenIdentifier Persisted identifier of the access token.
+     * @param tokenState            New state of the token.
+     * @return {@code true} if the token is pending and the state change is recorded.
+     */
+    public boolean updatePendingAccessTokenState(String accessTokenIdentifier, String tokenState) {
+
+        if (!enabled || accessTokenIdentifier == null) {
+            return false;
+        }
+        PendingAccessToken pendingAccessToken = pendingTokensByIdentifier.get(accessTokenIdentifier);
+        return pendingAccessToken != null && pendingAccessToken.setTokenState(tokenState);
+    }
+
+    /**
+     * Record a state change of a pending access token, so that it is applied once the token is persisted.
+     *
+     * @param tokenId    Id of the access token.
+     * @param tokenState New state of the token.
+     * @return {@code true} if the token is pending and the state change is recorded.
+     */
+    public boolean updatePendingAccessTokenStateById(String tokenId, String tokenState) {
+
+        if (!enabled || tokenId == null) {
+            return false;
+        }
+        PendingAccessToken pendingAccessToken = pendingTokensById.get(tokenId);
+        return pendingAccessToken != null && pendingAccessToken.setTokenState(tokenState);
+    }
+
+    /**
+     * Persist a pending access token right away, so that rows which refer to it (i.e. the request object reference
+     * moved from the authorization code it was issued for) can be written. If a consumer already picked up the token,
+     * waits for that consumer to persist it.
+     *
+     * @param tokenId Id of the access token.
+     * @return {@code true} if the token is persisted or was not pending, {@code false} if it could not be persisted.
+     */
+    public boolean flushPendingAccessToken(String tokenId) {
+
+        if (!enabled || tokenId == null) {
+            return true;
+        }
+        PendingAccessToken pendingAccessToken = pendingTokensById.get(tokenId);
+        if (pendingAccessToken == null) {
+            return true;
+        }
+        AccessContextTokenDO accessContextTokenDO = pendingAccessToken.accessContextTokenDO;
+        for (BlockingDeque<AccessContextTokenDO> queue : queues) {
+            if (queue.remove(accessContextTokenDO)) {
+                return !persist(Collections.singletonList(accessContextTokenDO)).contains(accessContextTokenDO);
+            }
+        }
+        if (parkedTokens.remove(accessContextTokenDO)) {
+            return !persist(Collections.singletonList(accessContextTokenDO)).contains(accessContextTokenDO);
+        }
+        return pendingAccessToken.awaitRelease(FLUSH_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Persist a batch of queued tokens, along with the parked tokens, and release them from the pending index. Tokens
+     * which could not be persisted are retried up to the configured retry count, and are parked if they still fail
+     * while the consumers are running.
+     *
+     * @param batch Tokens drained from a queue.
+     * @return Tokens which could not be persisted.
+     */
+    List<AccessContextTokenDO> persist(List<AccessContextTokenDO> batch) {
+
+        List<AccessContextTokenDO> accessContextTokenDOs = new ArrayList<>();
+        AccessContextTokenDO parkedToken;
+        while ((parkedToken = parkedTokens.poll()) != null) {
+            accessContextTokenDOs.add(parkedToken);
+        }
+        accessContextTokenDOs.addAll(batch);
+        if (accessContextTokenDOs.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long start = System.currentTimeMillis();
+        List<AccessContextTokenDO> failed = insertAccessTokens(accessContextTokenDOs);
+        for (int attempt = 1; !failed.isEmpty() && attempt <= retryCount; attempt++) {
+            retriedCount.addAndGet(failed.size());
+            log.warn("Failed to persist " + failed.size() + " access tokens. Retrying attempt " + attempt + " of " +
+                    retryCount + ".");
+            if (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(retryIntervalMillis * attempt);
+                } catch (InterruptedException e) {
+                    // Make a last attempt without waiting, as the consumers are being stopped.
+                    Thread.currentThread().interrupt();
+                }
+            }
+            failed = insertAccessTokens(failed);
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+
+        persistedCount.addAndGet(accessContextTokenDOs.size() - failed.size());
+        boolean park = !stopped;
+        for (AccessContextTokenDO accessContextTokenDO : failed) {
+            if (park) {
+                // The token is kept pending, so that it is still served until it is persisted.
+                parkedTokens.add(accessContextTokenDO);
+                log.error("Access token with id: " + accessContextTokenDO.getNewAccessTokenDO().getTokenId() +
+                        " of client: " + accessContextTokenDO.getConsumerKey() + " could not be persisted. " +
+                        "Parking the token to be retried later.");
+            } else {
+                failedCount.incrementAndGet();
+                log.error("Access token with id: " + accessContextTokenDO.getNewAccessTokenDO().getTokenId() +
+                        " of client: " + accessContextTokenDO.getConsumerKey() + " could not be persisted.");
+            }
+        }
+        for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+            boolean persisted = !failed.contains(accessContextTokenDO);
+            if (persisted || !park) {
+                release(accessContextTokenDO, persisted);
+            }
+        }
+        recordFlushLatency(System.currentTimeMillis() - start);
+        return failed;
+    }
+
+    /**
+     * Check whether there are parked tokens, which the consumers have to retry even when no new token is queued.
+     */
+    boolean hasParkedAccessTokens() {
+
+        return !parkedTokens.isEmpty();
+    }
+
+    long getRetryIntervalMillis() {
+
+        return retryIntervalMillis;
+    }
+
+    public int getQueueDepth() {
+
+        int depth = 0;
+        for (BlockingDeque<AccessContextTokenDO> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public long getEnqueuedCount() {
+
+        return enqueuedCount.get();
+    }
+
+    public long getPersistedCount() {
+
+        return persistedCount.get();
+    }
+
+    public long getRejectedCount() {
+
+        return rejectedCount.get();
+    }
+
+    public long getRetriedCount() {
+
+        return retriedCount.get();
+    }
+
+    public long getFailedCount() {
+
+        return failedCount.get();
+    }
+
+    public int getParkedCount() {
+
+        return parkedTokens.size();
+    }
+
+    public long getFlushCount() {
+
+        return flushCount.get();
+    }
+
+    public long getAverageFlushLatencyMillis() {
+
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushLatencyMillis.get() / flushes;
+    }
+
+    public long getMaxFlushLatencyMillis() {
+
+        return maxFlushLatencyMillis.get();
+    }
+
+    private List<AccessContextTokenDO> insertAccessTokens(List<AccessContextTokenDO> accessContextTokenDOs) {
+
+        try {
+            return getAccessTokenDAO().insertAccessTokens(accessContextTokenDOs);
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            log.error("Error occurred while persisting a batch of " + accessContextTokenDOs.size() +
+                    " access tokens.", e);
+            return accessContextTokenDOs;
+        }
+    }
+
+    private AccessTokenDAO getAccessTokenDAO() {
+
+        return accessTokenDAO != null ? accessTokenDAO :
+                OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO();
+    }
+
+    private void recordFlushLatency(long latencyMillis) {
+
+        flushCount.incrementAndGet();
+        totalFlushLatencyMillis.addAndGet(latencyMillis);
+        maxFlushLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+        if (log.isDebugEnabled()) {
+            log.debug("Access token write-behind flush completed in " + latencyMillis + "ms. Queue depth: " +
+                    getQueueDepth() + ", persisted: " + persistedCount.get() + ", parked: " + parkedTokens.size() +
+                    ", failed: " + failedCount.get() + ", rejected: " + rejectedCount.get());
+        }
+    }
+
+    /**
+     * Release a token from the pending index. The state changes recorded while the token was pending are applied to
+     * the persisted token before it is released, so that the token is never observed in its initial state once it
+     * was revoked.
+     */
+    private void release(AccessContextTokenDO accessContextTokenDO, boolean persisted) {
+
+        PendingAccessToken pendingAccessToken =
+                pendingTokensById.get(accessContextTokenDO.getNewAccessTokenDO().getTokenId());
+        if (pendingAccessToken == null || pendingAccessToken.accessContextTokenDO != accessContextTokenDO) {
+            return;
+        }
+        String appliedTokenState = null;
+        while (true) {
+            String tokenState;
+            synchronized (pendingAccessToken) {
+                tokenState = pendingAccessToken.tokenState;
+                if (!persisted || StringUtils.equals(tokenState, appliedTokenState)) {
+                    pendingAccessToken.released = true;
+                    pendingAccessToken.persisted = persisted;
+                    pendingAccessToken.notifyAll();
+                    break;
+                }
+            }
+            applyTokenState(accessContextTokenDO.getNewAccessTokenDO(), tokenState);
+            appliedTokenState = tokenState;
+        }
+        removePendingAccessToken(pendingAccessToken);
+    }
+
+    private void applyTokenState(AccessTokenDO accessTokenDO, String tokenState) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Applying the state: " + tokenState + " recorded while the access token with id: " +
+                    accessTokenDO.getTokenId() + " was pending persistence.");
+        }
+        try {
+            getAccessTokenDAO().updateAccessTokenState(accessTokenDO.getTokenId(), tokenState,
+                    accessTokenDO.getGrantType());
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while updating the state of the access token with id: " + accessTokenDO.getTokenId() +
+                    " to: " + tokenState, e);
+        }
+    }
+
+    private void removePendingAccessToken(PendingAccessToken pendingAccessToken) {
+
+        pendingTokensByIdentifier.remove(pendingAccessToken.identifier, pendingAccessToken);
+        pendingTokensByKey.remove(pendingAccessToken.key, pendingAccessToken);
+        pendingTokensById.remove(pendingAccessToken.accessContextTokenDO.getNewAccessTokenDO().getTokenId(),
+                pendingAccessToken);
+    }
+
+    private boolean isSameUser(AuthenticatedUser authzUser, AuthenticatedUser authenticatedUser,
+                               boolean isUsernameCaseSensitive) {
+
+        if (authzUser == null || authzUser.getUserName() == null ||
+                !StringUtils.equals(authzUser.getTenantDomain(), authenticatedUser.getTenantDomain()) ||
+                !StringUtils.equalsIgnoreCase(OAuth2Util.getUserStoreDomain(authzUser),
+                        OAuth2Util.getUserStoreDomain(authenticatedUser))) {
+            return false;
+        }
+        return isUsernameCaseSensitive ? authzUser.getUserName().equals(authenticatedUser.getUserName()) :
+                authzUser.getUserName().equalsIgnoreCase(authenticatedUser.getUserName());
+    }
+
+    private String getPersistedIdentifier(AccessContextTokenDO accessContextTokenDO) {
+
+        String accessToken = accessContextTokenDO.getAccessToken();
+        try {
+            OauthTokenIssuer oauthTokenIssuer =
+                    OAuth2Util.getOAuthTokenIssuerForOAuthApp(accessContextTokenDO.getConsumerKey());
+            if (oauthTokenIssuer.usePersistedAccessTokenAlias()) {
+                return oauthTokenIssuer.getAccessTokenHash(accessToken);
+            }
+            return accessToken;
+        } catch (IdentityOAuth2Exception | InvalidOAuthClientException | OAuthSystemException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error while resolving the persisted identifier of the access token for client: " +
+                        accessContextTokenDO.getConsumerKey(), e);
+            }
+            return null;
+        }
+    }
+
+    private String getTokenKey(String consumerKey, AuthenticatedUser authzUser, String scope,
+                               String tokenBindingReference) {
+
+        if (authzUser == null) {
+            return null;
+        }
+        try {
+            return OAuth2Util.buildCacheKeyStringForTokenWithUserId(consumerKey, scope, authzUser.getUserId(),
+                    OAuth2Util.getAuthenticatedIDP(authzUser), tokenBindingReference);
+        } catch (UserIdNotFoundException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("User id is not available for user: " + authzUser.getLoggableUserId(), e);
+            }
+            return null;
+        }
+    }
+
+    private String getTokenBindingReference(AccessTokenDO accessTokenDO) {
+
+        if (accessTokenDO.getTokenBinding() == null ||
+                StringUtils.isBlank(accessTokenDO.getTokenBinding().getBindingReference())) {
+            return NONE;
+        }
+        return accessTokenDO.getTokenBinding().getBindingReference();
+    }
+
+    /**
+     * A queued access token along with the state changes recorded while it is pending persistence.
+     */
+    private static class PendingAccessToken {
+
+        private final AccessContextTokenDO accessContextTokenDO;
+        private final String identifier;
+        private final String key;
+        // Guarded by the pending access token itself.
+        private String tokenState;
+        private boolean released;
+        private boolean persisted;
+
+        PendingAccessToken(AccessContextTokenDO accessContextTokenDO, String identifier, String key) {
+
+            this.accessContextTokenDO = accessContextTokenDO;
+            this.identifier = identifier;
+            this.key = key;
+        }
+
+        synchronized boolean setTokenState(String tokenState) {
+
+            if (released) {
+                return false;
+            }
+            this.tokenState = tokenState;
+            return true;
+        }
+
+        synchronized boolean awaitRelease(long timeoutMillis) {
+
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            long remaining = timeoutMillis;
+            while (!released && remaining > 0) {
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return released && persisted;
+        }
+
+        synchronized AccessTokenDO getAccessTokenDO() {
+
+            AccessTokenDO accessTokenDO = AccessTokenDO.clone(accessContextTokenDO.getNewAccessTokenDO());
+            if (tokenState != null) {
+                accessTokenDO.setTokenState(tokenState);
+            }
+            return accessTokenDO;
+        }
+    }
+}
@@ -31,12 +31,15 @@ import org.wso2.carbon.identity.application.common.model.ServiceProvider;
 import org.wso2.carbon.identity.base.IdentityConstants;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAO;
+import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAOImpl;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -47,12 +50,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
 
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.TokenBindings.NONE;
-import static org.wso2.carbon.identity.oauth2.dao.SQLQueries.RETRIEVE_TOKEN_BINDING_REFERENCE_TOKEN_ID;
 
 /**
  * Authorization code data access object implementation.
@@ -216,10 +219,12 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
 
             String sql;
             if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                sql = SQLQueries.VALIDATE_AUTHZ_CODE_WITH_PKCE_IDP_NAME;
+                sql = SQLQueries.VALIDATE_AUTHZ_CODE_WITH_PKCE_AND_SCOPES_IDP_NAME;
             } else {
-                sql = SQLQueries.VALIDATE_AUTHZ_CODE_WITH_PKCE;
+                sql = SQLQueries.VALIDATE_AUTHZ_CODE_WITH_PKCE_AND_SCOPES;
             }
+            // The code, its scopes and the binding of the token issued for it are fetched in a single round trip.
+            // There is a row per scope of the code.
             prepStmt = connection.prepareStatement(sql);
             prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
             //use hash value for search
@@ -240,10 +245,20 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
                 subjectIdentifier = resultSet.getString(12);
                 pkceCodeChallenge = resultSet.getString(13);
                 pkceCodeChallengeMethod = resultSet.getString(14);
+                String tokenBindingReference = resultSet.getString(16);
                 String authenticatedIDP = null;
                 if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                    authenticatedIDP = resultSet.getString(15);
+                    authenticatedIDP = resultSet.getString(17);
                 }
+                String tokenId = resultSet.getString(9);
+                Set<String> scopes = new LinkedHashSet<>();
+                do {
+                    String scope = resultSet.getString(15);
+                    if (scope != null) {
+                        scopes.add(scope);
+                    }
+                } while (resultSet.next());
+
                 user = OAuth2Util.createAuthenticatedUser(authorizedUser, userstoreDomain, tenantDomain,
                         authenticatedIDP);
                 ServiceProvider serviceProvider;
@@ -256,15 +271,12 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
                 }
                 user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
 
-                String tokenId = resultSet.getString(9);
-                String tokenBindingReference = NONE;
-                if (StringUtils.isNotBlank(tokenId)) {
-                    tokenBindingReference = getTokenBindingReference(connection, tokenId, tenantId);
+                if (StringUtils.isBlank(tokenId) || StringUtils.isBlank(tokenBindingReference)) {
+                    tokenBindingReference = NONE;
                 }
                 // If the scope value is empty. It could have stored in the IDN_OAUTH2_AUTHZ_CODE_SCOPE table
                 // for on demand scope migration.
                 if (StringUtils.isBlank(scopeString)) {
-                    List<String> scopes = getAuthorizationCodeScopes(connection, codeId, tenantId);
                     scopeString = OAuth2Util.buildScopeString(scopes.toArray(new String[0]));
                 }
                 AuthzCodeDO codeDo = createAuthzCodeDo(consumerKey, authorizationKey, user, codeState,
@@ -283,19 +295,30 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
 
     }
 
-    private String getTokenBindingReference(Connection connection, String tokenId, int tenantId) throws SQLException {
+    /**
+     * Redeem an active authorization code by moving its row out of the active state. Out of any number of concurrent
+     * redemptions of the same code, on any node, only one updates the row.
+     *
+     * @param codeId Id of the authorization code.
+     * @return True if the code was active and is redeemed by this call, false if it is already redeemed or not active.
+     * @throws IdentityOAuth2Exception If the code could not be updated.
+     */
+    protected boolean redeemActiveAuthorizationCode(String codeId) throws IdentityOAuth2Exception {
 
-        try (PreparedStatement preparedStatement = connection
-                .prepareStatement(RETRIEVE_TOKEN_BINDING_REFERENCE_TOKEN_ID)) {
-            preparedStatement.setString(1, tokenId);
-            preparedStatement.setInt(2, tenantId);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getString("TOKEN_BINDING_REF");
-                }
-            }
+        Connection connection = IdentityDatabaseUtil.getDBConnection();
+        PreparedStatement prepStmt = null;
+        try {
+            prepStmt = connection.prepareStatement(SQLQueries.REDEEM_ACTIVE_AUTHZ_CODE);
+            prepStmt.setString(1, codeId);
+            int updatedRows = prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+            return updatedRows > 0;
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw new IdentityOAuth2Exception("Error when redeeming the authorization code with id: " + codeId, e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, prepStmt);
         }
-        return NONE;
     }
 
     @Override
@@ -348,6 +371,22 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
 
         }
         boolean deactivateAuthorizationCode;
+        // Move the request object reference of the code to the token in the same transaction, instead of in a
+        // separate one when the code revocation event is handled.
+        RequestObjectDAOImpl requestObjectDAO = null;
+        if (StringUtils.isNotEmpty(authzCodeDO.getOauthTokenId()) &&
+                OAuth2TokenUtil.isRequestObjectFlow(authzCodeDO.getAuthorizationCode())) {
+            RequestObjectDAO configuredRequestObjectDAO =
+                    OAuthTokenPersistenceFactory.getInstance().getRequestObjectDAO();
+            if (configuredRequestObjectDAO instanceof RequestObjectDAOImpl) {
+                requestObjectDAO = (RequestObjectDAOImpl) configuredRequestObjectDAO;
+            }
+        }
+        // The reference refers to the token row, which may not be written yet when the token is persisted behind or
+        // to a token shard. In that case the reference is moved outside this transaction when the code revocation
+        // event is handled, so that a failure to move it does not keep the code active.
+        boolean moveRequestObjectReference = requestObjectDAO != null &&
+                isTokenPersisted(authzCodeDO.getOauthTokenId());
         PreparedStatement prepStmt = null;
         Connection connection = IdentityDatabaseUtil.getDBConnection();
         try {
@@ -356,9 +395,13 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
             prepStmt.setString(2,
                     getHashingPersistenceProcessor().getProcessedAuthzCode(authzCodeDO.getAuthorizationCode()));
             prepStmt.executeUpdate();
+            if (moveRequestObjectReference) {
+                requestObjectDAO.updateRequestObjectReferenceCodeToToken(connection, authzCodeDO.getAuthzCodeId(),
+                        authzCodeDO.getOauthTokenId());
+            }
             IdentityDatabaseUtil.commitTransaction(connection);
             deactivateAuthorizationCode = true;
-        } catch (SQLException e) {
+        } catch (SQLException | IdentityOAuthAdminException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw new IdentityOAuth2Exception("Error when deactivating authorization code", e);
         } finally {
@@ -367,8 +410,28 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
         if (deactivateAuthorizationCode) {
             // To revoke the request object which is persisted against the code.
             OAuth2TokenUtil.postRevokeCode(authzCodeDO.getAuthzCodeId(), OAuthConstants.
-                    AuthorizationCodeState.INACTIVE, authzCodeDO.getOauthTokenId(), authzCodeDO.getAuthorizationCode());
+                    AuthorizationCodeState.INACTIVE, authzCodeDO.getOauthTokenId(), authzCodeDO.getAuthorizationCode(),
+                    moveRequestObjectReference);
+        }
+    }
+
+    /**
+     * Check whether the row of the token issued for a code is in the identity database, persisting the token right
+     * away if it is queued for write-behind persistence.
+     */
+    private boolean isTokenPersisted(String tokenId) {
+
+        AccessTokenDAO accessTokenDAO = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO();
+        if (!(accessTokenDAO instanceof AccessTokenDAOImpl) ||
+                !((AccessTokenDAOImpl) accessTokenDAO).isRequestObjectReferenceColocated()) {
+            return false;
+        }
+        if (!AccessTokenWriteBehindPersister.getInstance().flushPendingAccessToken(tokenId)) {
+            log.warn("Access token with id: " + tokenId + " could not be persisted before deactivating the " +
+                    "authorization code issued for it. The request object reference is moved separately.");
+            return false;
         }
+        return true;
     }
 
     /**
@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.TokenBindings.NONE;
+
+/**
+ * Opt-in in-memory store for issued authorization codes.
+ * <p>
+ * When enabled, a newly issued authorization code is kept in memory and redeemed from there. An atomic
+ * compare-and-set on the state of the code makes sure that out of any number of concurrent redemptions of the same code
+ * on this node exactly one observes it as {@link OAuthConstants.AuthorizationCodeState#ACTIVE}. The database row of the
+ * code is inserted before the code is added to the store, and every later state change of it is written behind by an
+ * audit consumer so that the admin queries of {@link AuthorizationCodeDAO} still see it.
+ * <p>
+ * The store is local to the node. The identity caches do not offer an atomic remove across the cluster, so the store
+ * is only a pre-check: a redemption which passes it is still claimed on the database row with a conditional update,
+ * and a code which is not in the store, e.g. because it was issued by another node, is redeemed from the database.
+ */
+public class AuthorizationCodeStore {
+
+    private static final Log log = LogFactory.getLog(AuthorizationCodeStore.class);
+
+    private static final String CODE_STORE_ENABLE = "OAuth.AuthorizationCodeStore.Enable";
+    private static final String CODE_STORE_MAX_ENTRIES = "OAuth.AuthorizationCodeStore.MaxEntries";
+    private static final String CODE_STORE_AUDIT_INTERVAL = "OAuth.AuthorizationCodeStore.AuditInterval";
+
+    private static final int DEFAULT_MAX_ENTRIES = 100000;
+    private static final long DEFAULT_AUDIT_INTERVAL_MILLIS = 1000;
+    // Expired codes are retained for a while so that a late redemption is still answered from the store.
+    private static final long EXPIRED_CODE_RETENTION_MILLIS = 60000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static volatile AuthorizationCodeStore instance;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long auditIntervalMillis;
+    private final AuthorizationCodeDAO auditDAO;
+    private final Map<String, CodeEntry> entries = new ConcurrentHashMap<>();
+    private final BlockingQueue<CodeEntry> auditQueue = new LinkedBlockingQueue<>();
+    private ExecutorService auditExecutor;
+    private volatile boolean running;
+
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong redeemedCount = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong auditedCount = new AtomicLong();
+    private final AtomicLong auditFailedCount = new AtomicLong();
+
+    private AuthorizationCodeStore() {
+
+        this(Boolean.parseBoolean(IdentityUtil.getProperty(CODE_STORE_ENABLE)),
+                IdentityConfigUtils.getPositiveIntProperty(CODE_STORE_MAX_ENTRIES, DEFAULT_MAX_ENTRIES),
+                IdentityConfigUtils.getPositiveIntProperty(CODE_STORE_AUDIT_INTERVAL,
+                        (int) DEFAULT_AUDIT_INTERVAL_MILLIS),
+                new AuthorizationCodeDAOImpl());
+    }
+
+    AuthorizationCodeStore(boolean enabled, int maxEntries, long auditIntervalMillis, AuthorizationCodeDAO auditDAO) {
+
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.auditIntervalMillis = auditIntervalMillis;
+        this.auditDAO = auditDAO;
+        if (enabled && log.isDebugEnabled()) {
+            log.debug("In-memory authorization code store is enabled with max entries: " + maxEntries +
+                    " and audit interval: " + auditIntervalMillis + "ms");
+        }
+    }
+
+    public static AuthorizationCodeStore getInstance() {
+
+        if (instance == null) {
+            synchronized (AuthorizationCodeStore.class) {
+                if (instance == null) {
+                    instance = new AuthorizationCodeStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start the audit consumer. Has no effect if the store is not enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || running) {
+            return;
+        }
+        auditExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth-authz-code-auditor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        auditExecutor.execute(this::runAudit);
+        log.info("Started the in-memory authorization code store.");
+    }
+
+    /**
+     * Stop the audit consumer and synchronously persist whatever is not yet written to the database.
+     */
+    public synchronized void shutdown() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        auditExecutor.shutdownNow();
+        try {
+            if (!auditExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Authorization code audit consumer did not terminate in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        entries.clear();
+        log.info("In-memory authorization code store stopped.");
+    }
+
+    public boolean isEnabled() {
+
+        return enabled && running;
+    }
+
+    /**
+     * Whether the store is enabled in the configuration, regardless of whether it is started yet.
+     */
+    public boolean isConfigured() {
+
+        return enabled;
+    }
+
+    /**
+     * Keep a newly issued authorization code, whose database row is already inserted, in the store.
+     *
+     * @return {@code true} if the code was stored, {@code false} if the code is served by the database, either
+     * because the store is not enabled or because it is full.
+     */
+    public boolean add(String authzCode, String consumerKey, String callbackUrl, AuthzCodeDO authzCodeDO) {
+
+        if (!isEnabled()) {
+            return false;
+        }
+        if (entries.size() >= maxEntries) {
+            rejectedCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Authorization code store is full. The code issued for client: " + consumerKey +
+                        " is served by the database.");
+            }
+            return false;
+        }
+        CodeEntry entry = new CodeEntry(authzCode, consumerKey, callbackUrl, authzCodeDO);
+        if (entries.putIfAbsent(getKey(authzCode), entry) != null) {
+            return false;
+        }
+        storedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Redeem an authorization code from the store. The first redemption of an active code atomically moves it to
+     * {@link OAuthConstants.AuthorizationCodeState#REVOKED} and gets it back as active, every other redemption gets
+     * the current state of the code.
+     *
+     * @return Validation result, or {@code null} if the code has to be validated against the database.
+     */
+    public AuthorizationCodeValidationResult redeem(String consumerKey, String authzCode) {
+
+        if (!enabled || authzCode == null) {
+            return null;
+        }
+        CodeEntry entry = entries.get(getKey(authzCode));
+        if (entry == null || !StringUtils.equals(consumerKey, entry.consumerKey)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (entry.state.compareAndSet(OAuthConstants.AuthorizationCodeState.ACTIVE,
+                OAuthConstants.AuthorizationCodeState.REVOKED)) {
+            redeemedCount.incrementAndGet();
+            scheduleAudit(entry);
+            return new AuthorizationCodeValidationResult(
+                    entry.copyWithState(OAuthConstants.AuthorizationCodeState.ACTIVE), null);
+        }
+        reuseCount.incrementAndGet();
+        synchronized (entry) {
+            if (entry.isSettled()) {
+                // The database is authoritative once the state is written, and also knows the token binding.
+                return null;
+            }
+            return new AuthorizationCodeValidationResult(entry.copyWithState(entry.state.get()), entry.tokenId);
+        }
+    }
+
+    /**
+     * Update the state of a stored authorization code.
+     *
+     * @return {@code true} if the code was found in the store.
+     */
+    public boolean updateState(String authzCode, String newState) {
+
+        CodeEntry entry = getEntry(authzCode);
+        if (entry == null) {
+            return false;
+        }
+        entry.state.set(newState);
+        scheduleAudit(entry);
+        return true;
+    }
+
+    /**
+     * Deactivate a stored authorization code against the access token issued for it.
+     *
+     * @return {@code true} if the code was found in the store.
+     */
+    public boolean deactivate(String authzCode, String tokenId) {
+
+        CodeEntry entry = getEntry(authzCode);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            entry.tokenId = tokenId;
+            entry.state.set(OAuthConstants.AuthorizationCodeState.INACTIVE);
+        }
+        scheduleAudit(entry);
+        return true;
+    }
+
+    /**
+     * Get the code id of a stored authorization code.
+     *
+     * @return Code id, or {@code null} if the code is not in the store.
+     */
+    public String getCodeId(String authzCode) {
+
+        CodeEntry entry = getEntry(authzCode);
+        return entry != null ? entry.authzCodeDO.getAuthzCodeId() : null;
+    }
+
+    /**
+     * Drop a code from the store once its pending writes are persisted, so that it is served by the database.
+     */
+    public void evict(String authzCode) {
+
+        CodeEntry entry = getEntry(authzCode);
+        if (entry != null) {
+            audit(entry);
+            entries.remove(getKey(authzCode), entry);
+        }
+    }
+
+    /**
+     * Drop a code from the store without persisting its pending writes, as its database row was already changed by a
+     * redemption on another node.
+     */
+    public void discard(String authzCode) {
+
+        CodeEntry entry = getEntry(authzCode);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.persistedState = entry.state.get();
+                entries.remove(getKey(authzCode), entry);
+            }
+        }
+    }
+
+    /**
+     * Drop every code from the store once its pending writes are persisted.
+     */
+    public void evictAll() {
+
+        for (Map.Entry<String, CodeEntry> mapEntry : entries.entrySet()) {
+            audit(mapEntry.getValue());
+            entries.remove(mapEntry.getKey(), mapEntry.getValue());
+        }
+    }
+
+    /**
+     * Synchronously persist every pending write, so that the database reflects all codes in the store.
+     */
+    public void flush() {
+
+        for (CodeEntry entry : entries.values()) {
+            if (!entry.isSettled()) {
+                audit(entry);
+            }
+        }
+    }
+
+    public int getSize() {
+
+        return entries.size();
+    }
+
+    public int getAuditQueueDepth() {
+
+        return auditQueue.size();
+    }
+
+    public long getStoredCount() {
+
+        return storedCount.get();
+    }
+
+    public long getRejectedCount() {
+
+        return rejectedCount.get();
+    }
+
+    public long getRedeemedCount() {
+
+        return redeemedCount.get();
+    }
+
+    public long getReuseCount() {
+
+        return reuseCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    public long getAuditedCount() {
+
+        return auditedCount.get();
+    }
+
+    public long getAuditFailedCount() {
+
+        return auditFailedCount.get();
+    }
+
+    private void runAudit() {
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                CodeEntry entry = auditQueue.poll(auditIntervalMillis, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    List<CodeEntry> batch = new ArrayList<>();
+                    batch.add(entry);
+                    auditQueue.drainTo(batch);
+                    for (CodeEntry queuedEntry : batch) {
+                        audit(queuedEntry);
+                    }
+                }
+                sweep();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error occurred while auditing authorization codes.", e);
+            }
+        }
+    }
+
+    /**
+     * Persist pending writes which could not be queued and release codes which are either consumed or expired, and
+     * whose state is already in the database.
+     */
+    void sweep() {
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, CodeEntry> mapEntry : entries.entrySet()) {
+            CodeEntry entry = mapEntry.getValue();
+            if (!entry.isSettled()) {
+                audit(entry);
+            }
+            boolean consumed = !OAuthConstants.AuthorizationCodeState.ACTIVE.equals(entry.state.get());
+            if ((consumed || entry.isExpired(now)) && entry.isSettled()) {
+                entries.remove(mapEntry.getKey(), entry);
+            }
+        }
+    }
+
+    /**
+     * Bring the database row of a code up to date with the store.
+     */
+    void audit(CodeEntry entry) {
+
+        synchronized (entry) {
+            entry.queued.set(false);
+            try {
+                String state = entry.state.get();
+                if (!state.equals(entry.persistedState)) {
+                    if (OAuthConstants.AuthorizationCodeState.INACTIVE.equals(state)) {
+                        AuthzCodeDO authzCodeDO = new AuthzCodeDO();
+                        authzCodeDO.setAuthorizationCode(entry.authzCode);
+                        authzCodeDO.setAuthzCodeId(entry.authzCodeDO.getAuthzCodeId());
+                        authzCodeDO.setOauthTokenId(entry.tokenId);
+                        auditDAO.deactivateAuthorizationCode(authzCodeDO);
+                    } else {
+                        auditDAO.updateAuthorizationCodeState(entry.authzCode, state);
+                    }
+                    entry.persistedState = state;
+                    auditedCount.incrementAndGet();
+                }
+            } catch (IdentityOAuth2Exception e) {
+                auditFailedCount.incrementAndGet();
+                log.error("Error occurred while persisting the authorization code issued for client: " +
+                        entry.consumerKey, e);
+            }
+        }
+    }
+
+    private void scheduleAudit(CodeEntry entry) {
+
+        // An entry which could not be queued is picked up by the next sweep.
+        if (entry.queued.compareAndSet(false, true) && !auditQueue.offer(entry)) {
+            entry.queued.set(false);
+        }
+    }
+
+    private CodeEntry getEntry(String authzCode) {
+
+        if (!enabled || authzCode == null) {
+            return null;
+        }
+        return entries.get(getKey(authzCode));
+    }
+
+    private static String getKey(String authzCode) {
+
+        return DigestUtils.sha256Hex(authzCode);
+    }
+
+    /**
+     * An authorization code held in the store along with what is already written to the database.
+     */
+    static class CodeEntry {
+
+        private final String authzCode;
+        private final String consumerKey;
+        private final String callbackUrl;
+        private final AuthzCodeDO authzCodeDO;
+        private final AtomicReference<String> state =
+                new AtomicReference<>(OAuthConstants.AuthorizationCodeState.ACTIVE);
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private String tokenId;
+        // The row of the code is inserted as active before the code is added to the store.
+        private volatile String persistedState = OAuthConstants.AuthorizationCodeState.ACTIVE;
+
+        CodeEntry(String authzCode, String consumerKey, String callbackUrl, AuthzCodeDO authzCodeDO) {
+
+            this.authzCode = authzCode;
+            this.consumerKey = consumerKey;
+            this.callbackUrl = callbackUrl;
+            this.authzCodeDO = authzCodeDO;
+        }
+
+        private boolean isSettled() {
+
+            return state.get().equals(persistedState);
+        }
+
+        private boolean isExpired(long now) {
+
+            if (authzCodeDO.getIssuedTime() == null) {
+                return false;
+            }
+            return now > authzCodeDO.getIssuedTime().getTime() + authzCodeDO.getValidityPeriod() +
+                    EXPIRED_CODE_RETENTION_MILLIS;
+        }
+
+        private AuthzCodeDO copyWithState(String codeState) {
+
+            AuthzCodeDO copy = new AuthzCodeDO(authzCodeDO.getAuthorizedUser(), authzCodeDO.getScope(),
+                    authzCodeDO.getIssuedTime(), authzCodeDO.getValidityPeriod(), callbackUrl, consumerKey,
+                    authzCode, authzCodeDO.getAuthzCodeId(), codeState, authzCodeDO.getPkceCodeChallenge(),
+                    authzCodeDO.getPkceCodeChallengeMethod(), NONE);
+            copy.setOauthTokenId(tokenId);
+            return copy;
+        }
+    }
+}
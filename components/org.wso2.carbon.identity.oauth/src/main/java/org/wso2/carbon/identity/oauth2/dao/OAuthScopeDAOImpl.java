@@ -33,6 +33,7 @@ import org.wso2.carbon.identity.oauth2.bean.Scope;
 import org.wso2.carbon.identity.oauth2.bean.ScopeBinding;
 import org.wso2.carbon.identity.oauth2.util.NamedPreparedStatement;
 import org.wso2.carbon.identity.oauth2.util.Oauth2ScopeUtils;
+import org.wso2.carbon.identity.oauth2.util.ReadReplicaRouter;
 import org.wso2.carbon.utils.DBUtils;
 
 import java.sql.Connection;
@@ -564,9 +565,25 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
             log.debug("Get scope by name called for scope name:" + name);
         }
 
+        ReadReplicaRouter readReplicaRouter = ReadReplicaRouter.getInstance();
+        if (!readReplicaRouter.isEnabled()) {
+            return getScopeByName(name, tenantID, IdentityDatabaseUtil.getDBConnection(false));
+        }
+        Scope scope = getScopeByName(name, tenantID, readReplicaRouter.getReadConnection());
+        if (scope == null) {
+            // The scope may not have been replicated yet.
+            readReplicaRouter.recordReplicaMiss();
+            scope = getScopeByName(name, tenantID, IdentityDatabaseUtil.getDBConnection(false));
+        }
+        return scope;
+    }
+
+    private Scope getScopeByName(String name, int tenantID, Connection dbConnection)
+            throws IdentityOAuth2ScopeServerException {
+
         Scope scope = null;
         String sql;
-        try (Connection conn = IdentityDatabaseUtil.getDBConnection(false)) {
+        try (Connection conn = dbConnection) {
             if (conn.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
                 sql = SQLQueries.RETRIEVE_SCOPE_BY_NAME_ORACLE;
             } else {
@@ -970,7 +987,22 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
             log.debug("Retrieving bindings of scope: " + scopeName + " tenant id: " + tenantId);
         }
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        ReadReplicaRouter readReplicaRouter = ReadReplicaRouter.getInstance();
+        if (!readReplicaRouter.isEnabled()) {
+            return getBindingsOfScopeByScopeName(scopeName, tenantId, IdentityDatabaseUtil.getDBConnection(false));
+        }
+        Set<String> bindings = getBindingsOfScopeByScopeName(scopeName, tenantId,
+                readReplicaRouter.getReadConnection());
+        if (bindings.isEmpty()) {
+            // The scope bindings may not have been replicated yet.
+            readReplicaRouter.recordReplicaMiss();
+            bindings = getBindingsOfScopeByScopeName(scopeName, tenantId, IdentityDatabaseUtil.getDBConnection(false));
+        }
+        return bindings;
+    }
+
+    private Set<String> getBindingsOfScopeByScopeName(String scopeName, int tenantId, Connection connection)
+            throws IdentityOAuth2Exception {
 
         PreparedStatement ps = null;
         ResultSet rs = null;
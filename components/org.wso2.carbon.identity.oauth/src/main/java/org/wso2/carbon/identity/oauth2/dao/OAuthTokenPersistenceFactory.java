@@ -20,6 +20,7 @@
 
 package org.wso2.carbon.identity.oauth2.dao;
 
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
 import org.wso2.carbon.identity.openidconnect.dao.CacheBackedScopeClaimMappingDAOImpl;
 import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAO;
 import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAOImpl;
@@ -42,13 +43,16 @@ public class OAuthTokenPersistenceFactory {
 
     public OAuthTokenPersistenceFactory() {
 
-        this.authorizationCodeDAO = new AuthorizationCodeDAOImpl();
-        this.tokenDAO = new AccessTokenDAOImpl();
+        boolean tokenShardingEnabled = TokenShardRouter.getInstance().isEnabled();
+        this.authorizationCodeDAO = AuthorizationCodeStore.getInstance().isConfigured() ?
+                new StoreBackedAuthorizationCodeDAOImpl() : new AuthorizationCodeDAOImpl();
+        this.tokenDAO = tokenShardingEnabled ? new ShardedAccessTokenDAOImpl() : new AccessTokenDAOImpl();
         this.scopeDAO = new OAuthScopeDAOImpl();
-        this.managementDAO = new TokenManagementDAOImpl();
+        this.managementDAO = tokenShardingEnabled ? new ShardedTokenManagementDAOImpl() : new TokenManagementDAOImpl();
         this.requestObjectDAO = new RequestObjectDAOImpl();
         this.scopeClaimMappingDAO = new CacheBackedScopeClaimMappingDAOImpl();
-        this.tokenBindingMgtDAO = new TokenBindingMgtDAOImpl();
+        this.tokenBindingMgtDAO = tokenShardingEnabled ? new ShardedTokenBindingMgtDAOImpl() :
+                new TokenBindingMgtDAOImpl();
         this.oauthUserConsentedScopesDAO = new CacheBackedOAuthUserConsentedScopesDAOImpl();
     }
 
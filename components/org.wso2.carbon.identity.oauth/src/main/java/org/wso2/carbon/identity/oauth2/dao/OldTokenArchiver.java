@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in asynchronous archiving of the access tokens replaced while issuing new tokens.
+ * <p>
+ * When enabled, the issuing transaction only marks the replaced token as expired or inactive, and the id of the
+ * replaced token is handed over to this archiver once the transaction is committed. A background consumer drains the
+ * queued token ids in batches and moves them to the audit table (if old tokens are retained) and out of the access
+ * token table using JDBC batching, through {@link OldTokensCleanDAO#cleanupTokensByTokenIds(List, String)}. When the
+ * queue is full the token is not enqueued and the caller falls back to cleaning it up synchronously. The tokens of a
+ * failed batch are queued again and retried after a short delay, up to a maximum number of attempts.
+ * <p>
+ * Queued token ids are not persisted. Replaced tokens which are not archived before the node goes down stay in the
+ * access token table until they are removed by the {@link TokenPurgeService}.
+ */
+public class OldTokenArchiver {
+
+    private static final Log log = LogFactory.getLog(OldTokenArchiver.class);
+
+    private static final String ASYNC_ARCHIVING_ENABLE = "OAuth.TokenCleanup.AsyncArchiving.Enable";
+    private static final String ASYNC_ARCHIVING_QUEUE_SIZE = "OAuth.TokenCleanup.AsyncArchiving.QueueSize";
+    private static final String ASYNC_ARCHIVING_BATCH_SIZE = "OAuth.TokenCleanup.AsyncArchiving.BatchSize";
+
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final long POLL_INTERVAL_MILLIS = 500;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final int MAX_ARCHIVE_ATTEMPTS = 3;
+
+    private static volatile OldTokenArchiver instance;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<ReplacedToken> queue;
+    private final OldTokensCleanDAO oldTokensCleanDAO;
+    private ExecutorService consumer;
+    private CountDownLatch stopSignal;
+    private volatile boolean running;
+    private volatile long startTime;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong archivedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalArchiveLagMillis = new AtomicLong();
+    private final AtomicLong maxArchiveLagMillis = new AtomicLong();
+
+    /**
+     * A replaced access token waiting to be archived.
+     */
+    private static class ReplacedToken {
+
+        private final String tokenId;
+        private final String userStoreDomain;
+        private final long enqueuedTime;
+        private int attempts;
+
+        ReplacedToken(String tokenId, String userStoreDomain) {
+
+            this.tokenId = tokenId;
+            this.userStoreDomain = userStoreDomain;
+            this.enqueuedTime = System.currentTimeMillis();
+        }
+    }
+
+    OldTokenArchiver(boolean enabled, int queueSize, int batchSize, OldTokensCleanDAO oldTokensCleanDAO) {
+
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.oldTokensCleanDAO = oldTokensCleanDAO;
+    }
+
+    public static OldTokenArchiver getInstance() {
+
+        if (instance == null) {
+            synchronized (OldTokenArchiver.class) {
+                if (instance == null) {
+                    boolean enabled = Boolean.parseBoolean(IdentityUtil.getProperty(ASYNC_ARCHIVING_ENABLE)) &&
+                            OAuthServerConfiguration.getInstance().isTokenCleanupEnabled();
+                    if (enabled && TokenShardRouter.getInstance().isEnabled()) {
+                        // The archiver cleans up the tokens in the identity database, which does not hold the
+                        // sharded tokens. The replaced tokens are cleaned up inline in their shard instead.
+                        log.warn("Asynchronous archiving of old access tokens is not supported with token " +
+                                "sharding. Old access tokens will be cleaned up while issuing new tokens.");
+                        enabled = false;
+                    }
+                    int queueSize = IdentityConfigUtils.getPositiveIntProperty(ASYNC_ARCHIVING_QUEUE_SIZE,
+                            DEFAULT_QUEUE_SIZE);
+                    int batchSize = IdentityConfigUtils.getPositiveIntProperty(ASYNC_ARCHIVING_BATCH_SIZE,
+                            DEFAULT_BATCH_SIZE);
+                    instance = new OldTokenArchiver(enabled, queueSize, batchSize, new OldTokensCleanDAO());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start the archiving consumer. Has no effect if asynchronous archiving is not enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || running) {
+            return;
+        }
+        consumer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth-old-token-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        stopSignal = new CountDownLatch(1);
+        running = true;
+        startTime = System.currentTimeMillis();
+        consumer.execute(this::consume);
+        log.info("Started archiving replaced access tokens asynchronously in batches of " + batchSize + ".");
+    }
+
+    /**
+     * Stop the archiving consumer once it completes the batch in progress, and synchronously archive whatever is left
+     * in the queue.
+     */
+    public synchronized void shutdown() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        stopSignal.countDown();
+        consumer.shutdown();
+        try {
+            if (!consumer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Old access token archiving consumer did not terminate in time.");
+                consumer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            consumer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Tokens queued again after a failure are drained as well, until they run out of attempts.
+        List<ReplacedToken> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining) > 0) {
+            archive(remaining);
+            remaining.clear();
+        }
+        log.info("Old access token archiving consumer stopped.");
+    }
+
+    public boolean isEnabled() {
+
+        return enabled && running;
+    }
+
+    /**
+     * Hand over a replaced access token to be archived. Must only be called once the transaction which replaced the
+     * token is committed.
+     *
+     * @param tokenId         Id of the replaced access token.
+     * @param userStoreDomain User store domain of the token partition.
+     * @return {@code true} if the token was queued, {@code false} if the caller has to clean it up synchronously,
+     * either because asynchronous archiving is not enabled or because the queue is full.
+     */
+    public boolean enqueue(String tokenId, String userStoreDomain) {
+
+        if (!isEnabled()) {
+            return false;
+        }
+        if (!queue.offer(new ReplacedToken(tokenId, userStoreDomain))) {
+            rejectedCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Old access token archiving queue is full. Cleaning up the token: " + tokenId +
+                        " synchronously.");
+            }
+            return false;
+        }
+        enqueuedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Archive a batch of replaced tokens, one JDBC batch per token partition. The tokens of a partition which fails
+     * to be archived are queued again, unless they have run out of attempts or the queue is full.
+     *
+     * @param batch Tokens drained from the queue.
+     * @return {@code true} if all the tokens of the batch were archived.
+     */
+    boolean archive(List<ReplacedToken> batch) {
+
+        Map<String, List<ReplacedToken>> tokensByUserStoreDomain = new LinkedHashMap<>();
+        for (ReplacedToken replacedToken : batch) {
+            tokensByUserStoreDomain.computeIfAbsent(replacedToken.userStoreDomain, domain -> new ArrayList<>())
+                    .add(replacedToken);
+        }
+        boolean allArchived = true;
+        for (Map.Entry<String, List<ReplacedToken>> entry : tokensByUserStoreDomain.entrySet()) {
+            List<String> tokenIds = new ArrayList<>(entry.getValue().size());
+            for (ReplacedToken replacedToken : entry.getValue()) {
+                tokenIds.add(replacedToken.tokenId);
+            }
+            try {
+                oldTokensCleanDAO.cleanupTokensByTokenIds(tokenIds, entry.getKey());
+                archivedCount.addAndGet(tokenIds.size());
+            } catch (IdentityOAuth2Exception e) {
+                allArchived = false;
+                int requeuedCount = requeue(entry.getValue());
+                log.error("Error occurred while archiving a batch of " + tokenIds.size() + " old access tokens. " +
+                        requeuedCount + " of them are queued to be retried.", e);
+            }
+        }
+        recordArchiveLag(System.currentTimeMillis() - batch.get(0).enqueuedTime);
+        return allArchived;
+    }
+
+    public int getQueueDepth() {
+
+        return queue.size();
+    }
+
+    /**
+     * Get the time the oldest queued token has been waiting to be archived.
+     *
+     * @return Current archive lag in milliseconds, or zero if the queue is empty.
+     */
+    public long getCurrentArchiveLagMillis() {
+
+        ReplacedToken oldest = queue.peek();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.enqueuedTime;
+    }
+
+    /**
+     * Get the average time the first token of each batch waited before it was archived.
+     *
+     * @return Average archive lag in milliseconds.
+     */
+    public long getAverageArchiveLagMillis() {
+
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : totalArchiveLagMillis.get() / batches;
+    }
+
+    public long getMaxArchiveLagMillis() {
+
+        return maxArchiveLagMillis.get();
+    }
+
+    /**
+     * Get the number of tokens archived per second since the archiver was started.
+     *
+     * @return Archiving throughput in tokens per second.
+     */
+    public double getArchiveThroughput() {
+
+        long elapsedMillis = System.currentTimeMillis() - startTime;
+        return startTime == 0 || elapsedMillis <= 0 ? 0 : archivedCount.get() * 1000.0 / elapsedMillis;
+    }
+
+    public long getEnqueuedCount() {
+
+        return enqueuedCount.get();
+    }
+
+    public long getArchivedCount() {
+
+        return archivedCount.get();
+    }
+
+    public long getRejectedCount() {
+
+        return rejectedCount.get();
+    }
+
+    public long getFailedCount() {
+
+        return failedCount.get();
+    }
+
+    public long getRetriedCount() {
+
+        return retriedCount.get();
+    }
+
+    public long getBatchCount() {
+
+        return batchCount.get();
+    }
+
+    private void consume() {
+
+        List<ReplacedToken> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ReplacedToken replacedToken = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (replacedToken == null) {
+                    continue;
+                }
+                batch.add(replacedToken);
+                queue.drainTo(batch, batchSize - 1);
+                if (!archive(batch)) {
+                    // Back off before retrying the failed tokens, unless the archiver is being shut down.
+                    stopSignal.await(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error occurred while archiving a batch of old access tokens.", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private int requeue(List<ReplacedToken> failedTokens) {
+
+        int requeuedCount = 0;
+        for (ReplacedToken replacedToken : failedTokens) {
+            replacedToken.attempts++;
+            if (replacedToken.attempts < MAX_ARCHIVE_ATTEMPTS && queue.offer(replacedToken)) {
+                requeuedCount++;
+            } else {
+                // The token stays in the access token table until it is removed by the token purge.
+                failedCount.incrementAndGet();
+            }
+        }
+        retriedCount.addAndGet(requeuedCount);
+        return requeuedCount;
+    }
+
+    private void recordArchiveLag(long lagMillis) {
+
+        batchCount.incrementAndGet();
+        totalArchiveLagMillis.addAndGet(lagMillis);
+        maxArchiveLagMillis.accumulateAndGet(lagMillis, Math::max);
+        if (log.isDebugEnabled()) {
+            log.debug("Archived a batch of old access tokens with a lag of " + lagMillis + "ms. Queue depth: " +
+                    queue.size() + ", archived: " + archivedCount.get() + ", failed: " + failedCount.get() +
+                    ", rejected: " + rejectedCount.get());
+        }
+    }
+}
@@ -20,9 +20,12 @@ package org.wso2.carbon.identity.oauth2.dao;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.OldAccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -64,6 +67,62 @@ public class OldTokensCleanDAO {
         }
     }
 
+    /**
+     * Move a set of old tokens of a token partition to the audit table, if old tokens are retained, and delete them
+     * from the access token table. The audit inserts and the deletes are sent as JDBC batches within a single
+     * transaction.
+     *
+     * @param tokenIds        Ids of the old tokens.
+     * @param userStoreDomain User store domain of the token partition.
+     * @throws IdentityOAuth2Exception If an error occurs while cleaning up the tokens.
+     */
+    public void cleanupTokensByTokenIds(List<String> tokenIds, String userStoreDomain)
+            throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                if (OAuthServerConfiguration.getInstance().useRetainOldAccessTokens()) {
+                    String sql;
+                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                        sql = SQLQueries.RETRIEVE_AND_STORE_IN_AUDIT_WITH_IDP_NAME;
+                    } else {
+                        sql = SQLQueries.RETRIEVE_AND_STORE_IN_AUDIT;
+                    }
+                    try (PreparedStatement prepStmt = connection.prepareStatement(
+                            OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userStoreDomain))) {
+                        Timestamp invalidatedTime = new Timestamp(System.currentTimeMillis());
+                        for (String tokenId : tokenIds) {
+                            prepStmt.setTimestamp(1, invalidatedTime);
+                            prepStmt.setString(2, tokenId);
+                            prepStmt.addBatch();
+                        }
+                        prepStmt.executeBatch();
+                    }
+                }
+                try (PreparedStatement prepStmt = connection.prepareStatement(
+                        OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.DELETE_OLD_TOKEN_BY_ID,
+                                userStoreDomain))) {
+                    for (String tokenId : tokenIds) {
+                        prepStmt.setString(1, tokenId);
+                        prepStmt.addBatch();
+                    }
+                    prepStmt.executeBatch();
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                if (log.isDebugEnabled()) {
+                    log.debug("Successfully cleaned up " + tokenIds.size() + " old access tokens of user store " +
+                            "domain: " + userStoreDomain);
+                }
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while cleaning up " + tokenIds.size() +
+                    " old access tokens of user store domain: " + userStoreDomain, e);
+        }
+    }
+
     public void cleanupTokenByTokenValue(String token, Connection connection) throws SQLException {
         OldAccessTokenDO oldAccessTokenObject = new OldAccessTokenDO();
 
@@ -49,12 +49,22 @@ public class SQLQueries {
             "SUBJECT_IDENTIFIER FROM IDN_OAUTH2_AUTHORIZATION_CODE WHERE CONSUMER_KEY_ID = (SELECT ID FROM " +
             "IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?) AND AUTHORIZATION_CODE_HASH = ?";
 
+    /**
+     * @deprecated Authorization codes are validated along with their scopes with
+     * {@link #VALIDATE_AUTHZ_CODE_WITH_PKCE_AND_SCOPES}.
+     */
+    @Deprecated
     public static final String VALIDATE_AUTHZ_CODE_WITH_PKCE = "SELECT AUTHZ_USER, USER_DOMAIN, TENANT_ID, SCOPE, " +
             "CALLBACK_URL, TIME_CREATED,VALIDITY_PERIOD, STATE, TOKEN_ID, AUTHORIZATION_CODE, CODE_ID, " +
             "SUBJECT_IDENTIFIER, PKCE_CODE_CHALLENGE, PKCE_CODE_CHALLENGE_METHOD FROM IDN_OAUTH2_AUTHORIZATION_CODE " +
             "WHERE CONSUMER_KEY_ID = (SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?) AND "
             + "AUTHORIZATION_CODE_HASH = ?";
 
+    /**
+     * @deprecated Authorization codes are validated along with their scopes with
+     * {@link #VALIDATE_AUTHZ_CODE_WITH_PKCE_AND_SCOPES_IDP_NAME}.
+     */
+    @Deprecated
     public static final String VALIDATE_AUTHZ_CODE_WITH_PKCE_IDP_NAME = "SELECT AUTHZ_USER, USER_DOMAIN, " +
             "IDN_OAUTH2_AUTHORIZATION_CODE.TENANT_ID, SCOPE, CALLBACK_URL, TIME_CREATED,VALIDITY_PERIOD, STATE, " +
             "TOKEN_ID, AUTHORIZATION_CODE, CODE_ID, SUBJECT_IDENTIFIER, PKCE_CODE_CHALLENGE, " +
@@ -63,6 +73,33 @@ public class SQLQueries {
             "CONSUMER_KEY_ID = (SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?) AND " +
             "AUTHORIZATION_CODE_HASH = ?";
 
+    public static final String VALIDATE_AUTHZ_CODE_WITH_PKCE_AND_SCOPES = "SELECT AUTHZ_CODE.AUTHZ_USER, " +
+            "AUTHZ_CODE.USER_DOMAIN, AUTHZ_CODE.TENANT_ID, AUTHZ_CODE.SCOPE, AUTHZ_CODE.CALLBACK_URL, " +
+            "AUTHZ_CODE.TIME_CREATED, AUTHZ_CODE.VALIDITY_PERIOD, AUTHZ_CODE.STATE, AUTHZ_CODE.TOKEN_ID, " +
+            "AUTHZ_CODE.AUTHORIZATION_CODE, AUTHZ_CODE.CODE_ID, AUTHZ_CODE.SUBJECT_IDENTIFIER, " +
+            "AUTHZ_CODE.PKCE_CODE_CHALLENGE, AUTHZ_CODE.PKCE_CODE_CHALLENGE_METHOD, CODE_SCOPE.SCOPE, " +
+            "ACCESS_TOKEN.TOKEN_BINDING_REF FROM IDN_OAUTH2_AUTHORIZATION_CODE AUTHZ_CODE " +
+            "LEFT JOIN IDN_OAUTH2_AUTHZ_CODE_SCOPE CODE_SCOPE ON AUTHZ_CODE.CODE_ID = CODE_SCOPE.CODE_ID AND " +
+            "AUTHZ_CODE.TENANT_ID = CODE_SCOPE.TENANT_ID " +
+            "LEFT JOIN IDN_OAUTH2_ACCESS_TOKEN ACCESS_TOKEN ON AUTHZ_CODE.TOKEN_ID = ACCESS_TOKEN.TOKEN_ID AND " +
+            "AUTHZ_CODE.TENANT_ID = ACCESS_TOKEN.TENANT_ID " +
+            "WHERE AUTHZ_CODE.CONSUMER_KEY_ID = (SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?) " +
+            "AND AUTHZ_CODE.AUTHORIZATION_CODE_HASH = ?";
+
+    public static final String VALIDATE_AUTHZ_CODE_WITH_PKCE_AND_SCOPES_IDP_NAME = "SELECT AUTHZ_CODE.AUTHZ_USER, " +
+            "AUTHZ_CODE.USER_DOMAIN, AUTHZ_CODE.TENANT_ID, AUTHZ_CODE.SCOPE, AUTHZ_CODE.CALLBACK_URL, " +
+            "AUTHZ_CODE.TIME_CREATED, AUTHZ_CODE.VALIDITY_PERIOD, AUTHZ_CODE.STATE, AUTHZ_CODE.TOKEN_ID, " +
+            "AUTHZ_CODE.AUTHORIZATION_CODE, AUTHZ_CODE.CODE_ID, AUTHZ_CODE.SUBJECT_IDENTIFIER, " +
+            "AUTHZ_CODE.PKCE_CODE_CHALLENGE, AUTHZ_CODE.PKCE_CODE_CHALLENGE_METHOD, CODE_SCOPE.SCOPE, " +
+            "ACCESS_TOKEN.TOKEN_BINDING_REF, IDP.NAME FROM IDN_OAUTH2_AUTHORIZATION_CODE AUTHZ_CODE " +
+            "INNER JOIN IDP ON AUTHZ_CODE.IDP_ID = IDP.ID AND AUTHZ_CODE.TENANT_ID = IDP.TENANT_ID " +
+            "LEFT JOIN IDN_OAUTH2_AUTHZ_CODE_SCOPE CODE_SCOPE ON AUTHZ_CODE.CODE_ID = CODE_SCOPE.CODE_ID AND " +
+            "AUTHZ_CODE.TENANT_ID = CODE_SCOPE.TENANT_ID " +
+            "LEFT JOIN IDN_OAUTH2_ACCESS_TOKEN ACCESS_TOKEN ON AUTHZ_CODE.TOKEN_ID = ACCESS_TOKEN.TOKEN_ID AND " +
+            "AUTHZ_CODE.TENANT_ID = ACCESS_TOKEN.TENANT_ID " +
+            "WHERE AUTHZ_CODE.CONSUMER_KEY_ID = (SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?) " +
+            "AND AUTHZ_CODE.AUTHORIZATION_CODE_HASH = ?";
+
     public static final String RETRIEVE_CODE_ID_BY_AUTHORIZATION_CODE = "SELECT CODE_ID FROM " +
             "IDN_OAUTH2_AUTHORIZATION_CODE WHERE AUTHORIZATION_CODE_HASH = ?";
 
@@ -75,6 +112,9 @@ public class SQLQueries {
     public static final String RETRIEVE_TOKEN_BY_TOKEN_ID = "SELECT ACCESS_TOKEN FROM " +
             "IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?";
 
+    public static final String RETRIEVE_TOKEN_HASH_BY_TOKEN_ID = "SELECT ACCESS_TOKEN_HASH FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?";
+
     public static final String UPDATE_TOKEN_AGAINST_AUTHZ_CODE = "UPDATE IDN_OAUTH2_AUTHORIZATION_CODE SET " +
             "TOKEN_ID=? WHERE AUTHORIZATION_CODE=?";
 
@@ -93,6 +133,9 @@ public class SQLQueries {
     public static final String DEACTIVATE_AUTHZ_CODE_AND_INSERT_CURRENT_TOKEN =
             "UPDATE IDN_OAUTH2_AUTHORIZATION_CODE SET STATE='INACTIVE', TOKEN_ID=? WHERE AUTHORIZATION_CODE_HASH= ?";
 
+    public static final String REDEEM_ACTIVE_AUTHZ_CODE = "UPDATE IDN_OAUTH2_AUTHORIZATION_CODE SET " +
+            "STATE='INACTIVE' WHERE CODE_ID=? AND STATE='ACTIVE'";
+
     public static final String RETRIEVE_LATEST_ACCESS_TOKEN_BY_CLIENT_ID_USER_SCOPE_ORACLE = "SELECT * FROM (SELECT " +
             "ACCESS_TOKEN, REFRESH_TOKEN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
             "REFRESH_TOKEN_VALIDITY_PERIOD,TOKEN_STATE, USER_TYPE, TOKEN_ID, SUBJECT_IDENTIFIER, GRANT_TYPE FROM " +
@@ -412,11 +455,11 @@ public class SQLQueries {
     public static final String RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKEN = "SELECT CONSUMER_KEY, AUTHZ_USER, " +
             "ACCESS_TOKEN_TABLE.TENANT_ID, USER_DOMAIN, TOKEN_SCOPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, " +
             "VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, ACCESS_TOKEN_TABLE.TOKEN_ID, " +
-            "GRANT_TYPE, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF " +
+            "GRANT_TYPE, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, TOKEN_STATE " +
             "FROM (SELECT TOKEN_ID, CONSUMER_KEY, AUTHZ_USER, IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID, " +
             "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
             "REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, IDN_OAUTH2_ACCESS_TOKEN.GRANT_TYPE, " +
-            "SUBJECT_IDENTIFIER, TOKEN_BINDING_REF " +
+            "SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, TOKEN_STATE " +
             "FROM IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON CONSUMER_KEY_ID = ID " +
             "WHERE ACCESS_TOKEN_HASH=? AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED')) ACCESS_TOKEN_TABLE LEFT " +
             "JOIN IDN_OAUTH2_ACCESS_TOKEN_SCOPE " +
@@ -425,23 +468,78 @@ public class SQLQueries {
     public static final String RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKEN_IDP_NAME = "SELECT CONSUMER_KEY, AUTHZ_USER, " +
             "ACCESS_TOKEN_TABLE.TENANT_ID, USER_DOMAIN, TOKEN_SCOPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, " +
             "VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, ACCESS_TOKEN_TABLE.TOKEN_ID, " +
-            "GRANT_TYPE, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, IDP.NAME " +
+            "GRANT_TYPE, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, IDP.NAME, TOKEN_STATE " +
             "FROM (SELECT TOKEN_ID, CONSUMER_KEY, AUTHZ_USER, IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID, " +
             "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
             "REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, IDN_OAUTH2_ACCESS_TOKEN.GRANT_TYPE, " +
-            "SUBJECT_IDENTIFIER, IDN_OAUTH2_ACCESS_TOKEN.IDP_ID, TOKEN_BINDING_REF " +
+            "SUBJECT_IDENTIFIER, IDN_OAUTH2_ACCESS_TOKEN.IDP_ID, TOKEN_BINDING_REF, TOKEN_STATE " +
             "FROM IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON CONSUMER_KEY_ID = ID " +
             "WHERE ACCESS_TOKEN_HASH=? AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED')) ACCESS_TOKEN_TABLE LEFT " +
             "JOIN IDN_OAUTH2_ACCESS_TOKEN_SCOPE " +
             "ON ACCESS_TOKEN_TABLE.TOKEN_ID = IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID " +
             "JOIN IDP ON IDP_ID = IDP.ID";
 
+    public static final String ACCESS_TOKEN_HASH_LIST_PLACEHOLDER = "_ACCESS_TOKEN_HASH_LIST_";
+
+    public static final String RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_BY_HASH = "SELECT CONSUMER_KEY, AUTHZ_USER, " +
+            "ACCESS_TOKEN_TABLE.TENANT_ID, USER_DOMAIN, TOKEN_SCOPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, " +
+            "VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, ACCESS_TOKEN_TABLE.TOKEN_ID, " +
+            "GRANT_TYPE, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, ACCESS_TOKEN_HASH, TOKEN_STATE " +
+            "FROM (SELECT TOKEN_ID, CONSUMER_KEY, AUTHZ_USER, IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID, " +
+            "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
+            "REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, IDN_OAUTH2_ACCESS_TOKEN.GRANT_TYPE, " +
+            "SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, ACCESS_TOKEN_HASH, TOKEN_STATE " +
+            "FROM IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON CONSUMER_KEY_ID = ID " +
+            "WHERE ACCESS_TOKEN_HASH IN (" + ACCESS_TOKEN_HASH_LIST_PLACEHOLDER + ") AND " +
+            "(TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED')) ACCESS_TOKEN_TABLE LEFT " +
+            "JOIN IDN_OAUTH2_ACCESS_TOKEN_SCOPE " +
+            "ON ACCESS_TOKEN_TABLE.TOKEN_ID = IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID";
+
+    public static final String RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_BY_HASH_IDP_NAME = "SELECT CONSUMER_KEY, " +
+            "AUTHZ_USER, ACCESS_TOKEN_TABLE.TENANT_ID, USER_DOMAIN, TOKEN_SCOPE, TIME_CREATED, " +
+            "REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, " +
+            "ACCESS_TOKEN_TABLE.TOKEN_ID, GRANT_TYPE, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF, IDP.NAME, " +
+            "ACCESS_TOKEN_HASH, TOKEN_STATE " +
+            "FROM (SELECT TOKEN_ID, CONSUMER_KEY, AUTHZ_USER, IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID, " +
+            "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
+            "REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, REFRESH_TOKEN, IDN_OAUTH2_ACCESS_TOKEN.GRANT_TYPE, " +
+            "SUBJECT_IDENTIFIER, IDN_OAUTH2_ACCESS_TOKEN.IDP_ID, TOKEN_BINDING_REF, ACCESS_TOKEN_HASH, " +
+            "TOKEN_STATE " +
+            "FROM IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON CONSUMER_KEY_ID = ID " +
+            "WHERE ACCESS_TOKEN_HASH IN (" + ACCESS_TOKEN_HASH_LIST_PLACEHOLDER + ") AND " +
+            "(TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED')) ACCESS_TOKEN_TABLE LEFT " +
+            "JOIN IDN_OAUTH2_ACCESS_TOKEN_SCOPE " +
+            "ON ACCESS_TOKEN_TABLE.TOKEN_ID = IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID " +
+            "JOIN IDP ON IDP_ID = IDP.ID";
+
     public static final String GET_TOKEN_IS_CONSENTED_OR_NOT = "SELECT CONSENTED_TOKEN FROM " +
             "IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?";
 
     public static final String UPDATE_TOKEN_STATE = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET TOKEN_STATE=?, " +
             "TOKEN_STATE_ID=? WHERE TOKEN_ID=?";
 
+    public static final String RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE = "SELECT TOKEN_ID, GRANT_TYPE, " +
+            "ACCESS_TOKEN FROM IDN_OAUTH2_ACCESS_TOKEN WHERE CONSUMER_KEY_ID=(SELECT ID FROM " +
+            "IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY=?) AND AUTHZ_USER=? AND TENANT_ID=? AND USER_DOMAIN=? AND " +
+            "USER_TYPE=? AND TOKEN_SCOPE_HASH=? AND TOKEN_BINDING_REF=? AND TOKEN_STATE='ACTIVE' FOR UPDATE";
+
+    public static final String RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE_MSSQL = "SELECT TOKEN_ID, " +
+            "GRANT_TYPE, ACCESS_TOKEN FROM IDN_OAUTH2_ACCESS_TOKEN WITH (UPDLOCK, ROWLOCK) WHERE CONSUMER_KEY_ID=" +
+            "(SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY=?) AND AUTHZ_USER=? AND TENANT_ID=? AND " +
+            "USER_DOMAIN=? AND USER_TYPE=? AND TOKEN_SCOPE_HASH=? AND TOKEN_BINDING_REF=? AND TOKEN_STATE='ACTIVE'";
+
+    public static final String RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE_IDP_NAME = "SELECT TOKEN_ID, " +
+            "GRANT_TYPE, ACCESS_TOKEN FROM IDN_OAUTH2_ACCESS_TOKEN WHERE CONSUMER_KEY_ID=(SELECT ID FROM " +
+            "IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY=?) AND AUTHZ_USER=? AND TENANT_ID=? AND USER_DOMAIN=? AND " +
+            "USER_TYPE=? AND TOKEN_SCOPE_HASH=? AND TOKEN_BINDING_REF=? AND TOKEN_STATE='ACTIVE' AND IDP_ID=(SELECT " +
+            "ID FROM IDP WHERE NAME=? AND TENANT_ID=?) FOR UPDATE";
+
+    public static final String RETRIEVE_CONFLICTING_ACTIVE_ACCESS_TOKEN_FOR_UPDATE_IDP_NAME_MSSQL = "SELECT " +
+            "TOKEN_ID, GRANT_TYPE, ACCESS_TOKEN FROM IDN_OAUTH2_ACCESS_TOKEN WITH (UPDLOCK, ROWLOCK) WHERE " +
+            "CONSUMER_KEY_ID=(SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY=?) AND AUTHZ_USER=? AND " +
+            "TENANT_ID=? AND USER_DOMAIN=? AND USER_TYPE=? AND TOKEN_SCOPE_HASH=? AND TOKEN_BINDING_REF=? AND " +
+            "TOKEN_STATE='ACTIVE' AND IDP_ID=(SELECT ID FROM IDP WHERE NAME=? AND TENANT_ID=?)";
+
     public static final String UPDATE_TOKEN_CONSENTED_TOKEN = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET " +
             "CONSENTED_TOKEN=? WHERE TOKEN_ID=?";
     @Deprecated
@@ -453,6 +551,46 @@ public class SQLQueries {
     public static final String REVOKE_ACCESS_TOKEN = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET TOKEN_STATE=?, " +
             "TOKEN_STATE_ID=? WHERE ACCESS_TOKEN_HASH=?";
 
+    public static final String TOKEN_ID_LIST_PLACEHOLDER = "_TOKEN_ID_LIST_";
+
+    public static final String RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_OF_USER = "SELECT CONSUMER_KEY, " +
+            "ACCESS_TOKEN, REFRESH_TOKEN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
+            "REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, TOKEN_ID, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON CONSUMER_KEY_ID = ID " +
+            "WHERE AUTHZ_USER=? AND IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID=? AND " +
+            "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN=? AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED')";
+
+    public static final String RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKENS_OF_USER_IDP_NAME = "SELECT CONSUMER_KEY, " +
+            "ACCESS_TOKEN, REFRESH_TOKEN, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
+            "REFRESH_TOKEN_VALIDITY_PERIOD, USER_TYPE, TOKEN_ID, SUBJECT_IDENTIFIER, TOKEN_BINDING_REF FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON CONSUMER_KEY_ID = ID " +
+            "WHERE AUTHZ_USER=? AND IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID=? AND " +
+            "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN=? AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED') AND " +
+            "IDP_ID=(SELECT ID FROM IDP WHERE NAME=? AND TENANT_ID=IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID)";
+
+    public static final String ACCESS_TOKENS_OF_USER_AFTER_TOKEN_ID = " AND TOKEN_ID > ?";
+
+    public static final String ACCESS_TOKENS_OF_USER_ORDER_BY_TOKEN_ID = " ORDER BY TOKEN_ID";
+
+    public static final String RETRIEVE_ACCESS_TOKEN_SCOPES_BY_TOKEN_IDS = "SELECT TOKEN_ID, TOKEN_SCOPE FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_TOKEN_BINDINGS_BY_TOKEN_IDS = "SELECT TOKEN_ID, TOKEN_BINDING_TYPE, " +
+            "TOKEN_BINDING_REF, TOKEN_BINDING_VALUE FROM IDN_OAUTH2_TOKEN_BINDING WHERE TOKEN_ID IN (" +
+            TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    /* The token id is used as the token state id, as the token state id is a part of the unique key of the table and
+    each of the revoked tokens needs a distinct value. */
+    public static final String REVOKE_ACCESS_TOKENS_OF_USER = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET TOKEN_STATE=?, " +
+            "TOKEN_STATE_ID=TOKEN_ID WHERE AUTHZ_USER=? AND TENANT_ID=? AND USER_DOMAIN=? AND " +
+            "(TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED') AND TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String GET_REVOKED_ACCESS_TOKEN_HASHES = "SELECT ACCESS_TOKEN_HASH, TIME_CREATED, " +
+            "VALIDITY_PERIOD FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_STATE IN (?, ?) AND TIME_CREATED > ?";
+
+    public static final String GET_REVOKED_ACCESS_TOKEN_HASHES_FROM_AUDIT = "SELECT ACCESS_TOKEN_HASH, " +
+            "TIME_CREATED, VALIDITY_PERIOD FROM IDN_OAUTH2_ACCESS_TOKEN_AUDIT WHERE TIME_CREATED > ?";
+
     public static final String REVOKE_APP_ACCESS_TOKEN = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET TOKEN_STATE=?, " +
             "TOKEN_STATE_ID=? WHERE CONSUMER_KEY_ID = (SELECT ID FROM " +
             "IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?) AND TOKEN_STATE=?";
@@ -790,6 +928,97 @@ public class SQLQueries {
 
     public static final String DELETE_OLD_TOKEN_BY_ID = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?";
 
+    public static final String CODE_LIST_PLACEHOLDER = "_CODE_LIST_";
+
+    public static final String RETRIEVE_ACCESS_TOKENS_TO_PURGE = "SELECT TOKEN_ID, TOKEN_STATE, TIME_CREATED, " +
+            "VALIDITY_PERIOD, REFRESH_TOKEN_TIME_CREATED, REFRESH_TOKEN_VALIDITY_PERIOD FROM IDN_OAUTH2_ACCESS_TOKEN " +
+            "WHERE TIME_CREATED < ?";
+
+    public static final String ACCESS_TOKENS_TO_PURGE_AFTER_TOKEN_ID = " AND TOKEN_ID > ?";
+
+    public static final String ACCESS_TOKENS_TO_PURGE_ORDER_BY_TOKEN_ID = " ORDER BY TOKEN_ID";
+
+    public static final String STORE_ACCESS_TOKENS_IN_AUDIT = "INSERT INTO IDN_OAUTH2_ACCESS_TOKEN_AUDIT " +
+            "(TOKEN_ID, ACCESS_TOKEN, REFRESH_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, " +
+            "USER_TYPE, GRANT_TYPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, " +
+            "REFRESH_TOKEN_VALIDITY_PERIOD, TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, SUBJECT_IDENTIFIER, " +
+            "ACCESS_TOKEN_HASH, REFRESH_TOKEN_HASH, INVALIDATED_TIME) SELECT TOKEN_ID, ACCESS_TOKEN, " +
+            "REFRESH_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, GRANT_TYPE, " +
+            "TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, " +
+            "TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, " +
+            "REFRESH_TOKEN_HASH, ? FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER +
+            ")";
+
+    public static final String STORE_ACCESS_TOKENS_IN_AUDIT_WITH_IDP_NAME = "INSERT INTO " +
+            "IDN_OAUTH2_ACCESS_TOKEN_AUDIT (TOKEN_ID, ACCESS_TOKEN, REFRESH_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, " +
+            "TENANT_ID, USER_DOMAIN, USER_TYPE, GRANT_TYPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, " +
+            "VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, " +
+            "SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, REFRESH_TOKEN_HASH, INVALIDATED_TIME, IDP_ID) SELECT TOKEN_ID, " +
+            "ACCESS_TOKEN, REFRESH_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, " +
+            "GRANT_TYPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, " +
+            "TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, " +
+            "REFRESH_TOKEN_HASH, ?, IDP_ID FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID IN (" +
+            TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String DELETE_ACCESS_TOKENS_BY_IDS = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE " +
+            "TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_AUTHORIZATION_CODES_TO_PURGE = "SELECT CODE_ID, TIME_CREATED, " +
+            "VALIDITY_PERIOD FROM IDN_OAUTH2_AUTHORIZATION_CODE WHERE TIME_CREATED < ?";
+
+    public static final String AUTHORIZATION_CODES_TO_PURGE_AFTER_CODE_ID = " AND CODE_ID > ?";
+
+    public static final String AUTHORIZATION_CODES_TO_PURGE_ORDER_BY_CODE_ID = " ORDER BY CODE_ID";
+
+    public static final String DELETE_AUTHORIZATION_CODES_BY_IDS = "DELETE FROM IDN_OAUTH2_AUTHORIZATION_CODE WHERE " +
+            "CODE_ID IN (" + CODE_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_DEVICE_CODES_TO_PURGE = "SELECT DEVICE_CODE, EXPIRY_TIME FROM " +
+            "IDN_OAUTH2_DEVICE_FLOW WHERE EXPIRY_TIME < ?";
+
+    public static final String DEVICE_CODES_TO_PURGE_AFTER_DEVICE_CODE = " AND DEVICE_CODE > ?";
+
+    public static final String DEVICE_CODES_TO_PURGE_ORDER_BY_DEVICE_CODE = " ORDER BY DEVICE_CODE";
+
+    public static final String DELETE_DEVICE_CODES_BY_IDS = "DELETE FROM IDN_OAUTH2_DEVICE_FLOW WHERE " +
+            "DEVICE_CODE IN (" + CODE_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_CIBA_AUTH_CODES_TO_PURGE = "SELECT AUTH_CODE_KEY, ISSUED_TIME, EXPIRES_IN " +
+            "FROM IDN_OAUTH2_CIBA_AUTH_CODE WHERE ISSUED_TIME < ?";
+
+    public static final String CIBA_AUTH_CODES_TO_PURGE_AFTER_AUTH_CODE_KEY = " AND AUTH_CODE_KEY > ?";
+
+    public static final String CIBA_AUTH_CODES_TO_PURGE_ORDER_BY_AUTH_CODE_KEY = " ORDER BY AUTH_CODE_KEY";
+
+    public static final String DELETE_CIBA_AUTH_CODES_BY_IDS = "DELETE FROM IDN_OAUTH2_CIBA_AUTH_CODE WHERE " +
+            "AUTH_CODE_KEY IN (" + CODE_LIST_PLACEHOLDER + ")";
+
+    public static final String RENEW_TASK_LEASE = "UPDATE IDN_OAUTH2_TASK_LEASE SET HOLDER_ID = ?, EXPIRY_TIME = ? " +
+            "WHERE LEASE_NAME = ? AND (HOLDER_ID = ? OR EXPIRY_TIME < ?)";
+
+    public static final String INSERT_TASK_LEASE = "INSERT INTO IDN_OAUTH2_TASK_LEASE (LEASE_NAME, HOLDER_ID, " +
+            "EXPIRY_TIME) VALUES (?, ?, ?)";
+
+    public static final String RELEASE_TASK_LEASE = "UPDATE IDN_OAUTH2_TASK_LEASE SET EXPIRY_TIME = 0 WHERE " +
+            "LEASE_NAME = ? AND HOLDER_ID = ?";
+
+    public static final String RETRIEVE_ACCESS_TOKENS_TO_REBALANCE = "SELECT * FROM IDN_OAUTH2_ACCESS_TOKEN";
+
+    public static final String ACCESS_TOKENS_TO_REBALANCE_AFTER_TOKEN_ID = " WHERE TOKEN_ID > ?";
+
+    public static final String ACCESS_TOKENS_TO_REBALANCE_ORDER_BY_TOKEN_ID = " ORDER BY TOKEN_ID";
+
+    public static final String RETRIEVE_ACCESS_TOKEN_SCOPES_TO_REBALANCE = "SELECT * FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE TOKEN_ID = ?";
+
+    public static final String RETRIEVE_TOKEN_BINDINGS_TO_REBALANCE = "SELECT * FROM IDN_OAUTH2_TOKEN_BINDING " +
+            "WHERE TOKEN_ID = ?";
+
+    public static final String IS_ACCESS_TOKEN_ID_EXISTING = "SELECT 1 FROM IDN_OAUTH2_ACCESS_TOKEN WHERE " +
+            "TOKEN_ID = ?";
+
+    public static final String DELETE_ACCESS_TOKEN_BY_ID = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?";
+
     public static final String DELETE_ACCESS_TOKEN = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE ACCESS_TOKEN = ? ";
 
     public static final String REVOKE_SAAS_TOKENS_OF_OTHER_TENANTS = "UPDATE IDN_OAUTH2_ACCESS_TOKEN " +
@@ -1432,6 +1661,10 @@ public class SQLQueries {
     public static final String DELETE_TOKEN_BINDING_BY_TOKEN_ID = "DELETE FROM IDN_OAUTH2_TOKEN_BINDING WHERE "
             + "TOKEN_ID = ?";
 
+    /**
+     * @deprecated The token binding reference is retrieved along with the authorization code it was issued for.
+     */
+    @Deprecated
     public static final String RETRIEVE_TOKEN_BINDING_REFERENCE_TOKEN_ID = "SELECT TOKEN_BINDING_REF FROM " +
             "IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ? AND TENANT_ID = ?";
 
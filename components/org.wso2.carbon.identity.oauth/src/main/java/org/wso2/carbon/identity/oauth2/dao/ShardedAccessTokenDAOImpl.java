@@ -0,0 +1,611 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.database.utils.jdbc.JdbcTemplate;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link AccessTokenDAO} which spreads the access tokens across the token shards of {@link TokenShardRouter}.
+ * <p>
+ * Operations on a token with a known identifier run against the shard of the token hash, and operations on a token
+ * with a known token id run against the shard which holds the token id. The user and client keyed queries are run
+ * against all the shards and their results are merged. The token to session mappings are kept in the identity
+ * database. Replacing a token with a token of another shard is done in a transaction per shard, persisting the new
+ * token before deactivating the old one.
+ */
+public class ShardedAccessTokenDAOImpl extends AccessTokenDAOImpl {
+
+    private static final Log log = LogFactory.getLog(ShardedAccessTokenDAOImpl.class);
+
+    private final TokenShardRouter tokenShardRouter;
+
+    public ShardedAccessTokenDAOImpl() {
+
+        this(TokenShardRouter.getInstance());
+    }
+
+    ShardedAccessTokenDAOImpl(TokenShardRouter tokenShardRouter) {
+
+        this.tokenShardRouter = tokenShardRouter;
+    }
+
+    @Override
+    protected Connection getConnection() {
+
+        return tokenShardRouter.getConnection(true);
+    }
+
+    @Override
+    protected Connection getConnection(boolean shouldApplyTransaction) {
+
+        return tokenShardRouter.getConnection(shouldApplyTransaction);
+    }
+
+    @Override
+    protected JdbcTemplate getJdbcTemplate() {
+
+        String shard = tokenShardRouter.getBoundShard();
+        return shard == null ? super.getJdbcTemplate() : new JdbcTemplate(tokenShardRouter.getShardDataSource(shard));
+    }
+
+    @Override
+    protected boolean isReadReplicaRoutingEnabled() {
+
+        // The read replica mirrors the identity database, which does not hold the sharded tokens.
+        return false;
+    }
+
+    @Override
+    protected boolean isRequestObjectReferenceColocated() {
+
+        // Request object references are kept in the identity database, not in the token shards.
+        return false;
+    }
+
+    @Override
+    public void insertAccessToken(String accessToken, String consumerKey, AccessTokenDO accessTokenDO,
+                                  String userStoreDomain) throws IdentityOAuth2Exception {
+
+        tokenShardRouter.executeOnShard(getShardOfNewToken(accessToken, consumerKey), () -> {
+            super.insertAccessToken(accessToken, consumerKey, accessTokenDO, userStoreDomain);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean insertAccessToken(String accessToken, String consumerKey, AccessTokenDO newAccessTokenDO,
+                                     AccessTokenDO existingAccessTokenDO, String rawUserStoreDomain)
+            throws IdentityOAuth2Exception {
+
+        String shard = getShardOfNewToken(accessToken, consumerKey);
+        String existingTokenShard = existingAccessTokenDO == null ? null :
+                findShardOfTokenId(existingAccessTokenDO.getTokenId());
+        if (existingTokenShard == null || existingTokenShard.equals(shard)) {
+            return tokenShardRouter.executeOnShard(shard, () -> super.insertAccessToken(accessToken, consumerKey,
+                    newAccessTokenDO, existingTokenShard == null ? null : existingAccessTokenDO, rawUserStoreDomain));
+        }
+
+        if (!isPersistenceEnabled()) {
+            return false;
+        }
+        insertAccessToken(accessToken, consumerKey, newAccessTokenDO, rawUserStoreDomain);
+        tokenShardRouter.executeOnShard(existingTokenShard, () -> {
+            super.updateAccessTokenState(existingAccessTokenDO.getTokenId(),
+                    OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, existingAccessTokenDO.getGrantType());
+            return null;
+        });
+        return true;
+    }
+
+    @Override
+    public List<AccessContextTokenDO> insertAccessTokens(List<AccessContextTokenDO> accessContextTokenDOs)
+            throws IdentityOAuth2Exception {
+
+        List<AccessContextTokenDO> failedAccessContextTokenDOs = new ArrayList<>();
+        if (accessContextTokenDOs == null || accessContextTokenDOs.isEmpty()) {
+            return failedAccessContextTokenDOs;
+        }
+        Map<String, List<AccessContextTokenDO>> accessContextTokenDOsByShard = new LinkedHashMap<>();
+        for (AccessContextTokenDO accessContextTokenDO : accessContextTokenDOs) {
+            String shard = getShardOfNewToken(accessContextTokenDO.getAccessToken(),
+                    accessContextTokenDO.getConsumerKey());
+            accessContextTokenDOsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(accessContextTokenDO);
+        }
+        for (Map.Entry<String, List<AccessContextTokenDO>> entry : accessContextTokenDOsByShard.entrySet()) {
+            try {
+                failedAccessContextTokenDOs.addAll(tokenShardRouter.executeOnShard(entry.getKey(),
+                        () -> super.insertAccessTokens(entry.getValue())));
+            } catch (IdentityOAuth2Exception e) {
+                // A failing shard does not prevent the tokens of the other shards from being persisted.
+                log.error("Error while persisting " + entry.getValue().size() + " access tokens on shard: " +
+                        entry.getKey(), e);
+                failedAccessContextTokenDOs.addAll(entry.getValue());
+            }
+        }
+        return failedAccessContextTokenDOs;
+    }
+
+    @Override
+    public AccessTokenDO getLatestAccessToken(String consumerKey, AuthenticatedUser authzUser, String userStoreDomain,
+                                              String scope, String tokenBindingReference, boolean includeExpiredTokens)
+            throws IdentityOAuth2Exception {
+
+        AccessTokenDO latestAccessTokenDO = null;
+        for (AccessTokenDO accessTokenDO : tokenShardRouter.executeOnAllShards(() -> super.getLatestAccessToken(
+                consumerKey, authzUser, userStoreDomain, scope, tokenBindingReference, includeExpiredTokens))) {
+            if (accessTokenDO != null && (latestAccessTokenDO == null ||
+                    getIssuedTime(accessTokenDO) > getIssuedTime(latestAccessTokenDO))) {
+                latestAccessTokenDO = accessTokenDO;
+            }
+        }
+        return latestAccessTokenDO;
+    }
+
+    @Override
+    public List<AccessTokenDO> getLatestAccessTokens(String consumerKey, AuthenticatedUser authzUser,
+                                                     String userStoreDomain, String scope, String tokenBindingReference,
+                                                     boolean includeExpiredTokens, int limit)
+            throws IdentityOAuth2Exception {
+
+        List<AccessTokenDO> latestAccessTokenDOs = new ArrayList<>();
+        for (List<AccessTokenDO> accessTokenDOs : tokenShardRouter.executeOnAllShards(() ->
+                super.getLatestAccessTokens(consumerKey, authzUser, userStoreDomain, scope, tokenBindingReference,
+                        includeExpiredTokens, limit))) {
+            if (accessTokenDOs != null) {
+                latestAccessTokenDOs.addAll(accessTokenDOs);
+            }
+        }
+        latestAccessTokenDOs.sort(Comparator.comparingLong(ShardedAccessTokenDAOImpl::getIssuedTime).reversed());
+        return latestAccessTokenDOs.size() > limit ? new ArrayList<>(latestAccessTokenDOs.subList(0, limit)) :
+                latestAccessTokenDOs;
+    }
+
+    @Override
+    public Set<AccessTokenDO> getAccessTokens(String consumerKey, AuthenticatedUser userName, String userStoreDomain,
+                                              boolean includeExpired) throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokens(consumerKey, userName, userStoreDomain, includeExpired));
+    }
+
+    @Override
+    public List<AccessTokenDO> getAccessTokensOfUser(AuthenticatedUser authenticatedUser, String userStoreDomain,
+                                                     String lastTokenId, int limit) throws IdentityOAuth2Exception {
+
+        // Each shard returns its next batch in token id order, hence the first tokens of the merged batches are the
+        // next batch across the shards.
+        List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
+        for (List<AccessTokenDO> shardAccessTokenDOs : tokenShardRouter.executeOnAllShards(() ->
+                super.getAccessTokensOfUser(authenticatedUser, userStoreDomain, lastTokenId, limit))) {
+            accessTokenDOs.addAll(shardAccessTokenDOs);
+        }
+        accessTokenDOs.sort(Comparator.comparing(AccessTokenDO::getTokenId));
+        return accessTokenDOs.size() > limit ? new ArrayList<>(accessTokenDOs.subList(0, limit)) : accessTokenDOs;
+    }
+
+    @Override
+    public void revokeAccessTokensOfUser(AuthenticatedUser authenticatedUser, String userStoreDomain,
+                                         List<AccessTokenDO> accessTokenDOs) throws IdentityOAuth2Exception {
+
+        if (accessTokenDOs == null || accessTokenDOs.isEmpty()) {
+            return;
+        }
+        Map<String, List<AccessTokenDO>> accessTokenDOsByShard = new LinkedHashMap<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            for (String shard : getShardsOfToken(accessTokenDO.getAccessToken(), OAuth2Util.isHashEnabled())) {
+                accessTokenDOsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(accessTokenDO);
+            }
+        }
+        for (Map.Entry<String, List<AccessTokenDO>> entry : accessTokenDOsByShard.entrySet()) {
+            tokenShardRouter.executeOnShard(entry.getKey(), () -> {
+                super.revokeAccessTokensOfUser(authenticatedUser, userStoreDomain, entry.getValue());
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public AccessTokenDO getAccessToken(String accessTokenIdentifier, boolean includeExpired)
+            throws IdentityOAuth2Exception {
+
+        for (String shard : getShardsOfToken(accessTokenIdentifier, false)) {
+            AccessTokenDO accessTokenDO = tokenShardRouter.executeOnShard(shard,
+                    () -> super.getAccessToken(accessTokenIdentifier, includeExpired));
+            if (accessTokenDO != null) {
+                return accessTokenDO;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, AccessTokenDO> getAccessTokens(Collection<String> accessTokenIdentifiers,
+                                                      boolean includeExpired) throws IdentityOAuth2Exception {
+
+        Map<String, AccessTokenDO> accessTokenDOs = new HashMap<>();
+        Map<String, List<String>> accessTokenIdentifiersByShard = new LinkedHashMap<>();
+        for (String accessTokenIdentifier : accessTokenIdentifiers) {
+            if (StringUtils.isNotBlank(accessTokenIdentifier)) {
+                accessTokenIdentifiersByShard.computeIfAbsent(getShardOfToken(accessTokenIdentifier, false),
+                        key -> new ArrayList<>()).add(accessTokenIdentifier);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : accessTokenIdentifiersByShard.entrySet()) {
+            accessTokenDOs.putAll(tokenShardRouter.executeOnShard(entry.getKey(),
+                    () -> super.getAccessTokens(entry.getValue(), includeExpired)));
+        }
+        if (tokenShardRouter.isRebalancing()) {
+            // Tokens which are not found on their shard may not have been moved to it yet.
+            for (String accessTokenIdentifier : accessTokenIdentifiers) {
+                if (StringUtils.isNotBlank(accessTokenIdentifier) &&
+                        !accessTokenDOs.containsKey(accessTokenIdentifier)) {
+                    AccessTokenDO accessTokenDO = getAccessToken(accessTokenIdentifier, includeExpired);
+                    if (accessTokenDO != null) {
+                        accessTokenDOs.put(accessTokenIdentifier, accessTokenDO);
+                    }
+                }
+            }
+        }
+        return accessTokenDOs;
+    }
+
+    @Override
+    public void updateAccessTokenState(String tokenId, String tokenState, String grantType)
+            throws IdentityOAuth2Exception {
+
+        String shard = findShardOfTokenId(tokenId);
+        if (shard == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Access token with id: " + tokenId + " is not found in any token shard. Hence not " +
+                        "updating its state to: " + tokenState);
+            }
+            return;
+        }
+        tokenShardRouter.executeOnShard(shard, () -> {
+            super.updateAccessTokenState(tokenId, tokenState, grantType);
+            return null;
+        });
+    }
+
+    @Override
+    public void revokeAccessTokensInBatch(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        for (Map.Entry<String, List<String>> entry : groupTokensByShard(tokens, isHashedToken).entrySet()) {
+            tokenShardRouter.executeOnShard(entry.getKey(), () -> {
+                super.revokeAccessTokensInBatch(entry.getValue().toArray(new String[0]), isHashedToken);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void revokeAccessTokensIndividually(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        for (Map.Entry<String, List<String>> entry : groupTokensByShard(tokens, isHashedToken).entrySet()) {
+            tokenShardRouter.executeOnShard(entry.getKey(), () -> {
+                super.revokeAccessTokensIndividually(entry.getValue().toArray(new String[0]), isHashedToken);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void revokeAccessToken(String tokenId, String userId) throws IdentityOAuth2Exception {
+
+        String shard = findShardOfTokenId(tokenId);
+        if (shard == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Access token with id: " + tokenId + " is not found in any token shard. Hence not " +
+                        "revoking it.");
+            }
+            return;
+        }
+        tokenShardRouter.executeOnShard(shard, () -> {
+            super.revokeAccessToken(tokenId, userId);
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> getAccessTokensByUser(AuthenticatedUser authenticatedUser) throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokensByUser(authenticatedUser));
+    }
+
+    @Override
+    public Set<AccessTokenDO> getAccessTokensByUserForOpenidScope(AuthenticatedUser authenticatedUser)
+            throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokensByUserForOpenidScope(authenticatedUser));
+    }
+
+    @Override
+    public Set<String> getActiveTokensByConsumerKey(String consumerKey) throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getActiveTokensByConsumerKey(consumerKey));
+    }
+
+    @Override
+    public Map<String, Long> getRevokedAccessTokenHashes(Timestamp issuedAfter) throws IdentityOAuth2Exception {
+
+        Map<String, Long> revokedAccessTokenHashes = new HashMap<>();
+        for (Map<String, Long> shardRevokedAccessTokenHashes : tokenShardRouter.executeOnAllShards(
+                () -> super.getRevokedAccessTokenHashes(issuedAfter))) {
+            revokedAccessTokenHashes.putAll(shardRevokedAccessTokenHashes);
+        }
+        return revokedAccessTokenHashes;
+    }
+
+    @Override
+    public Set<AccessTokenDO> getActiveAcessTokenDataByConsumerKey(String consumerKey) throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getActiveAcessTokenDataByConsumerKey(consumerKey));
+    }
+
+    @Override
+    public void invalidateAndCreateNewAccessToken(String oldAccessTokenId, String tokenState, String consumerKey,
+                                                  String tokenStateId, AccessTokenDO accessTokenDO,
+                                                  String userStoreDomain, String grantType)
+            throws IdentityOAuth2Exception {
+
+        String shard = getShardOfNewToken(accessTokenDO.getAccessToken(), consumerKey);
+        String oldTokenShard = findShardOfTokenId(oldAccessTokenId);
+        if (oldTokenShard == null || oldTokenShard.equals(shard)) {
+            tokenShardRouter.executeOnShard(shard, () -> {
+                super.invalidateAndCreateNewAccessToken(oldAccessTokenId, tokenState, consumerKey, tokenStateId,
+                        accessTokenDO, userStoreDomain, grantType);
+                return null;
+            });
+            return;
+        }
+
+        if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled() && !accessTokenDO.isConsentedToken()) {
+            accessTokenDO.setIsConsentedToken(tokenShardRouter.executeOnShard(oldTokenShard,
+                    () -> isPreviousTokenConsented(oldAccessTokenId)));
+        }
+        insertAccessToken(accessTokenDO.getAccessToken(), consumerKey, accessTokenDO, userStoreDomain);
+        tokenShardRouter.executeOnShard(oldTokenShard, () -> {
+            super.updateAccessTokenState(oldAccessTokenId, tokenState, grantType);
+            return null;
+        });
+        if (StringUtils.equals(grantType, OAuthConstants.GrantTypes.AUTHORIZATION_CODE)) {
+            updateTokenIdIfAutzCodeGrantType(oldAccessTokenId, accessTokenDO.getTokenId(), null);
+        }
+        OAuth2TokenUtil.postRefreshAccessToken(oldAccessTokenId, accessTokenDO.getTokenId(), tokenState,
+                !StringUtils.equals(grantType, OAuthConstants.GrantTypes.CLIENT_CREDENTIALS) &&
+                        !StringUtils.equals(grantType, OAuthConstants.GrantTypes.PASSWORD));
+    }
+
+    @Override
+    protected void updateTokenIdIfAutzCodeGrantType(String oldAccessTokenId, String newAccessTokenId,
+                                                    Connection connection) throws IdentityOAuth2Exception {
+
+        // Authorization codes are kept in the identity database, not in the token shards.
+        Connection identityDBConnection = IdentityDatabaseUtil.getDBConnection(true);
+        try {
+            super.updateTokenIdIfAutzCodeGrantType(oldAccessTokenId, newAccessTokenId, identityDBConnection);
+            IdentityDatabaseUtil.commitTransaction(identityDBConnection);
+        } catch (IdentityOAuth2Exception e) {
+            IdentityDatabaseUtil.rollbackTransaction(identityDBConnection);
+            throw e;
+        } finally {
+            IdentityDatabaseUtil.closeConnection(identityDBConnection);
+        }
+    }
+
+    @Override
+    public Set<AccessTokenDO> getAccessTokensByTenant(int tenantId) throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokensByTenant(tenantId));
+    }
+
+    @Override
+    public Set<AccessTokenDO> getAccessTokensOfUserStore(int tenantId, String userStoreDomain)
+            throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokensOfUserStore(tenantId, userStoreDomain));
+    }
+
+    @Override
+    public void updateUserStoreDomain(int tenantId, String currentUserStoreDomain, String newUserStoreDomain)
+            throws IdentityOAuth2Exception {
+
+        tokenShardRouter.executeOnAllShards(() -> {
+            super.updateUserStoreDomain(tenantId, currentUserStoreDomain, newUserStoreDomain);
+            return null;
+        });
+    }
+
+    @Override
+    public String getTokenIdByAccessToken(String token) throws IdentityOAuth2Exception {
+
+        for (String shard : getShardsOfToken(token, false)) {
+            String tokenId = tokenShardRouter.executeOnShard(shard, () -> super.getTokenIdByAccessToken(token));
+            if (tokenId != null) {
+                return tokenId;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getAccessTokenByTokenId(String tokenId) throws IdentityOAuth2Exception {
+
+        for (String shard : tokenShardRouter.getShards()) {
+            String accessToken = tokenShardRouter.executeOnShard(shard, () -> super.getAccessTokenByTokenId(tokenId));
+            if (accessToken != null) {
+                return accessToken;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<AccessTokenDO> getActiveTokenSetWithTokenIdByConsumerKeyForOpenidScope(String consumerKey)
+            throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getActiveTokenSetWithTokenIdByConsumerKeyForOpenidScope(consumerKey));
+    }
+
+    @Override
+    public Set<AccessTokenDO> getAccessTokensByBindingRef(AuthenticatedUser user, String bindingRef)
+            throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokensByBindingRef(user, bindingRef));
+    }
+
+    @Override
+    public Set<AccessTokenDO> getAccessTokensByBindingRef(String bindingRef) throws IdentityOAuth2Exception {
+
+        return getFromAllShards(() -> super.getAccessTokensByBindingRef(bindingRef));
+    }
+
+    @Override
+    public void updateTokenIsConsented(String tokenId, boolean isConsentedGrant) throws IdentityOAuth2Exception {
+
+        String shard = findShardOfTokenId(tokenId);
+        if (shard == null) {
+            return;
+        }
+        tokenShardRouter.executeOnShard(shard, () -> {
+            super.updateTokenIsConsented(tokenId, isConsentedGrant);
+            return null;
+        });
+    }
+
+    /**
+     * Get the shard of the given token identifier, which is the shard the token is written to.
+     */
+    private String getShardOfToken(String token, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        return tokenShardRouter.getShard(getTokenHash(token, isHashedToken));
+    }
+
+    /**
+     * Get the shards which may hold the given token identifier, starting with the shard the token is written to.
+     */
+    private List<String> getShardsOfToken(String token, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        String tokenHash = getTokenHash(token, isHashedToken);
+        List<String> shards = new ArrayList<>();
+        shards.add(tokenShardRouter.getShard(tokenHash));
+        String previousShard = tokenShardRouter.getPreviousShard(tokenHash);
+        if (previousShard != null && !shards.contains(previousShard)) {
+            shards.add(previousShard);
+        }
+        return shards;
+    }
+
+    private String getShardOfNewToken(String accessToken, String consumerKey) throws IdentityOAuth2Exception {
+
+        return getShardOfToken(getPersistedAccessTokenIdentifier(accessToken, consumerKey), false);
+    }
+
+    private String getTokenHash(String token, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        return isHashedToken ? token : getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token);
+    }
+
+    /**
+     * Group the given tokens by the shards which may hold them.
+     */
+    private Map<String, List<String>> groupTokensByShard(String[] tokens, boolean isHashedToken)
+            throws IdentityOAuth2Exception {
+
+        Map<String, List<String>> tokensByShard = new LinkedHashMap<>();
+        if (tokens == null) {
+            return tokensByShard;
+        }
+        for (String token : tokens) {
+            for (String shard : getShardsOfToken(token, isHashedToken)) {
+                tokensByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(token);
+            }
+        }
+        return tokensByShard;
+    }
+
+    /**
+     * Find the shard which holds the token with the given token id.
+     *
+     * @return Name of the shard, or null if the token is not found in any shard.
+     */
+    private String findShardOfTokenId(String tokenId) throws IdentityOAuth2Exception {
+
+        if (tokenId == null) {
+            return null;
+        }
+        for (String shard : tokenShardRouter.getShards()) {
+            if (tokenShardRouter.executeOnShard(shard, () -> super.getAccessTokenByTokenId(tokenId)) != null) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    private boolean isPreviousTokenConsented(String tokenId) throws IdentityOAuth2Exception {
+
+        try (Connection connection = getConnection(false)) {
+            return isPreviousTokenConsented(connection, tokenId);
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving the consent of the access token with id: " +
+                    tokenId, e);
+        }
+    }
+
+    private <T> Set<T> getFromAllShards(TokenShardRouter.ShardOperation<Set<T>> operation)
+            throws IdentityOAuth2Exception {
+
+        Set<T> results = new HashSet<>();
+        for (Set<T> shardResults : tokenShardRouter.executeOnAllShards(operation)) {
+            if (shardResults != null) {
+                results.addAll(shardResults);
+            }
+        }
+        return results;
+    }
+
+    private static long getIssuedTime(AccessTokenDO accessTokenDO) {
+
+        return accessTokenDO.getIssuedTime() == null ? 0 : accessTokenDO.getIssuedTime().getTime();
+    }
+}
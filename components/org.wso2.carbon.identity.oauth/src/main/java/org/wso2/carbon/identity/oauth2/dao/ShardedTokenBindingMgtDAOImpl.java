@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * {@link TokenBindingMgtDAO} which keeps the token bindings next to their access tokens, in the token shards of
+ * {@link TokenShardRouter}. A token binding is stored in the shard which holds its token, and is looked up in all
+ * the shards.
+ */
+public class ShardedTokenBindingMgtDAOImpl extends TokenBindingMgtDAOImpl {
+
+    private final TokenShardRouter tokenShardRouter;
+
+    public ShardedTokenBindingMgtDAOImpl() {
+
+        this(TokenShardRouter.getInstance());
+    }
+
+    ShardedTokenBindingMgtDAOImpl(TokenShardRouter tokenShardRouter) {
+
+        this.tokenShardRouter = tokenShardRouter;
+    }
+
+    @Override
+    protected Connection getConnection(boolean shouldApplyTransaction) {
+
+        return tokenShardRouter.getConnection(shouldApplyTransaction);
+    }
+
+    @Override
+    public Optional<TokenBinding> getTokenBinding(String tokenId) throws IdentityOAuth2Exception {
+
+        for (String shard : tokenShardRouter.getShards()) {
+            Optional<TokenBinding> tokenBinding = tokenShardRouter.executeOnShard(shard,
+                    () -> super.getTokenBinding(tokenId));
+            if (tokenBinding.isPresent()) {
+                return tokenBinding;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<TokenBinding> getTokenBindingByBindingRef(String tokenId, String bindingRef)
+            throws IdentityOAuth2Exception {
+
+        for (String shard : tokenShardRouter.getShards()) {
+            Optional<TokenBinding> tokenBinding = tokenShardRouter.executeOnShard(shard,
+                    () -> super.getTokenBindingByBindingRef(tokenId, bindingRef));
+            if (tokenBinding.isPresent()) {
+                return tokenBinding;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isTokenBindingExistsForBindingReference(String tokenBindingReference)
+            throws IdentityOAuth2Exception {
+
+        for (String shard : tokenShardRouter.getShards()) {
+            if (tokenShardRouter.executeOnShard(shard,
+                    () -> super.isTokenBindingExistsForBindingReference(tokenBindingReference))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void storeTokenBinding(TokenBinding tokenBinding, int tenantId) throws IdentityOAuth2Exception {
+
+        if (tokenBinding == null) {
+            super.storeTokenBinding(null, tenantId);
+            return;
+        }
+        for (String shard : tokenShardRouter.getShards()) {
+            if (isAccessTokenExisting(shard, tokenBinding.getTokenId())) {
+                tokenShardRouter.executeOnShard(shard, () -> {
+                    super.storeTokenBinding(tokenBinding, tenantId);
+                    return null;
+                });
+                return;
+            }
+        }
+        throw new IdentityOAuth2Exception("Failed to store token binding: " + tokenBinding.toString() +
+                ". The access token is not found in any of the token shards.");
+    }
+
+    @Override
+    public void deleteTokenBinding(String tokenId) throws IdentityOAuth2Exception {
+
+        tokenShardRouter.executeOnAllShards(() -> {
+            super.deleteTokenBinding(tokenId);
+            return null;
+        });
+    }
+
+    private boolean isAccessTokenExisting(String shard, String tokenId) throws IdentityOAuth2Exception {
+
+        try (Connection connection = tokenShardRouter.getShardConnection(shard, false);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.IS_ACCESS_TOKEN_ID_EXISTING)) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while checking the existence of the access token with id: " +
+                    tokenId + " in the shard: " + shard, e);
+        }
+    }
+}
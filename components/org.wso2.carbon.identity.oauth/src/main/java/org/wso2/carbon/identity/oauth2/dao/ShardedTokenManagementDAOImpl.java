@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.RefreshTokenValidationDataDO;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+
+/**
+ * {@link TokenManagementDAO} which looks up refresh tokens across the token shards of {@link TokenShardRouter}.
+ * Since the access tokens are sharded by the access token hash, a refresh token is looked up in all the shards and
+ * the latest access token issued for it is used.
+ */
+public class ShardedTokenManagementDAOImpl extends TokenManagementDAOImpl {
+
+    private final TokenShardRouter tokenShardRouter;
+
+    public ShardedTokenManagementDAOImpl() {
+
+        this(TokenShardRouter.getInstance());
+    }
+
+    ShardedTokenManagementDAOImpl(TokenShardRouter tokenShardRouter) {
+
+        this.tokenShardRouter = tokenShardRouter;
+    }
+
+    @Override
+    protected Connection getConnection(boolean shouldApplyTransaction) {
+
+        return tokenShardRouter.getConnection(shouldApplyTransaction);
+    }
+
+    @Override
+    public RefreshTokenValidationDataDO validateRefreshToken(String consumerKey, String refreshToken)
+            throws IdentityOAuth2Exception {
+
+        RefreshTokenValidationDataDO latestValidationDataDO = null;
+        for (RefreshTokenValidationDataDO validationDataDO : tokenShardRouter.executeOnAllShards(
+                () -> super.validateRefreshToken(consumerKey, refreshToken))) {
+            if (latestValidationDataDO == null || latestValidationDataDO.getTokenId() == null ||
+                    (validationDataDO.getTokenId() != null && getTime(validationDataDO.getAccessTokenIssuedTime()) >
+                            getTime(latestValidationDataDO.getAccessTokenIssuedTime()))) {
+                latestValidationDataDO = validationDataDO;
+            }
+        }
+        return latestValidationDataDO;
+    }
+
+    @Override
+    public AccessTokenDO getRefreshToken(String refreshToken) throws IdentityOAuth2Exception {
+
+        AccessTokenDO latestAccessTokenDO = null;
+        for (AccessTokenDO accessTokenDO : tokenShardRouter.executeOnAllShards(
+                () -> super.getRefreshToken(refreshToken))) {
+            if (accessTokenDO != null && (latestAccessTokenDO == null ||
+                    getTime(accessTokenDO.getIssuedTime()) > getTime(latestAccessTokenDO.getIssuedTime()))) {
+                latestAccessTokenDO = accessTokenDO;
+            }
+        }
+        return latestAccessTokenDO;
+    }
+
+    private static long getTime(Timestamp timestamp) {
+
+        return timestamp == null ? 0 : timestamp.getTime();
+    }
+}
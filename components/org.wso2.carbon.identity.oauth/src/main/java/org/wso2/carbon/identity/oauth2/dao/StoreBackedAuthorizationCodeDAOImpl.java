@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link AuthorizationCodeDAO} which issues and redeems authorization codes through the in-memory
+ * {@link AuthorizationCodeStore}, and falls back to the database for codes which are not in the store. Codes are
+ * inserted to the database synchronously, and every redemption, whether it is answered by the store or by the
+ * database, is claimed with a conditional update of the database row so that a code is redeemed only once across the
+ * nodes. The admin queries are answered by the database after the pending writes of the store are flushed.
+ */
+public class StoreBackedAuthorizationCodeDAOImpl extends AuthorizationCodeDAOImpl {
+
+    private static final Log log = LogFactory.getLog(StoreBackedAuthorizationCodeDAOImpl.class);
+
+    private final AuthorizationCodeStore authorizationCodeStore;
+
+    public StoreBackedAuthorizationCodeDAOImpl() {
+
+        this(AuthorizationCodeStore.getInstance());
+    }
+
+    StoreBackedAuthorizationCodeDAOImpl(AuthorizationCodeStore authorizationCodeStore) {
+
+        this.authorizationCodeStore = authorizationCodeStore;
+    }
+
+    @Override
+    public void insertAuthorizationCode(String authzCode, String consumerKey, String callbackUrl,
+                                        AuthzCodeDO authzCodeDO) throws IdentityOAuth2Exception {
+
+        super.insertAuthorizationCode(authzCode, consumerKey, callbackUrl, authzCodeDO);
+        if (isPersistenceEnabled()) {
+            authorizationCodeStore.add(authzCode, consumerKey, callbackUrl, authzCodeDO);
+        }
+    }
+
+    @Override
+    public AuthorizationCodeValidationResult validateAuthorizationCode(String consumerKey, String authorizationKey)
+            throws IdentityOAuth2Exception {
+
+        AuthorizationCodeValidationResult result = authorizationCodeStore.redeem(consumerKey, authorizationKey);
+        if (result != null) {
+            if (!result.isActiveCode()) {
+                return result;
+            }
+            // The store only rules out the redemptions on this node, the code may be redeemed on another node.
+            if (!claimAuthorizationCode(consumerKey, result)) {
+                authorizationCodeStore.discard(authorizationKey);
+                return null;
+            }
+            return result;
+        }
+        result = super.validateAuthorizationCode(consumerKey, authorizationKey);
+        if (result == null || !result.isActiveCode()) {
+            return result;
+        }
+        return claimAuthorizationCode(consumerKey, result) ? result : null;
+    }
+
+    private boolean claimAuthorizationCode(String consumerKey, AuthorizationCodeValidationResult result)
+            throws IdentityOAuth2Exception {
+
+        if (redeemActiveAuthorizationCode(result.getAuthzCodeDO().getAuthzCodeId())) {
+            return true;
+        }
+        // The code was redeemed concurrently, possibly on another node.
+        if (log.isDebugEnabled()) {
+            log.debug("Authorization code issued for client: " + consumerKey + " is already redeemed.");
+        }
+        return false;
+    }
+
+    @Override
+    public void updateAuthorizationCodeState(String authzCode, String newState) throws IdentityOAuth2Exception {
+
+        if (!authorizationCodeStore.updateState(authzCode, newState)) {
+            super.updateAuthorizationCodeState(authzCode, newState);
+        }
+    }
+
+    @Override
+    public void deactivateAuthorizationCode(AuthzCodeDO authzCodeDO) throws IdentityOAuth2Exception {
+
+        if (!authorizationCodeStore.deactivate(authzCodeDO.getAuthorizationCode(), authzCodeDO.getOauthTokenId())) {
+            super.deactivateAuthorizationCode(authzCodeDO);
+        }
+    }
+
+    @Override
+    public void deactivateAuthorizationCodes(List<AuthzCodeDO> authzCodeDOs) throws IdentityOAuth2Exception {
+
+        for (AuthzCodeDO authzCodeDO : authzCodeDOs) {
+            authorizationCodeStore.evict(authzCodeDO.getAuthorizationCode());
+        }
+        super.deactivateAuthorizationCodes(authzCodeDOs);
+    }
+
+    @Override
+    public String getCodeIdByAuthorizationCode(String authzCode) throws IdentityOAuth2Exception {
+
+        String codeId = authorizationCodeStore.getCodeId(authzCode);
+        if (codeId != null) {
+            return codeId;
+        }
+        return super.getCodeIdByAuthorizationCode(authzCode);
+    }
+
+    @Override
+    public Set<String> getAuthorizationCodesByUser(AuthenticatedUser authenticatedUser)
+            throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getAuthorizationCodesByUser(authenticatedUser);
+    }
+
+    @Override
+    public List<AuthzCodeDO> getAuthorizationCodesByUserForOpenidScope(AuthenticatedUser authenticatedUser)
+            throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getAuthorizationCodesByUserForOpenidScope(authenticatedUser);
+    }
+
+    @Override
+    public Set<String> getAuthorizationCodesByConsumerKey(String consumerKey) throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getAuthorizationCodesByConsumerKey(consumerKey);
+    }
+
+    @Override
+    public Set<String> getActiveAuthorizationCodesByConsumerKey(String consumerKey) throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getActiveAuthorizationCodesByConsumerKey(consumerKey);
+    }
+
+    @Override
+    public List<AuthzCodeDO> getLatestAuthorizationCodesByTenant(int tenantId) throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getLatestAuthorizationCodesByTenant(tenantId);
+    }
+
+    @Override
+    public List<AuthzCodeDO> getLatestAuthorizationCodesByUserStore(int tenantId, String userStorDomain)
+            throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getLatestAuthorizationCodesByUserStore(tenantId, userStorDomain);
+    }
+
+    @Override
+    public void updateUserStoreDomain(int tenantId, String currentUserStoreDomain, String newUserStoreDomain)
+            throws IdentityOAuth2Exception {
+
+        // Stored codes carry the user store domain of their user, so they are served by the database from now on.
+        authorizationCodeStore.evictAll();
+        super.updateUserStoreDomain(tenantId, currentUserStoreDomain, newUserStoreDomain);
+    }
+
+    @Override
+    public Set<AuthzCodeDO> getAuthorizationCodeDOSetByConsumerKeyForOpenidScope(String consumerKey)
+            throws IdentityOAuth2Exception {
+
+        authorizationCodeStore.flush();
+        return super.getAuthorizationCodeDOSetByConsumerKeyForOpenidScope(consumerKey);
+    }
+}
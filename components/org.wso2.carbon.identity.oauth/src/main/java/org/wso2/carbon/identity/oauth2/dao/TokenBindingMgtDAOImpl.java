@@ -45,10 +45,21 @@ public class TokenBindingMgtDAOImpl implements TokenBindingMgtDAO {
 
     private static final Log log = LogFactory.getLog(TokenBindingMgtDAOImpl.class);
 
+    /**
+     * Get a connection of the database which holds the token bindings.
+     *
+     * @param shouldApplyTransaction True if the connection is used within a transaction.
+     * @return Database connection.
+     */
+    protected Connection getConnection(boolean shouldApplyTransaction) {
+
+        return IdentityDatabaseUtil.getDBConnection(shouldApplyTransaction);
+    }
+
     @Override
     public Optional<TokenBinding> getTokenBinding(String tokenId) throws IdentityOAuth2Exception {
 
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        try (Connection connection = getConnection(false);
              PreparedStatement preparedStatement = connection.prepareStatement(RETRIEVE_TOKEN_BINDING_BY_TOKEN_ID)) {
             preparedStatement.setString(1, tokenId);
 
@@ -72,7 +83,7 @@ public class TokenBindingMgtDAOImpl implements TokenBindingMgtDAO {
         if (log.isDebugEnabled()) {
             log.debug("Getting token binding for the token id: " + tokenId + " and token binding ref: " + bindingRef);
         }
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        try (Connection connection = getConnection(false);
              PreparedStatement preparedStatement =
                      connection.prepareStatement(RETRIEVE_TOKEN_BINDING_BY_TOKEN_ID_AND_BINDING_REF)) {
             preparedStatement.setString(1, tokenId);
@@ -102,7 +113,7 @@ public class TokenBindingMgtDAOImpl implements TokenBindingMgtDAO {
             log.debug("Checking for token binding existence for the binding reference: "
                     + tokenBindingReference);
         }
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        try (Connection connection = getConnection(false);
                 PreparedStatement preparedStatement = connection.prepareStatement(RETRIEVE_TOKEN_BINDING_REF_EXISTS)) {
             preparedStatement.setString(1, tokenBindingReference);
 
@@ -134,7 +145,7 @@ public class TokenBindingMgtDAOImpl implements TokenBindingMgtDAO {
                     " bindingType: " + tokenBinding.getBindingType() +
                     " bindingRef: " + tokenBinding.getBindingReference());
         }
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        try (Connection connection = getConnection(false);
                 PreparedStatement preparedStatement = connection.prepareStatement(STORE_TOKEN_BINDING)) {
             preparedStatement.setString(1, tokenBinding.getTokenId());
             preparedStatement.setString(2, tokenBinding.getBindingType());
@@ -155,7 +166,7 @@ public class TokenBindingMgtDAOImpl implements TokenBindingMgtDAO {
     @Override
     public void deleteTokenBinding(String tokenId) throws IdentityOAuth2Exception {
 
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        try (Connection connection = getConnection(false);
                 PreparedStatement preparedStatement = connection.prepareStatement(DELETE_TOKEN_BINDING_BY_TOKEN_ID)) {
             preparedStatement.setString(1, tokenId);
             preparedStatement.execute();
@@ -90,7 +90,7 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
         }
 
         RefreshTokenValidationDataDO validationDataDO = new RefreshTokenValidationDataDO();
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
         String sql;
@@ -216,7 +216,7 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
         }
 
         AccessTokenDO validationDataDO = null;
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        Connection connection = getConnection(false);
         PreparedStatement prepStmt = null;
         ResultSet resultSet = null;
 
@@ -19,20 +19,36 @@ package org.wso2.carbon.identity.oauth2.dao;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.wso2.carbon.identity.base.IdentityException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
 
 /**
- * OAuth token persistence task.
+ * OAuth token persistence task. Drains queued access tokens in batches of up to the configured batch size and
+ * persists them through the {@link AccessTokenWriteBehindPersister}.
  */
 public class TokenPersistenceTask implements Runnable {
 
     private static final Log log = LogFactory.getLog(TokenPersistenceTask.class);
     private BlockingDeque<AccessContextTokenDO> accessContextTokenQueue;
+    private int batchSize;
+    private AccessTokenWriteBehindPersister accessTokenWriteBehindPersister;
 
     public TokenPersistenceTask(BlockingDeque<AccessContextTokenDO> accessContextTokenQueue) {
+        this(accessContextTokenQueue, 1);
+    }
+
+    public TokenPersistenceTask(BlockingDeque<AccessContextTokenDO> accessContextTokenQueue, int batchSize) {
+        this(accessContextTokenQueue, batchSize, AccessTokenWriteBehindPersister.getInstance());
+    }
+
+    TokenPersistenceTask(BlockingDeque<AccessContextTokenDO> accessContextTokenQueue, int batchSize,
+                         AccessTokenWriteBehindPersister accessTokenWriteBehindPersister) {
         this.accessContextTokenQueue = accessContextTokenQueue;
+        this.batchSize = Math.max(1, batchSize);
+        this.accessTokenWriteBehindPersister = accessTokenWriteBehindPersister;
     }
 
     @Override
@@ -40,24 +56,34 @@ public class TokenPersistenceTask implements Runnable {
 
         log.debug("Access Token context persist consumer is started");
 
-        while (true) {
-            AccessContextTokenDO accessContextTokenDO = null;
-            String accessToken = null;
+        List<AccessContextTokenDO> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
             try {
-                accessContextTokenDO =  accessContextTokenQueue.take();
+                // Parked tokens are retried with the next batch, or on their own if no token is queued meanwhile.
+                AccessContextTokenDO accessContextTokenDO;
+                if (accessTokenWriteBehindPersister.hasParkedAccessTokens()) {
+                    accessContextTokenDO = accessContextTokenQueue.poll(
+                            accessTokenWriteBehindPersister.getRetryIntervalMillis(), TimeUnit.MILLISECONDS);
+                } else {
+                    accessContextTokenDO = accessContextTokenQueue.take();
+                }
                 if (accessContextTokenDO != null) {
-                    accessToken = accessContextTokenDO.getAccessToken();
-                    log.debug("Access Token Data persisting Task is started to run");
-                    OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                            .insertAccessToken(accessToken, accessContextTokenDO.getConsumerKey(),
-                                    accessContextTokenDO.getNewAccessTokenDO(),
-                                    accessContextTokenDO.getExistingAccessTokenDO(),
-                                    accessContextTokenDO.getUserStoreDomain());
+                    batch.add(accessContextTokenDO);
+                    accessContextTokenQueue.drainTo(batch, batchSize - 1);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Access Token Data persisting Task is started to run for " + batch.size() + " tokens");
                 }
+                accessTokenWriteBehindPersister.persist(batch);
             } catch (InterruptedException e) {
-                log.error("Error occurred while getting AccessContextTokenDO instance from accessContextTokenQueue", e);
-            } catch (IdentityException e) {
-                log.error("Error occurred while persisting access token :" + accessToken, e);
+                if (log.isDebugEnabled()) {
+                    log.debug("Access Token context persist consumer is interrupted. Stopping the consumer.");
+                }
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error occurred while persisting a batch of access tokens", e);
+            } finally {
+                batch.clear();
             }
         }
     }
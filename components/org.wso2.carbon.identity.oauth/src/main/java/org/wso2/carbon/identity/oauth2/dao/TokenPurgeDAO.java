@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * DAO used by the {@link TokenPurgeService} to remove expired, revoked and inactive access tokens along with expired
+ * authorization codes, device codes and CIBA authentication codes.
+ * <p>
+ * Rows are examined in primary key order, one chunk at a time, and each chunk is purged in its own short transaction.
+ * Only the rows created before the purge time are read, as a row can not have expired before it was created. The
+ * expiry of a row is evaluated here rather than in the query, as it is derived from a creation time and a validity
+ * period which can not be added portably across the supported databases. The purge runs of a cluster are
+ * coordinated through a lease row in the {@code IDN_OAUTH2_TASK_LEASE} table.
+ */
+public class TokenPurgeDAO {
+
+    private static final Log log = LogFactory.getLog(TokenPurgeDAO.class);
+
+    private static final String UTC = "UTC";
+    // SQL state class of the integrity constraint violations, for drivers which don't throw
+    // SQLIntegrityConstraintViolationException.
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_STATE_CLASS = "23";
+
+    /**
+     * Maximum number of rows examined in a chunk. The keys of a chunk are bound to an IN list, and Oracle does not
+     * accept more than 1000 expressions in a list.
+     */
+    public static final int MAX_CHUNK_SIZE = 1000;
+
+    /**
+     * Outcome of purging a single chunk of rows.
+     */
+    public static class PurgeChunk {
+
+        private final String lastKey;
+        private final int purgedCount;
+
+        PurgeChunk(String lastKey, int purgedCount) {
+
+            this.lastKey = lastKey;
+            this.purgedCount = purgedCount;
+        }
+
+        /**
+         * Get the key to continue the purge from.
+         *
+         * @return Key of the last row examined in the chunk, or {@code null} if there are no more rows to examine.
+         */
+        public String getLastKey() {
+
+            return lastKey;
+        }
+
+        public int getPurgedCount() {
+
+            return purgedCount;
+        }
+    }
+
+    /**
+     * Resolves the time after which a row can be purged.
+     */
+    private interface ExpiryTimeResolver {
+
+        long getExpiryTime(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * Acquire or renew a lease. The lease is granted if it is not held by any other holder or if the lease of the
+     * other holder has expired.
+     *
+     * @param leaseName           Name of the lease.
+     * @param holderId            Identifier of the node requesting the lease.
+     * @param leaseDurationMillis Duration of the lease in milliseconds.
+     * @return True if the lease is held by the given holder once the method returns.
+     * @throws IdentityOAuth2Exception If an error occurs while acquiring the lease.
+     */
+    public boolean acquireLease(String leaseName, String holderId, long leaseDurationMillis)
+            throws IdentityOAuth2Exception {
+
+        long currentTime = System.currentTimeMillis();
+        long expiryTime = currentTime + leaseDurationMillis;
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                int updatedRows;
+                try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.RENEW_TASK_LEASE)) {
+                    prepStmt.setString(1, holderId);
+                    prepStmt.setLong(2, expiryTime);
+                    prepStmt.setString(3, leaseName);
+                    prepStmt.setString(4, holderId);
+                    prepStmt.setLong(5, currentTime);
+                    updatedRows = prepStmt.executeUpdate();
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                if (updatedRows > 0) {
+                    return true;
+                }
+                try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.INSERT_TASK_LEASE)) {
+                    prepStmt.setString(1, leaseName);
+                    prepStmt.setString(2, holderId);
+                    prepStmt.setLong(3, expiryTime);
+                    prepStmt.executeUpdate();
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                return true;
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                if (isConstraintViolation(e)) {
+                    // The lease row exists and is held by another node.
+                    if (log.isDebugEnabled()) {
+                        log.debug("Lease: " + leaseName + " is held by another node.");
+                    }
+                    return false;
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while acquiring the lease: " + leaseName, e);
+        }
+    }
+
+    /**
+     * Release a lease held by the given holder, so that other nodes can acquire it without waiting for it to expire.
+     *
+     * @param leaseName Name of the lease.
+     * @param holderId  Identifier of the node holding the lease.
+     * @throws IdentityOAuth2Exception If an error occurs while releasing the lease.
+     */
+    public void releaseLease(String leaseName, String holderId) throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.RELEASE_TASK_LEASE)) {
+                prepStmt.setString(1, leaseName);
+                prepStmt.setString(2, holderId);
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while releasing the lease: " + leaseName, e);
+        }
+    }
+
+    /**
+     * Purge a chunk of access tokens of a user store partition. Active and expired tokens are purged once both the
+     * access token and the refresh token have expired, while revoked and inactive tokens are purged once the access
+     * token has expired. Purged tokens are moved to the audit table if old tokens are to be retained.
+     *
+     * @param userStoreDomain User store domain of the partition.
+     * @param lastTokenId     Token id to continue from, or {@code null} to start from the beginning.
+     * @param chunkSize       Maximum number of rows to examine, capped at {@link #MAX_CHUNK_SIZE}.
+     * @param purgeBefore     Rows which expired before this time are purged.
+     * @return Outcome of the chunk.
+     * @throws IdentityOAuth2Exception If an error occurs while purging the access tokens.
+     */
+    public PurgeChunk purgeAccessTokens(String userStoreDomain, String lastTokenId, int chunkSize, long purgeBefore)
+            throws IdentityOAuth2Exception {
+
+        String selectSql = getChunkSql(SQLQueries.RETRIEVE_ACCESS_TOKENS_TO_PURGE,
+                SQLQueries.ACCESS_TOKENS_TO_PURGE_AFTER_TOKEN_ID, SQLQueries.ACCESS_TOKENS_TO_PURGE_ORDER_BY_TOKEN_ID,
+                lastTokenId);
+        String archiveSql = null;
+        if (OAuthServerConfiguration.getInstance().useRetainOldAccessTokens()) {
+            archiveSql = OAuth2ServiceComponentHolder.isIDPIdColumnEnabled() ?
+                    SQLQueries.STORE_ACCESS_TOKENS_IN_AUDIT_WITH_IDP_NAME : SQLQueries.STORE_ACCESS_TOKENS_IN_AUDIT;
+            archiveSql = OAuth2Util.getTokenPartitionedSqlByUserStore(archiveSql, userStoreDomain);
+        }
+        try {
+            return purgeChunk(OAuth2Util.getTokenPartitionedSqlByUserStore(selectSql, userStoreDomain),
+                    OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.DELETE_ACCESS_TOKENS_BY_IDS,
+                            userStoreDomain), archiveSql, SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, lastTokenId,
+                    chunkSize, purgeBefore, this::getAccessTokenPurgeTime);
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while purging access tokens of user store domain: " +
+                    userStoreDomain, e);
+        }
+    }
+
+    /**
+     * Purge a chunk of expired authorization codes, irrespective of their state.
+     *
+     * @param lastCodeId  Code id to continue from, or {@code null} to start from the beginning.
+     * @param chunkSize   Maximum number of rows to examine, capped at {@link #MAX_CHUNK_SIZE}.
+     * @param purgeBefore Rows which expired before this time are purged.
+     * @return Outcome of the chunk.
+     * @throws IdentityOAuth2Exception If an error occurs while purging the authorization codes.
+     */
+    public PurgeChunk purgeAuthorizationCodes(String lastCodeId, int chunkSize, long purgeBefore)
+            throws IdentityOAuth2Exception {
+
+        String selectSql = getChunkSql(SQLQueries.RETRIEVE_AUTHORIZATION_CODES_TO_PURGE,
+                SQLQueries.AUTHORIZATION_CODES_TO_PURGE_AFTER_CODE_ID,
+                SQLQueries.AUTHORIZATION_CODES_TO_PURGE_ORDER_BY_CODE_ID, lastCodeId);
+        try {
+            return purgeChunk(selectSql, SQLQueries.DELETE_AUTHORIZATION_CODES_BY_IDS, null,
+                    SQLQueries.CODE_LIST_PLACEHOLDER, lastCodeId, chunkSize, purgeBefore,
+                    resultSet -> getExpiryTime(getTimestamp(resultSet, 2), resultSet.getLong(3)));
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while purging authorization codes.", e);
+        }
+    }
+
+    /**
+     * Purge a chunk of expired device codes, irrespective of their status.
+     *
+     * @param lastDeviceCode Device code to continue from, or {@code null} to start from the beginning.
+     * @param chunkSize      Maximum number of rows to examine, capped at {@link #MAX_CHUNK_SIZE}.
+     * @param purgeBefore    Rows which expired before this time are purged.
+     * @return Outcome of the chunk.
+     * @throws IdentityOAuth2Exception If an error occurs while purging the device codes.
+     */
+    public PurgeChunk purgeDeviceCodes(String lastDeviceCode, int chunkSize, long purgeBefore)
+            throws IdentityOAuth2Exception {
+
+        String selectSql = getChunkSql(SQLQueries.RETRIEVE_DEVICE_CODES_TO_PURGE,
+                SQLQueries.DEVICE_CODES_TO_PURGE_AFTER_DEVICE_CODE,
+                SQLQueries.DEVICE_CODES_TO_PURGE_ORDER_BY_DEVICE_CODE, lastDeviceCode);
+        try {
+            return purgeChunk(selectSql, SQLQueries.DELETE_DEVICE_CODES_BY_IDS, null,
+                    SQLQueries.CODE_LIST_PLACEHOLDER, lastDeviceCode, chunkSize, purgeBefore,
+                    resultSet -> getExpiryTime(getTimestamp(resultSet, 2), 0));
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while purging device codes.", e);
+        }
+    }
+
+    /**
+     * Purge a chunk of expired CIBA authentication codes, irrespective of their status.
+     *
+     * @param lastAuthCodeKey Authentication code key to continue from, or {@code null} to start from the beginning.
+     * @param chunkSize       Maximum number of rows to examine, capped at {@link #MAX_CHUNK_SIZE}.
+     * @param purgeBefore     Rows which expired before this time are purged.
+     * @return Outcome of the chunk.
+     * @throws IdentityOAuth2Exception If an error occurs while purging the CIBA authentication codes.
+     */
+    public PurgeChunk purgeCibaAuthCodes(String lastAuthCodeKey, int chunkSize, long purgeBefore)
+            throws IdentityOAuth2Exception {
+
+        String selectSql = getChunkSql(SQLQueries.RETRIEVE_CIBA_AUTH_CODES_TO_PURGE,
+                SQLQueries.CIBA_AUTH_CODES_TO_PURGE_AFTER_AUTH_CODE_KEY,
+                SQLQueries.CIBA_AUTH_CODES_TO_PURGE_ORDER_BY_AUTH_CODE_KEY, lastAuthCodeKey);
+        try {
+            // The validity of a CIBA authentication code is stored in seconds.
+            return purgeChunk(selectSql, SQLQueries.DELETE_CIBA_AUTH_CODES_BY_IDS, null,
+                    SQLQueries.CODE_LIST_PLACEHOLDER, lastAuthCodeKey, chunkSize, purgeBefore,
+                    resultSet -> getExpiryTime(getTimestamp(resultSet, 2), resultSet.getLong(3) * 1000));
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while purging CIBA authentication codes.", e);
+        }
+    }
+
+    private PurgeChunk purgeChunk(String selectSql, String deleteSql, String archiveSql, String keyListPlaceholder,
+                                  String lastKey, int chunkSize, long purgeBefore,
+                                  ExpiryTimeResolver expiryTimeResolver) throws SQLException {
+
+        int maxRows = Math.min(chunkSize, MAX_CHUNK_SIZE);
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                List<String> keys = new ArrayList<>();
+                String lastExaminedKey = null;
+                int examinedCount = 0;
+                try (PreparedStatement prepStmt = connection.prepareStatement(selectSql)) {
+                    prepStmt.setMaxRows(maxRows);
+                    prepStmt.setTimestamp(1, new Timestamp(purgeBefore),
+                            Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                    if (lastKey != null) {
+                        prepStmt.setString(2, lastKey);
+                    }
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        while (resultSet.next()) {
+                            lastExaminedKey = resultSet.getString(1);
+                            examinedCount++;
+                            if (expiryTimeResolver.getExpiryTime(resultSet) < purgeBefore) {
+                                keys.add(lastExaminedKey);
+                            }
+                        }
+                    }
+                }
+                if (!keys.isEmpty()) {
+                    if (archiveSql != null) {
+                        try (PreparedStatement prepStmt = prepareStatementWithKeys(connection, archiveSql,
+                                keyListPlaceholder, keys, 2)) {
+                            prepStmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                            prepStmt.executeUpdate();
+                        }
+                    }
+                    try (PreparedStatement prepStmt = prepareStatementWithKeys(connection, deleteSql,
+                            keyListPlaceholder, keys, 1)) {
+                        prepStmt.executeUpdate();
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                if (log.isDebugEnabled()) {
+                    log.debug("Purged " + keys.size() + " of " + examinedCount + " examined rows.");
+                }
+                return new PurgeChunk(examinedCount < maxRows ? null : lastExaminedKey, keys.size());
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        }
+    }
+
+    private long getAccessTokenPurgeTime(ResultSet resultSet) throws SQLException {
+
+        long accessTokenExpiryTime = getExpiryTime(getTimestamp(resultSet, 3), resultSet.getLong(4));
+        String tokenState = resultSet.getString(2);
+        if (OAuthConstants.TokenStates.TOKEN_STATE_REVOKED.equals(tokenState) ||
+                OAuthConstants.TokenStates.TOKEN_STATE_INACTIVE.equals(tokenState)) {
+            // The refresh token of a revoked or inactive token can not be used anymore.
+            return accessTokenExpiryTime;
+        }
+        long refreshTokenExpiryTime = getExpiryTime(getTimestamp(resultSet, 5), resultSet.getLong(6));
+        return Math.max(accessTokenExpiryTime, refreshTokenExpiryTime);
+    }
+
+    private Timestamp getTimestamp(ResultSet resultSet, int columnIndex) throws SQLException {
+
+        return resultSet.getTimestamp(columnIndex, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+    }
+
+    /**
+     * Get the expiry time of a row, where a negative validity period or an overflowing expiry time is treated as a
+     * row which never expires.
+     */
+    private static long getExpiryTime(Timestamp createdTime, long validityPeriodMillis) {
+
+        if (createdTime == null || validityPeriodMillis < 0 ||
+                validityPeriodMillis > Long.MAX_VALUE - createdTime.getTime()) {
+            return Long.MAX_VALUE;
+        }
+        return createdTime.getTime() + validityPeriodMillis;
+    }
+
+    private static String getChunkSql(String selectSql, String afterKeySql, String orderBySql, String lastKey) {
+
+        return lastKey == null ? selectSql + orderBySql : selectSql + afterKeySql + orderBySql;
+    }
+
+    private static PreparedStatement prepareStatementWithKeys(Connection connection, String sql, String placeholder,
+                                                              List<String> keys, int startIndex)
+            throws SQLException {
+
+        PreparedStatement prepStmt = connection.prepareStatement(sql.replace(placeholder,
+                String.join(", ", Collections.nCopies(keys.size(), "?"))));
+        int index = startIndex;
+        for (String key : keys) {
+            prepStmt.setString(index++, key);
+        }
+        return prepStmt;
+    }
+
+    private static boolean isConstraintViolation(SQLException e) {
+
+        return e instanceof SQLIntegrityConstraintViolationException ||
+                StringUtils.startsWith(e.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_STATE_CLASS);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in background service which purges expired, revoked and inactive access tokens along with expired
+ * authorization codes, device codes and CIBA authentication codes.
+ * <p>
+ * Each run walks the tables in primary key order and purges them through {@link TokenPurgeDAO} in small chunks, one
+ * short transaction per chunk, at a configurable maximum rate so that the purge does not compete with the token
+ * traffic for the database. Only the node which holds the purge lease runs the purge, and the lease is renewed after
+ * each chunk. While the service is enabled, replaced tokens are no longer cleaned up inline when new tokens are
+ * issued, and are purged by this service instead.
+ */
+public class TokenPurgeService {
+
+    private static final Log log = LogFactory.getLog(TokenPurgeService.class);
+
+    private static final String ENABLE = "OAuth.TokenPurge.Enable";
+    private static final String INTERVAL = "OAuth.TokenPurge.Interval";
+    private static final String CHUNK_SIZE = "OAuth.TokenPurge.ChunkSize";
+    private static final String MAX_CHUNKS_PER_SECOND = "OAuth.TokenPurge.MaxChunksPerSecond";
+    private static final String RETENTION_PERIOD = "OAuth.TokenPurge.RetentionPeriod";
+    private static final String LEASE_DURATION = "OAuth.TokenPurge.LeaseDuration";
+
+    private static final long DEFAULT_INTERVAL_SECONDS = 3600;
+    private static final long DEFAULT_CHUNK_SIZE = 500;
+    private static final long DEFAULT_MAX_CHUNKS_PER_SECOND = 5;
+    private static final long DEFAULT_RETENTION_PERIOD_SECONDS = 3600;
+    private static final long DEFAULT_LEASE_DURATION_SECONDS = 300;
+    private static final String LEASE_NAME = "OAUTH2_TOKEN_PURGE";
+
+    private static volatile TokenPurgeService instance;
+
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final int chunkSize;
+    private final long minChunkIntervalMillis;
+    private final long retentionPeriodMillis;
+    private final long leaseDurationMillis;
+    private final String holderId = UUID.randomUUID().toString();
+    private final TokenPurgeDAO tokenPurgeDAO;
+    private ScheduledExecutorService purgeScheduler;
+
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong skippedRunCount = new AtomicLong();
+    private final AtomicLong failedRunCount = new AtomicLong();
+    private final AtomicLong purgedAccessTokenCount = new AtomicLong();
+    private final AtomicLong purgedAuthorizationCodeCount = new AtomicLong();
+    private final AtomicLong purgedDeviceCodeCount = new AtomicLong();
+    private final AtomicLong purgedCibaAuthCodeCount = new AtomicLong();
+    private final AtomicLong lastRunDurationMillis = new AtomicLong();
+
+    /**
+     * Purges a single chunk of a table.
+     */
+    private interface ChunkPurger {
+
+        TokenPurgeDAO.PurgeChunk purge(String lastKey) throws IdentityOAuth2Exception;
+    }
+
+    TokenPurgeService(boolean enabled, long intervalMillis, int chunkSize, long maxChunksPerSecond,
+                      long retentionPeriodMillis, long leaseDurationMillis, TokenPurgeDAO tokenPurgeDAO) {
+
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.chunkSize = chunkSize;
+        this.minChunkIntervalMillis = TimeUnit.SECONDS.toMillis(1) / maxChunksPerSecond;
+        this.retentionPeriodMillis = retentionPeriodMillis;
+        this.leaseDurationMillis = leaseDurationMillis;
+        this.tokenPurgeDAO = tokenPurgeDAO;
+    }
+
+    public static TokenPurgeService getInstance() {
+
+        if (instance == null) {
+            synchronized (TokenPurgeService.class) {
+                if (instance == null) {
+                    boolean enabled = Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE));
+                    if (enabled && TokenShardRouter.getInstance().isEnabled()) {
+                        // The purge runs against the identity database, which does not hold the sharded tokens.
+                        log.warn("Background token purge is not supported with token sharding. Replaced access " +
+                                "tokens will be cleaned up while issuing new tokens.");
+                        enabled = false;
+                    }
+                    long interval = IdentityConfigUtils.getPositiveLongProperty(INTERVAL, DEFAULT_INTERVAL_SECONDS);
+                    long chunkSize = IdentityConfigUtils.getPositiveLongProperty(CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+                    if (chunkSize > TokenPurgeDAO.MAX_CHUNK_SIZE) {
+                        log.warn("Configured value: " + chunkSize + " for " + CHUNK_SIZE + " exceeds the maximum " +
+                                "chunk size. Using the maximum value: " + TokenPurgeDAO.MAX_CHUNK_SIZE);
+                        chunkSize = TokenPurgeDAO.MAX_CHUNK_SIZE;
+                    }
+                    long maxChunksPerSecond = IdentityConfigUtils.getPositiveLongProperty(MAX_CHUNKS_PER_SECOND,
+                            DEFAULT_MAX_CHUNKS_PER_SECOND);
+                    long retentionPeriod = IdentityConfigUtils.getPositiveLongProperty(RETENTION_PERIOD,
+                            DEFAULT_RETENTION_PERIOD_SECONDS);
+                    long leaseDuration = IdentityConfigUtils.getPositiveLongProperty(LEASE_DURATION,
+                            DEFAULT_LEASE_DURATION_SECONDS);
+                    instance = new TokenPurgeService(enabled, TimeUnit.SECONDS.toMillis(interval), (int) chunkSize,
+                            maxChunksPerSecond, TimeUnit.SECONDS.toMillis(retentionPeriod),
+                            TimeUnit.SECONDS.toMillis(leaseDuration), new TokenPurgeDAO());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start the periodic purge. Has no effect if the purge service is not enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || purgeScheduler != null) {
+            return;
+        }
+        purgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth-token-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeScheduler.scheduleWithFixedDelay(this::purge, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Started purging expired tokens every " + intervalMillis + " ms in chunks of " + chunkSize +
+                " rows. Purge node id: " + holderId);
+    }
+
+    /**
+     * Stop the periodic purge. A purge in progress is interrupted after its current chunk.
+     */
+    public synchronized void shutdown() {
+
+        if (purgeScheduler == null) {
+            return;
+        }
+        purgeScheduler.shutdownNow();
+        purgeScheduler = null;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Run a purge if the purge lease can be acquired by this node.
+     */
+    void purge() {
+
+        long startTime = System.currentTimeMillis();
+        try {
+            if (!tokenPurgeDAO.acquireLease(LEASE_NAME, holderId, leaseDurationMillis)) {
+                skippedRunCount.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping the token purge as it is being run by another node.");
+                }
+                return;
+            }
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            failedRunCount.incrementAndGet();
+            log.error("Error while acquiring the token purge lease.", e);
+            return;
+        }
+
+        runCount.incrementAndGet();
+        long purgeBefore = startTime - retentionPeriodMillis;
+        boolean completed = false;
+        try {
+            completed = purgeAccessTokens(purgeBefore) &&
+                    purgeInChunks("authorization codes", lastKey -> tokenPurgeDAO.purgeAuthorizationCodes(lastKey,
+                            chunkSize, purgeBefore), purgedAuthorizationCodeCount) &&
+                    purgeInChunks("device codes", lastKey -> tokenPurgeDAO.purgeDeviceCodes(lastKey, chunkSize,
+                            purgeBefore), purgedDeviceCodeCount) &&
+                    purgeInChunks("CIBA authentication codes", lastKey -> tokenPurgeDAO.purgeCibaAuthCodes(lastKey,
+                            chunkSize, purgeBefore), purgedCibaAuthCodeCount);
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            failedRunCount.incrementAndGet();
+            log.error("Error while purging expired tokens.", e);
+        } finally {
+            releaseLease();
+            lastRunDurationMillis.set(System.currentTimeMillis() - startTime);
+            if (log.isDebugEnabled()) {
+                log.debug("Token purge " + (completed ? "completed" : "stopped") + " in " +
+                        lastRunDurationMillis.get() + " ms. Purged access tokens: " + purgedAccessTokenCount.get() +
+                        ", authorization codes: " + purgedAuthorizationCodeCount.get() + ", device codes: " +
+                        purgedDeviceCodeCount.get() + ", CIBA authentication codes: " +
+                        purgedCibaAuthCodeCount.get());
+            }
+        }
+    }
+
+    public long getRunCount() {
+
+        return runCount.get();
+    }
+
+    public long getSkippedRunCount() {
+
+        return skippedRunCount.get();
+    }
+
+    public long getFailedRunCount() {
+
+        return failedRunCount.get();
+    }
+
+    public long getPurgedAccessTokenCount() {
+
+        return purgedAccessTokenCount.get();
+    }
+
+    public long getPurgedAuthorizationCodeCount() {
+
+        return purgedAuthorizationCodeCount.get();
+    }
+
+    public long getPurgedDeviceCodeCount() {
+
+        return purgedDeviceCodeCount.get();
+    }
+
+    public long getPurgedCibaAuthCodeCount() {
+
+        return purgedCibaAuthCodeCount.get();
+    }
+
+    public long getLastRunDurationMillis() {
+
+        return lastRunDurationMillis.get();
+    }
+
+    private boolean purgeAccessTokens(long purgeBefore) throws IdentityOAuth2Exception {
+
+        List<String> userStoreDomains = new ArrayList<>();
+        userStoreDomains.add(IdentityUtil.getPrimaryDomainName());
+        if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
+            userStoreDomains.addAll(OAuth2Util.getAvailableUserStoreDomainMappings().keySet());
+        }
+        for (String userStoreDomain : userStoreDomains) {
+            if (!purgeInChunks("access tokens of user store domain: " + userStoreDomain,
+                    lastKey -> tokenPurgeDAO.purgeAccessTokens(userStoreDomain, lastKey, chunkSize, purgeBefore),
+                    purgedAccessTokenCount)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Purge a table chunk by chunk, renewing the lease and throttling to the configured rate between the chunks.
+     *
+     * @return False if the purge was stopped before reaching the end of the table.
+     */
+    private boolean purgeInChunks(String description, ChunkPurger chunkPurger, AtomicLong purgedCount)
+            throws IdentityOAuth2Exception {
+
+        String lastKey = null;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            long chunkStartTime = System.currentTimeMillis();
+            TokenPurgeDAO.PurgeChunk purgeChunk = chunkPurger.purge(lastKey);
+            purgedCount.addAndGet(purgeChunk.getPurgedCount());
+            lastKey = purgeChunk.getLastKey();
+            if (lastKey == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Completed purging " + description);
+                }
+                return true;
+            }
+            if (!tokenPurgeDAO.acquireLease(LEASE_NAME, holderId, leaseDurationMillis)) {
+                log.warn("Token purge lease was lost while purging " + description + ". Stopping the purge.");
+                return false;
+            }
+            long remainingDelay = minChunkIntervalMillis - (System.currentTimeMillis() - chunkStartTime);
+            if (remainingDelay > 0) {
+                try {
+                    Thread.sleep(remainingDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        } while (true);
+    }
+
+    private void releaseLease() {
+
+        try {
+            tokenPurgeDAO.releaseLease(LEASE_NAME, holderId);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while releasing the token purge lease.", e);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DAO used by the {@link TokenShardRebalancer} to move access tokens to the shard they map to once shards are added
+ * to or removed from the {@link TokenShardRouter}.
+ * <p>
+ * The tokens of a shard are examined in token id order, one chunk at a time. Each misplaced token is copied along
+ * with its scopes and token binding to its new shard in a transaction of the new shard, and the copied tokens of a
+ * chunk are then deleted from the source shard in a single transaction. A token is looked up on both its previous
+ * and its current shard while the shards are rebalanced, so it stays visible throughout the move.
+ */
+public class TokenShardRebalanceDAO {
+
+    private static final Log log = LogFactory.getLog(TokenShardRebalanceDAO.class);
+
+    private static final String ACCESS_TOKEN_TABLE = "IDN_OAUTH2_ACCESS_TOKEN";
+    private static final String ACCESS_TOKEN_SCOPE_TABLE = "IDN_OAUTH2_ACCESS_TOKEN_SCOPE";
+    private static final String TOKEN_BINDING_TABLE = "IDN_OAUTH2_TOKEN_BINDING";
+    private static final String TOKEN_ID = "TOKEN_ID";
+    private static final String ACCESS_TOKEN_HASH = "ACCESS_TOKEN_HASH";
+
+    private final TokenShardRouter tokenShardRouter;
+
+    /**
+     * Queries of a user store partition of the token tables.
+     */
+    private static class PartitionQueries {
+
+        private final String accessTokenTable;
+        private final String accessTokenScopeTable;
+        private final String isAccessTokenExistingSql;
+        private final String retrieveAccessTokenScopesSql;
+
+        PartitionQueries(String userStoreDomain) throws IdentityOAuth2Exception {
+
+            // The partitioned query of a bare table name is the partitioned table name.
+            this.accessTokenTable = OAuth2Util.getTokenPartitionedSqlByUserStore(ACCESS_TOKEN_TABLE, userStoreDomain);
+            this.accessTokenScopeTable = OAuth2Util.getTokenPartitionedSqlByUserStore(ACCESS_TOKEN_SCOPE_TABLE,
+                    userStoreDomain);
+            this.isAccessTokenExistingSql = OAuth2Util.getTokenPartitionedSqlByUserStore(
+                    SQLQueries.IS_ACCESS_TOKEN_ID_EXISTING, userStoreDomain);
+            this.retrieveAccessTokenScopesSql = OAuth2Util.getTokenPartitionedSqlByUserStore(
+                    SQLQueries.RETRIEVE_ACCESS_TOKEN_SCOPES_TO_REBALANCE, userStoreDomain);
+        }
+    }
+
+    /**
+     * Outcome of moving a single chunk of rows.
+     */
+    public static class MoveChunk {
+
+        private final String lastKey;
+        private final int examinedCount;
+        private final int movedCount;
+        private final int failedCount;
+
+        MoveChunk(String lastKey, int examinedCount, int movedCount, int failedCount) {
+
+            this.lastKey = lastKey;
+            this.examinedCount = examinedCount;
+            this.movedCount = movedCount;
+            this.failedCount = failedCount;
+        }
+
+        /**
+         * Get the key to continue the move from.
+         *
+         * @return Key of the last row examined in the chunk, or {@code null} if there are no more rows to examine.
+         */
+        public String getLastKey() {
+
+            return lastKey;
+        }
+
+        public int getExaminedCount() {
+
+            return examinedCount;
+        }
+
+        public int getMovedCount() {
+
+            return movedCount;
+        }
+
+        public int getFailedCount() {
+
+            return failedCount;
+        }
+    }
+
+    public TokenShardRebalanceDAO() {
+
+        this(TokenShardRouter.getInstance());
+    }
+
+    TokenShardRebalanceDAO(TokenShardRouter tokenShardRouter) {
+
+        this.tokenShardRouter = tokenShardRouter;
+    }
+
+    /**
+     * Move a chunk of the access tokens of a user store partition of a shard, which map to another shard.
+     *
+     * @param sourceShard     Name of the shard data source to move the tokens from.
+     * @param userStoreDomain User store domain of the partition.
+     * @param lastTokenId     Token id to continue from, or {@code null} to start from the beginning.
+     * @param chunkSize       Maximum number of rows to examine.
+     * @return Outcome of the chunk.
+     * @throws IdentityOAuth2Exception If an error occurs while reading or deleting the tokens of the source shard.
+     */
+    public MoveChunk moveAccessTokens(String sourceShard, String userStoreDomain, String lastTokenId, int chunkSize)
+            throws IdentityOAuth2Exception {
+
+        String selectSql = SQLQueries.RETRIEVE_ACCESS_TOKENS_TO_REBALANCE;
+        if (lastTokenId != null) {
+            selectSql += SQLQueries.ACCESS_TOKENS_TO_REBALANCE_AFTER_TOKEN_ID;
+        }
+        selectSql = OAuth2Util.getTokenPartitionedSqlByUserStore(
+                selectSql + SQLQueries.ACCESS_TOKENS_TO_REBALANCE_ORDER_BY_TOKEN_ID, userStoreDomain);
+        String deleteSql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.DELETE_ACCESS_TOKEN_BY_ID,
+                userStoreDomain);
+        PartitionQueries partitionQueries = new PartitionQueries(userStoreDomain);
+        try (Connection sourceConnection = tokenShardRouter.getShardConnection(sourceShard, true)) {
+            try {
+                List<String> movedTokenIds = new ArrayList<>();
+                String lastExaminedTokenId = null;
+                int examinedCount = 0;
+                int failedCount = 0;
+                try (PreparedStatement prepStmt = sourceConnection.prepareStatement(selectSql)) {
+                    prepStmt.setMaxRows(chunkSize);
+                    if (lastTokenId != null) {
+                        prepStmt.setString(1, lastTokenId);
+                    }
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        while (resultSet.next()) {
+                            lastExaminedTokenId = resultSet.getString(TOKEN_ID);
+                            examinedCount++;
+                            String targetShard = tokenShardRouter.getShard(resultSet.getString(ACCESS_TOKEN_HASH));
+                            if (sourceShard.equals(targetShard)) {
+                                continue;
+                            }
+                            try {
+                                copyAccessToken(sourceConnection, resultSet, targetShard, partitionQueries);
+                                movedTokenIds.add(lastExaminedTokenId);
+                            } catch (SQLException | RuntimeException e) {
+                                // Leave the token on the source shard, where it is still found, and carry on.
+                                failedCount++;
+                                log.error("Error while moving the access token with id: " + lastExaminedTokenId +
+                                        " from the shard: " + sourceShard + " to the shard: " + targetShard, e);
+                            }
+                        }
+                    }
+                }
+                if (!movedTokenIds.isEmpty()) {
+                    try (PreparedStatement prepStmt = sourceConnection.prepareStatement(deleteSql)) {
+                        for (String tokenId : movedTokenIds) {
+                            prepStmt.setString(1, tokenId);
+                            prepStmt.addBatch();
+                        }
+                        prepStmt.executeBatch();
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(sourceConnection);
+                if (log.isDebugEnabled()) {
+                    log.debug("Moved " + movedTokenIds.size() + " of " + examinedCount + " examined access tokens " +
+                            "from the shard: " + sourceShard);
+                }
+                return new MoveChunk(examinedCount < chunkSize ? null : lastExaminedTokenId, examinedCount,
+                        movedTokenIds.size(), failedCount);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(sourceConnection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while moving the access tokens of user store domain: " +
+                    userStoreDomain + " from the shard: " + sourceShard, e);
+        }
+    }
+
+    /**
+     * Copy the access token at the current row of the given result set, along with its scopes and token binding, to
+     * the target shard. A token which already exists in the target shard is not copied again, so that a chunk which
+     * failed to be deleted from the source shard can be retried.
+     */
+    private void copyAccessToken(Connection sourceConnection, ResultSet accessTokenRow, String targetShard,
+                                 PartitionQueries partitionQueries) throws SQLException {
+
+        String tokenId = accessTokenRow.getString(TOKEN_ID);
+        try (Connection targetConnection = tokenShardRouter.getShardConnection(targetShard, true)) {
+            try {
+                if (!isAccessTokenExisting(targetConnection, tokenId, partitionQueries.isAccessTokenExistingSql)) {
+                    insertRows(targetConnection, partitionQueries.accessTokenTable,
+                            Collections.singletonList(getRow(accessTokenRow)), accessTokenRow.getMetaData());
+                    copyRowsOfToken(sourceConnection, targetConnection, tokenId,
+                            partitionQueries.retrieveAccessTokenScopesSql, partitionQueries.accessTokenScopeTable);
+                    copyRowsOfToken(sourceConnection, targetConnection, tokenId,
+                            SQLQueries.RETRIEVE_TOKEN_BINDINGS_TO_REBALANCE, TOKEN_BINDING_TABLE);
+                }
+                IdentityDatabaseUtil.commitTransaction(targetConnection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(targetConnection);
+                throw e;
+            }
+        }
+    }
+
+    private boolean isAccessTokenExisting(Connection connection, String tokenId, String isAccessTokenExistingSql)
+            throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(isAccessTokenExistingSql)) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private void copyRowsOfToken(Connection sourceConnection, Connection targetConnection, String tokenId,
+                                 String selectSql, String targetTable) throws SQLException {
+
+        try (PreparedStatement prepStmt = sourceConnection.prepareStatement(selectSql)) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                List<Object[]> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    rows.add(getRow(resultSet));
+                }
+                if (!rows.isEmpty()) {
+                    insertRows(targetConnection, targetTable, rows, resultSet.getMetaData());
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert the given rows into a table, with the columns described by the metadata of the result set the rows
+     * were read from. The columns are copied as they are, so that the move does not depend on the token schema
+     * version of the shards, as long as all the shards are of the same version.
+     */
+    private void insertRows(Connection connection, String table, List<Object[]> rows, ResultSetMetaData metaData)
+            throws SQLException {
+
+        int columnCount = metaData.getColumnCount();
+        List<String> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(metaData.getColumnName(i));
+        }
+        String insertSql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+                String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+        try (PreparedStatement prepStmt = connection.prepareStatement(insertSql)) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < columnCount; i++) {
+                    if (row[i] == null) {
+                        prepStmt.setNull(i + 1, metaData.getColumnType(i + 1));
+                    } else {
+                        prepStmt.setObject(i + 1, row[i]);
+                    }
+                }
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+    }
+
+    private static Object[] getRow(ResultSet resultSet) throws SQLException {
+
+        int columnCount = resultSet.getMetaData().getColumnCount();
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = resultSet.getObject(i + 1);
+        }
+        return row;
+    }
+}
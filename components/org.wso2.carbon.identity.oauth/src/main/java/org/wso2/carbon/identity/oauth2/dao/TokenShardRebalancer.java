@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background service which moves the access tokens to the shard they map to, while the token shards of the
+ * {@link TokenShardRouter} are being rebalanced after shards were added or removed.
+ * <p>
+ * Each run walks the token tables of every shard in token id order and moves the misplaced tokens through
+ * {@link TokenShardRebalanceDAO} in small chunks, at a configurable maximum rate so that the move does not compete
+ * with the token traffic. Only the node which holds the rebalance lease runs the move. Once a run completes without
+ * failures, the previous shard configuration is no longer needed and can be removed.
+ */
+public class TokenShardRebalancer {
+
+    private static final Log log = LogFactory.getLog(TokenShardRebalancer.class);
+
+    private static final String INTERVAL = "OAuth.TokenSharding.Rebalance.Interval";
+    private static final String CHUNK_SIZE = "OAuth.TokenSharding.Rebalance.ChunkSize";
+    private static final String MAX_CHUNKS_PER_SECOND = "OAuth.TokenSharding.Rebalance.MaxChunksPerSecond";
+    private static final String LEASE_DURATION = "OAuth.TokenSharding.Rebalance.LeaseDuration";
+
+    private static final long DEFAULT_INTERVAL_SECONDS = 300;
+    private static final long DEFAULT_CHUNK_SIZE = 200;
+    private static final long DEFAULT_MAX_CHUNKS_PER_SECOND = 5;
+    private static final long DEFAULT_LEASE_DURATION_SECONDS = 300;
+    private static final String LEASE_NAME = "OAUTH2_TOKEN_SHARD_REBALANCE";
+
+    private static volatile TokenShardRebalancer instance;
+
+    private final TokenShardRouter tokenShardRouter;
+    private final long intervalMillis;
+    private final int chunkSize;
+    private final long minChunkIntervalMillis;
+    private final long leaseDurationMillis;
+    private final String holderId = UUID.randomUUID().toString();
+    private final TokenShardRebalanceDAO tokenShardRebalanceDAO;
+    private final TokenPurgeDAO leaseDAO;
+    private ScheduledExecutorService rebalanceScheduler;
+    private volatile boolean completed;
+
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong skippedRunCount = new AtomicLong();
+    private final AtomicLong failedRunCount = new AtomicLong();
+    private final AtomicLong examinedTokenCount = new AtomicLong();
+    private final AtomicLong movedTokenCount = new AtomicLong();
+    private final AtomicLong failedTokenCount = new AtomicLong();
+    private final AtomicLong lastRunDurationMillis = new AtomicLong();
+
+    TokenShardRebalancer(TokenShardRouter tokenShardRouter, long intervalMillis, int chunkSize,
+                         long maxChunksPerSecond, long leaseDurationMillis,
+                         TokenShardRebalanceDAO tokenShardRebalanceDAO, TokenPurgeDAO leaseDAO) {
+
+        this.tokenShardRouter = tokenShardRouter;
+        this.intervalMillis = intervalMillis;
+        this.chunkSize = chunkSize;
+        this.minChunkIntervalMillis = TimeUnit.SECONDS.toMillis(1) / maxChunksPerSecond;
+        this.leaseDurationMillis = leaseDurationMillis;
+        this.tokenShardRebalanceDAO = tokenShardRebalanceDAO;
+        this.leaseDAO = leaseDAO;
+    }
+
+    public static TokenShardRebalancer getInstance() {
+
+        if (instance == null) {
+            synchronized (TokenShardRebalancer.class) {
+                if (instance == null) {
+                    long interval = IdentityConfigUtils.getPositiveLongProperty(INTERVAL, DEFAULT_INTERVAL_SECONDS);
+                    long chunkSize = Math.min(IdentityConfigUtils.getPositiveLongProperty(CHUNK_SIZE,
+                            DEFAULT_CHUNK_SIZE), Integer.MAX_VALUE);
+                    long maxChunksPerSecond = IdentityConfigUtils.getPositiveLongProperty(MAX_CHUNKS_PER_SECOND,
+                            DEFAULT_MAX_CHUNKS_PER_SECOND);
+                    long leaseDuration = IdentityConfigUtils.getPositiveLongProperty(LEASE_DURATION,
+                            DEFAULT_LEASE_DURATION_SECONDS);
+                    TokenShardRouter tokenShardRouter = TokenShardRouter.getInstance();
+                    instance = new TokenShardRebalancer(tokenShardRouter, TimeUnit.SECONDS.toMillis(interval),
+                            (int) chunkSize, maxChunksPerSecond, TimeUnit.SECONDS.toMillis(leaseDuration),
+                            new TokenShardRebalanceDAO(tokenShardRouter), new TokenPurgeDAO());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start the periodic rebalance. Has no effect unless token sharding is enabled with a previous shard
+     * configuration to move the tokens from.
+     */
+    public synchronized void start() {
+
+        if (!isEnabled() || rebalanceScheduler != null) {
+            return;
+        }
+        rebalanceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth-token-shard-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebalanceScheduler.scheduleWithFixedDelay(this::rebalance, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Started rebalancing the access tokens across the shards: " + tokenShardRouter.getShards() +
+                " in chunks of " + chunkSize + " rows. Rebalance node id: " + holderId);
+    }
+
+    /**
+     * Stop the periodic rebalance. A rebalance in progress is interrupted after its current chunk.
+     */
+    public synchronized void shutdown() {
+
+        if (rebalanceScheduler == null) {
+            return;
+        }
+        rebalanceScheduler.shutdownNow();
+        rebalanceScheduler = null;
+    }
+
+    public boolean isEnabled() {
+
+        return tokenShardRouter.isEnabled() && tokenShardRouter.isRebalancing();
+    }
+
+    /**
+     * Check whether a run has moved all the access tokens to the shard they map to.
+     *
+     * @return True if a run completed without leaving any misplaced tokens behind.
+     */
+    public boolean isCompleted() {
+
+        return completed;
+    }
+
+    /**
+     * Run a rebalance if the rebalance lease can be acquired by this node.
+     */
+    void rebalance() {
+
+        long startTime = System.currentTimeMillis();
+        try {
+            if (!leaseDAO.acquireLease(LEASE_NAME, holderId, leaseDurationMillis)) {
+                skippedRunCount.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping the token shard rebalance as it is being run by another node.");
+                }
+                return;
+            }
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            failedRunCount.incrementAndGet();
+            log.error("Error while acquiring the token shard rebalance lease.", e);
+            return;
+        }
+
+        runCount.incrementAndGet();
+        long failedTokenCountBeforeRun = failedTokenCount.get();
+        boolean runCompleted = false;
+        try {
+            runCompleted = moveAccessTokens();
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            failedRunCount.incrementAndGet();
+            log.error("Error while rebalancing the access tokens across the token shards.", e);
+        } finally {
+            releaseLease();
+            lastRunDurationMillis.set(System.currentTimeMillis() - startTime);
+            if (log.isDebugEnabled()) {
+                log.debug("Token shard rebalance " + (runCompleted ? "completed" : "stopped") + " in " +
+                        lastRunDurationMillis.get() + " ms. Examined access tokens: " + examinedTokenCount.get() +
+                        ", moved: " + movedTokenCount.get() + ", failed: " + failedTokenCount.get());
+            }
+        }
+        if (runCompleted && failedTokenCount.get() == failedTokenCountBeforeRun && !completed) {
+            completed = true;
+            log.info("All the access tokens are on the shard they map to. The previous token shard configuration " +
+                    "can now be removed.");
+        }
+    }
+
+    public long getRunCount() {
+
+        return runCount.get();
+    }
+
+    public long getSkippedRunCount() {
+
+        return skippedRunCount.get();
+    }
+
+    public long getFailedRunCount() {
+
+        return failedRunCount.get();
+    }
+
+    public long getExaminedTokenCount() {
+
+        return examinedTokenCount.get();
+    }
+
+    public long getMovedTokenCount() {
+
+        return movedTokenCount.get();
+    }
+
+    public long getFailedTokenCount() {
+
+        return failedTokenCount.get();
+    }
+
+    public long getLastRunDurationMillis() {
+
+        return lastRunDurationMillis.get();
+    }
+
+    private boolean moveAccessTokens() throws IdentityOAuth2Exception {
+
+        List<String> userStoreDomains = new ArrayList<>();
+        userStoreDomains.add(IdentityUtil.getPrimaryDomainName());
+        if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
+            userStoreDomains.addAll(OAuth2Util.getAvailableUserStoreDomainMappings().keySet());
+        }
+        for (String shard : tokenShardRouter.getShards()) {
+            for (String userStoreDomain : userStoreDomains) {
+                if (!moveInChunks(shard, userStoreDomain)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move the misplaced tokens of a shard chunk by chunk, renewing the lease and throttling to the configured rate
+     * between the chunks.
+     *
+     * @return False if the move was stopped before reaching the end of the table.
+     */
+    private boolean moveInChunks(String shard, String userStoreDomain) throws IdentityOAuth2Exception {
+
+        String lastKey = null;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            long chunkStartTime = System.currentTimeMillis();
+            TokenShardRebalanceDAO.MoveChunk moveChunk = tokenShardRebalanceDAO.moveAccessTokens(shard,
+                    userStoreDomain, lastKey, chunkSize);
+            examinedTokenCount.addAndGet(moveChunk.getExaminedCount());
+            movedTokenCount.addAndGet(moveChunk.getMovedCount());
+            failedTokenCount.addAndGet(moveChunk.getFailedCount());
+            lastKey = moveChunk.getLastKey();
+            if (lastKey == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Completed moving the access tokens of user store domain: " + userStoreDomain +
+                            " from the shard: " + shard);
+                }
+                return true;
+            }
+            if (!leaseDAO.acquireLease(LEASE_NAME, holderId, leaseDurationMillis)) {
+                log.warn("Token shard rebalance lease was lost while moving the access tokens of the shard: " +
+                        shard + ". Stopping the rebalance.");
+                return false;
+            }
+            long remainingDelay = minChunkIntervalMillis - (System.currentTimeMillis() - chunkStartTime);
+            if (remainingDelay > 0) {
+                try {
+                    Thread.sleep(remainingDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        } while (true);
+    }
+
+    private void releaseLease() {
+
+        try {
+            leaseDAO.releaseLease(LEASE_NAME, holderId);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while releasing the token shard rebalance lease.", e);
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.wso2.carbon.identity.oauth.common.token.bindings.TokenBinderInfo;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
 import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.OAuth2ScopeService;
 import org.wso2.carbon.identity.oauth2.OAuth2Service;
 import org.wso2.carbon.identity.oauth2.OAuth2TokenValidationService;
@@ -54,7 +55,12 @@ import org.wso2.carbon.identity.oauth2.client.authentication.BasicAuthClientAuth
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthenticator;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnService;
 import org.wso2.carbon.identity.oauth2.client.authentication.PublicClientAuthenticator;
+import org.wso2.carbon.identity.oauth2.dao.AccessTokenWriteBehindPersister;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationCodeStore;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.dao.OldTokenArchiver;
+import org.wso2.carbon.identity.oauth2.dao.TokenPurgeService;
+import org.wso2.carbon.identity.oauth2.dao.TokenShardRebalancer;
 import org.wso2.carbon.identity.oauth2.device.api.DeviceAuthService;
 import org.wso2.carbon.identity.oauth2.device.api.DeviceAuthServiceImpl;
 import org.wso2.carbon.identity.oauth2.device.response.DeviceFlowResponseTypeRequestValidator;
@@ -68,6 +74,8 @@ import org.wso2.carbon.identity.oauth2.token.bindings.impl.CookieBasedTokenBinde
 import org.wso2.carbon.identity.oauth2.token.bindings.impl.DeviceFlowTokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.impl.SSOSessionBasedTokenBinder;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.PartitionedSqlRegistry;
+import org.wso2.carbon.identity.oauth2.validators.RevokedTokenRegistry;
 import org.wso2.carbon.identity.oauth2.validators.scope.ScopeValidator;
 import org.wso2.carbon.identity.openidconnect.OpenIDConnectClaimFilter;
 import org.wso2.carbon.identity.openidconnect.OpenIDConnectClaimFilterImpl;
@@ -253,6 +261,31 @@ public class OAuth2ServiceComponent {
             // PKCE enabled by default.
             OAuth2ServiceComponentHolder.setPkceEnabled(true);
 
+            // Precompute the partitioned token queries, if access token partitioning is enabled.
+            try {
+                PartitionedSqlRegistry.getInstance().refresh();
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error while precomputing the partitioned token queries.", e);
+            }
+
+            // Start archiving the replaced access tokens asynchronously, if enabled.
+            OldTokenArchiver.getInstance().start();
+
+            // Start the write-behind access token persistence consumers, if enabled.
+            AccessTokenWriteBehindPersister.getInstance().start();
+
+            // Start reconciling revoked access tokens for local JWT validation, if enabled.
+            RevokedTokenRegistry.getInstance().start();
+
+            // Start purging expired tokens and codes in the background, if enabled.
+            TokenPurgeService.getInstance().start();
+
+            // Start moving the access tokens to their shards, if the token shards are being rebalanced.
+            TokenShardRebalancer.getInstance().start();
+
+            // Start auditing the authorization codes issued through the in-memory code store, if enabled.
+            AuthorizationCodeStore.getInstance().start();
+
             // Register device auth service.
             ServiceRegistration deviceAuthService = bundleContext.registerService(DeviceAuthService.class.getName(),
                     new DeviceAuthServiceImpl(), null);
@@ -329,6 +362,22 @@ public class OAuth2ServiceComponent {
         }
     }
 
+    protected void deactivate(ComponentContext context) {
+
+        // Flush the access tokens which are still queued for persistence.
+        AccessTokenWriteBehindPersister.getInstance().shutdown();
+        // Archive the replaced access tokens which are still queued, including those replaced by the flush above.
+        OldTokenArchiver.getInstance().shutdown();
+        RevokedTokenRegistry.getInstance().shutdown();
+        TokenPurgeService.getInstance().shutdown();
+        TokenShardRebalancer.getInstance().shutdown();
+        // Persist the authorization codes and code states which are not yet written to the database.
+        AuthorizationCodeStore.getInstance().shutdown();
+        if (log.isDebugEnabled()) {
+            log.debug("Identity OAuth bundle is deactivated");
+        }
+    }
+
     /**
      * Set Application management service implementation
      *
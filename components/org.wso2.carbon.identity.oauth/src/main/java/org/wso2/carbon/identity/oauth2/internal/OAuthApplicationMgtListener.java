@@ -513,11 +513,7 @@ public class OAuthApplicationMgtListener extends AbstractApplicationMgtListener
             AuthorizationGrantCache.getInstance()
                     .clearCacheEntryByTokenId(grantCacheKey, accessTokenDo.getTokenId());
             // Remove access token from OAuthCache
-            OAuthCacheKey oauthCacheKey = new OAuthCacheKey(accessTokenDo.getAccessToken());
-            CacheEntry oauthCacheEntry = OAuthCache.getInstance().getValueFromCache(oauthCacheKey);
-            if (oauthCacheEntry != null) {
-                OAuthCache.getInstance().clearCacheEntry(oauthCacheKey);
-            }
+            OAuthUtil.clearOAuthCacheByAccessToken(accessTokenDo.getAccessToken());
         }
     }
 
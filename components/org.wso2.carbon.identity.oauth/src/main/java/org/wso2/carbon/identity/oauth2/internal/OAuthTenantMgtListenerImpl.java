@@ -18,13 +18,18 @@
 
 package org.wso2.carbon.identity.oauth2.internal;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.core.AbstractIdentityTenantMgtListener;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
+import org.wso2.carbon.stratos.common.beans.TenantInfoBean;
 import org.wso2.carbon.stratos.common.exception.StratosException;
 
 import java.util.ArrayList;
@@ -38,16 +43,34 @@ import java.util.Set;
  */
 public class OAuthTenantMgtListenerImpl extends AbstractIdentityTenantMgtListener {
 
+    private static final Log log = LogFactory.getLog(OAuthTenantMgtListenerImpl.class);
+
+    @Override
+    public void onTenantUpdate(TenantInfoBean tenantInfo) throws StratosException {
+
+        OIDCDiscoveryDocumentCache.getInstance().clearDocuments(tenantInfo.getTenantId());
+        try {
+            TenantSigningKeyRegistry.getInstance().rotate(tenantInfo.getTenantDomain());
+        } catch (IdentityOAuth2Exception e) {
+            // The signing key is reloaded again once the refresh interval elapses.
+            log.error("Error while reloading the signing key of the tenant: " + tenantInfo.getTenantDomain(), e);
+        }
+    }
+
     @Override
     public void onPreDelete(int tenantId) throws StratosException {
 
         clearTokenData(tenantId);
+        OIDCDiscoveryDocumentCache.getInstance().clearDocuments(tenantId);
+        TenantSigningKeyRegistry.getInstance().invalidate(tenantId);
     }
 
     @Override
     public void onTenantDeactivation(int tenantId) throws StratosException {
 
         clearTokenData(tenantId);
+        OIDCDiscoveryDocumentCache.getInstance().clearDocuments(tenantId);
+        TenantSigningKeyRegistry.getInstance().invalidate(tenantId);
     }
 
     private void clearTokenData(int tenantId) throws StratosException {
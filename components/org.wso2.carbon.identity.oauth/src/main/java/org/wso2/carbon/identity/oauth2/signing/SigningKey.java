@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.signing;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ready to use signing material of a tenant for a single signature algorithm, i.e. the signer, the JWS header
+ * template carrying the kid and x5t values and the public JWK of the signing key.
+ * <p>
+ * Instances are immutable apart from the lazily populated header cache and are shared by all signing threads. The
+ * signers of nimbus create a new {@link java.security.Signature} per signature, hence can be used concurrently.
+ */
+public class SigningKey {
+
+    private final String tenantDomain;
+    private final JWSAlgorithm algorithm;
+    private final String keyId;
+    private final JWSSigner signer;
+    private final JWSHeader headerTemplate;
+    private final JWK publicJWK;
+    private final ConcurrentMap<JOSEObjectType, JWSHeader> typedHeaders = new ConcurrentHashMap<>();
+
+    SigningKey(String tenantDomain, JWSAlgorithm algorithm, JWSSigner signer, String keyId, String thumbprint,
+               Certificate certificate) {
+
+        this.tenantDomain = tenantDomain;
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+        this.signer = signer;
+
+        JWSHeader.Builder headerBuilder = new JWSHeader.Builder(algorithm);
+        headerBuilder.keyID(keyId);
+        if (StringUtils.isNotBlank(thumbprint)) {
+            headerBuilder.x509CertThumbprint(new Base64URL(thumbprint));
+        }
+        this.headerTemplate = headerBuilder.build();
+        this.publicJWK = buildPublicJWK(certificate, thumbprint);
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public JWSAlgorithm getAlgorithm() {
+
+        return algorithm;
+    }
+
+    public String getKeyId() {
+
+        return keyId;
+    }
+
+    public JWSSigner getSigner() {
+
+        return signer;
+    }
+
+    /**
+     * Get the JWS header template of the key, i.e. a header carrying the algorithm, kid and x5t values.
+     *
+     * @return JWS header template.
+     */
+    public JWSHeader getHeader() {
+
+        return headerTemplate;
+    }
+
+    /**
+     * Get the JWS header template of the key with the given "typ" header value.
+     *
+     * @param type Value of the "typ" header.
+     * @return JWS header template with the type.
+     */
+    public JWSHeader getHeader(JOSEObjectType type) {
+
+        if (type == null) {
+            return headerTemplate;
+        }
+        JWSHeader header = typedHeaders.get(type);
+        if (header == null) {
+            header = new JWSHeader.Builder(headerTemplate).type(type).build();
+            JWSHeader existingHeader = typedHeaders.putIfAbsent(type, header);
+            if (existingHeader != null) {
+                header = existingHeader;
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Get the public JWK of the signing key.
+     *
+     * @return Public JWK or null if the certificate of the signing key is not available.
+     */
+    public JWK getPublicJWK() {
+
+        return publicJWK;
+    }
+
+    /**
+     * Sign the given claims set with the header template of the key.
+     *
+     * @param jwtClaimsSet Claims set to be signed.
+     * @return Signed JWT.
+     * @throws IdentityOAuth2Exception If an error occurred while signing.
+     */
+    public SignedJWT sign(JWTClaimsSet jwtClaimsSet) throws IdentityOAuth2Exception {
+
+        return sign(jwtClaimsSet, null);
+    }
+
+    /**
+     * Sign the given claims set with the header template of the key and the given "typ" header value.
+     *
+     * @param jwtClaimsSet Claims set to be signed.
+     * @param type         Value of the "typ" header, if any.
+     * @return Signed JWT.
+     * @throws IdentityOAuth2Exception If an error occurred while signing.
+     */
+    public SignedJWT sign(JWTClaimsSet jwtClaimsSet, JOSEObjectType type) throws IdentityOAuth2Exception {
+
+        SignedJWT signedJWT = new SignedJWT(getHeader(type), jwtClaimsSet);
+        try {
+            signedJWT.sign(signer);
+        } catch (JOSEException e) {
+            throw new IdentityOAuth2Exception("Error occurred while signing JWT", e);
+        }
+        return signedJWT;
+    }
+
+    private JWK buildPublicJWK(Certificate certificate, String thumbprint) {
+
+        if (certificate == null) {
+            return null;
+        }
+        PublicKey publicKey = certificate.getPublicKey();
+        Base64URL certThumbprint = thumbprint == null ? null : Base64URL.encode(thumbprint);
+        if (publicKey instanceof ECPublicKey) {
+            ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+            Curve curve = Curve.forECParameterSpec(ecPublicKey.getParams());
+            if (curve == null) {
+                return null;
+            }
+            return new ECKey.Builder(curve, ecPublicKey)
+                    .keyID(keyId)
+                    .algorithm(algorithm)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .x509CertSHA256Thumbprint(certThumbprint)
+                    .build();
+        } else if (publicKey instanceof RSAPublicKey) {
+            return new RSAKey.Builder((RSAPublicKey) publicKey)
+                    .keyID(keyId)
+                    .algorithm(algorithm)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .x509CertSHA256Thumbprint(certThumbprint)
+                    .build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.signing;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.security.Key;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registry of the signing material of tenants. For each tenant and signature algorithm a {@link SigningKey} holding
+ * a ready to use signer, the JWS header template with the kid and x5t values and the public JWK is built once and
+ * reused for every signature, instead of resolving the key, creating the signer and recomputing the kid and the
+ * thumbprint per token.
+ * <p>
+ * The signing key of a tenant is reloaded when {@link #rotate(String)} is invoked on a tenant update or once the
+ * refresh interval, five minutes unless configured otherwise, elapses. Hence a key changed in the key store, e.g.
+ * through another node, is picked up without a restart. A refresh interval of 0 disables the periodic reload. When
+ * the key changed, the previous key is retained for the configured overlap period so that tokens signed before the
+ * rotation can still be verified with the public keys returned by
+ * {@link #getVerificationKeys(String, JWSAlgorithm)}. The signing material of a tenant is removed through
+ * {@link #invalidate(int)} when the tenant is deactivated or deleted.
+ */
+public class TenantSigningKeyRegistry {
+
+    private static final Log log = LogFactory.getLog(TenantSigningKeyRegistry.class);
+
+    private static final String REFRESH_INTERVAL = "OAuth.SigningKeyRegistry.RefreshInterval";
+    private static final String ROTATION_OVERLAP_PERIOD = "OAuth.SigningKeyRegistry.RotationOverlapPeriod";
+
+    private static final long DEFAULT_REFRESH_INTERVAL_IN_SECONDS = 300;
+    private static final long DEFAULT_ROTATION_OVERLAP_PERIOD_IN_SECONDS = 3600;
+
+    private static volatile TenantSigningKeyRegistry instance;
+
+    private final ConcurrentMap<Integer, TenantKeyMaterial> activeKeys = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, List<TenantKeyMaterial>> retiredKeys = new ConcurrentHashMap<>();
+    private final long refreshIntervalMillis;
+    private final long rotationOverlapMillis;
+
+    TenantSigningKeyRegistry(long refreshIntervalMillis, long rotationOverlapMillis) {
+
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.rotationOverlapMillis = rotationOverlapMillis;
+    }
+
+    public static TenantSigningKeyRegistry getInstance() {
+
+        if (instance == null) {
+            synchronized (TenantSigningKeyRegistry.class) {
+                if (instance == null) {
+                    long refreshInterval = IdentityConfigUtils.getLongProperty(REFRESH_INTERVAL,
+                            DEFAULT_REFRESH_INTERVAL_IN_SECONDS, 0);
+                    long overlapPeriod = IdentityConfigUtils.getLongProperty(ROTATION_OVERLAP_PERIOD,
+                            DEFAULT_ROTATION_OVERLAP_PERIOD_IN_SECONDS, 0);
+                    instance = new TenantSigningKeyRegistry(TimeUnit.SECONDS.toMillis(refreshInterval),
+                            TimeUnit.SECONDS.toMillis(overlapPeriod));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the signing key of the given tenant for the given signature algorithm.
+     *
+     * @param tenantDomain       Tenant domain of the signing key. Super tenant is used if blank.
+     * @param signatureAlgorithm RSA or ECDSA signature algorithm.
+     * @return Signing key.
+     * @throws IdentityOAuth2Exception If the signing key cannot be loaded or cannot be used with the algorithm.
+     */
+    public SigningKey getSigningKey(String tenantDomain, JWSAlgorithm signatureAlgorithm)
+            throws IdentityOAuth2Exception {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+        }
+        return getTenantKeyMaterial(tenantDomain).getSigningKey(signatureAlgorithm);
+    }
+
+    /**
+     * Check whether the signing key of the given tenant can be used with the given signature algorithm, i.e. the key
+     * is an RSA key for the RSA algorithms or an EC key of the matching curve for the ECDSA algorithms.
+     *
+     * @param tenantDomain       Tenant domain of the signing key. Super tenant is used if blank.
+     * @param signatureAlgorithm Signature algorithm.
+     * @return True if tokens of the tenant can be signed with the algorithm.
+     * @throws IdentityOAuth2Exception If the signing key cannot be loaded.
+     */
+    public boolean isSupported(String tenantDomain, JWSAlgorithm signatureAlgorithm) throws IdentityOAuth2Exception {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+        }
+        TenantKeyMaterial keyMaterial = getTenantKeyMaterial(tenantDomain);
+        try {
+            keyMaterial.getSigningKey(signatureAlgorithm);
+            return true;
+        } catch (IdentityOAuth2Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Signing key of the tenant: " + tenantDomain + " cannot be used with the algorithm: " +
+                        signatureAlgorithm, e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Get the keys to be used to verify the signatures of the given tenant, i.e. the current signing key followed
+     * by the keys rotated out within the overlap period.
+     *
+     * @param tenantDomain       Tenant domain of the signing keys. Super tenant is used if blank.
+     * @param signatureAlgorithm RSA or ECDSA signature algorithm.
+     * @return Signing keys of the tenant usable with the algorithm.
+     * @throws IdentityOAuth2Exception If the current signing key cannot be loaded.
+     */
+    public List<SigningKey> getVerificationKeys(String tenantDomain, JWSAlgorithm signatureAlgorithm)
+            throws IdentityOAuth2Exception {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+        }
+        TenantKeyMaterial current = getTenantKeyMaterial(tenantDomain);
+        List<SigningKey> signingKeys = new ArrayList<>();
+        signingKeys.add(current.getSigningKey(signatureAlgorithm));
+        for (TenantKeyMaterial retired : getRetiredKeys(current.tenantId)) {
+            try {
+                signingKeys.add(retired.getSigningKey(signatureAlgorithm));
+            } catch (IdentityOAuth2Exception e) {
+                // The rotated key may be of a different type than the current key.
+                if (log.isDebugEnabled()) {
+                    log.debug("Rotated signing key of the tenant: " + tenantDomain + " cannot be used with the " +
+                            "algorithm: " + signatureAlgorithm);
+                }
+            }
+        }
+        return signingKeys;
+    }
+
+    /**
+     * Reload the signing key of the given tenant. If the key changed, the previous key is retained for the overlap
+     * period for verification. A signing key which is not loaded yet is left to be loaded on the next signature.
+     *
+     * @param tenantDomain Tenant domain.
+     * @throws IdentityOAuth2Exception If the signing key cannot be loaded.
+     */
+    public void rotate(String tenantDomain) throws IdentityOAuth2Exception {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+        }
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        TenantKeyMaterial current = activeKeys.get(tenantId);
+        if (current == null) {
+            // The signing key is not in use on this node yet. It is loaded on the next signature.
+            OAuth2Util.clearSigningKeyCache(tenantId);
+            return;
+        }
+        reload(current);
+    }
+
+    /**
+     * Remove the signing material of the given tenant. The signing key is loaded again on the next signature and the
+     * previous key is not retained.
+     *
+     * @param tenantId Tenant id.
+     */
+    public void invalidate(int tenantId) {
+
+        activeKeys.remove(tenantId);
+        retiredKeys.remove(tenantId);
+        OAuth2Util.clearSigningKeyCache(tenantId);
+    }
+
+    /**
+     * Remove the signing material of all the tenants.
+     */
+    public void clear() {
+
+        activeKeys.clear();
+        retiredKeys.clear();
+    }
+
+    private TenantKeyMaterial getTenantKeyMaterial(String tenantDomain) throws IdentityOAuth2Exception {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        TenantKeyMaterial keyMaterial = activeKeys.get(tenantId);
+        if (keyMaterial == null) {
+            keyMaterial = loadKeyMaterial(tenantDomain, tenantId);
+            TenantKeyMaterial existingKeyMaterial = activeKeys.putIfAbsent(tenantId, keyMaterial);
+            if (existingKeyMaterial != null) {
+                keyMaterial = existingKeyMaterial;
+            }
+        } else if (refreshIntervalMillis > 0 &&
+                System.currentTimeMillis() - keyMaterial.loadedTime > refreshIntervalMillis &&
+                keyMaterial.refreshing.compareAndSet(false, true)) {
+            // Only one thread reloads the key while the others keep signing with the current key.
+            TenantKeyMaterial current = keyMaterial;
+            try {
+                keyMaterial = reload(current);
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error while refreshing the signing key of the tenant: " + tenantDomain + ". Continuing " +
+                        "with the current signing key.", e);
+            } finally {
+                current.refreshing.set(false);
+            }
+        }
+        return keyMaterial;
+    }
+
+    private TenantKeyMaterial reload(TenantKeyMaterial current) throws IdentityOAuth2Exception {
+
+        OAuth2Util.clearSigningKeyCache(current.tenantId);
+        TenantKeyMaterial reloaded = loadKeyMaterial(current.tenantDomain, current.tenantId);
+        if (Objects.equals(current.thumbprint, reloaded.thumbprint) && current.privateKey.equals(reloaded.privateKey)) {
+            // Key did not change. Keep the already built signing keys.
+            current.loadedTime = reloaded.loadedTime;
+            return current;
+        }
+
+        if (activeKeys.replace(current.tenantId, current, reloaded)) {
+            current.retiredTime = System.currentTimeMillis();
+            if (rotationOverlapMillis > 0) {
+                List<TenantKeyMaterial> retired = retiredKeys.get(current.tenantId);
+                if (retired == null) {
+                    retired = new CopyOnWriteArrayList<>();
+                    List<TenantKeyMaterial> existingRetired = retiredKeys.putIfAbsent(current.tenantId, retired);
+                    if (existingRetired != null) {
+                        retired = existingRetired;
+                    }
+                }
+                retired.add(0, current);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Signing key of the tenant: " + current.tenantDomain + " is rotated.");
+            }
+            return reloaded;
+        }
+        // Another thread rotated or removed the key in the meantime.
+        TenantKeyMaterial active = activeKeys.get(current.tenantId);
+        return active != null ? active : getTenantKeyMaterial(current.tenantDomain);
+    }
+
+    private List<TenantKeyMaterial> getRetiredKeys(int tenantId) {
+
+        List<TenantKeyMaterial> retired = retiredKeys.get(tenantId);
+        if (retired == null) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        List<TenantKeyMaterial> expired = new ArrayList<>();
+        for (TenantKeyMaterial keyMaterial : retired) {
+            if (now - keyMaterial.retiredTime > rotationOverlapMillis) {
+                expired.add(keyMaterial);
+            }
+        }
+        retired.removeAll(expired);
+        return retired;
+    }
+
+    private TenantKeyMaterial loadKeyMaterial(String tenantDomain, int tenantId) throws IdentityOAuth2Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Loading the signing key of the tenant: " + tenantDomain);
+        }
+        Key privateKey = OAuth2Util.getPrivateKey(tenantDomain, tenantId);
+        if (privateKey == null) {
+            throw new IdentityOAuth2Exception("Signing key of the tenant: " + tenantDomain + " is not available.");
+        }
+        Certificate certificate = OAuth2Util.getCertificate(tenantDomain, tenantId);
+        String thumbprint = OAuth2Util.getThumbPrint(tenantDomain, tenantId);
+        return new TenantKeyMaterial(tenantDomain, tenantId, privateKey, certificate, thumbprint);
+    }
+
+    /**
+     * Signing key, certificate and the signing keys built per algorithm for a tenant.
+     */
+    private static class TenantKeyMaterial {
+
+        private final String tenantDomain;
+        private final int tenantId;
+        private final Key privateKey;
+        private final Certificate certificate;
+        private final String thumbprint;
+        private final ConcurrentMap<JWSAlgorithm, SigningKey> signingKeys = new ConcurrentHashMap<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long loadedTime;
+        private volatile long retiredTime;
+
+        TenantKeyMaterial(String tenantDomain, int tenantId, Key privateKey, Certificate certificate,
+                          String thumbprint) {
+
+            this.tenantDomain = tenantDomain;
+            this.tenantId = tenantId;
+            this.privateKey = privateKey;
+            this.certificate = certificate;
+            this.thumbprint = thumbprint;
+            this.loadedTime = System.currentTimeMillis();
+        }
+
+        SigningKey getSigningKey(JWSAlgorithm signatureAlgorithm) throws IdentityOAuth2Exception {
+
+            SigningKey signingKey = signingKeys.get(signatureAlgorithm);
+            if (signingKey == null) {
+                signingKey = new SigningKey(tenantDomain, signatureAlgorithm, createSigner(signatureAlgorithm),
+                        OAuth2Util.getKID(certificate, signatureAlgorithm, tenantDomain), thumbprint, certificate);
+                SigningKey existingSigningKey = signingKeys.putIfAbsent(signatureAlgorithm, signingKey);
+                if (existingSigningKey != null) {
+                    signingKey = existingSigningKey;
+                }
+            }
+            return signingKey;
+        }
+
+        private JWSSigner createSigner(JWSAlgorithm signatureAlgorithm) throws IdentityOAuth2Exception {
+
+            if (JWSAlgorithm.Family.RSA.contains(signatureAlgorithm)) {
+                if (!(privateKey instanceof RSAPrivateKey)) {
+                    throw new IdentityOAuth2Exception("Signing key of the tenant: " + tenantDomain + " is not an " +
+                            "RSA key. Hence the JWT cannot be signed with the algorithm: " + signatureAlgorithm);
+                }
+                return OAuth2Util.createJWSSigner((RSAPrivateKey) privateKey);
+            } else if (JWSAlgorithm.Family.EC.contains(signatureAlgorithm)) {
+                if (!(privateKey instanceof ECPrivateKey)) {
+                    throw new IdentityOAuth2Exception("Signing key of the tenant: " + tenantDomain + " is not an " +
+                            "EC key. Hence the JWT cannot be signed with the algorithm: " + signatureAlgorithm);
+                }
+                JWSSigner signer = OAuth2Util.createJWSSigner((ECPrivateKey) privateKey);
+                if (!signer.supportedJWSAlgorithms().contains(signatureAlgorithm)) {
+                    throw new IdentityOAuth2Exception("Curve of the signing key of the tenant: " + tenantDomain +
+                            " does not match the algorithm: " + signatureAlgorithm);
+                }
+                return signer;
+            }
+            throw new IdentityOAuth2Exception("Provided signature algorithm: " + signatureAlgorithm +
+                    " is not supported");
+        }
+    }
+}
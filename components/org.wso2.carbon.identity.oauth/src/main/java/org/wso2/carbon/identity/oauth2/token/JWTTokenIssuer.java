@@ -19,17 +19,12 @@
 package org.wso2.carbon.identity.oauth2.token;
 
 import com.nimbusds.jose.Algorithm;
-import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JOSEObjectType;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.JWSSigner;
-import com.nimbusds.jose.util.Base64URL;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.JWTParser;
 import com.nimbusds.jwt.PlainJWT;
-import com.nimbusds.jwt.SignedJWT;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -37,7 +32,6 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
 import org.wso2.carbon.identity.base.IdentityConstants;
-import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
@@ -46,14 +40,13 @@ import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.AuthorizationGrantHandler;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.openidconnect.CustomClaimsCallbackHandler;
 import org.wso2.carbon.registry.core.utils.UUIDGenerator;
 
-import java.security.Key;
-import java.security.interfaces.RSAPrivateKey;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -65,7 +58,6 @@ import java.util.UUID;
 
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.RENEW_TOKEN_WITHOUT_REVOKING_EXISTING_ENABLE_CONFIG;
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.REQUEST_BINDING_TYPE;
-import static org.wso2.carbon.identity.oauth2.util.OAuth2Util.getPrivateKey;
 
 /**
  * Self contained access token builder.
@@ -92,7 +84,9 @@ public class JWTTokenIssuer extends OauthTokenIssuerImpl {
     private static final String TOKEN_BINDING_REF = "binding_ref";
     private static final String TOKEN_BINDING_TYPE = "binding_type";
     private static final String DEFAULT_TYP_HEADER_VALUE = "at+jwt";
+    private static final JOSEObjectType ACCESS_TOKEN_TYP_HEADER = new JOSEObjectType(DEFAULT_TYP_HEADER_VALUE);
     private static final String CNF = "cnf";
+    private static final String TOKEN_SIGNATURE_ALGORITHM = "tokenSignatureAlgorithm";
 
     private static final Log log = LogFactory.getLog(JWTTokenIssuer.class);
     private static final String INBOUND_AUTH2_TYPE = "oauth2";
@@ -180,7 +174,7 @@ public class JWTTokenIssuer extends OauthTokenIssuerImpl {
             jwtClaimsSetBuilder.audience(Arrays.asList(request.getScope()));
         }
         jwtClaimsSet = jwtClaimsSetBuilder.build();
-        if (JWSAlgorithm.NONE.getName().equals(signatureAlgorithm.getName())) {
+        if (JWSAlgorithm.NONE.getName().equals(resolveSignatureAlgorithm(request, null).getName())) {
             return new PlainJWT(jwtClaimsSet).serialize();
         }
 
@@ -206,7 +200,7 @@ public class JWTTokenIssuer extends OauthTokenIssuerImpl {
         }
         jwtClaimsSet = jwtClaimsSetBuilder.build();
 
-        if (JWSAlgorithm.NONE.getName().equals(signatureAlgorithm.getName())) {
+        if (JWSAlgorithm.NONE.getName().equals(resolveSignatureAlgorithm(null, request).getName())) {
             return new PlainJWT(jwtClaimsSet).serialize();
         }
 
@@ -226,20 +220,69 @@ public class JWTTokenIssuer extends OauthTokenIssuerImpl {
                              OAuthTokenReqMessageContext tokenContext,
                              OAuthAuthzReqMessageContext authorizationContext) throws IdentityOAuth2Exception {
 
-        if (JWSAlgorithm.RS256.equals(signatureAlgorithm) || JWSAlgorithm.RS384.equals(signatureAlgorithm) ||
-                JWSAlgorithm.RS512.equals(signatureAlgorithm) || JWSAlgorithm.PS256.equals(signatureAlgorithm)) {
+        JWSAlgorithm jwsAlgorithm = resolveSignatureAlgorithm(tokenContext, authorizationContext);
+        if (JWSAlgorithm.RS256.equals(jwsAlgorithm) || JWSAlgorithm.RS384.equals(jwsAlgorithm) ||
+                JWSAlgorithm.RS512.equals(jwsAlgorithm) || JWSAlgorithm.PS256.equals(jwsAlgorithm)) {
             return signJWTWithRSA(jwtClaimsSet, tokenContext, authorizationContext);
-        } else if (JWSAlgorithm.HS256.equals(signatureAlgorithm) || JWSAlgorithm.HS384.equals(signatureAlgorithm) ||
-                JWSAlgorithm.HS512.equals(signatureAlgorithm)) {
+        } else if (JWSAlgorithm.HS256.equals(jwsAlgorithm) || JWSAlgorithm.HS384.equals(jwsAlgorithm) ||
+                JWSAlgorithm.HS512.equals(jwsAlgorithm)) {
             return signJWTWithHMAC(jwtClaimsSet, tokenContext, authorizationContext);
-        } else if (JWSAlgorithm.ES256.equals(signatureAlgorithm) || JWSAlgorithm.ES384.equals(signatureAlgorithm) ||
-                JWSAlgorithm.ES512.equals(signatureAlgorithm)) {
+        } else if (JWSAlgorithm.ES256.equals(jwsAlgorithm) || JWSAlgorithm.ES384.equals(jwsAlgorithm) ||
+                JWSAlgorithm.ES512.equals(jwsAlgorithm)) {
             return signJWTWithECDSA(jwtClaimsSet, tokenContext, authorizationContext);
         } else {
-            throw new IdentityOAuth2Exception("Invalid signature algorithm provided. " + signatureAlgorithm);
+            throw new IdentityOAuth2Exception("Invalid signature algorithm provided. " + jwsAlgorithm);
         }
     }
 
+    /**
+     * Resolve the algorithm to sign the token. The signature algorithm configured for the service provider takes
+     * precedence over the server level signature algorithm. The application information is looked up once per
+     * request and the resolved algorithm is kept in the message context for the rest of the signing flow.
+     *
+     * @param tokenContext         OAuthTokenReqMessageContext.
+     * @param authorizationContext OAuthAuthzReqMessageContext.
+     * @return Signature algorithm.
+     * @throws IdentityOAuth2Exception If an error occurred while resolving the signature algorithm.
+     */
+    private JWSAlgorithm resolveSignatureAlgorithm(OAuthTokenReqMessageContext tokenContext,
+                                                   OAuthAuthzReqMessageContext authorizationContext)
+            throws IdentityOAuth2Exception {
+
+        String clientID = null;
+        Object resolvedSignatureAlgorithm = null;
+        if (authorizationContext != null) {
+            clientID = authorizationContext.getAuthorizationReqDTO().getConsumerKey();
+            resolvedSignatureAlgorithm = authorizationContext.getProperty(TOKEN_SIGNATURE_ALGORITHM);
+        } else if (tokenContext != null) {
+            clientID = tokenContext.getOauth2AccessTokenReqDTO().getClientId();
+            resolvedSignatureAlgorithm = tokenContext.getProperty(TOKEN_SIGNATURE_ALGORITHM);
+        }
+        if (resolvedSignatureAlgorithm instanceof JWSAlgorithm) {
+            return (JWSAlgorithm) resolvedSignatureAlgorithm;
+        }
+
+        JWSAlgorithm jwsAlgorithm = (JWSAlgorithm) signatureAlgorithm;
+        if (StringUtils.isNotBlank(clientID)) {
+            String spSignatureAlgorithm;
+            try {
+                spSignatureAlgorithm = OAuth2Util.getAppInformationByClientId(clientID).getTokenSignatureAlgorithm();
+            } catch (InvalidOAuthClientException e) {
+                throw new IdentityOAuth2Exception("Error occurred while getting the application information by client" +
+                        " id: " + clientID, e);
+            }
+            if (StringUtils.isNotBlank(spSignatureAlgorithm)) {
+                jwsAlgorithm = mapSignatureAlgorithm(spSignatureAlgorithm);
+            }
+        }
+        if (authorizationContext != null) {
+            authorizationContext.addProperty(TOKEN_SIGNATURE_ALGORITHM, jwsAlgorithm);
+        } else if (tokenContext != null) {
+            tokenContext.addProperty(TOKEN_SIGNATURE_ALGORITHM, jwsAlgorithm);
+        }
+        return jwsAlgorithm;
+    }
+
     /**
      * Resolve the tenant domain to sign the request based on OAuthTokenReqMessageContext and
      * OAuthAuthzReqMessageContext values.
@@ -328,28 +371,15 @@ public class JWTTokenIssuer extends OauthTokenIssuerImpl {
     protected String signJWTWithRSA(JWTClaimsSet jwtClaimsSet, OAuthTokenReqMessageContext tokenContext,
                                     OAuthAuthzReqMessageContext authorizationContext) throws IdentityOAuth2Exception {
 
-        try {
-            String tenantDomain = resolveSigningTenantDomain(tokenContext, authorizationContext);
-            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-
-            // Add claim with signer tenant to jwt claims set.
-            jwtClaimsSet = setSignerRealm(tenantDomain, jwtClaimsSet);
-
-            Key privateKey = getPrivateKey(tenantDomain, tenantId);
-            JWSSigner signer = OAuth2Util.createJWSSigner((RSAPrivateKey) privateKey);
-            JWSHeader.Builder headerBuilder = new JWSHeader.Builder((JWSAlgorithm) signatureAlgorithm);
-            String certThumbPrint = OAuth2Util.getThumbPrint(tenantDomain, tenantId);
-            headerBuilder.keyID(OAuth2Util.getKID(OAuth2Util.getCertificate(tenantDomain, tenantId),
-                    (JWSAlgorithm) signatureAlgorithm, tenantDomain));
-            // Set the required "typ" header "at+jwt" for access tokens issued by the issuer
-            headerBuilder.type(new JOSEObjectType(DEFAULT_TYP_HEADER_VALUE));
-            headerBuilder.x509CertThumbprint(new Base64URL(certThumbPrint));
-            SignedJWT signedJWT = new SignedJWT(headerBuilder.build(), jwtClaimsSet);
-            signedJWT.sign(signer);
-            return signedJWT.serialize();
-        } catch (JOSEException e) {
-            throw new IdentityOAuth2Exception("Error occurred while signing JWT", e);
-        }
+        String tenantDomain = resolveSigningTenantDomain(tokenContext, authorizationContext);
+
+        // Add claim with signer tenant to jwt claims set.
+        jwtClaimsSet = setSignerRealm(tenantDomain, jwtClaimsSet);
+
+        JWSAlgorithm jwsAlgorithm = resolveSignatureAlgorithm(tokenContext, authorizationContext);
+        // Set the required "typ" header "at+jwt" for access tokens issued by the issuer
+        return TenantSigningKeyRegistry.getInstance().getSigningKey(tenantDomain, jwsAlgorithm)
+                .sign(jwtClaimsSet, ACCESS_TOKEN_TYP_HEADER).serialize();
     }
 
     // TODO: Implement JWT signing with HMAC SHA (SHA-256, SHA-384, SHA-512).
@@ -361,13 +391,29 @@ public class JWTTokenIssuer extends OauthTokenIssuerImpl {
                 "by the current implementation.");
     }
 
-    // TODO: Implement JWT signing with ECDSA (SHA-256, SHA-384, SHA-512).
+    /**
+     * Sign the JWT token with ECDSA (SHA-256, SHA-384, SHA-512) algorithm. The signing key of the tenant must be an
+     * EC key of the curve matching the algorithm.
+     *
+     * @param jwtClaimsSet         JWT claim set to be signed.
+     * @param tokenContext         Token context if available.
+     * @param authorizationContext Authorization context if available.
+     * @return Signed JWT token.
+     * @throws IdentityOAuth2Exception If the signing key of the tenant is not an EC key or signing fails.
+     */
     protected String signJWTWithECDSA(JWTClaimsSet jwtClaimsSet,
                                       OAuthTokenReqMessageContext tokenContext,
                                       OAuthAuthzReqMessageContext authorizationContext) throws IdentityOAuth2Exception {
 
-        throw new IdentityOAuth2Exception("Given signature algorithm " + signatureAlgorithm + " is not supported " +
-                "by the current implementation.");
+        String tenantDomain = resolveSigningTenantDomain(tokenContext, authorizationContext);
+
+        // Add claim with signer tenant to jwt claims set.
+        jwtClaimsSet = setSignerRealm(tenantDomain, jwtClaimsSet);
+
+        JWSAlgorithm jwsAlgorithm = resolveSignatureAlgorithm(tokenContext, authorizationContext);
+        // Set the required "typ" header "at+jwt" for access tokens issued by the issuer
+        return TenantSigningKeyRegistry.getInstance().getSigningKey(tenantDomain, jwsAlgorithm)
+                .sign(jwtClaimsSet, ACCESS_TOKEN_TYP_HEADER).serialize();
     }
 
     /**
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2ServerException;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded set of striped locks used to serialize token issuance and revocation of the same
+ * client/user/scope/binding combination.
+ * <p>
+ * Keys are mapped onto a fixed number of {@link ReentrantLock} stripes, so the memory used is independent of the
+ * number of distinct combinations, unlike synchronizing on interned strings. Unrelated keys may share a stripe, which
+ * only costs some extra contention. Optionally, lock acquisition can be bounded by a timeout so that a slow database
+ * cannot pile up request threads indefinitely.
+ */
+public class TokenIssuanceLockManager {
+
+    private static final Log log = LogFactory.getLog(TokenIssuanceLockManager.class);
+
+    private static final String LOCK_STRIPE_COUNT = "OAuth.TokenIssuanceLock.StripeCount";
+    private static final String LOCK_TIMEOUT = "OAuth.TokenIssuanceLock.Timeout";
+
+    private static final int DEFAULT_STRIPE_COUNT = 1024;
+    private static final int MAX_STRIPE_COUNT = 1 << 16;
+
+    private static volatile TokenIssuanceLockManager instance;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong contendedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final AtomicLong totalWaitTimeMillis = new AtomicLong();
+    private final AtomicLong maxWaitTimeMillis = new AtomicLong();
+
+    TokenIssuanceLockManager(int stripeCount, long timeoutMillis) {
+
+        int size = 1;
+        while (size < stripeCount && size < MAX_STRIPE_COUNT) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public static TokenIssuanceLockManager getInstance() {
+
+        if (instance == null) {
+            synchronized (TokenIssuanceLockManager.class) {
+                if (instance == null) {
+                    int stripeCount = IdentityConfigUtils.getPositiveIntProperty(LOCK_STRIPE_COUNT,
+                            DEFAULT_STRIPE_COUNT);
+                    long timeoutMillis = IdentityConfigUtils.getLongProperty(LOCK_TIMEOUT, 0, 0);
+                    instance = new TokenIssuanceLockManager(stripeCount, timeoutMillis);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Token issuance lock manager initialized with " + instance.stripes.length +
+                                " stripes and lock timeout: " + timeoutMillis + "ms");
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Acquire the lock of the given key. The returned lock must be released by the caller in a finally block.
+     *
+     * @param key Key identifying the client/user/scope/binding combination.
+     * @return The acquired lock.
+     * @throws IdentityOAuth2ServerException If the lock could not be acquired within the configured timeout or the
+     *                                       thread was interrupted while waiting.
+     */
+    public Lock acquire(String key) throws IdentityOAuth2ServerException {
+
+        ReentrantLock lock = getStripe(key);
+        if (lock.tryLock()) {
+            acquiredCount.incrementAndGet();
+            return lock;
+        }
+
+        contendedCount.incrementAndGet();
+        long start = System.currentTimeMillis();
+        try {
+            if (timeoutMillis > 0) {
+                if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    timedOutCount.incrementAndGet();
+                    throw new IdentityOAuth2ServerException("Timed out after " + timeoutMillis + "ms while " +
+                            "waiting for the token issuance lock.");
+                }
+            } else {
+                lock.lockInterruptibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdentityOAuth2ServerException("Interrupted while waiting for the token issuance lock.", e);
+        } finally {
+            recordWaitTime(System.currentTimeMillis() - start);
+        }
+        acquiredCount.incrementAndGet();
+        return lock;
+    }
+
+    public int getStripeCount() {
+
+        return stripes.length;
+    }
+
+    public long getAcquiredCount() {
+
+        return acquiredCount.get();
+    }
+
+    public long getContendedCount() {
+
+        return contendedCount.get();
+    }
+
+    public long getTimedOutCount() {
+
+        return timedOutCount.get();
+    }
+
+    public long getAverageWaitTimeMillis() {
+
+        long contended = contendedCount.get();
+        return contended == 0 ? 0 : totalWaitTimeMillis.get() / contended;
+    }
+
+    public long getMaxWaitTimeMillis() {
+
+        return maxWaitTimeMillis.get();
+    }
+
+    ReentrantLock getStripe(String key) {
+
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the higher bits, as only the lower bits select the stripe.
+        hash ^= (hash >>> 16);
+        return stripes[hash & mask];
+    }
+
+    private void recordWaitTime(long waitTimeMillis) {
+
+        totalWaitTimeMillis.addAndGet(waitTimeMillis);
+        maxWaitTimeMillis.accumulateAndGet(waitTimeMillis, Math::max);
+        if (log.isDebugEnabled()) {
+            log.debug("Waited " + waitTimeMillis + "ms for the token issuance lock.");
+        }
+    }
+}
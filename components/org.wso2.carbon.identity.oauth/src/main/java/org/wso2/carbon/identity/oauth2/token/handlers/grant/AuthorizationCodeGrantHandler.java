@@ -37,6 +37,7 @@ import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
 import org.wso2.carbon.identity.oauth.event.OAuthEventInterceptor;
 import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationCodeStore;
 import org.wso2.carbon.identity.oauth2.dao.AuthorizationCodeValidationResult;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
@@ -247,8 +248,9 @@ public class AuthorizationCodeGrantHandler extends AbstractAuthorizationGrantHan
     private AuthzCodeDO getPersistedAuthzCode(OAuth2AccessTokenReqDTO tokenReqDTO) throws IdentityOAuth2Exception {
 
         AuthzCodeDO authzCodeDO;
-        // If cache is enabled, check in the cache first.
-        if (cacheEnabled) {
+        // If cache is enabled, check in the cache first. The in-memory code store is not bypassed, since it is what
+        // enforces single use of the code.
+        if (cacheEnabled && !AuthorizationCodeStore.getInstance().isEnabled()) {
             OAuthCacheKey cacheKey = new OAuthCacheKey(OAuth2Util.buildCacheKeyStringForAuthzCode(
                     tokenReqDTO.getClientId(), tokenReqDTO.getAuthorizationCode()));
             authzCodeDO = (AuthzCodeDO) OAuthCache.getInstance().getValueFromCache(cacheKey);
@@ -604,7 +606,7 @@ public class AuthorizationCodeGrantHandler extends AbstractAuthorizationGrantHan
             OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
                     OAuth2Util.buildScopeString(accessTokenDO.getScope()));
             OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
-            OAuthUtil.clearOAuthCache(accessTokenDO.getAccessToken());
+            OAuthUtil.clearOAuthCacheByAccessToken(accessTokenDO.getAccessToken());
 
             if (log.isDebugEnabled()) {
                 log.debug("The access token issued for client " + accessTokenDO.getConsumerKey() +
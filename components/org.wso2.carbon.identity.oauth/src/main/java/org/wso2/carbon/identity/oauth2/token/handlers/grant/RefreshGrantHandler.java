@@ -27,6 +27,7 @@ import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 import org.wso2.carbon.identity.application.authentication.framework.exception.UserIdNotFoundException;
 import org.wso2.carbon.identity.base.IdentityConstants;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCache;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheEntry;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheKey;
@@ -50,6 +51,7 @@ import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.validators.RevokedTokenRegistry;
 import org.wso2.carbon.identity.openidconnect.OIDCClaimUtil;
 
 import java.sql.Timestamp;
@@ -330,6 +332,7 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
                 .invalidateAndCreateNewAccessToken(oldAccessToken.getTokenId(),
                         OAuthConstants.TokenStates.TOKEN_STATE_INACTIVE, clientId,
                         UUID.randomUUID().toString(), accessTokenBean, userStoreDomain, oldAccessToken.getGrantType());
+        RevokedTokenRegistry.getInstance().addRevokedAccessToken(oldAccessToken.getAccessToken());
         updateCacheIfEnabled(tokReqMsgCtx, accessTokenBean, clientId, oldAccessToken);
     }
 
@@ -351,11 +354,11 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
             String cacheKeyString = buildCacheKeyStringForTokenWithUserId(clientId, scope, userId,
                     authenticatedIDP, oldAccessToken.getTokenBindingReference());
             OAuthCacheKey oauthCacheKey = new OAuthCacheKey(cacheKeyString);
+            // The entry is cleared before it is replaced, as clearing is what invalidates it across the cluster.
             OAuthCache.getInstance().clearCacheEntry(oauthCacheKey, accessTokenBean.getAuthzUser().getTenantDomain());
 
             // Remove old access token from the AccessTokenCache
-            OAuthCacheKey accessTokenCacheKey = new OAuthCacheKey(oldAccessToken.getAccessToken());
-            OAuthCache.getInstance().clearCacheEntry(accessTokenCacheKey,
+            OAuthUtil.clearOAuthCacheByAccessToken(oldAccessToken.getAccessToken(),
                     oldAccessToken.getAuthorizedUser().getTenantDomain());
             AccessTokenDO tokenToCache = AccessTokenDO.clone(accessTokenBean);
             OauthTokenIssuer oauthTokenIssuer;
@@ -367,10 +370,10 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
                         "Error while retrieving oauth issuer for the app with clientId: " +
                         tokReqMsgCtx.getOauth2AccessTokenReqDTO().getClientId(), e);
             }
+            String persistedTokenIdentifier = null;
             if (oauthTokenIssuer.usePersistedAccessTokenAlias()) {
                 try {
-                    String persistedTokenIdentifier =
-                            oauthTokenIssuer.getAccessTokenHash(accessTokenBean.getAccessToken());
+                    persistedTokenIdentifier = oauthTokenIssuer.getAccessTokenHash(accessTokenBean.getAccessToken());
                     tokenToCache.setAccessToken(persistedTokenIdentifier);
                 } catch (OAuthSystemException e) {
                     if (log.isDebugEnabled()) {
@@ -388,8 +391,13 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
             // Add new access token to the OAuthCache
             OAuthCache.getInstance().addToCache(oauthCacheKey, tokenToCache);
 
-            // Add new access token to the AccessTokenCache
-            OAuth2Util.addTokenDOtoCache(accessTokenBean);
+            // Add new access token to the AccessTokenCache. The token alias is reused when it is already resolved.
+            if (persistedTokenIdentifier != null) {
+                OAuthCache.getInstance().addToCache(new OAuthCacheKey(persistedTokenIdentifier),
+                        AccessTokenDO.clone(tokenToCache));
+            } else {
+                OAuth2Util.addTokenDOtoCache(accessTokenBean);
+            }
 
             if (log.isDebugEnabled()) {
                 log.debug("Access Token info for the refresh token was added to the cache for " +
@@ -473,8 +481,7 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
         OAuthCache.getInstance().clearCacheEntry(oauthCacheKey, tenantDomain);
 
         // Remove the old access token from the AccessTokenCache
-        OAuthCacheKey accessTokenCacheKey = new OAuthCacheKey(accessToken);
-        OAuthCache.getInstance().clearCacheEntry(accessTokenCacheKey, tenantDomain);
+        OAuthUtil.clearOAuthCacheByAccessToken(accessToken, tenantDomain);
     }
 
     private boolean isRefreshTokenExpired(RefreshTokenValidationDataDO validationBean) {
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+/**
+ * A util class to read the numeric properties configured in identity.xml. A value which is not a number or which is
+ * below the allowed minimum is logged and replaced by the default value.
+ */
+public class IdentityConfigUtils {
+
+    private static final Log log = LogFactory.getLog(IdentityConfigUtils.class);
+
+    private IdentityConfigUtils() {
+
+    }
+
+    /**
+     * Get a positive integer property.
+     *
+     * @param propertyName Name of the property.
+     * @param defaultValue Value to use if the property is not configured or is invalid.
+     * @return Configured value, or the default value.
+     */
+    public static int getPositiveIntProperty(String propertyName, int defaultValue) {
+
+        return getIntProperty(propertyName, defaultValue, 1);
+    }
+
+    /**
+     * Get an integer property which is not less than the given minimum.
+     *
+     * @param propertyName Name of the property.
+     * @param defaultValue Value to use if the property is not configured or is invalid.
+     * @param minValue     Minimum allowed value.
+     * @return Configured value, or the default value.
+     */
+    public static int getIntProperty(String propertyName, int defaultValue, int minValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int parsedValue = Integer.parseInt(value.trim());
+            if (parsedValue >= minValue) {
+                return parsedValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall back to the default value below.
+        }
+        logInvalidValue(propertyName, value, defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * Get a positive long property.
+     *
+     * @param propertyName Name of the property.
+     * @param defaultValue Value to use if the property is not configured or is invalid.
+     * @return Configured value, or the default value.
+     */
+    public static long getPositiveLongProperty(String propertyName, long defaultValue) {
+
+        return getLongProperty(propertyName, defaultValue, 1);
+    }
+
+    /**
+     * Get a long property which is not less than the given minimum.
+     *
+     * @param propertyName Name of the property.
+     * @param defaultValue Value to use if the property is not configured or is invalid.
+     * @param minValue     Minimum allowed value.
+     * @return Configured value, or the default value.
+     */
+    public static long getLongProperty(String propertyName, long defaultValue, long minValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            long parsedValue = Long.parseLong(value.trim());
+            if (parsedValue >= minValue) {
+                return parsedValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall back to the default value below.
+        }
+        logInvalidValue(propertyName, value, defaultValue);
+        return defaultValue;
+    }
+
+    private static void logInvalidValue(String propertyName, String value, Object defaultValue) {
+
+        log.warn("Invalid value: " + value + " configured for " + propertyName + ". Using the default value: " +
+                defaultValue);
+    }
+}
@@ -22,17 +22,71 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Prepared statement with named indexes.
+ * <p>
+ * The named placeholders of a query are parsed once and the parsed query is cached, so that preparing the same query
+ * again does not parse it again. Only a bounded number of distinct queries is cached, as the queries are expected to
+ * be constants.
  */
 public class NamedPreparedStatement {
 
+    private static final int MAX_CACHED_QUERIES = 512;
+    private static final Map<String, ParsedQuery> PARSED_QUERIES = new ConcurrentHashMap<>();
+
     private PreparedStatement preparedStatement;
-    private List<String> fields = new ArrayList<>();
+    private Map<String, Integer> indexes;
+
+    /**
+     * Query split into the literal parts and the named placeholders in between.
+     */
+    private static final class ParsedQuery {
+
+        private final List<String> literals;
+        private final List<String> fields;
+        private final Map<String, Integer> indexes;
+        private final String query;
+
+        ParsedQuery(List<String> literals, List<String> fields) {
+
+            this.literals = literals;
+            this.fields = fields;
+            Map<String, Integer> fieldIndexes = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                fieldIndexes.putIfAbsent(fields.get(i), i + 1);
+            }
+            this.indexes = Collections.unmodifiableMap(fieldIndexes);
+            this.query = buildQuery(Collections.emptyMap());
+        }
+
+        /**
+         * Build the query with each named placeholder replaced by the given number of positional placeholders.
+         */
+        String buildQuery(Map<String, Integer> repetition) {
+
+            if (repetition.isEmpty() && query != null) {
+                return query;
+            }
+            StringBuilder builder = new StringBuilder(literals.get(0));
+            for (int i = 0; i < fields.size(); i++) {
+                builder.append(" ?");
+                Integer count = repetition.get(fields.get(i));
+                if (count != null) {
+                    for (int j = 0; j < count - 1; j++) {
+                        builder.append(", ?");
+                    }
+                }
+                builder.append(' ').append(literals.get(i + 1));
+            }
+            return builder.toString();
+        }
+    }
 
     /**
      * Create a named prepared statement with repeated indexes.
@@ -45,29 +99,9 @@ public class NamedPreparedStatement {
     public NamedPreparedStatement(Connection connection, String sqlQuery, Map<String, Integer> repetition)
             throws SQLException {
 
-        int pos;
-        while ((pos = sqlQuery.indexOf(":")) != -1) {
-
-            int end = sqlQuery.substring(pos).indexOf(";");
-            if (end == -1) {
-                throw new SQLException("Cannot find the end of the placeholder.");
-            } else {
-                end += pos;
-            }
-
-            fields.add(sqlQuery.substring(pos + 1, end));
-            StringBuilder builder = new StringBuilder("?");
-
-            if (repetition.get(sqlQuery.substring(pos + 1, end)) != null) {
-                for (int i = 0; i < repetition.get(sqlQuery.substring(pos + 1, end)) - 1; i++) {
-                    builder.append(", ?");
-                }
-            }
-
-            sqlQuery = String.format("%s %s %s", sqlQuery.substring(0, pos), builder.toString(),
-                    sqlQuery.substring(end + 1));
-        }
-        preparedStatement = connection.prepareStatement(sqlQuery);
+        ParsedQuery parsedQuery = getParsedQuery(sqlQuery);
+        indexes = parsedQuery.indexes;
+        preparedStatement = connection.prepareStatement(parsedQuery.buildQuery(repetition));
     }
 
     /**
@@ -174,6 +208,41 @@ public class NamedPreparedStatement {
 
     private int getIndex(String name) {
 
-        return fields.indexOf(name) + 1;
+        Integer index = indexes.get(name);
+        return index == null ? 0 : index;
+    }
+
+    private static ParsedQuery getParsedQuery(String sqlQuery) throws SQLException {
+
+        ParsedQuery parsedQuery = PARSED_QUERIES.get(sqlQuery);
+        if (parsedQuery == null) {
+            parsedQuery = parse(sqlQuery);
+            if (PARSED_QUERIES.size() < MAX_CACHED_QUERIES) {
+                PARSED_QUERIES.putIfAbsent(sqlQuery, parsedQuery);
+            }
+        }
+        return parsedQuery;
+    }
+
+    /**
+     * Split the query at the <code>:name;</code> placeholders.
+     */
+    private static ParsedQuery parse(String sqlQuery) throws SQLException {
+
+        List<String> literals = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        int start = 0;
+        int pos;
+        while ((pos = sqlQuery.indexOf(':', start)) != -1) {
+            int end = sqlQuery.indexOf(';', pos);
+            if (end == -1) {
+                throw new SQLException("Cannot find the end of the placeholder.");
+            }
+            literals.add(sqlQuery.substring(start, pos));
+            fields.add(sqlQuery.substring(pos + 1, end));
+            start = end + 1;
+        }
+        literals.add(sqlQuery.substring(start));
+        return new ParsedQuery(Collections.unmodifiableList(literals), Collections.unmodifiableList(fields));
     }
 }
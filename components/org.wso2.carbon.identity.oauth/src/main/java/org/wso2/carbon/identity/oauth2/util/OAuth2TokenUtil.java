@@ -28,6 +28,7 @@ import org.wso2.carbon.identity.event.services.IdentityEventService;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCache;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheEntry;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheKey;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
 import org.wso2.carbon.identity.openidconnect.OIDCConstants;
@@ -157,12 +158,31 @@ public class OAuth2TokenUtil {
     public static void postRefreshAccessToken(String oldAcessTokenId, String acessTokenId, String tokenState,
                                               boolean isRequestObjectFlow) throws IdentityOAuth2Exception {
 
+        postRefreshAccessToken(oldAcessTokenId, acessTokenId, tokenState, isRequestObjectFlow, false);
+    }
+
+    /**
+     * Uses to update the request object related tables after an access token is refreshed.
+     *
+     * @param oldAcessTokenId               id of the refreshed token
+     * @param acessTokenId                  id of the new token
+     * @param tokenState                    state of the refreshed token
+     * @param isRequestObjectFlow           whether the token may have a request object reference
+     * @param isRequestObjectReferenceMoved whether the request object reference is already moved to the new token
+     *                                      along with the token refresh
+     * @throws IdentityOAuth2Exception
+     */
+    public static void postRefreshAccessToken(String oldAcessTokenId, String acessTokenId, String tokenState,
+                                              boolean isRequestObjectFlow, boolean isRequestObjectReferenceMoved)
+            throws IdentityOAuth2Exception {
+
         String eventName;
         HashMap<String, Object> properties = new HashMap<>();
         if (StringUtils.isNotBlank(acessTokenId)) {
             properties.put(OLD_ACCESS_TOKEN, oldAcessTokenId);
             properties.put(NEW_ACCESS_TOKEN, acessTokenId);
             properties.put(IS_REQUEST_OBJECT_FLOW, isRequestObjectFlow);
+            properties.put(OIDCConstants.Event.IS_REQUEST_OBJECT_REFERENCE_MOVED, isRequestObjectReferenceMoved);
         }
         eventName = OIDCConstants.Event.POST_REFRESH_TOKEN;
         triggerEvent(eventName, properties);
@@ -200,15 +220,25 @@ public class OAuth2TokenUtil {
     public static void postRevokeCode(String codeId, String tokenState, String tokenId, String authorizationCode)
             throws IdentityOAuth2Exception {
 
-        boolean isRequestObjectFlow = true;
-        if (StringUtils.isNotBlank(authorizationCode)) {
-            AuthorizationGrantCacheKey cacheKey = new AuthorizationGrantCacheKey(authorizationCode);
-            AuthorizationGrantCacheEntry cacheEntry =
-                    AuthorizationGrantCache.getInstance().getValueFromCacheByCode(cacheKey);
-            if (cacheEntry != null) {
-                isRequestObjectFlow = cacheEntry.isRequestObjectFlow();
-            }
-        }
+        postRevokeCode(codeId, tokenState, tokenId, authorizationCode, false);
+    }
+
+    /**
+     * Uses to revoke codes from the request object related tables after token revocation
+     * happens from access token related tables.
+     *
+     * @param codeId                        code id
+     * @param tokenState                    state of the code
+     * @param tokenId                       id of the token issued for the code
+     * @param authorizationCode             authorization code
+     * @param isRequestObjectReferenceMoved whether the request object reference of the code is already moved to the
+     *                                      token along with the code deactivation
+     * @throws IdentityOAuth2Exception
+     */
+    public static void postRevokeCode(String codeId, String tokenState, String tokenId, String authorizationCode,
+                                      boolean isRequestObjectReferenceMoved) throws IdentityOAuth2Exception {
+
+        boolean isRequestObjectFlow = isRequestObjectFlowCode(authorizationCode);
         String eventName = null;
         HashMap<String, Object> properties = new HashMap<>();
         if (StringUtils.isNotBlank(codeId)) {
@@ -216,12 +246,39 @@ public class OAuth2TokenUtil {
             properties.put(OIDCConstants.Event.TOKEN_ID, tokenId);
             properties.put(OIDCConstants.Event.CODE_ID, codeId);
             properties.put(OIDCConstants.Event.IS_REQUEST_OBJECT_FLOW, isRequestObjectFlow);
+            properties.put(OIDCConstants.Event.IS_REQUEST_OBJECT_REFERENCE_MOVED, isRequestObjectReferenceMoved);
             eventName = OIDCConstants.Event.POST_REVOKE_CODE_BY_ID;
         }
 
         triggerEvent(eventName, properties);
     }
 
+    /**
+     * Checks whether the request object reference of an authorization code has to be maintained, i.e. request
+     * objects are enabled and the code was not issued for a request without a request object.
+     *
+     * @param authorizationCode authorization code
+     * @return true if the request object reference of the code has to be maintained
+     */
+    public static boolean isRequestObjectFlow(String authorizationCode) {
+
+        return OAuthServerConfiguration.getInstance().isRequestObjectEnabled() &&
+                isRequestObjectFlowCode(authorizationCode);
+    }
+
+    private static boolean isRequestObjectFlowCode(String authorizationCode) {
+
+        if (StringUtils.isNotBlank(authorizationCode)) {
+            AuthorizationGrantCacheKey cacheKey = new AuthorizationGrantCacheKey(authorizationCode);
+            AuthorizationGrantCacheEntry cacheEntry =
+                    AuthorizationGrantCache.getInstance().getValueFromCacheByCode(cacheKey);
+            if (cacheEntry != null) {
+                return cacheEntry.isRequestObjectFlow();
+            }
+        }
+        return true;
+    }
+
     /**
      * Uses to revoke codes from the request object related tables after token revocation
      * happens from access token related tables.
@@ -26,13 +26,15 @@ import com.nimbusds.jose.JWEEncrypter;
 import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWEObject;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSSigner;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jose.crypto.RSAEncrypter;
 import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
@@ -91,6 +93,7 @@ import org.wso2.carbon.identity.oauth.cache.AppInfoCache;
 import org.wso2.carbon.identity.oauth.cache.CacheEntry;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
+import org.wso2.carbon.identity.oauth.cache.VerifiedClientSecretCache;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
@@ -121,6 +124,7 @@ import org.wso2.carbon.identity.oauth2.dto.OAuthRevocationRequestDTO;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.identity.oauth2.model.ClientCredentialDO;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.oauth2.token.JWTTokenIssuer;
 import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
 import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
@@ -156,26 +160,32 @@ import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -327,8 +337,8 @@ public class OAuth2Util {
     // System flag to allow the weak keys (key length less than 2048) to be used for the signing.
     private static final String ALLOW_WEAK_RSA_SIGNER_KEY = "allow_weak_rsa_signer_key";
 
-    private static Map<Integer, Certificate> publicCerts = new ConcurrentHashMap<Integer, Certificate>();
-    private static Map<Integer, Key> privateKeys = new ConcurrentHashMap<Integer, Key>();
+    private static ConcurrentMap<Integer, Certificate> publicCerts = new ConcurrentHashMap<Integer, Certificate>();
+    private static ConcurrentMap<Integer, Key> privateKeys = new ConcurrentHashMap<Integer, Key>();
 
     // Supported Signature Algorithms
     private static final String NONE = "NONE";
@@ -530,15 +540,26 @@ public class OAuth2Util {
             }
         } else {
             TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
-            // We convert the provided client_secret to the processed form stored in the DB.
-            String processedProvidedClientSecret = persistenceProcessor.getProcessedClientSecret(clientSecretProvided);
-
-            if (!StringUtils.equals(appClientSecret, processedProvidedClientSecret)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Provided the Client ID : " + clientId +
-                            " and Client Secret do not match with the issued credentials.");
+            // Skip processing the provided client_secret if it was recently verified against the stored secret. A
+            // plain text secret is compared as it is, hence it is not worth caching.
+            boolean isProcessedSecret = !(persistenceProcessor instanceof PlainTextPersistenceProcessor);
+            VerifiedClientSecretCache verifiedClientSecretCache = VerifiedClientSecretCache.getInstance();
+            if (!isProcessedSecret ||
+                    !verifiedClientSecretCache.isVerified(clientId, clientSecretProvided, appClientSecret)) {
+                // We convert the provided client_secret to the processed form stored in the DB.
+                String processedProvidedClientSecret =
+                        persistenceProcessor.getProcessedClientSecret(clientSecretProvided);
+
+                if (!StringUtils.equals(appClientSecret, processedProvidedClientSecret)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Provided the Client ID : " + clientId +
+                                " and Client Secret do not match with the issued credentials.");
+                    }
+                    return false;
+                }
+                if (isProcessedSecret) {
+                    verifiedClientSecretCache.addVerified(clientId, clientSecretProvided, appClientSecret);
                 }
-                return false;
             }
         }
 
@@ -840,17 +861,7 @@ public class OAuth2Util {
         // TreeMap is used to ignore the case sensitivity of key. Because when user logged in, the case of the
         // username is ignored.
         Map<String, String> userStoreDomainMap = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
-        String domainsStr = getAccessTokenPartitioningDomains();
-        if (domainsStr != null) {
-            String[] userStoreDomainsArr = domainsStr.split(",");
-            for (String userStoreDomains : userStoreDomainsArr) {
-                String[] mapping = userStoreDomains.trim().split(":"); //A:foo.com , B:bar.com
-                if (mapping.length < 2) {
-                    throw new IdentityOAuth2Exception("Domain mapping has not defined correctly");
-                }
-                userStoreDomainMap.put(mapping[1].trim(), mapping[0].trim()); //key=domain & value=mapping
-            }
-        }
+        userStoreDomainMap.putAll(PartitionedSqlRegistry.getInstance().getUserStoreDomainMappings());
         return userStoreDomainMap;
     }
 
@@ -866,7 +877,8 @@ public class OAuth2Util {
 
         String mappedUserStoreDomain = userStoreDomain;
 
-        Map<String, String> availableDomainMappings = OAuth2Util.getAvailableUserStoreDomainMappings();
+        Map<String, String> availableDomainMappings =
+                PartitionedSqlRegistry.getInstance().getUserStoreDomainMappings();
         if (userStoreDomain != null && availableDomainMappings.containsKey(userStoreDomain)) {
             mappedUserStoreDomain = availableDomainMappings.get(userStoreDomain);
         }
@@ -888,10 +900,11 @@ public class OAuth2Util {
     public static String getPartitionedTableByUserStore(String tableName, String userStoreDomain)
             throws IdentityOAuth2Exception {
 
-        if (StringUtils.isNotBlank(tableName) && StringUtils.isNotBlank(userStoreDomain) &&
-                !IdentityUtil.getPrimaryDomainName().equalsIgnoreCase(userStoreDomain)) {
-            String mappedUserStoreDomain = OAuth2Util.getMappedUserStoreDomain(userStoreDomain);
-            tableName = tableName + "_" + mappedUserStoreDomain;
+        if (StringUtils.isNotBlank(tableName)) {
+            String tableSuffix = PartitionedSqlRegistry.getInstance().getTableSuffix(userStoreDomain);
+            if (tableSuffix != null) {
+                tableName = tableName + "_" + tableSuffix;
+            }
         }
 
         return tableName;
@@ -902,7 +915,9 @@ public class OAuth2Util {
      * or the original sql otherwise.
      * <p>
      * Updated sql derived by replacing original table names IDN_OAUTH2_ACCESS_TOKEN & IDN_OAUTH2_ACCESS_TOKEN_SCOPE
-     * with the updated table names which derived using {@code getPartitionedTableByUserStore()} method.
+     * with the updated table names which derived using {@code getPartitionedTableByUserStore()} method. The
+     * partitioned variants of the queries in {@link org.wso2.carbon.identity.oauth2.dao.SQLQueries} are precomputed
+     * by the {@link PartitionedSqlRegistry}.
      *
      * @param sql
      * @param userStoreDomain
@@ -916,26 +931,10 @@ public class OAuth2Util {
 
         if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
 
-            String partitionedAccessTokenTable = OAuth2Util.getPartitionedTableByUserStore(OAuthConstants.
-                    ACCESS_TOKEN_STORE_TABLE, userStoreDomain);
-
-            String accessTokenScopeTable = "IDN_OAUTH2_ACCESS_TOKEN_SCOPE";
-            String partitionedAccessTokenScopeTable = OAuth2Util.getPartitionedTableByUserStore(accessTokenScopeTable,
-                    userStoreDomain);
-
-            if (log.isDebugEnabled()) {
-                log.debug("PartitionedAccessTokenTable: " + partitionedAccessTokenTable +
-                        " & PartitionedAccessTokenScopeTable: " + partitionedAccessTokenScopeTable +
-                        " for user store domain: " + userStoreDomain);
-            }
-
-            String wordBoundaryRegex = "\\b";
-            partitionedSql = sql.replaceAll(wordBoundaryRegex + OAuthConstants.ACCESS_TOKEN_STORE_TABLE
-                    + wordBoundaryRegex, partitionedAccessTokenTable);
-            partitionedSql = partitionedSql.replaceAll(wordBoundaryRegex + accessTokenScopeTable + wordBoundaryRegex,
-                    partitionedAccessTokenScopeTable);
+            partitionedSql = PartitionedSqlRegistry.getInstance().getTokenPartitionedSql(sql, userStoreDomain);
 
             if (log.isDebugEnabled()) {
+                log.debug("Partitioned SQL for user store domain: " + userStoreDomain);
                 log.debug("Original SQL: " + sql);
                 log.debug("Partitioned SQL: " + partitionedSql);
             }
@@ -1820,8 +1819,8 @@ public class OAuth2Util {
         // we are converting before adding to the cache.
         String processedToken = getPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenIdentifier);
 
-        // check the cache, if caching is enabled.
-        OAuthCacheKey cacheKey = new OAuthCacheKey(accessTokenIdentifier);
+        // check the cache, if caching is enabled. When hashing is enabled, the cache is indexed by the hashed token.
+        OAuthCacheKey cacheKey = new OAuthCacheKey(isHashEnabled() ? processedToken : accessTokenIdentifier);
         CacheEntry result = OAuthCache.getInstance().getValueFromCache(cacheKey);
         // cache hit, do the type check.
         if (result != null && result instanceof AccessTokenDO) {
@@ -1838,8 +1837,16 @@ public class OAuth2Util {
 
         // cache miss, load the access token info from the database.
         if (accessTokenDO == null) {
-            accessTokenDO = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                    .getAccessToken(accessTokenIdentifier, includeExpired);
+            // A token which is cached is read from the primary database, as a stale replica row would be kept in the
+            // cache.
+            boolean cached = OAuthCache.getInstance().isEnabled();
+            ReadReplicaRouter.getInstance().startPrimaryReads(cached);
+            try {
+                accessTokenDO = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                        .getAccessToken(accessTokenIdentifier, includeExpired);
+            } finally {
+                ReadReplicaRouter.getInstance().endPrimaryReads(cached);
+            }
         } else {
             if (log.isDebugEnabled()) {
                 log.debug("Retrieved active access token from OAuthCache for token Identifier: " +
@@ -1852,9 +1859,9 @@ public class OAuth2Util {
             throw new IllegalArgumentException(ACCESS_TOKEN_IS_NOT_ACTIVE_ERROR_MESSAGE);
         }
 
-        // Add the token back to the cache in the case of a cache miss but don't add to cache when OAuth2 token
-        // hashing feature enabled inorder to reduce the complexity.
-        if (!cacheHit & OAuth2Util.isHashDisabled()) {
+        // Add the token back to the cache in the case of a cache miss. Inactive tokens which are read when expired
+        // tokens are included are not cached, as the cache is expected to hold active tokens.
+        if (!cacheHit && OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(accessTokenDO.getTokenState())) {
             OAuthCache.getInstance().addToCache(cacheKey, accessTokenDO);
             if (log.isDebugEnabled()) {
                 log.debug("Access Token Info object was added back to the cache.");
@@ -1864,6 +1871,22 @@ public class OAuth2Util {
         return accessTokenDO;
     }
 
+    /**
+     * Get the OAuthCache key string of an access token. When token hashing is enabled, access token entries are
+     * indexed by the hashed token, which is also the token identifier persisted in the database.
+     *
+     * @param accessTokenIdentifier Plain text access token identifier.
+     * @return Cache key string of the access token.
+     * @throws IdentityOAuth2Exception If an error occurs while hashing the token.
+     */
+    public static String getAccessTokenCacheKeyString(String accessTokenIdentifier) throws IdentityOAuth2Exception {
+
+        if (isHashDisabled()) {
+            return accessTokenIdentifier;
+        }
+        return getPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenIdentifier);
+    }
+
     public static String getClientIdForAccessToken(String accessTokenIdentifier) throws IdentityOAuth2Exception {
 
         AccessTokenDO accessTokenDO = getAccessTokenDOfromTokenIdentifier(accessTokenIdentifier);
@@ -2141,7 +2164,15 @@ public class OAuth2Util {
         if (oAuthAppDO != null) {
             return oAuthAppDO;
         } else {
-            oAuthAppDO = new OAuthAppDAO().getAppInformation(clientId);
+            // An application which is cached is read from the primary database, as a stale replica row would be kept
+            // in the cache.
+            boolean cached = AppInfoCache.getInstance().isEnabled();
+            ReadReplicaRouter.getInstance().startPrimaryReads(cached);
+            try {
+                oAuthAppDO = new OAuthAppDAO().getAppInformation(clientId);
+            } finally {
+                ReadReplicaRouter.getInstance().endPrimaryReads(cached);
+            }
             if (oAuthAppDO != null) {
                 AppInfoCache.getInstance().addToCache(clientId, oAuthAppDO);
             }
@@ -2257,6 +2288,42 @@ public class OAuth2Util {
         }
     }
 
+    /**
+     * Get the ECDSA signature algorithm matching the curve of the given EC key.
+     *
+     * @param publicKey EC public key.
+     * @return ES256, ES384 or ES512 for P-256, P-384 and P-521 keys respectively, null for other curves.
+     */
+    public static JWSAlgorithm getSignatureAlgorithmForECKey(ECPublicKey publicKey) {
+
+        Curve curve = Curve.forECParameterSpec(publicKey.getParams());
+        if (Curve.P_256.equals(curve)) {
+            return JWSAlgorithm.ES256;
+        } else if (Curve.P_384.equals(curve)) {
+            return JWSAlgorithm.ES384;
+        } else if (Curve.P_521.equals(curve)) {
+            return JWSAlgorithm.ES512;
+        }
+        return null;
+    }
+
+    /**
+     * Get the algorithm to sign the ID tokens of the given application. The signature algorithm configured for the
+     * application takes precedence over the server level ID token signature algorithm.
+     *
+     * @param oAuthAppDO OAuth application, if available.
+     * @return Signature algorithm of the ID tokens.
+     * @throws IdentityOAuth2Exception If the signature algorithm is not supported.
+     */
+    public static JWSAlgorithm getIdTokenSignatureAlgorithm(OAuthAppDO oAuthAppDO) throws IdentityOAuth2Exception {
+
+        if (oAuthAppDO != null && StringUtils.isNotBlank(oAuthAppDO.getTokenSignatureAlgorithm())) {
+            return mapSignatureAlgorithmForJWSAlgorithm(oAuthAppDO.getTokenSignatureAlgorithm());
+        }
+        return mapSignatureAlgorithmForJWSAlgorithm(
+                OAuthServerConfiguration.getInstance().getIdTokenSignatureAlgorithm());
+    }
+
     /**
      * This method map signature algorithm define in identity.xml to nimbus
      * signature algorithm
@@ -2371,19 +2438,19 @@ public class OAuth2Util {
                 return false;
             }
             int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-            RSAPublicKey publicKey;
+            PublicKey publicKey;
             KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
 
             if (!tenantDomain.equals(org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
                 String ksName = tenantDomain.trim().replace(".", "-");
                 String jksName = ksName + ".jks";
-                publicKey = (RSAPublicKey) keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain)
+                publicKey = keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain)
                         .getPublicKey();
             } else {
-                publicKey = (RSAPublicKey) keyStoreManager.getDefaultPublicKey();
+                publicKey = keyStoreManager.getDefaultPublicKey();
             }
             SignedJWT signedJWT = SignedJWT.parse(idToken);
-            JWSVerifier verifier = new RSASSAVerifier(publicKey);
+            JWSVerifier verifier = OAuth2Util.createJWSVerifier(publicKey);
 
             return signedJWT.verify(verifier);
         } catch (JOSEException | ParseException e) {
@@ -2829,6 +2896,41 @@ public class OAuth2Util {
         return new RSASSASigner(privateKey, allowWeakKey);
     }
 
+    /**
+     * Create JWSSigner for the given EC private key.
+     *
+     * @param privateKey EC Private key.
+     * @return JWSSigner
+     * @throws IdentityOAuth2Exception If the curve of the key is not supported.
+     */
+    public static JWSSigner createJWSSigner(ECPrivateKey privateKey) throws IdentityOAuth2Exception {
+
+        try {
+            return new ECDSASigner(privateKey);
+        } catch (JOSEException e) {
+            throw new IdentityOAuth2Exception("Error while creating the ECDSA signer. Curve of the private key is " +
+                    "not supported.", e);
+        }
+    }
+
+    /**
+     * Create JWSVerifier for the given public key.
+     *
+     * @param publicKey RSA or EC public key.
+     * @return JWSVerifier
+     * @throws JOSEException If the type or the curve of the key is not supported.
+     */
+    public static JWSVerifier createJWSVerifier(PublicKey publicKey) throws JOSEException {
+
+        if (publicKey instanceof ECPublicKey) {
+            return new ECDSAVerifier((ECPublicKey) publicKey);
+        } else if (publicKey instanceof RSAPublicKey) {
+            return new RSASSAVerifier((RSAPublicKey) publicKey);
+        }
+        throw new JOSEException("Public key of type: " + (publicKey == null ? null : publicKey.getAlgorithm()) +
+                " is not supported for signature verification.");
+    }
+
     /**
      * Generic Signing function
      *
@@ -2849,13 +2951,44 @@ public class OAuth2Util {
             // return signWithHMAC(jwtClaimsSet,jwsAlgorithm,request); implementation need to be done
             throw new RuntimeException("Provided signature algorithm: " + signatureAlgorithm +
                     " is not supported");
+        } else if (JWSAlgorithm.ES256.equals(signatureAlgorithm) || JWSAlgorithm.ES384.equals(signatureAlgorithm) ||
+                JWSAlgorithm.ES512.equals(signatureAlgorithm)) {
+            return signJWTWithECDSA(jwtClaimsSet, signatureAlgorithm, tenantDomain);
         } else {
-            // return signWithEC(jwtClaimsSet,jwsAlgorithm,request); implementation need to be done
             throw new RuntimeException("Provided signature algorithm: " + signatureAlgorithm +
                     " is not supported");
         }
     }
 
+    /**
+     * Sign JWT token from ECDSA algorithm. The signing key of the tenant must be an EC key of the curve matching
+     * the algorithm, i.e. P-256 for ES256, P-384 for ES384 and P-521 for ES512.
+     *
+     * @param jwtClaimsSet       contains JWT body
+     * @param signatureAlgorithm JWT signing algorithm
+     * @param tenantDomain       tenant domain
+     * @return signed JWT token
+     * @throws IdentityOAuth2Exception If the signing key of the tenant is not an EC key or signing fails.
+     */
+    public static JWT signJWTWithECDSA(JWTClaimsSet jwtClaimsSet, JWSAlgorithm signatureAlgorithm,
+                                       String tenantDomain) throws IdentityOAuth2Exception {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+            if (log.isDebugEnabled()) {
+                log.debug("Assign super tenant domain as signing domain.");
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Signing JWT using the algorithm: " + signatureAlgorithm + " & key of the tenant: " +
+                    tenantDomain);
+        }
+
+        return TenantSigningKeyRegistry.getInstance().getSigningKey(tenantDomain, signatureAlgorithm)
+                .sign(jwtClaimsSet);
+    }
+
     /**
      * sign JWT token from RSA algorithm
      *
@@ -2869,37 +3002,26 @@ public class OAuth2Util {
     public static JWT signJWTWithRSA(JWTClaimsSet jwtClaimsSet, JWSAlgorithm signatureAlgorithm, String tenantDomain)
             throws IdentityOAuth2Exception {
 
-        try {
-            if (StringUtils.isBlank(tenantDomain)) {
-                tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
-                if (log.isDebugEnabled()) {
-                    log.debug("Assign super tenant domain as signing domain.");
-                }
-            }
-
+        if (StringUtils.isBlank(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
             if (log.isDebugEnabled()) {
-                log.debug("Signing JWT using the algorithm: " + signatureAlgorithm + " & key of the tenant: " +
-                        tenantDomain);
+                log.debug("Assign super tenant domain as signing domain.");
             }
+        }
 
-            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-            Key privateKey = getPrivateKey(tenantDomain, tenantId);
-            JWSSigner signer = OAuth2Util.createJWSSigner((RSAPrivateKey) privateKey);
-            JWSHeader.Builder headerBuilder = new JWSHeader.Builder((JWSAlgorithm) signatureAlgorithm);
-            headerBuilder.keyID(getKID(getCertificate(tenantDomain, tenantId), signatureAlgorithm, tenantDomain));
-            headerBuilder.x509CertThumbprint(new Base64URL(getThumbPrint(tenantDomain, tenantId)));
-            SignedJWT signedJWT = new SignedJWT(headerBuilder.build(), jwtClaimsSet);
-            signedJWT.sign(signer);
-            return signedJWT;
-        } catch (JOSEException e) {
-            throw new IdentityOAuth2Exception("Error occurred while signing JWT", e);
+        if (log.isDebugEnabled()) {
+            log.debug("Signing JWT using the algorithm: " + signatureAlgorithm + " & key of the tenant: " +
+                    tenantDomain);
         }
+
+        return TenantSigningKeyRegistry.getInstance().getSigningKey(tenantDomain, signatureAlgorithm)
+                .sign(jwtClaimsSet);
     }
 
     public static Key getPrivateKey(String tenantDomain, int tenantId) throws IdentityOAuth2Exception {
 
-        Key privateKey;
-        if (!(privateKeys.containsKey(tenantId))) {
+        Key privateKey = privateKeys.get(tenantId);
+        if (privateKey == null) {
 
             try {
                 IdentityTenantUtil.initializeRegistry(tenantId, tenantDomain);
@@ -2926,15 +3048,27 @@ public class OAuth2Util {
                 }
             }
             //privateKey will not be null always
-            privateKeys.put(tenantId, privateKey);
-        } else {
-            //privateKey will not be null because containsKey() true says given key is exist and ConcurrentHashMap
-            // does not allow to store null values
-            privateKey = privateKeys.get(tenantId);
+            Key existingPrivateKey = privateKeys.putIfAbsent(tenantId, privateKey);
+            if (existingPrivateKey != null) {
+                // Another thread loaded the key in the meantime. Use the same key instance for all the callers.
+                privateKey = existingPrivateKey;
+            }
         }
         return privateKey;
     }
 
+    /**
+     * Remove the cached signing key and certificate of the given tenant, so that they are loaded from the key store
+     * on the next access.
+     *
+     * @param tenantId Tenant id.
+     */
+    public static void clearSigningKeyCache(int tenantId) {
+
+        privateKeys.remove(tenantId);
+        publicCerts.remove(tenantId);
+    }
+
     /**
      * Helper method to add algo into to JWT_HEADER to signature verification.
      *
@@ -3069,9 +3203,9 @@ public class OAuth2Util {
      */
     public static Certificate getCertificate(String tenantDomain, int tenantId) throws IdentityOAuth2Exception {
 
-        Certificate publicCert = null;
+        Certificate publicCert = publicCerts.get(tenantId);
 
-        if (!(publicCerts.containsKey(tenantId))) {
+        if (publicCert == null) {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Obtaining certificate for the tenant %s", tenantDomain));
             }
@@ -3114,10 +3248,11 @@ public class OAuth2Util {
                 }
             }
             if (publicCert != null) {
-                publicCerts.put(tenantId, publicCert);
+                Certificate existingPublicCert = publicCerts.putIfAbsent(tenantId, publicCert);
+                if (existingPublicCert != null) {
+                    publicCert = existingPublicCert;
+                }
             }
-        } else {
-            publicCert = publicCerts.get(tenantId);
         }
         return publicCert;
     }
@@ -3893,6 +4028,82 @@ public class OAuth2Util {
         return accessTokenDO;
     }
 
+    /**
+     * Load the access tokens of the given token identifiers to the OAuthCache, resolving the tokens missing in the
+     * cache with a single database lookup per partition table. Subsequent lookups of the tokens through
+     * {@link #findAccessToken(String, boolean)} are then served from the cache. Tokens of custom token issuers,
+     * tokens which are not active and tokens not found in the database are left to be resolved individually.
+     *
+     * @param tokenIdentifiers Token identifiers.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the access tokens.
+     */
+    public static void loadAccessTokensToCache(Collection<String> tokenIdentifiers) throws IdentityOAuth2Exception {
+
+        if (tokenIdentifiers.isEmpty() || !OAuthCache.getInstance().isEnabled()) {
+            return;
+        }
+
+        Map<String, OauthTokenIssuer> allOAuthTokenIssuerMap = new HashMap<>(
+                OAuthServerConfiguration.getInstance().getOauthTokenIssuerMap());
+        Map<String, OauthTokenIssuer> defaultOAuthTokenIssuerMap = new HashMap<>();
+        extractDefaultOauthTokenIssuers(allOAuthTokenIssuerMap, defaultOAuthTokenIssuerMap);
+
+        // Resolve the identifiers the default token issuers look up the tokens with, as done in findAccessToken.
+        Set<String> persistedTokenIdentifiers = new LinkedHashSet<>();
+        for (String tokenIdentifier : tokenIdentifiers) {
+            if (StringUtils.isBlank(tokenIdentifier)) {
+                continue;
+            }
+            for (OauthTokenIssuer oauthTokenIssuer : defaultOAuthTokenIssuerMap.values()) {
+                if (oauthTokenIssuer == null) {
+                    continue;
+                }
+                String persistedTokenIdentifier = tokenIdentifier;
+                if (oauthTokenIssuer.usePersistedAccessTokenAlias()) {
+                    try {
+                        persistedTokenIdentifier = oauthTokenIssuer.getAccessTokenHash(tokenIdentifier);
+                    } catch (OAuthSystemException e) {
+                        // The token was not issued by this token issuer.
+                        continue;
+                    }
+                }
+                if (persistedTokenIdentifier != null && OAuthCache.getInstance().getValueFromCache(
+                        new OAuthCacheKey(getAccessTokenCacheKeyString(persistedTokenIdentifier))) == null) {
+                    persistedTokenIdentifiers.add(persistedTokenIdentifier);
+                }
+            }
+        }
+        if (persistedTokenIdentifiers.isEmpty()) {
+            return;
+        }
+
+        Map<String, AccessTokenDO> accessTokenDOs;
+        // The tokens are read from the primary database, as stale replica rows would be kept in the cache, which is
+        // enabled when tokens are loaded to it.
+        ReadReplicaRouter.getInstance().startPrimaryReads();
+        try {
+            accessTokenDOs = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .getAccessTokens(persistedTokenIdentifiers, true);
+        } finally {
+            ReadReplicaRouter.getInstance().endPrimaryReads();
+        }
+        int loadedCount = 0;
+        for (Map.Entry<String, AccessTokenDO> entry : accessTokenDOs.entrySet()) {
+            // Only active tokens are cached, as in getAccessTokenDOFromTokenIdentifier. The other tokens are left to
+            // be resolved individually.
+            if (!OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(entry.getValue().getTokenState())) {
+                continue;
+            }
+            OAuthCache.getInstance().addToCache(new OAuthCacheKey(getAccessTokenCacheKeyString(entry.getKey())),
+                    entry.getValue());
+            loadedCount++;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded " + loadedCount + " active access tokens to the OAuthCache out of " +
+                    persistedTokenIdentifiers.size() + " token identifiers missing in the cache.");
+        }
+    }
+
     /**
      * Loop through provided token issuer list and tries to get the access token DO.
      *
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.SQLQueries;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of the user store partitioned variants of the token queries, used when access token partitioning is
+ * enabled.
+ * <p>
+ * The token queries are collected from the constants of {@link SQLQueries}, which include the database specific
+ * variants of each query, and are rewritten for each partition once, when the registry is refreshed at startup.
+ * The registry is rebuilt whenever the configured partitioning domains change, so that a partitioned query is a map
+ * lookup rather than a rewrite of the query on each call. Queries which are not constants, such as queries with
+ * expanded parameter lists, are rewritten on each call as before.
+ */
+public class PartitionedSqlRegistry {
+
+    private static final Log log = LogFactory.getLog(PartitionedSqlRegistry.class);
+
+    private static final String ACCESS_TOKEN_SCOPE_TABLE = "IDN_OAUTH2_ACCESS_TOKEN_SCOPE";
+    private static final Pattern ACCESS_TOKEN_TABLE_PATTERN = Pattern.compile("\\b" +
+            OAuthConstants.ACCESS_TOKEN_STORE_TABLE + "\\b");
+    private static final Pattern ACCESS_TOKEN_SCOPE_TABLE_PATTERN = Pattern.compile("\\b" +
+            ACCESS_TOKEN_SCOPE_TABLE + "\\b");
+
+    private static volatile PartitionedSqlRegistry instance;
+
+    private final List<String> tokenQueries;
+    private volatile Partitions partitions;
+
+    /**
+     * Partitions derived from a partitioning domains configuration, along with the partitioned token queries of each
+     * partition.
+     */
+    private static final class Partitions {
+
+        private final String domainsConfig;
+        private final Map<String, String> domainMappings;
+        private final Map<String, Map<String, String>> partitionedQueries = new ConcurrentHashMap<>();
+
+        Partitions(String domainsConfig, Map<String, String> domainMappings) {
+
+            this.domainsConfig = domainsConfig;
+            this.domainMappings = domainMappings;
+        }
+    }
+
+    PartitionedSqlRegistry(List<String> tokenQueries) {
+
+        this.tokenQueries = tokenQueries;
+    }
+
+    public static PartitionedSqlRegistry getInstance() {
+
+        if (instance == null) {
+            synchronized (PartitionedSqlRegistry.class) {
+                if (instance == null) {
+                    instance = new PartitionedSqlRegistry(getTokenQueries(SQLQueries.class));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuild the registry from the current partitioning configuration and partition all the token queries for each
+     * of the configured partitions. Has no effect unless access token partitioning is enabled.
+     *
+     * @throws IdentityOAuth2Exception If the partitioning domains are not configured correctly.
+     */
+    public synchronized void refresh() throws IdentityOAuth2Exception {
+
+        if (!OAuth2Util.checkAccessTokenPartitioningEnabled() || !OAuth2Util.checkUserNameAssertionEnabled()) {
+            return;
+        }
+        String domainsConfig = OAuth2Util.getAccessTokenPartitioningDomains();
+        Partitions newPartitions = new Partitions(domainsConfig, parseDomainMappings(domainsConfig));
+        for (String tableSuffix : newPartitions.domainMappings.values()) {
+            getPartitionedQueries(newPartitions, tableSuffix);
+        }
+        partitions = newPartitions;
+        if (log.isDebugEnabled()) {
+            log.debug("Partitioned " + tokenQueries.size() + " token queries for the partitions: " +
+                    newPartitions.domainMappings.values());
+        }
+    }
+
+    /**
+     * Get the configured user store domain to partition mappings.
+     *
+     * @return Unmodifiable map of user store domains to the partition names, which ignores the case of the domains.
+     * @throws IdentityOAuth2Exception If the partitioning domains are not configured correctly.
+     */
+    public Map<String, String> getUserStoreDomainMappings() throws IdentityOAuth2Exception {
+
+        return getPartitions().domainMappings;
+    }
+
+    /**
+     * Get the suffix of the partitioned token tables of a user store domain.
+     *
+     * @param userStoreDomain User store domain.
+     * @return Table name suffix, or null if the tokens of the user store domain are kept in the default tables.
+     * @throws IdentityOAuth2Exception If the partitioning domains are not configured correctly.
+     */
+    public String getTableSuffix(String userStoreDomain) throws IdentityOAuth2Exception {
+
+        return getTableSuffix(getPartitions(), userStoreDomain);
+    }
+
+    /**
+     * Get the given query rewritten to use the token tables of a user store domain.
+     *
+     * @param sql             Query on the default token tables.
+     * @param userStoreDomain User store domain.
+     * @return Partitioned query.
+     * @throws IdentityOAuth2Exception If the partitioning domains are not configured correctly.
+     */
+    public String getTokenPartitionedSql(String sql, String userStoreDomain) throws IdentityOAuth2Exception {
+
+        Partitions currentPartitions = getPartitions();
+        String tableSuffix = getTableSuffix(currentPartitions, userStoreDomain);
+        if (tableSuffix == null) {
+            return sql;
+        }
+        String partitionedSql = getPartitionedQueries(currentPartitions, tableSuffix).get(sql);
+        return partitionedSql == null ? partitionSql(sql, tableSuffix) : partitionedSql;
+    }
+
+    /**
+     * Get the partitions of the current configuration, rebuilding them if the configuration has changed since they
+     * were built.
+     */
+    private Partitions getPartitions() throws IdentityOAuth2Exception {
+
+        Partitions currentPartitions = partitions;
+        String domainsConfig = OAuth2Util.getAccessTokenPartitioningDomains();
+        if (currentPartitions != null && Objects.equals(currentPartitions.domainsConfig, domainsConfig)) {
+            return currentPartitions;
+        }
+        synchronized (this) {
+            if (partitions == null || !Objects.equals(partitions.domainsConfig, domainsConfig)) {
+                // Partitions of the other configured domains are built lazily, on their first use.
+                partitions = new Partitions(domainsConfig, parseDomainMappings(domainsConfig));
+            }
+            return partitions;
+        }
+    }
+
+    private static String getTableSuffix(Partitions partitions, String userStoreDomain) {
+
+        if (StringUtils.isBlank(userStoreDomain) ||
+                IdentityUtil.getPrimaryDomainName().equalsIgnoreCase(userStoreDomain)) {
+            return null;
+        }
+        String mappedUserStoreDomain = partitions.domainMappings.get(userStoreDomain);
+        return mappedUserStoreDomain == null ? userStoreDomain : mappedUserStoreDomain;
+    }
+
+    private Map<String, String> getPartitionedQueries(Partitions partitions, String tableSuffix) {
+
+        return partitions.partitionedQueries.computeIfAbsent(tableSuffix, suffix -> {
+            Map<String, String> partitionedQueries = new HashMap<>();
+            for (String tokenQuery : tokenQueries) {
+                partitionedQueries.put(tokenQuery, partitionSql(tokenQuery, suffix));
+            }
+            return Collections.unmodifiableMap(partitionedQueries);
+        });
+    }
+
+    /**
+     * Rewrite a query to use the token tables with the given suffix.
+     *
+     * @param sql         Query on the default token tables.
+     * @param tableSuffix Suffix of the partitioned token tables.
+     * @return Partitioned query.
+     */
+    static String partitionSql(String sql, String tableSuffix) {
+
+        String partitionedSql = ACCESS_TOKEN_TABLE_PATTERN.matcher(sql).replaceAll(Matcher.quoteReplacement(
+                OAuthConstants.ACCESS_TOKEN_STORE_TABLE + "_" + tableSuffix));
+        return ACCESS_TOKEN_SCOPE_TABLE_PATTERN.matcher(partitionedSql).replaceAll(Matcher.quoteReplacement(
+                ACCESS_TOKEN_SCOPE_TABLE + "_" + tableSuffix));
+    }
+
+    /**
+     * Parse the partitioning domains configuration, of the form <code>A:foo.com, B:bar.com</code>.
+     */
+    private static Map<String, String> parseDomainMappings(String domainsConfig) throws IdentityOAuth2Exception {
+
+        // TreeMap is used to ignore the case sensitivity of key. Because when user logged in, the case of the
+        // username is ignored.
+        Map<String, String> userStoreDomainMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (domainsConfig != null) {
+            for (String userStoreDomains : domainsConfig.split(",")) {
+                String[] mapping = userStoreDomains.trim().split(":");
+                if (mapping.length < 2) {
+                    throw new IdentityOAuth2Exception("Domain mapping has not defined correctly");
+                }
+                userStoreDomainMap.put(mapping[1].trim(), mapping[0].trim()); //key=domain & value=mapping
+            }
+        }
+        return Collections.unmodifiableMap(userStoreDomainMap);
+    }
+
+    /**
+     * Collect the token queries among the string constants of the given class.
+     */
+    static List<String> getTokenQueries(Class<?> queriesClass) {
+
+        List<String> tokenQueries = new ArrayList<>();
+        for (Field field : queriesClass.getFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            try {
+                String query = (String) field.get(null);
+                if (query != null && query.contains(OAuthConstants.ACCESS_TOKEN_STORE_TABLE)) {
+                    tokenQueries.add(query);
+                }
+            } catch (IllegalAccessException e) {
+                log.warn("Unable to read the query: " + field.getName() + " of " + queriesClass.getName(), e);
+            }
+        }
+        return Collections.unmodifiableList(tokenQueries);
+    }
+}
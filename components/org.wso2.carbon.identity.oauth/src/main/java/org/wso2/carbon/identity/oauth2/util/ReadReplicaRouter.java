@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+/**
+ * Opt-in routing of the OAuth DAO reads which tolerate replication lag to a read-only replica of the identity
+ * database.
+ * <p>
+ * Only reads which do not need to observe writes made by the same flow are routed here, e.g. token introspection,
+ * application information and scope metadata lookups. Reads which must see their own writes, such as the refresh
+ * token rotation and the authorization code redemption, always use the primary database. Since a row may not have
+ * been replicated yet, callers are expected to repeat a lookup which found nothing on the primary database and report
+ * it through {@link #recordReplicaMiss()}. If a replica connection can not be obtained, reads are routed to the
+ * primary database for the configured retry interval.
+ * <p>
+ * Lookups whose results are put into a cache (i.e. OAuthCache, AppInfoCache and OAuthScopeCache) are run between
+ * {@link #startPrimaryReads(boolean)} and {@link #endPrimaryReads(boolean)}, so that a row which is stale on the
+ * replica is not kept in the cache beyond the replication lag. When the cache is disabled, the lookups are served by
+ * the replica like any other read.
+ */
+public class ReadReplicaRouter {
+
+    private static final Log log = LogFactory.getLog(ReadReplicaRouter.class);
+
+    private static final String ENABLE = "OAuth.ReadReplica.Enable";
+    private static final String DATA_SOURCE = "OAuth.ReadReplica.DataSource";
+    private static final String RETRY_INTERVAL = "OAuth.ReadReplica.RetryInterval";
+
+    private static final long DEFAULT_RETRY_INTERVAL_SECONDS = 30;
+
+    private static volatile ReadReplicaRouter instance;
+
+    private final boolean enabled;
+    private final String dataSourceName;
+    private final long retryIntervalMillis;
+    private volatile DataSource dataSource;
+    private volatile long unavailableUntil;
+    private final ThreadLocal<Integer> primaryReadDepth = new ThreadLocal<>();
+
+    private final AtomicLong replicaReadCount = new AtomicLong();
+    private final AtomicLong replicaMissCount = new AtomicLong();
+    private final AtomicLong replicaFailureCount = new AtomicLong();
+    private final AtomicLong primaryReadCount = new AtomicLong();
+
+    ReadReplicaRouter(boolean enabled, String dataSourceName, DataSource dataSource, long retryIntervalMillis) {
+
+        this.enabled = enabled;
+        this.dataSourceName = dataSourceName;
+        this.dataSource = dataSource;
+        this.retryIntervalMillis = retryIntervalMillis;
+    }
+
+    public static ReadReplicaRouter getInstance() {
+
+        if (instance == null) {
+            synchronized (ReadReplicaRouter.class) {
+                if (instance == null) {
+                    String dataSourceName = IdentityUtil.getProperty(DATA_SOURCE);
+                    boolean enabled = Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE));
+                    if (enabled && StringUtils.isBlank(dataSourceName)) {
+                        log.warn("Read replica routing is disabled as no data source is configured for " +
+                                DATA_SOURCE);
+                        enabled = false;
+                    }
+                    long retryInterval = IdentityConfigUtils.getPositiveLongProperty(RETRY_INTERVAL,
+                            DEFAULT_RETRY_INTERVAL_SECONDS);
+                    instance = new ReadReplicaRouter(enabled, dataSourceName, null,
+                            TimeUnit.SECONDS.toMillis(retryInterval));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether reads are routed to a replica at the moment.
+     *
+     * @return True if read replica routing is enabled, the reads of the current thread are not bound to the primary
+     * database and the replica is not backed off after a failure.
+     */
+    public boolean isEnabled() {
+
+        return enabled && primaryReadDepth.get() == null && System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    /**
+     * Route the reads of the current thread to the primary database until {@link #endPrimaryReads()} is called. Calls
+     * may be nested.
+     */
+    public void startPrimaryReads() {
+
+        Integer depth = primaryReadDepth.get();
+        primaryReadDepth.set(depth == null ? 1 : depth + 1);
+    }
+
+    /**
+     * Route the reads of the current thread to the primary database until {@link #endPrimaryReads(boolean)} is
+     * called, if the results of the reads are put into a cache.
+     *
+     * @param cached Whether the results of the reads are cached.
+     */
+    public void startPrimaryReads(boolean cached) {
+
+        if (cached) {
+            startPrimaryReads();
+        }
+    }
+
+    /**
+     * End the reads started with {@link #startPrimaryReads(boolean)}.
+     *
+     * @param cached The value passed to {@link #startPrimaryReads(boolean)}.
+     */
+    public void endPrimaryReads(boolean cached) {
+
+        if (cached) {
+            endPrimaryReads();
+        }
+    }
+
+    /**
+     * Stop routing the reads of the current thread to the primary database, once the outermost
+     * {@link #startPrimaryReads()} call is ended.
+     */
+    public void endPrimaryReads() {
+
+        Integer depth = primaryReadDepth.get();
+        if (depth == null || depth <= 1) {
+            primaryReadDepth.remove();
+        } else {
+            primaryReadDepth.set(depth - 1);
+        }
+    }
+
+    /**
+     * Get a connection for a read which tolerates replication lag. Falls back to a connection of the primary database
+     * if read replica routing is not enabled or the replica is not available.
+     *
+     * @return A connection in auto-commit mode.
+     */
+    public Connection getReadConnection() {
+
+        if (isEnabled()) {
+            try {
+                Connection connection = getDataSource().getConnection();
+                try {
+                    connection.setAutoCommit(true);
+                    connection.setReadOnly(true);
+                } catch (SQLException e) {
+                    IdentityDatabaseUtil.closeConnection(connection);
+                    throw e;
+                }
+                replicaReadCount.incrementAndGet();
+                return connection;
+            } catch (SQLException | NamingException e) {
+                replicaFailureCount.incrementAndGet();
+                unavailableUntil = System.currentTimeMillis() + retryIntervalMillis;
+                log.warn("Error while obtaining a connection from the read replica data source: " + dataSourceName +
+                        ". Routing reads to the primary database for " + retryIntervalMillis + " ms.", e);
+            }
+        }
+        primaryReadCount.incrementAndGet();
+        return IdentityDatabaseUtil.getDBConnection(false);
+    }
+
+    /**
+     * Record a lookup which found nothing on the replica and is repeated on the primary database.
+     */
+    public void recordReplicaMiss() {
+
+        replicaMissCount.incrementAndGet();
+    }
+
+    public long getReplicaReadCount() {
+
+        return replicaReadCount.get();
+    }
+
+    public long getReplicaMissCount() {
+
+        return replicaMissCount.get();
+    }
+
+    public long getReplicaFailureCount() {
+
+        return replicaFailureCount.get();
+    }
+
+    public long getPrimaryReadCount() {
+
+        return primaryReadCount.get();
+    }
+
+    private DataSource getDataSource() throws NamingException {
+
+        if (dataSource == null) {
+            synchronized (this) {
+                if (dataSource == null) {
+                    dataSource = (DataSource) new InitialContext().lookup(dataSourceName);
+                    log.info("Routing OAuth reads which tolerate replication lag to the data source: " +
+                            dataSourceName);
+                }
+            }
+        }
+        return dataSource;
+    }
+}
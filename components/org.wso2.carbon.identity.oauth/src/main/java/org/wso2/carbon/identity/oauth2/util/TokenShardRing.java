@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring which assigns token identifiers to token shards.
+ * <p>
+ * Each shard is placed on the ring at a number of virtual node positions, and a key belongs to the first shard at or
+ * after the position of the key. Adding a shard to a ring of N shards hence only moves about 1/(N+1) of the keys, all
+ * of them to the new shard.
+ */
+public final class TokenShardRing {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> shards;
+
+    public TokenShardRing(Collection<String> shards, int virtualNodes) {
+
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required to build a token shard ring.");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Number of virtual nodes should be positive: " + virtualNodes);
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(shards)));
+        for (String shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * Get the shard of the given key.
+     *
+     * @param key Hash of the token identifier, as persisted in the ACCESS_TOKEN_HASH column.
+     * @return Name of the shard the key belongs to.
+     */
+    public String getShard(String key) {
+
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        if (entry == null) {
+            entry = ring.firstEntry();
+        }
+        return entry.getValue();
+    }
+
+    public List<String> getShards() {
+
+        return shards;
+    }
+
+    private static long hash(String value) {
+
+        try {
+            byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << Byte.SIZE) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the JVM.", e);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.base.IdentityRuntimeException;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+/**
+ * Opt-in sharding of the access token tables across multiple data sources by a consistent hash of the token
+ * identifier.
+ * <p>
+ * Each shard is a data source which holds IDN_OAUTH2_ACCESS_TOKEN along with the tables keyed by its TOKEN_ID, i.e.
+ * IDN_OAUTH2_ACCESS_TOKEN_SCOPE, IDN_OAUTH2_TOKEN_BINDING and IDN_OAUTH2_ACCESS_TOKEN_AUDIT. Since the token queries
+ * join IDN_OAUTH_CONSUMER_APPS, each shard also needs a copy of the consumer apps table. Tokens are placed on the
+ * shard given by {@link TokenShardRing} for their ACCESS_TOKEN_HASH.
+ * <p>
+ * The sharded DAOs run an operation against a shard by binding the shard to the current thread through
+ * {@link #executeOnShard(String, ShardOperation)}, and obtain their connections through
+ * {@link #getConnection(boolean)}, which returns a connection of the bound shard.
+ * <p>
+ * When shards are added, the previous shard list is kept configured until {@link
+ * org.wso2.carbon.identity.oauth2.dao.TokenShardRebalancer} has moved the tokens to their new shards. Meanwhile,
+ * lookups which miss on the new shard of a token are repeated on its previous shard.
+ */
+public class TokenShardRouter {
+
+    private static final Log log = LogFactory.getLog(TokenShardRouter.class);
+
+    private static final String ENABLE = "OAuth.TokenSharding.Enable";
+    private static final String DATA_SOURCES = "OAuth.TokenSharding.DataSources";
+    private static final String PREVIOUS_DATA_SOURCES = "OAuth.TokenSharding.PreviousDataSources";
+    private static final String VIRTUAL_NODES = "OAuth.TokenSharding.VirtualNodes";
+
+    private static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private static volatile TokenShardRouter instance;
+
+    private final boolean enabled;
+    private final TokenShardRing ring;
+    private final TokenShardRing previousRing;
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> boundShard = new ThreadLocal<>();
+
+    /**
+     * An operation which is run against a single shard.
+     *
+     * @param <T> Result of the operation.
+     */
+    @FunctionalInterface
+    public interface ShardOperation<T> {
+
+        T execute() throws IdentityOAuth2Exception;
+    }
+
+    TokenShardRouter(boolean enabled, TokenShardRing ring, TokenShardRing previousRing,
+                     Map<String, DataSource> dataSources) {
+
+        this.enabled = enabled;
+        this.ring = ring;
+        this.previousRing = previousRing;
+        if (dataSources != null) {
+            this.dataSources.putAll(dataSources);
+        }
+    }
+
+    public static TokenShardRouter getInstance() {
+
+        if (instance == null) {
+            synchronized (TokenShardRouter.class) {
+                if (instance == null) {
+                    boolean enabled = Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE));
+                    List<String> shards = getShardNames(DATA_SOURCES);
+                    if (enabled && shards.isEmpty()) {
+                        log.warn("Token sharding is disabled as no data sources are configured for " +
+                                DATA_SOURCES);
+                        enabled = false;
+                    }
+                    TokenShardRing ring = null;
+                    TokenShardRing previousRing = null;
+                    if (enabled) {
+                        int virtualNodes = IdentityConfigUtils.getPositiveIntProperty(VIRTUAL_NODES,
+                                DEFAULT_VIRTUAL_NODES);
+                        ring = new TokenShardRing(shards, virtualNodes);
+                        List<String> previousShards = getShardNames(PREVIOUS_DATA_SOURCES);
+                        if (!previousShards.isEmpty() && !previousShards.equals(shards)) {
+                            previousRing = new TokenShardRing(previousShards, virtualNodes);
+                        }
+                    }
+                    instance = new TokenShardRouter(enabled, ring, previousRing, null);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Check whether the tokens are being moved from the previous shard list to the current one.
+     *
+     * @return True if a previous shard list is configured.
+     */
+    public boolean isRebalancing() {
+
+        return previousRing != null;
+    }
+
+    /**
+     * Get the shard which a token is written to.
+     *
+     * @param tokenHash Hash of the token identifier, as persisted in the ACCESS_TOKEN_HASH column.
+     * @return Name of the shard data source.
+     */
+    public String getShard(String tokenHash) {
+
+        return ring.getShard(tokenHash);
+    }
+
+    /**
+     * Get the shard a token was written to before the last change of the shard list.
+     *
+     * @param tokenHash Hash of the token identifier, as persisted in the ACCESS_TOKEN_HASH column.
+     * @return Name of the previous shard data source, or null if the tokens are not being rebalanced.
+     */
+    public String getPreviousShard(String tokenHash) {
+
+        return previousRing == null ? null : previousRing.getShard(tokenHash);
+    }
+
+    public TokenShardRing getRing() {
+
+        return ring;
+    }
+
+    /**
+     * Get all the shards which may hold tokens, including the shards which are being drained by a rebalance.
+     *
+     * @return Names of the shard data sources.
+     */
+    public List<String> getShards() {
+
+        if (previousRing == null) {
+            return ring.getShards();
+        }
+        Set<String> shards = new LinkedHashSet<>(ring.getShards());
+        shards.addAll(previousRing.getShards());
+        return new ArrayList<>(shards);
+    }
+
+    /**
+     * Run the given operation with the given shard bound to the current thread.
+     *
+     * @param shard     Name of the shard data source.
+     * @param operation Operation to run.
+     * @return Result of the operation.
+     * @throws IdentityOAuth2Exception If the operation fails.
+     */
+    public <T> T executeOnShard(String shard, ShardOperation<T> operation) throws IdentityOAuth2Exception {
+
+        String previouslyBoundShard = boundShard.get();
+        boundShard.set(shard);
+        try {
+            return operation.execute();
+        } finally {
+            if (previouslyBoundShard == null) {
+                boundShard.remove();
+            } else {
+                boundShard.set(previouslyBoundShard);
+            }
+        }
+    }
+
+    /**
+     * Run the given operation against each shard in turn.
+     *
+     * @param operation Operation to run.
+     * @return Results of the operation, in the order of {@link #getShards()}.
+     * @throws IdentityOAuth2Exception If the operation fails on any of the shards.
+     */
+    public <T> List<T> executeOnAllShards(ShardOperation<T> operation) throws IdentityOAuth2Exception {
+
+        List<T> results = new ArrayList<>();
+        for (String shard : getShards()) {
+            results.add(executeOnShard(shard, operation));
+        }
+        return results;
+    }
+
+    /**
+     * Get a connection of the shard bound to the current thread, or of the identity database if no shard is bound.
+     *
+     * @param shouldApplyTransaction True if the connection is used within a transaction.
+     * @return Database connection.
+     */
+    public Connection getConnection(boolean shouldApplyTransaction) {
+
+        String shard = boundShard.get();
+        if (shard == null) {
+            return IdentityDatabaseUtil.getDBConnection(shouldApplyTransaction);
+        }
+        return getShardConnection(shard, shouldApplyTransaction);
+    }
+
+    /**
+     * Get a connection of the given shard.
+     *
+     * @param shard                  Name of the shard data source.
+     * @param shouldApplyTransaction True if the connection is used within a transaction.
+     * @return Database connection.
+     */
+    public Connection getShardConnection(String shard, boolean shouldApplyTransaction) {
+
+        try {
+            Connection connection = getShardDataSource(shard).getConnection();
+            try {
+                connection.setAutoCommit(!shouldApplyTransaction);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.closeConnection(connection);
+                throw e;
+            }
+            return connection;
+        } catch (SQLException e) {
+            throw IdentityRuntimeException.error("Error while obtaining a connection from the token shard: " +
+                    shard, e);
+        }
+    }
+
+    /**
+     * Get the data source of the given shard.
+     *
+     * @param shard Name of the shard data source.
+     * @return Data source of the shard.
+     */
+    public DataSource getShardDataSource(String shard) {
+
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            try {
+                dataSource = (DataSource) new InitialContext().lookup(shard);
+            } catch (NamingException e) {
+                throw IdentityRuntimeException.error("Error while looking up the token shard data source: " +
+                        shard, e);
+            }
+            dataSources.putIfAbsent(shard, dataSource);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Get the shard bound to the current thread.
+     *
+     * @return Name of the shard data source, or null if no shard is bound.
+     */
+    public String getBoundShard() {
+
+        return boundShard.get();
+    }
+
+    private static List<String> getShardNames(String propertyName) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return Collections.emptyList();
+        }
+        List<String> shards = new ArrayList<>();
+        for (String shard : value.split(",")) {
+            if (StringUtils.isNotBlank(shard) && !shards.contains(shard.trim())) {
+                shards.add(shard.trim());
+            }
+        }
+        return shards;
+    }
+}
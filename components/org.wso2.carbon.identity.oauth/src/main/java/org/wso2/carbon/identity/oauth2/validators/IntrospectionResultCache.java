@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.validators;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2IntrospectionResponseDTO;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node local cache of token introspection results.
+ * <p>
+ * Active results are kept until the configured time to live elapses, capped at the remaining lifetime of the token,
+ * while inactive results, i.e. unknown, expired or revoked tokens, are kept for a shorter period so that repeated
+ * introspection of invalid tokens does not reach the database. Entries are indexed by the SHA-256 hash of the token,
+ * or by the persisted token hash when token hashing is enabled, hence plain text tokens are not retained. Revocation
+ * and token state changes clear the entries of the affected tokens through
+ * {@link org.wso2.carbon.identity.oauth.OAuthUtil#clearOAuthCacheByAccessToken(String, String)}.
+ */
+public class IntrospectionResultCache {
+
+    private static final Log log = LogFactory.getLog(IntrospectionResultCache.class);
+
+    private static final String ENABLE = "OAuth.TokenIntrospectionCache.Enable";
+    private static final String TIME_TO_LIVE = "OAuth.TokenIntrospectionCache.TimeToLive";
+    private static final String NEGATIVE_TIME_TO_LIVE = "OAuth.TokenIntrospectionCache.NegativeTimeToLive";
+    private static final String MAX_ENTRIES = "OAuth.TokenIntrospectionCache.MaxEntries";
+
+    private static final long DEFAULT_TIME_TO_LIVE_SECONDS = 60;
+    private static final long DEFAULT_NEGATIVE_TIME_TO_LIVE_SECONDS = 10;
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private static volatile IntrospectionResultCache instance;
+
+    private final boolean enabled;
+    private final long timeToLiveMillis;
+    private final long negativeTimeToLiveMillis;
+    private final int maxEntries;
+    private final ConcurrentMap<String, CachedResult> results = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurgeTime = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong negativeHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    IntrospectionResultCache(boolean enabled, long timeToLiveMillis, long negativeTimeToLiveMillis, int maxEntries) {
+
+        this.enabled = enabled;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.negativeTimeToLiveMillis = negativeTimeToLiveMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public static IntrospectionResultCache getInstance() {
+
+        if (instance == null) {
+            synchronized (IntrospectionResultCache.class) {
+                if (instance == null) {
+                    boolean enabled = Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE));
+                    long timeToLive = IdentityConfigUtils.getLongProperty(TIME_TO_LIVE, DEFAULT_TIME_TO_LIVE_SECONDS,
+                            0);
+                    long negativeTimeToLive = IdentityConfigUtils.getLongProperty(NEGATIVE_TIME_TO_LIVE,
+                            DEFAULT_NEGATIVE_TIME_TO_LIVE_SECONDS, 0);
+                    int maxEntries = IdentityConfigUtils.getIntProperty(MAX_ENTRIES, DEFAULT_MAX_ENTRIES, 0);
+                    instance = new IntrospectionResultCache(enabled, timeToLive * 1000, negativeTimeToLive * 1000,
+                            maxEntries);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Token introspection cache enabled: " + enabled + ", time to live: " +
+                                timeToLive + "s, negative time to live: " + negativeTimeToLive + "s, max entries: " +
+                                maxEntries);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Get the cached introspection result of a token.
+     *
+     * @param token         Token being introspected.
+     * @param tokenTypeHint Token type hint of the introspection request, if any.
+     * @param tenantDomain  Tenant domain the introspection request was received for.
+     * @return Copy of the cached result without any request properties, or null if there is no valid result cached
+     * for the request.
+     */
+    public OAuth2IntrospectionResponseDTO getResult(String token, String tokenTypeHint, String tenantDomain) {
+
+        if (!enabled || StringUtils.isBlank(token)) {
+            return null;
+        }
+        String cacheKey = getCacheKey(token);
+        CachedResult cachedResult = cacheKey == null ? null : results.get(cacheKey);
+        if (cachedResult == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (cachedResult.expiryTime <= System.currentTimeMillis()) {
+            results.remove(cacheKey, cachedResult);
+            missCount.incrementAndGet();
+            return null;
+        }
+        // Results may differ per tenant and token type hint, due to cross tenant introspection restrictions and the
+        // order in which the token validators are tried.
+        if (!StringUtils.equals(cachedResult.tenantDomain, tenantDomain) ||
+                !StringUtils.equals(cachedResult.tokenTypeHint, tokenTypeHint)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (cachedResult.response.isActive()) {
+            hitCount.incrementAndGet();
+        } else {
+            negativeHitCount.incrementAndGet();
+        }
+        return copy(cachedResult.response);
+    }
+
+    /**
+     * Cache the introspection result of a token. Active results are kept until the configured time to live or the
+     * expiry of the token, whichever comes first, while inactive results are kept for the negative time to live.
+     *
+     * @param token         Token being introspected.
+     * @param tokenTypeHint Token type hint of the introspection request, if any.
+     * @param tenantDomain  Tenant domain the introspection request was received for.
+     * @param response      Introspection result.
+     */
+    public void addResult(String token, String tokenTypeHint, String tenantDomain,
+                          OAuth2IntrospectionResponseDTO response) {
+
+        if (!enabled || StringUtils.isBlank(token) || response == null) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        long expiryTime;
+        if (response.isActive()) {
+            expiryTime = currentTime + timeToLiveMillis;
+            // Expiry time of the response is in seconds, and is set to Long.MAX_VALUE for never expiring tokens.
+            if (response.getExp() > 0 && response.getExp() < Long.MAX_VALUE / 1000) {
+                expiryTime = Math.min(expiryTime, response.getExp() * 1000);
+            }
+        } else {
+            expiryTime = currentTime + negativeTimeToLiveMillis;
+        }
+        if (expiryTime <= currentTime) {
+            return;
+        }
+        String cacheKey = getCacheKey(token);
+        if (cacheKey == null) {
+            return;
+        }
+
+        if (results.size() >= maxEntries && !results.containsKey(cacheKey)) {
+            purgeExpiredResults(currentTime);
+            if (results.size() >= maxEntries) {
+                rejectedCount.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Token introspection cache is full. Skipped caching the introspection result.");
+                }
+                return;
+            }
+        }
+        results.put(cacheKey, new CachedResult(copy(response), tokenTypeHint, tenantDomain, expiryTime));
+    }
+
+    /**
+     * Clear the cached introspection result of a token. The given token can either be the plain text token or the
+     * processed token read from the database.
+     *
+     * @param token Plain text token or the processed token read from the database.
+     */
+    public void clearResult(String token) {
+
+        if (!enabled || StringUtils.isBlank(token) || results.isEmpty()) {
+            return;
+        }
+        String cacheKey = getCacheKey(token);
+        boolean removed = cacheKey != null && results.remove(cacheKey) != null;
+        // When token hashing is enabled, the token read from the database is already the index of the entry.
+        if (OAuth2Util.isHashEnabled()) {
+            removed |= results.remove(token) != null;
+        }
+        if (removed) {
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Clear all the cached introspection results.
+     */
+    public void clear() {
+
+        results.clear();
+    }
+
+    public int getSize() {
+
+        return results.size();
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getNegativeHitCount() {
+
+        return negativeHitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    public long getInvalidationCount() {
+
+        return invalidationCount.get();
+    }
+
+    public long getRejectedCount() {
+
+        return rejectedCount.get();
+    }
+
+    private String getCacheKey(String token) {
+
+        if (OAuth2Util.isHashEnabled()) {
+            try {
+                return OAuth2Util.getAccessTokenCacheKeyString(token);
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error while hashing the token to resolve the introspection cache entry.", e);
+                return null;
+            }
+        }
+        return DigestUtils.sha256Hex(token);
+    }
+
+    private void purgeExpiredResults(long currentTime) {
+
+        long lastPurge = lastPurgeTime.get();
+        // Avoid scanning the whole cache for every request while the cache is full.
+        if (currentTime - lastPurge < PURGE_INTERVAL_MILLIS || !lastPurgeTime.compareAndSet(lastPurge, currentTime)) {
+            return;
+        }
+        Iterator<CachedResult> iterator = results.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiryTime <= currentTime) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static OAuth2IntrospectionResponseDTO copy(OAuth2IntrospectionResponseDTO response) {
+
+        OAuth2IntrospectionResponseDTO copy = new OAuth2IntrospectionResponseDTO();
+        copy.setActive(response.isActive());
+        copy.setScope(response.getScope());
+        copy.setClientId(response.getClientId());
+        copy.setUsername(response.getUsername());
+        copy.setTokenType(response.getTokenType());
+        copy.setNbf(response.getNbf());
+        copy.setAud(response.getAud());
+        copy.setIss(response.getIss());
+        copy.setJti(response.getJti());
+        copy.setSub(response.getSub());
+        copy.setExp(response.getExp());
+        copy.setIat(response.getIat());
+        copy.setUserContext(response.getUserContext());
+        copy.setBindingType(response.getBindingType());
+        copy.setBindingReference(response.getBindingReference());
+        copy.setAut(response.getAut());
+        copy.setAuthorizedUser(response.getAuthorizedUser());
+        copy.setError(response.getError());
+        // Properties are not copied, as they hold the state of the request the result was built for (i.e. the
+        // validation message context) and the attributes added by the introspection listeners of that request.
+        return copy;
+    }
+
+    /**
+     * Introspection result cached for a token along with the request attributes the result depends on.
+     */
+    private static class CachedResult {
+
+        private final OAuth2IntrospectionResponseDTO response;
+        private final String tokenTypeHint;
+        private final String tenantDomain;
+        private final long expiryTime;
+
+        CachedResult(OAuth2IntrospectionResponseDTO response, String tokenTypeHint, String tenantDomain,
+                     long expiryTime) {
+
+            this.response = response;
+            this.tokenTypeHint = tokenTypeHint;
+            this.tenantDomain = tenantDomain;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.validators;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor;
+import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node local registry of revoked access tokens, used to validate self-issued JWT access tokens without looking them
+ * up from the database. Tokens are tracked by their persisted access token hash until they expire.
+ * <p>
+ * Tokens revoked on this node are registered as soon as the revocation is committed. Revocations made on other nodes,
+ * and token state changes which are not registered explicitly, are picked up by reconciling the registry with the
+ * database at the configured interval. Only tokens issued within the configured maximum token lifetime are tracked,
+ * hence JWT access tokens with a longer lifetime are not validated locally. The registry is considered up to date only
+ * while the reconciliation keeps succeeding.
+ * <p>
+ * Each newly tracked token is assigned the next version of the registry, so that the revocation status list published
+ * to resource servers can be served as a delta since a given version. Versions are local to the node, hence are only
+ * comparable for the same list ID.
+ */
+public class RevokedTokenRegistry {
+
+    private static final Log log = LogFactory.getLog(RevokedTokenRegistry.class);
+
+    private static final String ENABLE = "OAuth.JWTLocalValidation.Enable";
+    private static final String STATUS_LIST_ENABLE = "OAuth.RevocationStatusList.Enable";
+    private static final String RECONCILE_INTERVAL = "OAuth.JWTLocalValidation.RevocationReconcileInterval";
+    private static final String MAX_TOKEN_LIFETIME = "OAuth.JWTLocalValidation.MaxTokenLifetime";
+
+    private static final long DEFAULT_RECONCILE_INTERVAL_SECONDS = 60;
+    private static final long DEFAULT_MAX_TOKEN_LIFETIME_SECONDS = 86400;
+
+    private static volatile RevokedTokenRegistry instance;
+
+    private final boolean localValidationEnabled;
+    private final boolean statusListEnabled;
+    private final boolean enabled;
+    private final long reconcileIntervalMillis;
+    private final long maxTokenLifetimeMillis;
+    private final ConcurrentMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, String> revocationLog = new ConcurrentSkipListMap<>();
+    private final String listId = UUID.randomUUID().toString();
+    private volatile long version;
+    private final TokenPersistenceProcessor hashingPersistenceProcessor = new HashingPersistenceProcessor();
+    private ScheduledExecutorService reconcileScheduler;
+    private volatile long lastReconciledTime;
+
+    private final AtomicLong reconcileCount = new AtomicLong();
+    private final AtomicLong reconcileFailureCount = new AtomicLong();
+    private final AtomicLong revokedHitCount = new AtomicLong();
+
+    RevokedTokenRegistry(boolean localValidationEnabled, boolean statusListEnabled, long reconcileIntervalMillis,
+                         long maxTokenLifetimeMillis) {
+
+        this.localValidationEnabled = localValidationEnabled;
+        this.statusListEnabled = statusListEnabled;
+        this.enabled = localValidationEnabled || statusListEnabled;
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+        this.maxTokenLifetimeMillis = maxTokenLifetimeMillis;
+    }
+
+    public static RevokedTokenRegistry getInstance() {
+
+        if (instance == null) {
+            synchronized (RevokedTokenRegistry.class) {
+                if (instance == null) {
+                    boolean localValidationEnabled = Boolean.parseBoolean(IdentityUtil.getProperty(ENABLE));
+                    boolean statusListEnabled = Boolean.parseBoolean(IdentityUtil.getProperty(STATUS_LIST_ENABLE));
+                    OAuthServerConfiguration config = OAuthServerConfiguration.getInstance();
+                    if ((localValidationEnabled || statusListEnabled) && config.isTokenCleanupEnabled() &&
+                            !config.useRetainOldAccessTokens()) {
+                        // Revoked tokens would be deleted before other nodes could reconcile them.
+                        log.warn("Local validation of JWT access tokens and the revocation status list are " +
+                                "disabled, as they require old access tokens to be retained when the token cleanup " +
+                                "is enabled.");
+                        localValidationEnabled = false;
+                        statusListEnabled = false;
+                    }
+                    long reconcileInterval = IdentityConfigUtils.getPositiveLongProperty(RECONCILE_INTERVAL,
+                            DEFAULT_RECONCILE_INTERVAL_SECONDS);
+                    long maxTokenLifetime = IdentityConfigUtils.getPositiveLongProperty(MAX_TOKEN_LIFETIME,
+                            DEFAULT_MAX_TOKEN_LIFETIME_SECONDS);
+                    instance = new RevokedTokenRegistry(localValidationEnabled, statusListEnabled,
+                            TimeUnit.SECONDS.toMillis(reconcileInterval), TimeUnit.SECONDS.toMillis(maxTokenLifetime));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start reconciling the registry with the database. Has no effect if neither local JWT validation nor the
+     * revocation status list is enabled.
+     */
+    public synchronized void start() {
+
+        if (!enabled || reconcileScheduler != null) {
+            return;
+        }
+        reconcileScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth-revoked-token-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconcileScheduler.scheduleWithFixedDelay(this::reconcile, 0, Math.max(reconcileIntervalMillis, 1000),
+                TimeUnit.MILLISECONDS);
+        log.info("Started reconciling revoked access tokens every " + reconcileIntervalMillis + " ms.");
+    }
+
+    /**
+     * Stop reconciling the registry with the database.
+     */
+    public synchronized void shutdown() {
+
+        if (reconcileScheduler == null) {
+            return;
+        }
+        reconcileScheduler.shutdownNow();
+        reconcileScheduler = null;
+        lastReconciledTime = 0;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    public boolean isLocalValidationEnabled() {
+
+        return localValidationEnabled;
+    }
+
+    public boolean isStatusListEnabled() {
+
+        return statusListEnabled;
+    }
+
+    public String getListId() {
+
+        return listId;
+    }
+
+    /**
+     * Get the version of the registry, i.e. the version assigned to the most recently tracked token.
+     *
+     * @return Version of the registry.
+     */
+    public long getVersion() {
+
+        return version;
+    }
+
+    /**
+     * Get the hashes of the tokens which were tracked after the given version, up to the given version, and are not
+     * expired yet.
+     *
+     * @param sinceVersion Exclusive lower bound of the versions, 0 to get all the tracked tokens.
+     * @param untilVersion Inclusive upper bound of the versions, usually the value of {@link #getVersion()}.
+     * @return Access token hashes in the order they were tracked.
+     */
+    public List<String> getRevokedAccessTokenHashes(long sinceVersion, long untilVersion) {
+
+        List<String> accessTokenHashes = new ArrayList<>();
+        if (sinceVersion >= untilVersion) {
+            return accessTokenHashes;
+        }
+        long currentTime = System.currentTimeMillis();
+        for (String accessTokenHash : revocationLog.subMap(sinceVersion, false, untilVersion, true).values()) {
+            Long expiryTime = revokedTokens.get(accessTokenHash);
+            if (expiryTime != null && expiryTime > currentTime) {
+                accessTokenHashes.add(accessTokenHash);
+            }
+        }
+        return accessTokenHashes;
+    }
+
+    /**
+     * Check whether the registry reflects the revocations made on all the nodes, i.e. whether it was reconciled with
+     * the database within the last two reconcile intervals.
+     *
+     * @return True if the registry can be relied upon to validate tokens locally.
+     */
+    public boolean isReconciled() {
+
+        return enabled && lastReconciledTime > 0 &&
+                System.currentTimeMillis() - lastReconciledTime <= 2 * Math.max(reconcileIntervalMillis, 1000);
+    }
+
+    public long getMaxTokenLifetimeMillis() {
+
+        return maxTokenLifetimeMillis;
+    }
+
+    /**
+     * Register a revoked or invalidated access token.
+     *
+     * @param accessTokenIdentifier Persisted identifier of the access token, i.e. the JTI of a JWT access token, or
+     *                              the hashed identifier read from the database when token hashing is enabled.
+     */
+    public void addRevokedAccessToken(String accessTokenIdentifier) {
+
+        if (!enabled || StringUtils.isBlank(accessTokenIdentifier)) {
+            return;
+        }
+        // Access tokens read from the database carry the hash itself when token hashing is enabled.
+        String accessTokenHash = OAuth2Util.isHashEnabled() ? accessTokenIdentifier :
+                getAccessTokenHash(accessTokenIdentifier);
+        if (accessTokenHash != null) {
+            addRevokedAccessTokenHash(accessTokenHash);
+        }
+    }
+
+    /**
+     * Register revoked access tokens by their persisted access token hash.
+     *
+     * @param accessTokenHashes Access token hashes.
+     */
+    public void addRevokedAccessTokenHashes(Collection<String> accessTokenHashes) {
+
+        if (!enabled || accessTokenHashes == null) {
+            return;
+        }
+        for (String accessTokenHash : accessTokenHashes) {
+            if (StringUtils.isNotBlank(accessTokenHash)) {
+                addRevokedAccessTokenHash(accessTokenHash);
+            }
+        }
+    }
+
+    /**
+     * Check whether the JWT access token of the given JTI is revoked.
+     *
+     * @param jwtId JTI of the JWT access token.
+     * @return True if the token is revoked or its revocation status cannot be determined.
+     */
+    public boolean isRevoked(String jwtId) {
+
+        String accessTokenHash = getAccessTokenHash(jwtId);
+        if (accessTokenHash == null) {
+            return true;
+        }
+        Long expiryTime = revokedTokens.get(accessTokenHash);
+        if (expiryTime == null) {
+            return false;
+        }
+        if (expiryTime <= System.currentTimeMillis()) {
+            revokedTokens.remove(accessTokenHash, expiryTime);
+            return false;
+        }
+        revokedHitCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Merge the revoked tokens recorded in the database into the registry and remove the entries of expired tokens.
+     */
+    void reconcile() {
+
+        long startTime = System.currentTimeMillis();
+        try {
+            Map<String, Long> revokedTokensInDB = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .getRevokedAccessTokenHashes(new Timestamp(startTime - maxTokenLifetimeMillis));
+            for (Map.Entry<String, Long> revokedToken : revokedTokensInDB.entrySet()) {
+                putRevokedAccessTokenHash(revokedToken.getKey(), revokedToken.getValue());
+            }
+            revokedTokens.values().removeIf(expiryTime -> expiryTime <= startTime);
+            revocationLog.values().removeIf(accessTokenHash -> !revokedTokens.containsKey(accessTokenHash));
+            lastReconciledTime = startTime;
+            reconcileCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Reconciled revoked access tokens in " + (System.currentTimeMillis() - startTime) +
+                        " ms. Tracked revoked tokens: " + revokedTokens.size());
+            }
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            reconcileFailureCount.incrementAndGet();
+            log.error("Error while reconciling revoked access tokens. JWT access tokens will be validated against " +
+                    "the database until the reconciliation succeeds.", e);
+        }
+    }
+
+    public int getSize() {
+
+        return revokedTokens.size();
+    }
+
+    public long getReconcileCount() {
+
+        return reconcileCount.get();
+    }
+
+    public long getReconcileFailureCount() {
+
+        return reconcileFailureCount.get();
+    }
+
+    public long getRevokedHitCount() {
+
+        return revokedHitCount.get();
+    }
+
+    private void addRevokedAccessTokenHash(String accessTokenHash) {
+
+        // A token revoked now expires within the maximum lifetime of the tokens validated locally.
+        putRevokedAccessTokenHash(accessTokenHash, System.currentTimeMillis() + maxTokenLifetimeMillis);
+    }
+
+    private void putRevokedAccessTokenHash(String accessTokenHash, long expiryTime) {
+
+        Long existingExpiryTime = revokedTokens.get(accessTokenHash);
+        if (existingExpiryTime != null) {
+            if (existingExpiryTime < expiryTime) {
+                revokedTokens.merge(accessTokenHash, expiryTime, Math::max);
+            }
+            return;
+        }
+        synchronized (revocationLog) {
+            if (revokedTokens.putIfAbsent(accessTokenHash, expiryTime) == null) {
+                // Publish the version only once the token is logged, so that readers of the version see the token.
+                long nextVersion = version + 1;
+                revocationLog.put(nextVersion, accessTokenHash);
+                version = nextVersion;
+            } else {
+                revokedTokens.merge(accessTokenHash, expiryTime, Math::max);
+            }
+        }
+    }
+
+    private String getAccessTokenHash(String accessTokenIdentifier) {
+
+        try {
+            return hashingPersistenceProcessor.getProcessedAccessTokenIdentifier(accessTokenIdentifier);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while hashing the access token identifier.", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.validators;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
+import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2IntrospectionResponseDTO;
+import org.wso2.carbon.identity.oauth2.signing.SigningKey;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates JWT access tokens issued by this server without retrieving them from the database, i.e. by verifying the
+ * signature against the signing keys of the issuing tenant, checking the claims and looking up the JTI in the
+ * {@link RevokedTokenRegistry}.
+ * <p>
+ * Only the tokens which can be fully validated this way are handled. For any other token, e.g. a token of an
+ * application with scope validators, a token signed with an unknown key or while the revoked token registry is not
+ * reconciled, null is returned so that the token is validated against the database.
+ */
+public class SelfIssuedJWTValidator {
+
+    private static final Log log = LogFactory.getLog(SelfIssuedJWTValidator.class);
+
+    private static final String DOT_SEPARATOR = ".";
+    private static final String TRUE = "true";
+    private static final String CLIENT_ID = "client_id";
+    private static final String SCOPE = "scope";
+    private static final String BINDING_TYPE = "binding_type";
+    private static final String BINDING_REF = "binding_ref";
+    private static final String APP_STATE_ACTIVE = "ACTIVE";
+    private static final String TOKEN_TYPE = "JWT";
+    private static final JOSEObjectType ACCESS_TOKEN_TYPE = new JOSEObjectType("at+jwt");
+    private static final String INACTIVE_TOKEN_ERROR = "Invalid Access Token. ACTIVE access token is not found.";
+
+    private final RevokedTokenRegistry revokedTokenRegistry;
+
+    public SelfIssuedJWTValidator() {
+
+        this(RevokedTokenRegistry.getInstance());
+    }
+
+    SelfIssuedJWTValidator(RevokedTokenRegistry revokedTokenRegistry) {
+
+        this.revokedTokenRegistry = revokedTokenRegistry;
+    }
+
+    /**
+     * Validate the access token of the given message context locally.
+     *
+     * @param messageContext Token validation message context.
+     * @return Introspection response, or null if the token has to be validated against the database.
+     */
+    public OAuth2IntrospectionResponseDTO validate(OAuth2TokenValidationMessageContext messageContext) {
+
+        if (!revokedTokenRegistry.isReconciled()) {
+            return null;
+        }
+        String tokenIdentifier = messageContext.getRequestDTO().getAccessToken().getIdentifier();
+        if (StringUtils.countMatches(tokenIdentifier, DOT_SEPARATOR) != 2) {
+            return null;
+        }
+
+        try {
+            SignedJWT signedJWT = SignedJWT.parse(tokenIdentifier);
+            JWTClaimsSet claimsSet = signedJWT.getJWTClaimsSet();
+            if (!ACCESS_TOKEN_TYPE.equals(signedJWT.getHeader().getType()) || !hasRequiredClaims(claimsSet)) {
+                return null;
+            }
+            // Revocation status is tracked only for the tokens issued within the maximum token lifetime.
+            long lifetime = claimsSet.getExpirationTime().getTime() - claimsSet.getIssueTime().getTime();
+            if (lifetime > revokedTokenRegistry.getMaxTokenLifetimeMillis()) {
+                return null;
+            }
+
+            String signingTenantDomain = getSigningTenantDomain(claimsSet);
+            if (signingTenantDomain == null || !isTenantAllowed(signingTenantDomain) ||
+                    !claimsSet.getIssuer().equals(OAuth2Util.getIdTokenIssuer(signingTenantDomain))) {
+                return null;
+            }
+            Boolean isValidSignature = verifySignature(signedJWT, signingTenantDomain);
+            if (isValidSignature == null) {
+                return null;
+            }
+            if (!isValidSignature) {
+                return buildInactiveResponse("Signature validation failed.");
+            }
+            if (!isValidTime(claimsSet)) {
+                return buildInactiveResponse("Token is expired or used before the not before time.");
+            }
+            String clientId = claimsSet.getStringClaim(CLIENT_ID);
+            if (!claimsSet.getAudience().contains(clientId)) {
+                return buildInactiveResponse("Token audience does not contain the client.");
+            }
+            if (revokedTokenRegistry.isRevoked(claimsSet.getJWTID())) {
+                return buildInactiveResponse(INACTIVE_TOKEN_ERROR);
+            }
+
+            OAuthAppDO app = OAuth2Util.getAppInformationByClientId(clientId);
+            if (!APP_STATE_ACTIVE.equalsIgnoreCase(app.getState())) {
+                return buildInactiveResponse(INACTIVE_TOKEN_ERROR);
+            }
+            // Scope validators require the access token data persisted in the database.
+            if (ArrayUtils.isNotEmpty(app.getScopeValidators()) ||
+                    !OAuthComponentServiceHolder.getInstance().getScopeValidators().isEmpty()) {
+                return null;
+            }
+            return buildActiveResponse(messageContext, claimsSet, clientId);
+        } catch (InvalidOAuthClientException e) {
+            return buildInactiveResponse(INACTIVE_TOKEN_ERROR);
+        } catch (ParseException | IdentityOAuth2Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to validate the JWT access token locally. Validating against the database.", e);
+            }
+            return null;
+        }
+    }
+
+    private boolean hasRequiredClaims(JWTClaimsSet claimsSet) throws ParseException {
+
+        return StringUtils.isNotEmpty(claimsSet.getIssuer()) && StringUtils.isNotEmpty(claimsSet.getSubject()) &&
+                claimsSet.getExpirationTime() != null && claimsSet.getIssueTime() != null &&
+                claimsSet.getAudience() != null && StringUtils.isNotEmpty(claimsSet.getJWTID()) &&
+                StringUtils.isNotEmpty(claimsSet.getStringClaim(CLIENT_ID));
+    }
+
+    private String getSigningTenantDomain(JWTClaimsSet claimsSet) {
+
+        Object realm = claimsSet.getClaim(OAuthConstants.OIDCClaims.REALM);
+        if (!(realm instanceof Map) || MapUtils.isEmpty((Map) realm)) {
+            return null;
+        }
+        Object signingTenantDomain = ((Map) realm).get(OAuthConstants.OIDCClaims.SIGNING_TENANT);
+        return signingTenantDomain instanceof String ? (String) signingTenantDomain : null;
+    }
+
+    private boolean isTenantAllowed(String signingTenantDomain) {
+
+        OAuthServerConfiguration config = OAuthServerConfiguration.getInstance();
+        if (config.isCrossTenantTokenIntrospectionAllowed()) {
+            return true;
+        }
+        // The tenant of the authorized user is known without the database only if tokens are signed with its key.
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        if (StringUtils.isEmpty(tenantDomain)) {
+            tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+        }
+        return !config.isJWTSignedWithSPKey() && tenantDomain.equalsIgnoreCase(signingTenantDomain);
+    }
+
+    /**
+     * Verify the signature of the token against the current and the previous signing keys of the tenant.
+     *
+     * @return Whether the signature is valid, or null if no verifier could be built for the keys of the tenant.
+     */
+    private Boolean verifySignature(SignedJWT signedJWT, String signingTenantDomain) throws IdentityOAuth2Exception {
+
+        List<SigningKey> verificationKeys = TenantSigningKeyRegistry.getInstance()
+                .getVerificationKeys(signingTenantDomain, signedJWT.getHeader().getAlgorithm());
+        boolean hasVerifier = false;
+        for (SigningKey verificationKey : verificationKeys) {
+            String keyId = signedJWT.getHeader().getKeyID();
+            if (keyId != null && !keyId.equals(verificationKey.getKeyId())) {
+                continue;
+            }
+            JWSVerifier verifier = getVerifier(verificationKey.getPublicJWK());
+            if (verifier == null) {
+                continue;
+            }
+            hasVerifier = true;
+            try {
+                if (signedJWT.verify(verifier)) {
+                    return true;
+                }
+            } catch (JOSEException e) {
+                throw new IdentityOAuth2Exception("Error while verifying the signature of the JWT access token.", e);
+            }
+        }
+        return hasVerifier ? Boolean.FALSE : null;
+    }
+
+    private JWSVerifier getVerifier(JWK publicJWK) throws IdentityOAuth2Exception {
+
+        try {
+            if (publicJWK instanceof RSAKey) {
+                return new RSASSAVerifier((RSAKey) publicJWK);
+            } else if (publicJWK instanceof ECKey) {
+                return new ECDSAVerifier((ECKey) publicJWK);
+            }
+        } catch (JOSEException e) {
+            throw new IdentityOAuth2Exception("Error while building the verifier of the JWT access token.", e);
+        }
+        return null;
+    }
+
+    private boolean isValidTime(JWTClaimsSet claimsSet) {
+
+        long timeStampSkewMillis = OAuthServerConfiguration.getInstance().getTimeStampSkewInSeconds() * 1000;
+        long currentTimeInMillis = System.currentTimeMillis();
+        if (currentTimeInMillis + timeStampSkewMillis > claimsSet.getExpirationTime().getTime()) {
+            return false;
+        }
+        Date notBeforeTime = claimsSet.getNotBeforeTime();
+        return notBeforeTime == null || currentTimeInMillis + timeStampSkewMillis >= notBeforeTime.getTime();
+    }
+
+    private OAuth2IntrospectionResponseDTO buildActiveResponse(OAuth2TokenValidationMessageContext messageContext,
+                                                               JWTClaimsSet claimsSet, String clientId)
+            throws ParseException {
+
+        OAuth2IntrospectionResponseDTO introResp = new OAuth2IntrospectionResponseDTO();
+        introResp.setActive(true);
+        // should be in seconds
+        introResp.setExp(claimsSet.getExpirationTime().getTime() / 1000);
+        introResp.setIat(claimsSet.getIssueTime().getTime() / 1000);
+        Date notBeforeTime = claimsSet.getNotBeforeTime() != null ? claimsSet.getNotBeforeTime() :
+                claimsSet.getIssueTime();
+        introResp.setNbf(notBeforeTime.getTime() / 1000);
+        introResp.setScope(claimsSet.getStringClaim(SCOPE));
+        introResp.setClientId(clientId);
+        introResp.setUsername(claimsSet.getSubject());
+        introResp.setSub(claimsSet.getSubject());
+        introResp.setIss(claimsSet.getIssuer());
+        introResp.setAud(String.join(",", claimsSet.getAudience()));
+        introResp.setJti(claimsSet.getJWTID());
+        introResp.setAut(claimsSet.getStringClaim(OAuthConstants.AUTHORIZED_USER_TYPE));
+        introResp.setBindingType(claimsSet.getStringClaim(BINDING_TYPE));
+        introResp.setBindingReference(claimsSet.getStringClaim(BINDING_REF));
+        introResp.setTokenType(TOKEN_TYPE);
+
+        messageContext.addProperty(OAuth2Util.JWT_ACCESS_TOKEN, TRUE);
+        messageContext.addProperty(OAuth2Util.SUB, claimsSet.getSubject());
+        messageContext.addProperty(OAuth2Util.ISS, claimsSet.getIssuer());
+        messageContext.addProperty(OAuth2Util.AUD, introResp.getAud());
+        messageContext.addProperty(OAuth2Util.JTI, claimsSet.getJWTID());
+        messageContext.getResponseDTO().setAuthorizedUser(claimsSet.getSubject());
+        introResp.getProperties().put(OAuth2Util.OAUTH2_VALIDATION_MESSAGE_CONTEXT, messageContext);
+        return introResp;
+    }
+
+    private OAuth2IntrospectionResponseDTO buildInactiveResponse(String errorMessage) {
+
+        if (log.isDebugEnabled()) {
+            log.debug(errorMessage);
+        }
+        OAuth2IntrospectionResponseDTO introResp = new OAuth2IntrospectionResponseDTO();
+        introResp.setActive(false);
+        introResp.setError(errorMessage);
+        return introResp;
+    }
+}
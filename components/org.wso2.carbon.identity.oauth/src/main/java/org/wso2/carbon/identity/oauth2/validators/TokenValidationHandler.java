@@ -43,8 +43,10 @@ import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import static org.wso2.carbon.identity.oauth2.util.OAuth2Util.isParsableJWT;
@@ -217,6 +219,30 @@ public class TokenValidationHandler {
         return clientApp;
     }
 
+    /**
+     * Resolve the access tokens of the given introspection requests together, so that building the introspection
+     * responses of the requests does not look up each token from the database separately. Failures are not
+     * propagated, as the tokens are then resolved individually while building the responses.
+     *
+     * @param validationRequests Introspection requests.
+     */
+    public void prefetchAccessTokens(List<OAuth2TokenValidationRequestDTO> validationRequests) {
+
+        Set<String> tokenIdentifiers = new LinkedHashSet<>();
+        for (OAuth2TokenValidationRequestDTO validationRequest : validationRequests) {
+            if (validationRequest.getAccessToken() != null &&
+                    StringUtils.isNotBlank(validationRequest.getAccessToken().getIdentifier())) {
+                tokenIdentifiers.add(validationRequest.getAccessToken().getIdentifier());
+            }
+        }
+        try {
+            OAuth2Util.loadAccessTokensToCache(tokenIdentifiers);
+        } catch (IdentityOAuth2Exception e) {
+            log.warn("Error while retrieving the access tokens of " + tokenIdentifiers.size() + " introspection " +
+                    "requests. Tokens will be retrieved individually.", e);
+        }
+    }
+
     /**
      * returns back the introspection response, which is compatible with RFC 7662.
      *
@@ -235,6 +261,44 @@ public class TokenValidationHandler {
 
         OAuth2TokenValidationRequestDTO.OAuth2AccessToken oAuth2Token = validationRequest.getAccessToken();
 
+        // Results carrying user attributes or built for validation context parameters are specific to the request.
+        IntrospectionResultCache introspectionResultCache = IntrospectionResultCache.getInstance();
+        boolean isCacheableRequest = introspectionResultCache.isEnabled()
+                && ArrayUtils.isEmpty(validationRequest.getRequiredClaimURIs())
+                && ArrayUtils.isEmpty(validationRequest.getContext());
+        String tenantDomain = null;
+        if (isCacheableRequest) {
+            tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+            OAuth2IntrospectionResponseDTO cachedIntroResp = introspectionResultCache.getResult(
+                    oAuth2Token.getIdentifier(), oAuth2Token.getTokenType(), tenantDomain);
+            if (cachedIntroResp != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Introspection result of the token is retrieved from the cache. Active: " +
+                            cachedIntroResp.isActive());
+                }
+                // Cached results carry no request properties, hence the context of this request is set afresh.
+                cachedIntroResp.getProperties().put(OAuth2Util.OAUTH2_VALIDATION_MESSAGE_CONTEXT, messageContext);
+                return cachedIntroResp;
+            }
+        }
+
+        // Self-issued JWT access tokens are validated without the database when local validation is enabled.
+        boolean isUserContextRequested = tokenGenerator != null && validationRequest.getRequiredClaimURIs() != null;
+        if (!isUserContextRequested && !RefreshTokenValidator.TOKEN_TYPE.equals(oAuth2Token.getTokenType())
+                && RevokedTokenRegistry.getInstance().isLocalValidationEnabled()) {
+            OAuth2IntrospectionResponseDTO localIntroResp = new SelfIssuedJWTValidator().validate(messageContext);
+            if (localIntroResp != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("JWT access token is validated locally. Active: " + localIntroResp.isActive());
+                }
+                if (isCacheableRequest) {
+                    introspectionResultCache.addResult(oAuth2Token.getIdentifier(), oAuth2Token.getTokenType(),
+                            tenantDomain, localIntroResp);
+                }
+                return localIntroResp;
+            }
+        }
+
         // To hold the applicable validators list from all the available validators. This list will be prioritized if we
         // have a token_type_hint.
         List<OAuth2TokenValidator> applicableValidators = new ArrayList<>();
@@ -275,9 +339,18 @@ public class TokenValidationHandler {
                 messageContext.addProperty(OAuthConstants.ACCESS_TOKEN_DO, accessTokenDO);
             }
         } catch (IllegalArgumentException e) {
-            return buildIntrospectionErrorResponse(e.getMessage());
+            OAuth2IntrospectionResponseDTO errorIntroResp = buildIntrospectionErrorResponse(e.getMessage());
+            if (isCacheableRequest) {
+                introspectionResultCache.addResult(oAuth2Token.getIdentifier(), oAuth2Token.getTokenType(),
+                        tenantDomain, errorIntroResp);
+            }
+            return errorIntroResp;
         }
 
+        // Active refresh token results are not cached, since refresh grants do not clear any cache entry of the
+        // refresh token they invalidate.
+        boolean isCacheableResult = false;
+
         // Catch the latest exception and throw it if there aren't any active tokens.
         Exception exception = null;
         for (OAuth2TokenValidator tokenValidator : applicableValidators) {
@@ -299,6 +372,7 @@ public class TokenValidationHandler {
                             log.debug("Introspecting token is active for the application:" + introResp.getClientId());
                         }
                         introResp.setTokenType(tokenValidator.getTokenType());
+                        isCacheableResult = isCacheableRequest && !(tokenValidator instanceof RefreshTokenValidator);
                         break;
                     }
                 }
@@ -313,6 +387,10 @@ public class TokenValidationHandler {
             if (introResp.getError() != null) {
                 LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
                         OAuthConstants.LogConstants.FAILED, introResp.getError(), "validate-token", null);
+                if (isCacheableRequest) {
+                    introspectionResultCache.addResult(oAuth2Token.getIdentifier(), oAuth2Token.getTokenType(),
+                            tenantDomain, introResp);
+                }
                 return introResp;
             } else if (exception != null) {
                 LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
@@ -321,7 +399,13 @@ public class TokenValidationHandler {
             } else {
                 LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
                         OAuthConstants.LogConstants.FAILED, "Token validation failed.", "validate-token", null);
-                return buildIntrospectionErrorResponse("Token validation failed");
+                OAuth2IntrospectionResponseDTO errorIntroResp = buildIntrospectionErrorResponse(
+                        "Token validation failed");
+                if (isCacheableRequest) {
+                    introspectionResultCache.addResult(oAuth2Token.getIdentifier(), oAuth2Token.getTokenType(),
+                            tenantDomain, errorIntroResp);
+                }
+                return errorIntroResp;
             }
         }
 
@@ -341,6 +425,10 @@ public class TokenValidationHandler {
         }
 
         introResp.getProperties().put(OAuth2Util.OAUTH2_VALIDATION_MESSAGE_CONTEXT, messageContext);
+        if (isCacheableResult) {
+            introspectionResultCache.addResult(oAuth2Token.getIdentifier(), oAuth2Token.getTokenType(), tenantDomain,
+                    introResp);
+        }
         return introResp;
     }
 
@@ -209,12 +209,13 @@ public class DefaultIDTokenBuilder implements org.wso2.carbon.identity.openidcon
             throw new IDTokenValidationFailureException("Error while validating ID Token token for required claims");
         }
 
-        if (isUnsignedIDToken()) {
+        JWSAlgorithm idTokenSignatureAlgorithm = OAuth2Util.getIdTokenSignatureAlgorithm(oAuthAppDO);
+        if (isUnsignedIDToken(idTokenSignatureAlgorithm)) {
             return new PlainJWT(jwtClaimsSet).serialize();
         }
 
-
-        return getIDToken(clientId, spTenantDomain, jwtClaimsSet, oAuthAppDO, getSigningTenantDomain(tokenReqMsgCtxt));
+        return getIDToken(clientId, spTenantDomain, jwtClaimsSet, oAuthAppDO, getSigningTenantDomain(tokenReqMsgCtxt),
+                idTokenSignatureAlgorithm);
     }
 
     @Override
@@ -294,25 +295,27 @@ public class DefaultIDTokenBuilder implements org.wso2.carbon.identity.openidcon
         jwtClaimsSetBuilder.subject(subject);
         JWTClaimsSet jwtClaimsSet = handleCustomOIDCClaims(authzReqMessageContext, jwtClaimsSetBuilder);
 
-        if (isUnsignedIDToken()) {
+        JWSAlgorithm idTokenSignatureAlgorithm = OAuth2Util.getIdTokenSignatureAlgorithm(oAuthAppDO);
+        if (isUnsignedIDToken(idTokenSignatureAlgorithm)) {
             return new PlainJWT(jwtClaimsSet).serialize();
         }
 
         return getIDToken(clientId, spTenantDomain, jwtClaimsSet, oAuthAppDO,
-                getSigningTenantDomain(authzReqMessageContext));
+                getSigningTenantDomain(authzReqMessageContext), idTokenSignatureAlgorithm);
     }
 
     private String getIDToken(String clientId, String spTenantDomain, JWTClaimsSet jwtClaimsSet, OAuthAppDO oAuthAppDO,
-                              String signingTenantDomain) throws IdentityOAuth2Exception {
+                              String signingTenantDomain, JWSAlgorithm idTokenSignatureAlgorithm)
+            throws IdentityOAuth2Exception {
 
         if (oAuthAppDO.isIdTokenEncryptionEnabled()) {
             checkIfPublicCertConfiguredForEncryption(clientId, spTenantDomain);
             setupEncryptionAlgorithms(oAuthAppDO, clientId);
-            return OAuth2Util.encryptJWT(jwtClaimsSet, signatureAlgorithm, signingTenantDomain,
+            return OAuth2Util.encryptJWT(jwtClaimsSet, idTokenSignatureAlgorithm, signingTenantDomain,
                     encryptionAlgorithm, encryptionMethod, spTenantDomain,
                     clientId).serialize();
         } else {
-            return OAuth2Util.signJWT(jwtClaimsSet, signatureAlgorithm, signingTenantDomain).serialize();
+            return OAuth2Util.signJWT(jwtClaimsSet, idTokenSignatureAlgorithm, signingTenantDomain).serialize();
         }
     }
 
@@ -363,8 +366,8 @@ public class DefaultIDTokenBuilder implements org.wso2.carbon.identity.openidcon
         return authorizationGrantCacheEntry.getMaxAge() != 0;
     }
 
-    private boolean isUnsignedIDToken() {
-        return JWSAlgorithm.NONE.getName().equals(signatureAlgorithm.getName());
+    private boolean isUnsignedIDToken(JWSAlgorithm idTokenSignatureAlgorithm) {
+        return JWSAlgorithm.NONE.getName().equals(idTokenSignatureAlgorithm.getName());
     }
 
     private String getAuthorizationCode(OAuthTokenReqMessageContext tokenReqMsgCtxt) {
@@ -512,8 +515,10 @@ public class DefaultIDTokenBuilder implements org.wso2.carbon.identity.openidcon
         } else if (isHMAC(signatureAlgorithm)) {
             // return signWithHMAC(jwtClaimsSet,jwsAlgorithm,request); implementation need to be done
             return null;
+        } else if (JWSAlgorithm.Family.EC.contains(signatureAlgorithm)) {
+            return OAuth2Util.signJWTWithECDSA(jwtClaimsSet, signatureAlgorithm,
+                    getSigningTenantDomain(tokenMsgContext)).serialize();
         } else {
-            // return signWithEC(jwtClaimsSet,jwsAlgorithm,request); implementation need to be done
             return null;
         }
     }
@@ -540,8 +545,10 @@ public class DefaultIDTokenBuilder implements org.wso2.carbon.identity.openidcon
         } else if (isHMAC(signatureAlgorithm)) {
             // return signWithHMAC(jwtClaimsSet,jwsAlgorithm,request); implementation need to be done
             return null;
+        } else if (JWSAlgorithm.Family.EC.contains(signatureAlgorithm)) {
+            return OAuth2Util.signJWTWithECDSA(jwtClaimsSet, signatureAlgorithm,
+                    getSigningTenantDomain(authzReqMessageContext)).serialize();
         } else {
-            // return signWithEC(jwtClaimsSet,jwsAlgorithm,request); implementation need to be done
             return null;
         }
     }
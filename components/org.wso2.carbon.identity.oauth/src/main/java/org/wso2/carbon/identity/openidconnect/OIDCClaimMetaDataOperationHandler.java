@@ -25,19 +25,21 @@ import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
 import org.wso2.carbon.identity.openidconnect.cache.OIDCScopeClaimCache;
 
 import java.util.Map;
 
 /**
  * This handles the claim metadata operation related events and it will clear the OIDCScopeClaimCache
- * cache when the event is triggered. When these relevant events are fired the cache will be
- * cleared based on the tenant and the cache will be rebuilt with the next request.
+ * and OIDCDiscoveryDocumentCache caches when the event is triggered. When these relevant events are fired the caches
+ * will be cleared based on the tenant and the caches will be rebuilt with the next request.
  */
 public class OIDCClaimMetaDataOperationHandler extends AbstractEventHandler {
 
     private static final Log log = LogFactory.getLog(OIDCClaimMetaDataOperationHandler.class);
     private final OIDCScopeClaimCache oidcScopeClaimCache = OIDCScopeClaimCache.getInstance();
+    private final OIDCDiscoveryDocumentCache oidcDiscoveryDocumentCache = OIDCDiscoveryDocumentCache.getInstance();
     private static final String HANDLER_NAME = "OIDCClaimMetaDataOperationHandler";
 
     @Override
@@ -58,6 +60,8 @@ public class OIDCClaimMetaDataOperationHandler extends AbstractEventHandler {
         }
         int tenantId = (int) eventProperties.get(IdentityEventConstants.EventProperty.TENANT_ID);
         oidcScopeClaimCache.clearScopeClaimMap(tenantId);
+        // Supported claims are advertised in the discovery document.
+        oidcDiscoveryDocumentCache.clearDocuments(tenantId);
     }
 
     @Override
@@ -50,6 +50,7 @@ public class OIDCConstants {
         public static final String OLD_ACCESS_TOKEN = "OLD_ACCESS_TOKEN";
         public static final String POST_REFRESH_TOKEN = "POST_REFRESH_TOKEN";
         public static final String IS_REQUEST_OBJECT_FLOW = "IS_REQUEST_OBJECT_FLOW";
+        public static final String IS_REQUEST_OBJECT_REFERENCE_MOVED = "IS_REQUEST_OBJECT_REFERENCE_MOVED";
     }
 }
 
@@ -22,7 +22,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.oltu.oauth2.common.message.types.ResponseType;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
-import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
+import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
@@ -47,15 +48,15 @@ public class OpenIDConnectSystemClaimImpl implements ClaimProvider {
     public static final Log LOG = LogFactory.getLog(OpenIDConnectSystemClaimImpl.class);
     private static final String SHA384 = "SHA-384";
     private static final String SHA512 = "SHA-512";
-    private JWSAlgorithm signatureAlgorithm = null;
 
     @Override
     public Map<String, Object> getAdditionalClaims(OAuthAuthzReqMessageContext authAuthzReqMessageContext,
                                                    OAuth2AuthorizeRespDTO authorizeRespDTO)
             throws IdentityOAuth2Exception {
 
-        //First set the signature Algorithm
-        setSignatureAlgorithm();
+        //First resolve the signature Algorithm
+        JWSAlgorithm signatureAlgorithm =
+                getSignatureAlgorithm(authAuthzReqMessageContext.getAuthorizationReqDTO().getConsumerKey());
 
         Map<String, Object> oidcSystemClaims = new HashMap<>();
 
@@ -63,13 +64,15 @@ public class OpenIDConnectSystemClaimImpl implements ClaimProvider {
         String authorizationCode = authorizeRespDTO.getAuthorizationCode();
         String accessToken = authorizeRespDTO.getAccessToken();
 
-        if (isIDTokenSigned() && isAccessTokenHashApplicable(responseType) && isNotBlank(accessToken)) {
-            String atHash = getHashValue(accessToken);
+        if (isIDTokenSigned(signatureAlgorithm) && isAccessTokenHashApplicable(responseType) &&
+                isNotBlank(accessToken)) {
+            String atHash = getHashValue(accessToken, signatureAlgorithm);
             oidcSystemClaims.put(AT_HASH, atHash);
         }
 
-        if (isIDTokenSigned() && isCodeHashApplicable(responseType) && isNotBlank(authorizationCode)) {
-            String cHash = getHashValue(authorizationCode);
+        if (isIDTokenSigned(signatureAlgorithm) && isCodeHashApplicable(responseType) &&
+                isNotBlank(authorizationCode)) {
+            String cHash = getHashValue(authorizationCode, signatureAlgorithm);
             oidcSystemClaims.put(C_HASH, cHash);
         }
         return oidcSystemClaims;
@@ -80,31 +83,41 @@ public class OpenIDConnectSystemClaimImpl implements ClaimProvider {
                                                    OAuth2AccessTokenRespDTO tokenRespDTO)
             throws IdentityOAuth2Exception {
 
-        //First set the signature Algorithm
-        setSignatureAlgorithm();
+        //First resolve the signature Algorithm
+        JWSAlgorithm signatureAlgorithm =
+                getSignatureAlgorithm(tokenReqMessageContext.getOauth2AccessTokenReqDTO().getClientId());
 
         Map<String, Object> oidcSystemClaims = new HashMap<>();
 
         String authorizationCode = tokenReqMessageContext.getOauth2AccessTokenReqDTO().getAuthorizationCode();
         String accessToken = tokenRespDTO.getAccessToken();
 
-        if (isIDTokenSigned() && isNotBlank(accessToken)) {
-            String atHash = getHashValue(accessToken);
+        if (isIDTokenSigned(signatureAlgorithm) && isNotBlank(accessToken)) {
+            String atHash = getHashValue(accessToken, signatureAlgorithm);
             oidcSystemClaims.put(AT_HASH, atHash);
         }
-        if (isIDTokenSigned() && isNotBlank(authorizationCode)) {
-            String cHash = getHashValue(authorizationCode);
+        if (isIDTokenSigned(signatureAlgorithm) && isNotBlank(authorizationCode)) {
+            String cHash = getHashValue(authorizationCode, signatureAlgorithm);
             oidcSystemClaims.put(C_HASH, cHash);
         }
         return oidcSystemClaims;
     }
 
-    private void setSignatureAlgorithm() throws IdentityOAuth2Exception {
-        signatureAlgorithm = OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm(
-                OAuthServerConfiguration.getInstance().getIdTokenSignatureAlgorithm());
+    private JWSAlgorithm getSignatureAlgorithm(String clientId) throws IdentityOAuth2Exception {
+
+        OAuthAppDO oAuthAppDO = null;
+        if (isNotBlank(clientId)) {
+            try {
+                oAuthAppDO = OAuth2Util.getAppInformationByClientId(clientId);
+            } catch (InvalidOAuthClientException e) {
+                throw new IdentityOAuth2Exception("Error occurred while getting app information for client_id: " +
+                        clientId, e);
+            }
+        }
+        return OAuth2Util.getIdTokenSignatureAlgorithm(oAuthAppDO);
     }
 
-    private boolean isIDTokenSigned() {
+    private boolean isIDTokenSigned(JWSAlgorithm signatureAlgorithm) {
         return !JWSAlgorithm.NONE.getName().equals(signatureAlgorithm.getName());
     }
 
@@ -116,10 +129,11 @@ public class OpenIDConnectSystemClaimImpl implements ClaimProvider {
      * This method generate both c_hash and at_hash values when value is given as authorization code and access token
      * respectively.
      * @param value
+     * @param signatureAlgorithm signature algorithm of the ID Token
      * @return at_hash or c_hash value
      * @throws IdentityOAuth2Exception
      */
-    private String getHashValue(String value) throws IdentityOAuth2Exception {
+    private String getHashValue(String value, JWSAlgorithm signatureAlgorithm) throws IdentityOAuth2Exception {
         String digAlg = OAuth2Util.mapDigestAlgorithm(signatureAlgorithm);
         MessageDigest md;
         try {
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.core.cache.BaseCache;
+import org.wso2.carbon.utils.CarbonUtils;
+
+/**
+ * Implements a cache to store the serialized OIDC discovery documents of a tenant, i.e. the OpenID provider
+ * configuration and the issuer location advertised by WebFinger.
+ * <p>
+ * Entries are cleared per tenant when the tenant, its OIDC scopes or its claims change. Other changes to the inputs
+ * of the documents are picked up once the entries expire as per the cache timeout.
+ */
+public class OIDCDiscoveryDocumentCache extends BaseCache<String, OIDCDiscoveryDocumentCacheEntry> {
+
+    public static final String OIDC_DISCOVERY_DOCUMENT_CACHE = "OIDCDiscoveryDocumentCache";
+    public static final String PROVIDER_CONFIGURATION = "openid-configuration";
+    public static final String WEBFINGER_ISSUER = "webfinger-issuer";
+    private static volatile OIDCDiscoveryDocumentCache instance;
+
+    private OIDCDiscoveryDocumentCache() {
+
+        super(OIDC_DISCOVERY_DOCUMENT_CACHE);
+    }
+
+    public static OIDCDiscoveryDocumentCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (OIDCDiscoveryDocumentCache.class) {
+                if (instance == null) {
+                    instance = new OIDCDiscoveryDocumentCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void addDocument(String documentType, OIDCDiscoveryDocumentCacheEntry document, int tenantId) {
+
+        super.addToCache(documentType, document, tenantId);
+    }
+
+    public OIDCDiscoveryDocumentCacheEntry getDocument(String documentType, int tenantId) {
+
+        return super.getValueFromCache(documentType, tenantId);
+    }
+
+    /**
+     * Clear all the discovery documents of the given tenant.
+     *
+     * @param tenantId Tenant id.
+     */
+    public void clearDocuments(int tenantId) {
+
+        super.clear(tenantId);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache entry which will be used in {@link OIDCDiscoveryDocumentCache}. Holds a serialized document along with the
+ * validators used to answer conditional requests for it.
+ */
+public class OIDCDiscoveryDocumentCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -3047816152417213374L;
+    private static final String WILDCARD_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
+    private final String document;
+    private final String eTag;
+    private final long lastModified;
+
+    public OIDCDiscoveryDocumentCacheEntry(String document) {
+
+        this.document = document;
+        this.eTag = generateETag(document);
+        // HTTP dates have a precision of seconds.
+        this.lastModified = TimeUnit.SECONDS.toMillis(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    }
+
+    public String getDocument() {
+
+        return document;
+    }
+
+    public String getETag() {
+
+        return eTag;
+    }
+
+    public long getLastModified() {
+
+        return lastModified;
+    }
+
+    /**
+     * Check whether the client already holds the current version of the document, as per the If-None-Match and
+     * If-Modified-Since headers of the request. If-Modified-Since is ignored when If-None-Match is present.
+     *
+     * @param ifNoneMatch     Value of the If-None-Match header, if any.
+     * @param ifModifiedSince Value of the If-Modified-Since header in milliseconds or a negative value if absent.
+     * @return True if a 304 response can be sent for the request.
+     */
+    public boolean isNotModified(String ifNoneMatch, long ifModifiedSince) {
+
+        if (StringUtils.isNotBlank(ifNoneMatch)) {
+            return isETagMatched(ifNoneMatch, eTag);
+        }
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * Generate a strong entity tag for the given content.
+     *
+     * @param content Content of the response.
+     * @return Quoted entity tag.
+     */
+    public static String generateETag(String content) {
+
+        return "\"" + DigestUtils.sha256Hex(content) + "\"";
+    }
+
+    /**
+     * Check whether the given If-None-Match header value matches the entity tag, using the weak comparison.
+     *
+     * @param ifNoneMatch Value of the If-None-Match header.
+     * @param eTag        Entity tag of the current representation.
+     * @return True if the entity tag is matched.
+     */
+    public static boolean isETagMatched(String ifNoneMatch, String eTag) {
+
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (WILDCARD_ETAG.equals(value)) {
+                return true;
+            }
+            if (value.startsWith(WEAK_ETAG_PREFIX)) {
+                value = value.substring(WEAK_ETAG_PREFIX.length());
+            }
+            if (value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -380,14 +380,9 @@ public class RequestObjectDAOImpl implements RequestObjectDAO {
             throws IdentityOAuth2Exception {
 
         Connection connection = null;
-        PreparedStatement ps = null;
         try {
             connection = IdentityDatabaseUtil.getDBConnection();
-            String sql = SQLQueries.REFRESH_REQUEST_OBJECT;
-            ps = connection.prepareStatement(sql);
-            ps.setString(1, newAccessTokenId);
-            ps.setString(2, oldAccessTokenId);
-            ps.execute();
+            refreshRequestObjectReference(connection, oldAccessTokenId, newAccessTokenId);
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -396,7 +391,26 @@ public class RequestObjectDAOImpl implements RequestObjectDAO {
             throw new IdentityOAuth2Exception(errorMsg, e);
 
         } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, null, ps);
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Moves the request object reference of a refreshed token to the new token, within the transaction of the given
+     * connection. The caller is responsible for committing the transaction.
+     *
+     * @param connection       db connection
+     * @param oldAccessTokenId id of the refreshed token
+     * @param newAccessTokenId id of the new token
+     * @throws SQLException
+     */
+    public void refreshRequestObjectReference(Connection connection, String oldAccessTokenId,
+                                              String newAccessTokenId) throws SQLException {
+
+        try (PreparedStatement ps = connection.prepareStatement(SQLQueries.REFRESH_REQUEST_OBJECT)) {
+            ps.setString(1, newAccessTokenId);
+            ps.setString(2, oldAccessTokenId);
+            ps.execute();
         }
     }
 
@@ -404,15 +418,9 @@ public class RequestObjectDAOImpl implements RequestObjectDAO {
     public void updateRequestObjectReferenceCodeToToken(String codeId, String tokenId) throws IdentityOAuth2Exception {
 
         Connection connection = null;
-        PreparedStatement ps = null;
         try {
             connection = IdentityDatabaseUtil.getDBConnection();
-            deleteRequestObjectReferenceforCode(connection, tokenId);
-            String sql = SQLQueries.UPDATE_REQUEST_OBJECT_TOKEN_FOR_CODE;
-            ps = connection.prepareStatement(sql);
-            ps.setString(1, tokenId);
-            ps.setString(2, codeId);
-            ps.execute();
+            updateRequestObjectReferenceCodeToToken(connection, codeId, tokenId);
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -423,7 +431,28 @@ public class RequestObjectDAOImpl implements RequestObjectDAO {
             String errorMsg = "Can not delete existing entry for the same token id" + tokenId;
             throw new IdentityOAuth2Exception(errorMsg, e);
         } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, null, ps);
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Moves the request object reference of an authorization code to the token issued for it, within the
+     * transaction of the given connection. The caller is responsible for committing the transaction.
+     *
+     * @param connection db connection
+     * @param codeId     id of the authorization code
+     * @param tokenId    id of the token issued for the code
+     * @throws SQLException
+     * @throws IdentityOAuthAdminException
+     */
+    public void updateRequestObjectReferenceCodeToToken(Connection connection, String codeId, String tokenId)
+            throws SQLException, IdentityOAuthAdminException {
+
+        deleteRequestObjectReferenceforCode(connection, tokenId);
+        try (PreparedStatement ps = connection.prepareStatement(SQLQueries.UPDATE_REQUEST_OBJECT_TOKEN_FOR_CODE)) {
+            ps.setString(1, tokenId);
+            ps.setString(2, codeId);
+            ps.execute();
         }
     }
 
@@ -117,6 +117,10 @@ public class RequestObjectHandler extends AbstractEventHandler {
             }
             return;
         }
+        if (Boolean.TRUE.equals(eventProperties.get(OIDCConstants.Event.IS_REQUEST_OBJECT_REFERENCE_MOVED))) {
+            // The reference was moved to the new token in the same transaction which refreshed the token.
+            return;
+        }
         String oldAccessToken = (String) eventProperties.get(OIDCConstants.Event.OLD_ACCESS_TOKEN);
         String newAccessToken = (String) eventProperties.get(OIDCConstants.Event.NEW_ACCESS_TOKEN);
         OAuthTokenPersistenceFactory.getInstance().getRequestObjectDAO().refreshRequestObjectReference
@@ -130,6 +134,10 @@ public class RequestObjectHandler extends AbstractEventHandler {
         String codeId = (String) eventProperties.get(OIDCConstants.Event.CODE_ID);
 
         if (StringUtils.isNotEmpty(tokenId) && OAuthConstants.AuthorizationCodeState.INACTIVE.equals(codeState)) {
+            if (Boolean.TRUE.equals(eventProperties.get(OIDCConstants.Event.IS_REQUEST_OBJECT_REFERENCE_MOVED))) {
+                // The reference was moved to the token in the same transaction which deactivated the code.
+                return;
+            }
             //update the token id  of request object reference identified by code id
             OAuthTokenPersistenceFactory.getInstance().getRequestObjectDAO().updateRequestObjectReferenceCodeToToken
                     (codeId, tokenId);
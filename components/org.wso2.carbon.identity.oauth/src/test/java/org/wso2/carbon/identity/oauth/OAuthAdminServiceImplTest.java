@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.oauth;
 
+import com.nimbusds.jose.JWSAlgorithm;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.commons.lang.StringUtils;
@@ -55,6 +56,7 @@ import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.dao.TokenManagementDAOImpl;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 import org.wso2.carbon.user.api.RealmConfiguration;
@@ -95,7 +97,7 @@ import static org.powermock.reflect.Whitebox.invokeMethod;
 @PowerMockIgnore({"javax.net.*", "javax.security.*", "javax.crypto.*"})
 @PrepareForTest({OAuthAdminServiceImpl.class, IdentityCoreServiceComponent.class, ConfigurationContextService.class,
         OAuthUtil.class, OAuthAppDAO.class, OAuth2Util.class, OAuthComponentServiceHolder.class,
-        IdentityUtil.class})
+        IdentityUtil.class, TenantSigningKeyRegistry.class})
 public class OAuthAdminServiceImplTest extends PowerMockIdentityBaseTest {
 
     private static final String CONSUMER_KEY = "consumer:key";
@@ -743,6 +745,63 @@ public class OAuthAdminServiceImplTest extends PowerMockIdentityBaseTest {
         invokeMethod(oAuthAdminService, "validateAudiences", appDTO);
     }
 
+    @DataProvider(name = "tokenSignatureAlgorithmDataProvider")
+    public Object[][] getTokenSignatureAlgorithms() {
+
+        return new Object[][]{
+                // Signature algorithm, JWS algorithm, supported by the tenant signing key, valid.
+                {null, null, false, true},
+                {"SHA256withRSA", JWSAlgorithm.RS256, true, true},
+                {"SHA256withEC", JWSAlgorithm.ES256, true, true},
+                {"SHA256withEC", JWSAlgorithm.ES256, false, false},
+                {"SHA512withEC", JWSAlgorithm.ES512, false, false},
+                {"SHA256withHMAC", JWSAlgorithm.HS256, true, false},
+                {"NONE", null, true, false}
+        };
+    }
+
+    @Test(description = "Test validating the token signature algorithm against the tenant signing key",
+            dataProvider = "tokenSignatureAlgorithmDataProvider")
+    public void testValidateTokenSignatureAlgorithm(String tokenSignatureAlgorithm, JWSAlgorithm jwsAlgorithm,
+                                                    boolean isSupported, boolean isValid) throws Exception {
+
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm(tokenSignatureAlgorithm)).thenReturn(jwsAlgorithm);
+        TenantSigningKeyRegistry signingKeyRegistry = mock(TenantSigningKeyRegistry.class);
+        when(signingKeyRegistry.isSupported(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, jwsAlgorithm))
+                .thenReturn(isSupported);
+        mockStatic(TenantSigningKeyRegistry.class);
+        when(TenantSigningKeyRegistry.getInstance()).thenReturn(signingKeyRegistry);
+
+        OAuthAdminServiceImpl oAuthAdminService = new OAuthAdminServiceImpl();
+        try {
+            invokeMethod(oAuthAdminService, "validateTokenSignatureAlgorithm", tokenSignatureAlgorithm,
+                    MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+            Assert.assertTrue(isValid, "Token signature algorithm: " + tokenSignatureAlgorithm +
+                    " should not be allowed.");
+        } catch (IdentityOAuthClientException e) {
+            Assert.assertFalse(isValid, "Token signature algorithm: " + tokenSignatureAlgorithm +
+                    " should be allowed.");
+            Assert.assertEquals(e.getErrorCode(), Error.INVALID_REQUEST.getErrorCode());
+        }
+    }
+
+    @Test(description = "Test validating the token signature algorithm when the tenant signing key cannot be loaded",
+            expectedExceptions = IdentityOAuthAdminException.class)
+    public void testValidateTokenSignatureAlgorithmWithoutSigningKey() throws Exception {
+
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm("SHA256withEC")).thenReturn(JWSAlgorithm.ES256);
+        TenantSigningKeyRegistry signingKeyRegistry = mock(TenantSigningKeyRegistry.class);
+        when(signingKeyRegistry.isSupported(anyString(), any(JWSAlgorithm.class)))
+                .thenThrow(new IdentityOAuth2Exception("Signing key is not available."));
+        mockStatic(TenantSigningKeyRegistry.class);
+        when(TenantSigningKeyRegistry.getInstance()).thenReturn(signingKeyRegistry);
+
+        invokeMethod(new OAuthAdminServiceImpl(), "validateTokenSignatureAlgorithm", "SHA256withEC",
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+    }
+
     private void mockUserstore() throws Exception {
 
         mockOAuthComponentServiceHolder();
@@ -28,6 +28,8 @@ import org.wso2.carbon.identity.oauth.cache.CacheEntry;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
 
+import java.util.Arrays;
+
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
@@ -72,6 +74,40 @@ public class OAuthUtilTest {
         oAuthCache.clear(-1234);
     }
 
+    @Test
+    public void testClearOAuthCacheByAccessToken() throws Exception {
+
+        String accessToken = "some-access-token";
+        OAuthCacheKey oAuthCacheKey = new OAuthCacheKey(accessToken);
+        OAuthCache oAuthCache = getOAuthCache(oAuthCacheKey);
+
+        assertNotNull(oAuthCache.getValueFromCache(oAuthCacheKey), "Should give the cached value before cleaning it.");
+        OAuthUtil.clearOAuthCacheByAccessToken(accessToken);
+        assertNull(oAuthCache.getValueFromCache(oAuthCacheKey), "Should clear the cached value against the token.");
+
+        // Clear all the cached values to make sure no side effect on other tests.
+        oAuthCache.clear(-1234);
+    }
+
+    @Test
+    public void testClearCacheEntries() throws Exception {
+
+        OAuthCacheKey firstCacheKey = new OAuthCacheKey("first-cache-key");
+        OAuthCacheKey secondCacheKey = new OAuthCacheKey("second-cache-key");
+        OAuthCacheKey retainedCacheKey = new OAuthCacheKey("retained-cache-key");
+        getOAuthCache(firstCacheKey);
+        getOAuthCache(secondCacheKey);
+        OAuthCache oAuthCache = getOAuthCache(retainedCacheKey);
+
+        oAuthCache.clearCacheEntries(Arrays.asList(firstCacheKey, secondCacheKey), null);
+        assertNull(oAuthCache.getValueFromCache(firstCacheKey), "Should clear the cached value of the first key.");
+        assertNull(oAuthCache.getValueFromCache(secondCacheKey), "Should clear the cached value of the second key.");
+        assertNotNull(oAuthCache.getValueFromCache(retainedCacheKey), "Should not clear the values of other keys.");
+
+        // Clear all the cached values to make sure no side effect on other tests.
+        oAuthCache.clear(-1234);
+    }
+
     @Test(dataProvider = "testClearOAuthCache")
     public void testClearOAuthCacheKeyUser(boolean isUserStoreCaseSensitive) throws Exception {
 
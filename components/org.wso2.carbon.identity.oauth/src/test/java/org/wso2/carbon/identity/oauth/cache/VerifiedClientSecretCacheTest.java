@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for VerifiedClientSecretCache.
+ */
+@WithCarbonHome
+public class VerifiedClientSecretCacheTest {
+
+    private static final String CLIENT_ID = "ca19a540f544777860e44e75f605d927";
+    private static final String OTHER_CLIENT_ID = "b4d9a7d3e8c24a61f5e0a93b7c2d1e6f";
+    private static final String CLIENT_SECRET = "87n9a540f544777860e44e75f605d435";
+    private static final String PERSISTED_SECRET = "{\"algorithm\":\"SHA-256\",\"hash\":\"hashedSecret\"}";
+    private static final String UPDATED_PERSISTED_SECRET = "{\"algorithm\":\"SHA-256\",\"hash\":\"updatedSecret\"}";
+
+    @BeforeMethod
+    public void setUp() {
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext privilegedCarbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        privilegedCarbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        privilegedCarbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        // Clear all the cached values to make sure no side effect on other tests.
+        new VerifiedClientSecretCache(true).clear(MultitenantConstants.SUPER_TENANT_ID);
+        PrivilegedCarbonContext.endTenantFlow();
+    }
+
+    @Test
+    public void testVerifiedSecretIsCached() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true);
+        assertFalse(cache.isVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+        assertTrue(cache.isVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+    }
+
+    @Test
+    public void testSecretHmacIsCached() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true);
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+
+        VerifiedClientSecretCacheEntry entry = cache.getValueFromCache(CLIENT_ID);
+        assertNotNull(entry);
+        assertEquals(entry.getPersistedSecret(), PERSISTED_SECRET);
+        assertFalse(new String(entry.getSecretHmac()).contains(CLIENT_SECRET),
+                "The presented secret should not be cached in plain text.");
+    }
+
+    @Test
+    public void testDifferentSecretIsNotVerified() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true);
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+
+        assertFalse(cache.isVerified(CLIENT_ID, "invalidSecret", PERSISTED_SECRET));
+        assertFalse(cache.isVerified(OTHER_CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+        assertEquals(cache.getMissCount(), 2);
+    }
+
+    @Test
+    public void testChangedPersistedSecretIsNotVerified() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true);
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+
+        assertFalse(cache.isVerified(CLIENT_ID, CLIENT_SECRET, UPDATED_PERSISTED_SECRET));
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, UPDATED_PERSISTED_SECRET);
+        // Once verified against the new secret, the previous secret of the application is no longer honoured.
+        assertTrue(cache.isVerified(CLIENT_ID, CLIENT_SECRET, UPDATED_PERSISTED_SECRET));
+        assertFalse(cache.isVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+    }
+
+    @Test
+    public void testSecretVerifiedByOtherNodeIsNotVerified() {
+
+        // Each node computes the HMAC with its own key, hence entries added by another node are never honoured.
+        new VerifiedClientSecretCache(true).addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+
+        assertFalse(new VerifiedClientSecretCache(true).isVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+    }
+
+    @Test
+    public void testClearVerified() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true);
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+        cache.clearVerified(CLIENT_ID);
+
+        assertNull(cache.getValueFromCache(CLIENT_ID));
+        assertFalse(cache.isVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+        assertEquals(cache.getInvalidationCount(), 1);
+    }
+
+    @Test
+    public void testDisabledCache() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(false);
+        cache.addVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET);
+
+        assertNull(cache.getValueFromCache(CLIENT_ID));
+        assertFalse(cache.isVerified(CLIENT_ID, CLIENT_SECRET, PERSISTED_SECRET));
+    }
+}
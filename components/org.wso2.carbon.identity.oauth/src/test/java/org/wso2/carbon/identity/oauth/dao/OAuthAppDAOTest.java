@@ -35,7 +35,9 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
 import org.wso2.carbon.identity.oauth.IdentityOAuthClientException;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth.cache.UnknownClientIdCache;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
 import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
@@ -59,6 +61,8 @@ import java.util.UUID;
 
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.powermock.api.mockito.PowerMockito.doNothing;
 import static org.powermock.api.mockito.PowerMockito.doThrow;
@@ -85,7 +89,8 @@ import static org.wso2.carbon.identity.oauth.Error.DUPLICATE_OAUTH_CLIENT;
                 IdentityUtil.class,
                 MultitenantUtils.class,
                 OAuthComponentServiceHolder.class,
-                OAuthComponentServiceHolder.class
+                OAuthComponentServiceHolder.class,
+                UnknownClientIdCache.class
         }
 )
 @PowerMockIgnore({"javax.*", "org.w3c.*", "org.xml.*"})
@@ -140,6 +145,9 @@ public class OAuthAppDAOTest extends TestOAuthDAOBase {
     @Mock
     OAuthComponentServiceHolder mockOAuthComponentServiceHolder;
 
+    @Mock
+    UnknownClientIdCache mockedUnknownClientIdCache;
+
     @BeforeClass
     public void setUp() throws Exception {
         initMocks(this);
@@ -638,6 +646,60 @@ public class OAuthAppDAOTest extends TestOAuthDAOBase {
         }
     }
 
+    @Test
+    public void testGetAppInformationOfUnknownClientId() throws Exception {
+
+        setupMocksForTest();
+        mockUnknownClientIdCache();
+        try (Connection connection = getConnection(DB_NAME)) {
+            mockIdentityUtilDataBaseConnection(connection);
+
+            try {
+                new OAuthAppDAO().getAppInformation(CONSUMER_KEY);
+                fail("Retrieving an application with an unknown client id did not fail as expected.");
+            } catch (InvalidOAuthClientException e) {
+                verify(mockedUnknownClientIdCache).addUnknown(CONSUMER_KEY);
+            }
+        }
+    }
+
+    @Test
+    public void testGetAppInformationOfCachedUnknownClientId() throws Exception {
+
+        setupMocksForTest();
+        mockUnknownClientIdCache();
+        when(mockedUnknownClientIdCache.isUnknown(CONSUMER_KEY)).thenReturn(true);
+        try (Connection connection = getConnection(DB_NAME)) {
+            mockIdentityUtilDataBaseConnection(connection);
+            addOAuthApplication(getDefaultOAuthAppDO());
+            // The client id is rejected without querying the database, which would otherwise fail.
+            mockIdentityDataBaseUtilConnection(getExceptionThrowingConnection(connection));
+
+            try {
+                new OAuthAppDAO().getAppInformation(CONSUMER_KEY);
+                fail("Retrieving an application with a cached unknown client id did not fail as expected.");
+            } catch (InvalidOAuthClientException e) {
+                verify(mockedUnknownClientIdCache, never()).addUnknown(CONSUMER_KEY);
+            }
+        }
+    }
+
+    @Test
+    public void testGetAppInformationOfKnownClientId() throws Exception {
+
+        setupMocksForTest();
+        mockUnknownClientIdCache();
+        try (Connection connection = getConnection(DB_NAME)) {
+            mockIdentityUtilDataBaseConnection(connection);
+            addOAuthApplication(getDefaultOAuthAppDO());
+            // Creating the application clears the entry of its client id cached by any node.
+            verify(mockedUnknownClientIdCache).clearUnknown(CONSUMER_KEY);
+
+            assertNotNull(new OAuthAppDAO().getAppInformation(CONSUMER_KEY));
+            verify(mockedUnknownClientIdCache, never()).addUnknown(anyString());
+        }
+    }
+
     @Test
     public void testGetAppInformationByAppName() throws Exception {
 
@@ -787,6 +849,13 @@ public class OAuthAppDAOTest extends TestOAuthDAOBase {
         return false;
     }
 
+    private void mockUnknownClientIdCache() {
+
+        Mockito.reset(mockedUnknownClientIdCache);
+        mockStatic(UnknownClientIdCache.class);
+        when(UnknownClientIdCache.getInstance()).thenReturn(mockedUnknownClientIdCache);
+    }
+
     private void mockUserstore() throws Exception {
 
         mockStatic(OAuthComponentServiceHolder.class);
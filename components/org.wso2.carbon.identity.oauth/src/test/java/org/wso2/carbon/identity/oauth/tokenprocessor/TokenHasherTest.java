@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.tokenprocessor;
+
+import org.json.JSONObject;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Unit tests for TokenHasher.
+ */
+public class TokenHasherTest {
+
+    @DataProvider(name = "hashDataProvider")
+    public Object[][] hashDataProvider() {
+
+        return new Object[][]{
+                {"SHA-256", "a9b1c4e2-6f3d-4b7a-9e8c-1d2f3a4b5c6d"},
+                {"SHA-256", "t\u00f6k\u00eb\u00f1"},
+                {"SHA-384", "refresh-token"},
+                {"SHA-512", "client-secret"},
+                {"MD5", "authorization-code"}
+        };
+    }
+
+    @Test(dataProvider = "hashDataProvider")
+    public void testHashIsIdenticalToJsonEnvelope(String algorithm, String plainText) throws Exception {
+
+        assertEquals(TokenHasher.getInstance(algorithm).hash(plainText), referenceHash(algorithm, plainText));
+    }
+
+    @Test
+    public void testBulkHash() throws Exception {
+
+        List<String> plainTexts = Arrays.asList("token1", "token2", "token3");
+        TokenHasher tokenHasher = TokenHasher.getInstance("SHA-256");
+        List<String> hashes = tokenHasher.hash(plainTexts);
+
+        assertEquals(hashes.size(), plainTexts.size());
+        for (int i = 0; i < plainTexts.size(); i++) {
+            assertEquals(hashes.get(i), referenceHash("SHA-256", plainTexts.get(i)));
+        }
+    }
+
+    @Test
+    public void testGetDigest() throws Exception {
+
+        TokenHasher tokenHasher = TokenHasher.getInstance("SHA-256");
+        String hash = tokenHasher.hash("token1");
+
+        assertEquals(tokenHasher.getDigest(hash), new JSONObject(hash).getString(HashingPersistenceProcessor.HASH));
+        assertNull(tokenHasher.getDigest(TokenHasher.getInstance("SHA-512").hash("token1")));
+        assertNull(tokenHasher.getDigest("token1"));
+    }
+
+    @Test
+    public void testInstanceIsReusedPerAlgorithm() throws Exception {
+
+        assertSame(TokenHasher.getInstance("SHA-256"), TokenHasher.getInstance("SHA-256"));
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testUnsupportedAlgorithm() throws Exception {
+
+        TokenHasher.getInstance("TestAlgo");
+    }
+
+    /**
+     * Hash the value the way it was done before introducing TokenHasher.
+     */
+    private String referenceHash(String algorithm, String plainText) throws Exception {
+
+        MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+        messageDigest.update(plainText.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+        for (byte byt : messageDigest.digest()) {
+            hex.append(Integer.toString((byt & 0xff) + 0x100, 16).substring(1));
+        }
+        JSONObject object = new JSONObject();
+        object.put(HashingPersistenceProcessor.ALGORITHM, algorithm);
+        object.put(HashingPersistenceProcessor.HASH, hex.toString());
+        return object.toString();
+    }
+}
@@ -30,6 +30,8 @@ import org.wso2.carbon.base.CarbonBaseConstants;
 import org.wso2.carbon.identity.common.testng.WithCarbonHome;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
+import org.wso2.carbon.identity.oauth.cache.VerifiedClientSecretCache;
+import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.bean.OAuthClientAuthnContext;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
@@ -43,14 +45,18 @@ import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
 
 @PrepareForTest({
         HttpServletRequest.class,
         OAuth2Util.class,
-        IdentityUtil.class
+        IdentityUtil.class,
+        VerifiedClientSecretCache.class
 })
 @WithCarbonHome
 public class BasicAuthClientAuthenticatorTest extends PowerMockIdentityBaseTest {
@@ -162,6 +168,28 @@ public class BasicAuthClientAuthenticatorTest extends PowerMockIdentityBaseTest
         basicAuthClientAuthenticator.authenticateClient(httpServletRequest, bodyContent, oAuthClientAuthnContext);
     }
 
+    @Test
+    public void testAuthenticateInvalidClientClearsVerifiedSecret() throws Exception {
+
+        HttpServletRequest httpServletRequest = PowerMockito.mock(HttpServletRequest.class);
+        when(httpServletRequest.getHeader(HTTPConstants.HEADER_AUTHORIZATION)).thenReturn(
+                ClientAuthUtil.getBase64EncodedBasicAuthHeader(CLIENT_ID, CLIENT_SECRET, null));
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.authenticateClient(anyString(), anyString())).thenThrow(
+                new InvalidOAuthClientException("Invalid client"));
+        VerifiedClientSecretCache verifiedClientSecretCache = mock(VerifiedClientSecretCache.class);
+        mockStatic(VerifiedClientSecretCache.class);
+        when(VerifiedClientSecretCache.getInstance()).thenReturn(verifiedClientSecretCache);
+
+        try {
+            basicAuthClientAuthenticator.authenticateClient(httpServletRequest, new HashMap<String, List>(),
+                    buildOAuthClientAuthnContext(CLIENT_ID, CLIENT_SECRET));
+            fail("Authenticating an invalid client should fail.");
+        } catch (OAuthClientAuthnException e) {
+            verify(verifiedClientSecretCache).clearVerified(CLIENT_ID);
+        }
+    }
+
     @DataProvider(name = "testCanAuthenticateData")
     public Object[][] testCanAuthenticateData() {
 
@@ -0,0 +1,572 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
+import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
+import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAOImpl;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.doAnswer;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for AccessTokenDAOImpl.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, OAuth2Util.class, OAuth2TokenUtil.class, IdentityUtil.class,
+        OAuthServerConfiguration.class, OAuthTokenPersistenceFactory.class, OAuthUtil.class})
+public class AccessTokenDAOImplTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testAccessTokenDB";
+    private static final String CONSUMER_KEY = "accessTokenDAOConsumerKey";
+    private static final String APP_NAME = "accessTokenDAOApp";
+    private static final String CALLBACK = "http://localhost:8080/redirect";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int TENANT_ID = -1234;
+
+    @Mock
+    private OAuthServerConfiguration mockedServerConfig;
+
+    @Mock
+    private ApplicationManagementService mockedApplicationManagementService;
+
+    private AccessTokenDAOImpl accessTokenDAO;
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        createApplication();
+        createIdentityProvider();
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        initMocks(this);
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection()).thenAnswer(invocation -> getTransactionalConnection());
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(
+                invocation -> getTransactionalConnection());
+        // Transactions are committed and rolled back on the database, so that a failed batch leaves no rows behind.
+        doAnswer(invocation -> {
+            ((Connection) invocation.getArgument(0)).commit();
+            return null;
+        }).when(IdentityDatabaseUtil.class, "commitTransaction", any(Connection.class));
+        doAnswer(invocation -> {
+            ((Connection) invocation.getArgument(0)).rollback();
+            return null;
+        }).when(IdentityDatabaseUtil.class, "rollbackTransaction", any(Connection.class));
+        // Connections are returned to the pool, as the pool of the test data source would otherwise be exhausted.
+        doAnswer(invocation -> {
+            closeConnection(invocation.getArgument(0));
+            return null;
+        }).when(IdentityDatabaseUtil.class);
+        IdentityDatabaseUtil.closeConnection(nullable(Connection.class));
+        doAnswer(invocation -> {
+            closeConnection(invocation.getArgument(0));
+            return null;
+        }).when(IdentityDatabaseUtil.class);
+        IdentityDatabaseUtil.closeAllConnections(nullable(Connection.class), nullable(ResultSet.class),
+                nullable(PreparedStatement.class));
+
+        mockStatic(OAuthServerConfiguration.class);
+        when(OAuthServerConfiguration.getInstance()).thenReturn(mockedServerConfig);
+        when(mockedServerConfig.getPersistenceProcessor()).thenReturn(new PlainTextPersistenceProcessor());
+        when(mockedServerConfig.getHashAlgorithm()).thenReturn("SHA-256");
+        when(mockedServerConfig.isTokenCleanupEnabled()).thenReturn(false);
+        mockStatic(IdentityUtil.class);
+        mockStatic(OAuth2TokenUtil.class);
+
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getOAuthTokenIssuerForOAuthApp(anyString())).thenReturn(mock(OauthTokenIssuer.class));
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(anyString(), any())).thenAnswer(
+                invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getSanitizedUserStoreDomain(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getUserStoreDomain(any())).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        when(OAuth2Util.getAuthenticatedIDP(any())).thenReturn("LOCAL");
+        when(OAuth2Util.getTenantId(anyString())).thenReturn(TENANT_ID);
+        when(OAuth2Util.buildScopeString(any())).thenCallRealMethod();
+        when(OAuth2Util.hashScopes(any(String[].class))).thenCallRealMethod();
+        when(OAuth2Util.createAuthenticatedUser(anyString(), anyString(), anyString(), anyString())).thenAnswer(
+                invocation -> mock(AuthenticatedUser.class));
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setConsentedTokenColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(mockedApplicationManagementService);
+
+        authenticatedUser = new AuthenticatedUser();
+        authenticatedUser.setUserName("user1");
+        authenticatedUser.setTenantDomain(TENANT_DOMAIN);
+        authenticatedUser.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        accessTokenDAO = new AccessTokenDAOImpl();
+    }
+
+    @Test
+    public void testInsertAccessTokens() throws Exception {
+
+        AccessContextTokenDO firstToken = createAccessContextToken(UUID.randomUUID().toString(), "openid");
+        AccessContextTokenDO secondToken = createAccessContextToken(UUID.randomUUID().toString(), "email");
+
+        List<AccessContextTokenDO> failedTokens = accessTokenDAO.insertAccessTokens(
+                Arrays.asList(firstToken, secondToken));
+
+        assertTrue(failedTokens.isEmpty());
+        assertEquals(getTokenState(firstToken), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(getTokenState(secondToken), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(getScopeCount(firstToken), 1);
+        assertEquals(getScopeCount(secondToken), 1);
+    }
+
+    @Test
+    public void testInsertAccessTokensWithFailedToken() throws Exception {
+
+        // A token which can not be stored fails the batch, hence the batch is persisted token by token.
+        AccessContextTokenDO invalidToken = createAccessContextToken(UUID.randomUUID().toString(), "openid");
+        invalidToken.getNewAccessTokenDO().setGrantType(StringUtils.repeat("x", 100));
+        AccessContextTokenDO newToken = createAccessContextToken(UUID.randomUUID().toString(), "profile");
+        List<AccessContextTokenDO> failedTokens = accessTokenDAO.insertAccessTokens(
+                Arrays.asList(invalidToken, newToken));
+
+        assertEquals(failedTokens, Collections.singletonList(invalidToken));
+        assertNull(getTokenState(invalidToken));
+        assertEquals(getTokenState(newToken), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(getScopeCount(newToken), 1);
+    }
+
+    @Test
+    public void testInsertAccessTokensExpiresExistingToken() throws Exception {
+
+        AccessContextTokenDO existingToken = createAccessContextToken(UUID.randomUUID().toString(), "openid");
+        AccessContextTokenDO otherToken = createAccessContextToken(UUID.randomUUID().toString(), "email");
+        assertTrue(accessTokenDAO.insertAccessTokens(Arrays.asList(existingToken, otherToken)).isEmpty());
+
+        AccessContextTokenDO newToken = new AccessContextTokenDO(UUID.randomUUID().toString(), CONSUMER_KEY,
+                createAccessToken(UUID.randomUUID().toString(), "openid"), existingToken.getNewAccessTokenDO(),
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        newToken.getNewAccessTokenDO().setAccessToken(newToken.getAccessToken());
+        AccessContextTokenDO anotherToken = createAccessContextToken(UUID.randomUUID().toString(), "profile");
+        assertTrue(accessTokenDAO.insertAccessTokens(Arrays.asList(newToken, anotherToken)).isEmpty());
+
+        assertEquals(getTokenState(existingToken), OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+        assertEquals(getTokenState(newToken), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+    }
+
+    @Test
+    public void testInsertAccessTokenExpiresConflictingActiveToken() throws Exception {
+
+        // 'CON_APP_KEY' only applies to tokens of an identity provider, as the IDP_ID column is NULL otherwise.
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(true);
+        when(IdentityUtil.getProperty("OAuth.TokenPersistence.ConflictUpsert.Enable")).thenReturn("true");
+        OauthTokenIssuer oauthTokenIssuer = mock(OauthTokenIssuer.class);
+        when(oauthTokenIssuer.renewAccessTokenPerRequest(nullable(OAuthTokenReqMessageContext.class)))
+                .thenReturn(true);
+        when(OAuth2Util.getOAuthTokenIssuerForOAuthApp(anyString())).thenReturn(oauthTokenIssuer);
+        mockStatic(OAuthUtil.class);
+
+        authenticatedUser.setUserName("conflictuser");
+        AccessContextTokenDO activeToken = createAccessContextToken(UUID.randomUUID().toString(), "openid");
+        assertTrue(accessTokenDAO.insertAccessTokens(Collections.singletonList(activeToken)).isEmpty());
+        AccessContextTokenDO newToken = createAccessContextToken(UUID.randomUUID().toString(), "openid");
+        assertTrue(accessTokenDAO.insertAccessTokens(Collections.singletonList(newToken)).isEmpty());
+
+        // The conflicting token is expired upfront, instead of recovering from the constraint violation.
+        assertEquals(getTokenState(activeToken), OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+        assertEquals(getTokenState(newToken), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(accessTokenDAO.getConflictUpsertCount(), 1);
+        assertEquals(accessTokenDAO.getConflictRetryCount(), 0);
+        assertEquals(new AccessTokenDAOImpl().getConflictUpsertCount(), 0);
+        verifyStatic(OAuthUtil.class);
+        OAuthUtil.clearOAuthCacheByAccessToken(activeToken.getAccessToken(), TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testGetAccessTokensOfUserInBatches() throws Exception {
+
+        authenticatedUser.setUserName("batchuser");
+        AccessTokenDO firstToken = createAccessToken("batch-token-1", "openid");
+        firstToken.setScope(new String[]{"openid", "email"});
+        AccessTokenDO secondToken = createAccessToken("batch-token-2", "profile");
+        secondToken.setTokenBinding(new TokenBinding("cookie", "bindingRef", "bindingValue"));
+        AccessTokenDO thirdToken = createAccessToken("batch-token-3", "address");
+        thirdToken.setTokenBinding(new TokenBinding("DEFAULT", "sessionRef", "sessionValue"));
+        AccessTokenDO fourthToken = createAccessToken("batch-token-4", "phone");
+        AccessTokenDO fifthToken = createAccessToken("batch-token-5", "groups");
+        insertAccessTokens(firstToken, secondToken, thirdToken, fourthToken, fifthToken);
+
+        List<AccessTokenDO> firstBatch = accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, null, 2);
+        assertEquals(getTokenIds(firstBatch), Arrays.asList("batch-token-1", "batch-token-2"));
+        // Scopes and bindings of the batch are loaded with a query each.
+        assertEqualsNoOrder(firstBatch.get(0).getScope(), new String[]{"openid", "email"});
+        assertEquals(firstBatch.get(0).getAccessToken(), firstToken.getAccessToken());
+        assertNull(firstBatch.get(0).getTokenBinding());
+        assertEquals(firstBatch.get(1).getScope(), new String[]{"profile"});
+        assertEquals(firstBatch.get(1).getTokenBinding().getBindingType(), "cookie");
+        assertEquals(firstBatch.get(1).getTokenBinding().getBindingValue(), "bindingValue");
+
+        List<AccessTokenDO> secondBatch = accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, "batch-token-2", 2);
+        assertEquals(getTokenIds(secondBatch), Arrays.asList("batch-token-3", "batch-token-4"));
+        // The default token to session mapping is not returned as a binding of the token.
+        assertNull(secondBatch.get(0).getTokenBinding());
+
+        List<AccessTokenDO> lastBatch = accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, "batch-token-4", 2);
+        assertEquals(getTokenIds(lastBatch), Collections.singletonList("batch-token-5"));
+        assertTrue(accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, "batch-token-5", 2).isEmpty());
+    }
+
+    @Test
+    public void testGetAccessTokenSetsTokenState() throws Exception {
+
+        when(OAuth2Util.getTokenPartitionedSqlByToken(anyString(), anyString())).thenAnswer(
+                invocation -> invocation.getArgument(0));
+        when(OAuth2Util.createAuthenticatedUser(any(), any(), any(), any())).thenAnswer(
+                invocation -> mock(AuthenticatedUser.class));
+        authenticatedUser.setUserName("stateuser");
+        AccessTokenDO activeToken = createAccessToken(UUID.randomUUID().toString(), "openid");
+        AccessTokenDO expiredToken = createAccessToken(UUID.randomUUID().toString(), "email");
+        insertAccessTokens(activeToken, expiredToken);
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET TOKEN_STATE = ? WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+            prepStmt.setString(2, expiredToken.getTokenId());
+            prepStmt.executeUpdate();
+        }
+
+        // The state of a token read from the database decides whether it is added to OAuthCache.
+        assertEquals(accessTokenDAO.getAccessToken(activeToken.getAccessToken(), false).getTokenState(),
+                OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(accessTokenDAO.getAccessToken(activeToken.getAccessToken(), true).getTokenState(),
+                OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(accessTokenDAO.getAccessToken(expiredToken.getAccessToken(), true).getTokenState(),
+                OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+
+        Map<String, AccessTokenDO> accessTokenDOs = accessTokenDAO.getAccessTokens(
+                Arrays.asList(activeToken.getAccessToken(), expiredToken.getAccessToken()), true);
+        assertEquals(accessTokenDOs.get(activeToken.getAccessToken()).getTokenState(),
+                OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(accessTokenDOs.get(expiredToken.getAccessToken()).getTokenState(),
+                OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+    }
+
+    @Test
+    public void testRevokeAccessTokensOfUser() throws Exception {
+
+        authenticatedUser.setUserName("revokeuser");
+        AccessTokenDO firstToken = createAccessToken("revoke-token-1", "openid");
+        AccessTokenDO secondToken = createAccessToken("revoke-token-2", "email");
+        AccessTokenDO thirdToken = createAccessToken("revoke-token-3", "profile");
+        insertAccessTokens(firstToken, secondToken, thirdToken);
+
+        List<AccessTokenDO> accessTokenDOs = accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, null, 10);
+        assertEquals(accessTokenDOs.size(), 3);
+        accessTokenDAO.revokeAccessTokensOfUser(authenticatedUser, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME,
+                accessTokenDOs.subList(0, 2));
+
+        // Only the listed tokens are revoked, each with a distinct token state id.
+        assertEquals(getTokenState(firstToken.getTokenId()), OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        assertEquals(getTokenStateId(firstToken.getTokenId()), firstToken.getTokenId());
+        assertEquals(getTokenState(secondToken.getTokenId()), OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        assertEquals(getTokenStateId(secondToken.getTokenId()), secondToken.getTokenId());
+        assertEquals(getTokenState(thirdToken.getTokenId()), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        assertEquals(getTokenIds(accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, null, 10)),
+                Collections.singletonList("revoke-token-3"));
+    }
+
+    @Test
+    public void testGetAccessTokensOfUserWithDefaultImplementation() throws Exception {
+
+        authenticatedUser.setUserName("defaultuser");
+        insertAccessTokens(createAccessToken("default-token-1", "openid"),
+                createAccessToken("default-token-2", "email"), createAccessToken("default-token-3", "profile"));
+        when(OAuth2Util.buildScopeArray(anyString())).thenCallRealMethod();
+        TokenManagementDAO tokenManagementDAO = mock(TokenManagementDAO.class);
+        when(tokenManagementDAO.getAllTimeAuthorizedClientIds(any())).thenReturn(
+                Collections.singleton(CONSUMER_KEY));
+        OAuthTokenPersistenceFactory persistenceFactory = mock(OAuthTokenPersistenceFactory.class);
+        when(persistenceFactory.getTokenManagementDAO()).thenReturn(tokenManagementDAO);
+        mockStatic(OAuthTokenPersistenceFactory.class);
+        when(OAuthTokenPersistenceFactory.getInstance()).thenReturn(persistenceFactory);
+
+        // Implementations without a batched query page through the tokens of each of the clients of the user.
+        AccessTokenDAO defaultAccessTokenDAO = mock(AccessTokenDAO.class, CALLS_REAL_METHODS);
+        doAnswer(invocation -> accessTokenDAO.getAccessTokens(invocation.getArgument(0), invocation.getArgument(1),
+                invocation.getArgument(2), invocation.getArgument(3))).when(defaultAccessTokenDAO)
+                .getAccessTokens(anyString(), any(AuthenticatedUser.class), anyString(), anyBoolean());
+
+        List<AccessTokenDO> firstBatch = defaultAccessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, null, 2);
+        assertEquals(getTokenIds(firstBatch), Arrays.asList("default-token-1", "default-token-2"));
+        List<AccessTokenDO> lastBatch = defaultAccessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, "default-token-2", 2);
+        assertEquals(getTokenIds(lastBatch), Collections.singletonList("default-token-3"));
+    }
+
+    @Test
+    public void testInvalidateAndCreateNewAccessTokenMovesRequestObjectReference() throws Exception {
+
+        authenticatedUser.setUserName("refreshuser");
+        AccessTokenDO oldToken = createAccessToken("refresh-token-1", "openid");
+        insertAccessTokens(oldToken);
+        when(mockedServerConfig.isRequestObjectEnabled()).thenReturn(true);
+        RequestObjectDAOImpl requestObjectDAO = mock(RequestObjectDAOImpl.class);
+        OAuthTokenPersistenceFactory persistenceFactory = mock(OAuthTokenPersistenceFactory.class);
+        when(persistenceFactory.getRequestObjectDAO()).thenReturn(requestObjectDAO);
+        mockStatic(OAuthTokenPersistenceFactory.class);
+        when(OAuthTokenPersistenceFactory.getInstance()).thenReturn(persistenceFactory);
+
+        AccessTokenDO newToken = createAccessToken("refresh-token-2", "openid");
+        accessTokenDAO.invalidateAndCreateNewAccessToken(oldToken.getTokenId(),
+                OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, CONSUMER_KEY, UUID.randomUUID().toString(), newToken,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, OAuthConstants.GrantTypes.REFRESH_TOKEN);
+
+        assertEquals(getTokenState(oldToken.getTokenId()), OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+        assertEquals(getTokenState(newToken.getTokenId()), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        // The reference is moved within the transaction of the refresh, hence the event does not move it again.
+        verify(requestObjectDAO).refreshRequestObjectReference(any(Connection.class), eq(oldToken.getTokenId()),
+                eq(newToken.getTokenId()));
+        verifyStatic(OAuth2TokenUtil.class);
+        OAuth2TokenUtil.postRefreshAccessToken(oldToken.getTokenId(), newToken.getTokenId(),
+                OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, true, true);
+    }
+
+    @Test
+    public void testInvalidateAndCreateNewAccessTokenWithoutRequestObjectFlow() throws Exception {
+
+        authenticatedUser.setUserName("passwordrefreshuser");
+        AccessTokenDO oldToken = createAccessToken("password-refresh-token-1", "openid");
+        insertAccessTokens(oldToken);
+        when(mockedServerConfig.isRequestObjectEnabled()).thenReturn(true);
+        RequestObjectDAOImpl requestObjectDAO = mock(RequestObjectDAOImpl.class);
+        OAuthTokenPersistenceFactory persistenceFactory = mock(OAuthTokenPersistenceFactory.class);
+        when(persistenceFactory.getRequestObjectDAO()).thenReturn(requestObjectDAO);
+        mockStatic(OAuthTokenPersistenceFactory.class);
+        when(OAuthTokenPersistenceFactory.getInstance()).thenReturn(persistenceFactory);
+
+        AccessTokenDO newToken = createAccessToken("password-refresh-token-2", "openid");
+        accessTokenDAO.invalidateAndCreateNewAccessToken(oldToken.getTokenId(),
+                OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, CONSUMER_KEY, UUID.randomUUID().toString(), newToken,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, OAuthConstants.GrantTypes.PASSWORD);
+
+        assertEquals(getTokenState(newToken.getTokenId()), OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        verify(requestObjectDAO, never()).refreshRequestObjectReference(any(Connection.class), anyString(),
+                anyString());
+        verifyStatic(OAuth2TokenUtil.class);
+        OAuth2TokenUtil.postRefreshAccessToken(oldToken.getTokenId(), newToken.getTokenId(),
+                OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, false, false);
+    }
+
+    private Connection getTransactionalConnection() throws Exception {
+
+        Connection connection = DAOUtils.getConnection(DB_NAME);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private void closeConnection(Connection connection) throws Exception {
+
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private AccessContextTokenDO createAccessContextToken(String tokenId, String scope) {
+
+        AccessTokenDO accessTokenDO = createAccessToken(tokenId, scope);
+        return new AccessContextTokenDO(accessTokenDO.getAccessToken(), CONSUMER_KEY, accessTokenDO, null,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+    }
+
+    private AccessTokenDO createAccessToken(String tokenId, String scope) {
+
+        AccessTokenDO accessTokenDO = new AccessTokenDO();
+        accessTokenDO.setTokenId(tokenId);
+        accessTokenDO.setAccessToken(UUID.randomUUID().toString());
+        accessTokenDO.setRefreshToken(UUID.randomUUID().toString());
+        accessTokenDO.setConsumerKey(CONSUMER_KEY);
+        accessTokenDO.setAuthzUser(authenticatedUser);
+        accessTokenDO.setScope(new String[]{scope});
+        accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        accessTokenDO.setTokenType("APPLICATION_USER");
+        accessTokenDO.setGrantType("password");
+        accessTokenDO.setIssuedTime(new Timestamp(System.currentTimeMillis()));
+        accessTokenDO.setRefreshTokenIssuedTime(new Timestamp(System.currentTimeMillis()));
+        accessTokenDO.setValidityPeriodInMillis(3600000L);
+        accessTokenDO.setRefreshTokenValidityPeriodInMillis(84600000L);
+        return accessTokenDO;
+    }
+
+    private String getTokenState(AccessContextTokenDO accessContextTokenDO) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT TOKEN_STATE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE ACCESS_TOKEN = ?")) {
+            prepStmt.setString(1, accessContextTokenDO.getAccessToken());
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private void insertAccessTokens(AccessTokenDO... accessTokenDOs) throws Exception {
+
+        List<AccessContextTokenDO> accessContextTokenDOs = new ArrayList<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            accessContextTokenDOs.add(new AccessContextTokenDO(accessTokenDO.getAccessToken(), CONSUMER_KEY,
+                    accessTokenDO, null, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME));
+        }
+        assertTrue(accessTokenDAO.insertAccessTokens(accessContextTokenDOs).isEmpty());
+    }
+
+    private List<String> getTokenIds(List<AccessTokenDO> accessTokenDOs) {
+
+        List<String> tokenIds = new ArrayList<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            tokenIds.add(accessTokenDO.getTokenId());
+        }
+        return tokenIds;
+    }
+
+    private String getTokenState(String tokenId) throws Exception {
+
+        return getTokenColumn(tokenId, "TOKEN_STATE");
+    }
+
+    private String getTokenStateId(String tokenId) throws Exception {
+
+        return getTokenColumn(tokenId, "TOKEN_STATE_ID");
+    }
+
+    private String getTokenColumn(String tokenId, String column) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT " + column + " FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private int getScopeCount(AccessContextTokenDO accessContextTokenDO) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, accessContextTokenDO.getNewAccessTokenDO().getTokenId());
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private void createApplication() throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+            prepStmt.setString(1, CONSUMER_KEY);
+            prepStmt.setString(2, UUID.randomUUID().toString());
+            prepStmt.setString(3, "user1");
+            prepStmt.setInt(4, TENANT_ID);
+            prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(6, APP_NAME);
+            prepStmt.setString(7, VERSION_2);
+            prepStmt.setString(8, CALLBACK);
+            prepStmt.setString(9, "password refresh_token");
+            prepStmt.setLong(10, 3600L);
+            prepStmt.setLong(11, 3600L);
+            prepStmt.setLong(12, 84600L);
+            prepStmt.setLong(13, 3600L);
+            prepStmt.execute();
+        }
+    }
+
+    private void createIdentityProvider() throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "INSERT INTO IDP (TENANT_ID, NAME, UUID) VALUES (?, ?, ?)")) {
+            prepStmt.setInt(1, TENANT_ID);
+            prepStmt.setString(2, "LOCAL");
+            prepStmt.setString(3, UUID.randomUUID().toString());
+            prepStmt.execute();
+        }
+    }
+}
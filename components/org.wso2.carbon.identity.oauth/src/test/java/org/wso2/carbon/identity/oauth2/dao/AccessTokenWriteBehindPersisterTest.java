@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for AccessTokenWriteBehindPersister.
+ */
+@PrepareForTest({OAuth2Util.class, IdentityUtil.class, IdentityTenantUtil.class})
+public class AccessTokenWriteBehindPersisterTest extends PowerMockIdentityBaseTest {
+
+    private static final String CONSUMER_KEY = "consumer-key";
+    private static final String GRANT_TYPE = "password";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int RETRY_COUNT = 2;
+
+    @Mock
+    private AccessTokenDAO mockedAccessTokenDAO;
+
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        initMocks(this);
+        authenticatedUser = new AuthenticatedUser();
+        authenticatedUser.setUserName("user1");
+        authenticatedUser.setUserId(UUID.randomUUID().toString());
+        authenticatedUser.setTenantDomain(TENANT_DOMAIN);
+        authenticatedUser.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+
+        OauthTokenIssuer oauthTokenIssuer = mock(OauthTokenIssuer.class);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getOAuthTokenIssuerForOAuthApp(anyString())).thenReturn(oauthTokenIssuer);
+        when(OAuth2Util.buildScopeString(any())).thenCallRealMethod();
+        when(OAuth2Util.buildCacheKeyStringForTokenWithUserId(anyString(), anyString(), anyString(), anyString(),
+                anyString())).thenCallRealMethod();
+        when(OAuth2Util.getAuthenticatedIDP(any())).thenReturn("LOCAL");
+        when(OAuth2Util.getUserStoreDomain(any())).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.isUserStoreCaseSensitive(anyString(), anyInt())).thenReturn(true);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(-1234);
+    }
+
+    @Test
+    public void testEnqueueWhenDisabled() throws Exception {
+
+        AccessTokenWriteBehindPersister persister = createPersister(false);
+        persister.start();
+
+        assertFalse(persister.isEnabled());
+        assertFalse(persister.enqueue(createAccessContextToken()),
+                "Tokens should be persisted synchronously when write-behind persistence is disabled.");
+        persister.shutdown();
+        verify(mockedAccessTokenDAO, never()).insertAccessTokens(anyList());
+    }
+
+    @Test
+    public void testRetryFailedBatch() throws Exception {
+
+        doThrow(new IdentityOAuth2Exception("Database error.")).doReturn(Collections.emptyList())
+                .when(mockedAccessTokenDAO).insertAccessTokens(anyList());
+        AccessTokenWriteBehindPersister persister = createPersister(true);
+        persister.start();
+        AccessContextTokenDO accessContextTokenDO = createAccessContextToken();
+        assertTrue(persister.enqueue(accessContextTokenDO));
+        // Shutting down persists whatever the consumer has not picked up yet.
+        persister.shutdown();
+
+        verify(mockedAccessTokenDAO, times(2)).insertAccessTokens(anyList());
+        assertEquals(persister.getPersistedCount(), 1);
+        assertEquals(persister.getRetriedCount(), 1);
+        assertEquals(persister.getFailedCount(), 0);
+        assertNull(persister.getPendingAccessToken(accessContextTokenDO.getAccessToken()));
+    }
+
+    @Test
+    public void testRetriesExhausted() throws Exception {
+
+        CountDownLatch attempts = new CountDownLatch(RETRY_COUNT + 1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (attempts.getCount() > 0) {
+                attempts.countDown();
+                return invocation.getArgument(0);
+            }
+            proceed.await(10, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        }).when(mockedAccessTokenDAO).insertAccessTokens(anyList());
+        AccessTokenWriteBehindPersister persister = createPersister(true);
+        persister.start();
+        AccessContextTokenDO accessContextTokenDO = createAccessContextToken();
+        assertTrue(persister.enqueue(accessContextTokenDO));
+        assertTrue(attempts.await(10, TimeUnit.SECONDS));
+
+        // The token is already issued, so it is parked and still served instead of being dropped.
+        assertNotNull(persister.getPendingAccessToken(accessContextTokenDO.getAccessToken()));
+        proceed.countDown();
+        persister.shutdown();
+
+        verify(mockedAccessTokenDAO, times(RETRY_COUNT + 2)).insertAccessTokens(anyList());
+        assertEquals(persister.getPersistedCount(), 1);
+        assertEquals(persister.getFailedCount(), 0);
+        assertEquals(persister.getParkedCount(), 0);
+        assertNull(persister.getPendingAccessToken(accessContextTokenDO.getAccessToken()));
+    }
+
+    @Test
+    public void testParkedTokenFailsOnShutdown() throws Exception {
+
+        CountDownLatch attempts = new CountDownLatch(RETRY_COUNT + 1);
+        doAnswer(invocation -> {
+            attempts.countDown();
+            return invocation.getArgument(0);
+        }).when(mockedAccessTokenDAO).insertAccessTokens(anyList());
+        AccessTokenWriteBehindPersister persister = createPersister(true);
+        persister.start();
+        AccessContextTokenDO accessContextTokenDO = createAccessContextToken();
+        assertTrue(persister.enqueue(accessContextTokenDO));
+        assertTrue(attempts.await(10, TimeUnit.SECONDS));
+        // Shutting down makes a last attempt to persist the parked token.
+        persister.shutdown();
+
+        verify(mockedAccessTokenDAO, atLeast(2 * (RETRY_COUNT + 1))).insertAccessTokens(anyList());
+        assertEquals(persister.getPersistedCount(), 0);
+        assertEquals(persister.getFailedCount(), 1);
+        assertEquals(persister.getParkedCount(), 0);
+        verify(mockedAccessTokenDAO, never()).updateAccessTokenState(anyString(), anyString(), anyString());
+        assertNull(persister.getPendingAccessToken(accessContextTokenDO.getAccessToken()));
+    }
+
+    @Test
+    public void testRevokePendingToken() throws Exception {
+
+        CountDownLatch persisting = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            persisting.countDown();
+            proceed.await(10, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        }).when(mockedAccessTokenDAO).insertAccessTokens(anyList());
+        AccessTokenWriteBehindPersister persister = createPersister(true);
+        persister.start();
+        AccessContextTokenDO accessContextTokenDO = createAccessContextToken();
+        String tokenId = accessContextTokenDO.getNewAccessTokenDO().getTokenId();
+        assertTrue(persister.enqueue(accessContextTokenDO));
+        assertTrue(persisting.await(10, TimeUnit.SECONDS));
+
+        // The token is being persisted, hence the revocation is recorded against the pending token.
+        assertTrue(persister.updatePendingAccessTokenStateById(tokenId,
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED));
+        AccessTokenDO pendingAccessTokenDO = persister.getPendingAccessToken(accessContextTokenDO.getAccessToken());
+        assertNotNull(pendingAccessTokenDO);
+        assertEquals(pendingAccessTokenDO.getTokenState(), OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        assertEquals(accessContextTokenDO.getNewAccessTokenDO().getTokenState(),
+                OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE, "The queued token should not be modified.");
+
+        proceed.countDown();
+        persister.shutdown();
+
+        InOrder inOrder = inOrder(mockedAccessTokenDAO);
+        inOrder.verify(mockedAccessTokenDAO).insertAccessTokens(anyList());
+        inOrder.verify(mockedAccessTokenDAO).updateAccessTokenState(tokenId,
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED, GRANT_TYPE);
+        assertNull(persister.getPendingAccessToken(accessContextTokenDO.getAccessToken()));
+        assertFalse(persister.updatePendingAccessTokenStateById(tokenId,
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED), "Released tokens should not be marked.");
+    }
+
+    @Test
+    public void testGetPendingAccessTokensOfUser() throws Exception {
+
+        CountDownLatch proceed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            proceed.await(10, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        }).when(mockedAccessTokenDAO).insertAccessTokens(anyList());
+        AccessTokenWriteBehindPersister persister = createPersister(true);
+        persister.start();
+        AccessContextTokenDO accessContextTokenDO = createAccessContextToken();
+        assertTrue(persister.enqueue(accessContextTokenDO));
+
+        AuthenticatedUser otherUser = new AuthenticatedUser();
+        otherUser.setUserName("user2");
+        otherUser.setTenantDomain(TENANT_DOMAIN);
+        otherUser.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        List<AccessTokenDO> pendingAccessTokens = persister.getPendingAccessTokensOfUser(authenticatedUser);
+        assertEquals(pendingAccessTokens.size(), 1);
+        assertEquals(pendingAccessTokens.get(0).getTokenId(), accessContextTokenDO.getNewAccessTokenDO().getTokenId());
+        assertEquals(pendingAccessTokens.get(0).getAccessToken(), accessContextTokenDO.getAccessToken());
+        assertTrue(persister.getPendingAccessTokensOfUser(otherUser).isEmpty());
+
+        proceed.countDown();
+        persister.shutdown();
+        assertTrue(persister.getPendingAccessTokensOfUser(authenticatedUser).isEmpty());
+    }
+
+    private AccessTokenWriteBehindPersister createPersister(boolean enabled) {
+
+        return new AccessTokenWriteBehindPersister(enabled, 1, 10, 10, 10, RETRY_COUNT, 1, mockedAccessTokenDAO);
+    }
+
+    private AccessContextTokenDO createAccessContextToken() {
+
+        AccessTokenDO accessTokenDO = new AccessTokenDO();
+        accessTokenDO.setTokenId(UUID.randomUUID().toString());
+        accessTokenDO.setAccessToken(UUID.randomUUID().toString());
+        accessTokenDO.setConsumerKey(CONSUMER_KEY);
+        accessTokenDO.setAuthzUser(authenticatedUser);
+        accessTokenDO.setScope(new String[]{"openid"});
+        accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        accessTokenDO.setGrantType(GRANT_TYPE);
+        accessTokenDO.setIssuedTime(new Timestamp(System.currentTimeMillis()));
+        accessTokenDO.setRefreshTokenIssuedTime(new Timestamp(System.currentTimeMillis()));
+        return new AccessContextTokenDO(accessTokenDO.getAccessToken(), CONSUMER_KEY, accessTokenDO, null,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+    }
+}
@@ -21,6 +21,7 @@ package org.wso2.carbon.identity.oauth2.dao;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.mockito.Mock;
 import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.reflect.Whitebox;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -51,8 +52,10 @@ import org.wso2.carbon.user.core.service.RealmService;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -66,8 +69,14 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyObject;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.doNothing;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.spy;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
 import static org.wso2.carbon.identity.oauth2.util.OAuth2Util.getTenantId;
@@ -148,6 +157,47 @@ public class AuthorizationCodeDAOImplTest extends PowerMockIdentityBaseTest {
         closeH2Base(DB_NAME);
     }
 
+    private String getAuthorizationCodeState(String codeId) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                "SELECT STATE FROM IDN_OAUTH2_AUTHORIZATION_CODE WHERE CODE_ID=?")) {
+            prepStmt.setString(1, codeId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private void addRequestObjectReference(String codeId) throws Exception {
+
+        // The tokens issued for the codes are not persisted by these tests, hence there is no reference to the token
+        // table.
+        try (PreparedStatement prepStmt = connection.prepareStatement("CREATE TABLE IF NOT EXISTS " +
+                "IDN_OIDC_REQ_OBJECT_REFERENCE (ID INTEGER NOT NULL AUTO_INCREMENT, CONSUMER_KEY_ID INTEGER, " +
+                "CODE_ID VARCHAR(255), TOKEN_ID VARCHAR(255), SESSION_DATA_KEY VARCHAR(255), PRIMARY KEY (ID), " +
+                "FOREIGN KEY (CODE_ID) REFERENCES IDN_OAUTH2_AUTHORIZATION_CODE(CODE_ID) ON DELETE CASCADE)")) {
+            prepStmt.execute();
+        }
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                "INSERT INTO IDN_OIDC_REQ_OBJECT_REFERENCE (CODE_ID, SESSION_DATA_KEY) VALUES (?, ?)")) {
+            prepStmt.setString(1, codeId);
+            prepStmt.setString(2, UUID.randomUUID().toString());
+            prepStmt.execute();
+        }
+    }
+
+    private String getRequestObjectReferenceTokenId(String codeId) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                "SELECT TOKEN_ID FROM IDN_OIDC_REQ_OBJECT_REFERENCE WHERE CODE_ID=?")) {
+            prepStmt.setString(1, codeId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                Assert.assertTrue(resultSet.next());
+                return resultSet.getString(1);
+            }
+        }
+    }
+
     private static void closeH2Base(String databaseName) throws Exception {
 
         BasicDataSource dataSource = dataSourceMap.get(databaseName);
@@ -303,6 +353,218 @@ public class AuthorizationCodeDAOImplTest extends PowerMockIdentityBaseTest {
                 authzCodeDO.getAuthorizationCode()));
     }
 
+    @Test
+    public void testRedeemAuthorizationCodeStatementCount() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        AuthzCodeDO authzCodeDO = persistAuthorizationCode(consumerKey, authzCodeID, authzCode,
+                OAuthConstants.AuthorizationCodeState.ACTIVE);
+        mockCodeValidation();
+        when(OAuth2Util.buildScopeString(any())).thenCallRealMethod();
+        when(OAuth2Util.buildScopeArray(anyString())).thenCallRealMethod();
+        Connection countingConnection = spy(connection);
+        when(IdentityDatabaseUtil.getDBConnection()).thenReturn(countingConnection);
+        when(IdentityDatabaseUtil.getDBConnection(false)).thenReturn(countingConnection);
+
+        // The code and its scopes are validated in a single statement.
+        AuthorizationCodeValidationResult result = authorizationCodeDAO.validateAuthorizationCode(consumerKey,
+                authzCode);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(result.getAuthzCodeDO().getScope())),
+                new HashSet<>(Arrays.asList(scopes)));
+        verify(countingConnection, times(1)).prepareStatement(anyString());
+
+        // The code is deactivated against the issued token in a single statement.
+        mockStatic(OAuth2TokenUtil.class);
+        authzCodeDO.setOauthTokenId(UUID.randomUUID().toString());
+        authorizationCodeDAO.deactivateAuthorizationCode(authzCodeDO);
+        verify(countingConnection, times(2)).prepareStatement(anyString());
+        Assert.assertEquals(getAuthorizationCodeState(authzCodeID), OAuthConstants.AuthorizationCodeState.INACTIVE);
+    }
+
+    @Test
+    public void testDeactivateAuthorizationCodeMovesRequestObjectReference() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        AuthzCodeDO authzCodeDO = persistAuthorizationCode(consumerKey, authzCodeID, authzCode,
+                OAuthConstants.AuthorizationCodeState.ACTIVE);
+        addRequestObjectReference(authzCodeID);
+        mockStatic(OAuth2TokenUtil.class);
+        when(OAuth2TokenUtil.isRequestObjectFlow(authzCode)).thenReturn(true);
+
+        authzCodeDO.setOauthTokenId(tokenId);
+        authorizationCodeDAO.deactivateAuthorizationCode(authzCodeDO);
+
+        Assert.assertEquals(getAuthorizationCodeState(authzCodeID), OAuthConstants.AuthorizationCodeState.INACTIVE);
+        Assert.assertEquals(getRequestObjectReferenceTokenId(authzCodeID), tokenId,
+                "The request object reference should be moved to the token along with the code deactivation.");
+        verifyStatic(OAuth2TokenUtil.class);
+        OAuth2TokenUtil.postRevokeCode(authzCodeID, OAuthConstants.AuthorizationCodeState.INACTIVE, tokenId,
+                authzCode, true);
+    }
+
+    @Test
+    public void testDeactivateAuthorizationCodeWithUnpersistedToken() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        AuthzCodeDO authzCodeDO = persistAuthorizationCode(consumerKey, authzCodeID, authzCode,
+                OAuthConstants.AuthorizationCodeState.ACTIVE);
+        addRequestObjectReference(authzCodeID);
+        mockStatic(OAuth2TokenUtil.class);
+        when(OAuth2TokenUtil.isRequestObjectFlow(authzCode)).thenReturn(true);
+        // The token is queued for write-behind persistence and could not be persisted yet.
+        AccessTokenWriteBehindPersister mockedPersister = mock(AccessTokenWriteBehindPersister.class);
+        when(mockedPersister.flushPendingAccessToken(tokenId)).thenReturn(false);
+        Whitebox.setInternalState(AccessTokenWriteBehindPersister.class, "instance", mockedPersister);
+        try {
+            authzCodeDO.setOauthTokenId(tokenId);
+            authorizationCodeDAO.deactivateAuthorizationCode(authzCodeDO);
+        } finally {
+            Whitebox.setInternalState(AccessTokenWriteBehindPersister.class, "instance",
+                    (AccessTokenWriteBehindPersister) null);
+        }
+
+        // The code is deactivated, and the reference is left to be moved when the revocation event is handled.
+        Assert.assertEquals(getAuthorizationCodeState(authzCodeID), OAuthConstants.AuthorizationCodeState.INACTIVE);
+        Assert.assertNull(getRequestObjectReferenceTokenId(authzCodeID));
+        verifyStatic(OAuth2TokenUtil.class);
+        OAuth2TokenUtil.postRevokeCode(authzCodeID, OAuthConstants.AuthorizationCodeState.INACTIVE, tokenId,
+                authzCode, false);
+    }
+
+    @Test
+    public void testRedeemAuthorizationCodeOnStoreMiss() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        persistAuthorizationCode(consumerKey, authzCodeID, authzCode, OAuthConstants.AuthorizationCodeState.ACTIVE);
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(mockedApplicationManagementService);
+        when(mockedApplicationManagementService.getServiceProviderByClientId(anyString(), any(), anyString())).
+                thenReturn(mockedServiceProvider);
+        when(OAuth2Util.getTenantDomain(1234)).thenReturn("super.wso2");
+        when(OAuth2Util.createAuthenticatedUser(anyString(), anyString(), anyString(), isNull())).
+                thenReturn(mockedAuthenticatedUser);
+        doNothing().when(mockedAuthenticatedUser, "setAuthenticatedSubjectIdentifier", anyString(), anyObject());
+        // The code is not in the store, e.g. it was issued by another node.
+        StoreBackedAuthorizationCodeDAOImpl storeBackedDAO = new StoreBackedAuthorizationCodeDAOImpl(
+                new AuthorizationCodeStore(true, 10, 10, authorizationCodeDAO));
+
+        AuthorizationCodeValidationResult first = storeBackedDAO.validateAuthorizationCode(consumerKey, authzCode);
+        Assert.assertNotNull(first);
+        Assert.assertTrue(first.isActiveCode());
+        Assert.assertEquals(getAuthorizationCodeState(authzCodeID), OAuthConstants.AuthorizationCodeState.INACTIVE,
+                "The code should be claimed in the database when it is redeemed.");
+
+        // The row is no longer active, so the code is treated as reused.
+        AuthorizationCodeValidationResult second = storeBackedDAO.validateAuthorizationCode(consumerKey, authzCode);
+        Assert.assertNotNull(second);
+        Assert.assertFalse(second.isActiveCode());
+        Assert.assertFalse(storeBackedDAO.redeemActiveAuthorizationCode(authzCodeID));
+    }
+
+    @Test
+    public void testConcurrentRedemptionOnStoreMiss() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        persistAuthorizationCode(consumerKey, authzCodeID, authzCode, OAuthConstants.AuthorizationCodeState.ACTIVE);
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(mockedApplicationManagementService);
+        when(mockedApplicationManagementService.getServiceProviderByClientId(anyString(), any(), anyString())).
+                thenReturn(mockedServiceProvider);
+        when(OAuth2Util.getTenantDomain(1234)).thenReturn("super.wso2");
+        when(OAuth2Util.createAuthenticatedUser(anyString(), anyString(), anyString(), isNull())).
+                thenReturn(mockedAuthenticatedUser);
+        doNothing().when(mockedAuthenticatedUser, "setAuthenticatedSubjectIdentifier", anyString(), anyObject());
+        StoreBackedAuthorizationCodeDAOImpl storeBackedDAO = spy(new StoreBackedAuthorizationCodeDAOImpl(
+                new AuthorizationCodeStore(true, 10, 10, authorizationCodeDAO)));
+        // Another redemption claims the code between the read and the conditional update of this one.
+        doAnswer(invocation -> {
+            authorizationCodeDAO.redeemActiveAuthorizationCode(authzCodeID);
+            return invocation.callRealMethod();
+        }).when(storeBackedDAO).redeemActiveAuthorizationCode(authzCodeID);
+
+        Assert.assertNull(storeBackedDAO.validateAuthorizationCode(consumerKey, authzCode),
+                "A code claimed by a concurrent redemption should not be redeemed again.");
+    }
+
+    @Test
+    public void testReplayOnIssuingNodeAfterRedemptionOnAnotherNode() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        AuthzCodeDO authzCodeDO = persistAuthorizationCode(consumerKey, authzCodeID, authzCode,
+                OAuthConstants.AuthorizationCodeState.ACTIVE);
+        mockCodeValidation();
+        // Both nodes share the database, but each of them has its own store.
+        AuthorizationCodeStore issuingNodeStore = new AuthorizationCodeStore(true, 10, 10, authorizationCodeDAO);
+        StoreBackedAuthorizationCodeDAOImpl issuingNodeDAO = new StoreBackedAuthorizationCodeDAOImpl(issuingNodeStore);
+        StoreBackedAuthorizationCodeDAOImpl otherNodeDAO = new StoreBackedAuthorizationCodeDAOImpl(
+                new AuthorizationCodeStore(true, 10, 10, authorizationCodeDAO));
+        Assert.assertTrue(issuingNodeStore.add(authzCode, consumerKey, CALLBACK, authzCodeDO));
+
+        AuthorizationCodeValidationResult first = otherNodeDAO.validateAuthorizationCode(consumerKey, authzCode);
+        Assert.assertNotNull(first);
+        Assert.assertTrue(first.isActiveCode());
+
+        Assert.assertNull(issuingNodeDAO.validateAuthorizationCode(consumerKey, authzCode),
+                "A code redeemed on another node should not be redeemed again from the store.");
+        Assert.assertEquals(issuingNodeStore.getSize(), 0);
+        issuingNodeStore.flush();
+        Assert.assertEquals(getAuthorizationCodeState(authzCodeID), OAuthConstants.AuthorizationCodeState.INACTIVE);
+    }
+
+    @Test
+    public void testRedemptionOnAnotherNodeBeforeAudit() throws Exception {
+
+        String consumerKey = UUID.randomUUID().toString();
+        String authzCodeID = UUID.randomUUID().toString();
+        String authzCode = UUID.randomUUID().toString();
+        AuthzCodeDO authzCodeDO = persistAuthorizationCode(consumerKey, authzCodeID, authzCode,
+                OAuthConstants.AuthorizationCodeState.ACTIVE);
+        mockCodeValidation();
+        // The store of the issuing node is not started, so none of its writes reach the database in the background.
+        AuthorizationCodeStore issuingNodeStore = new AuthorizationCodeStore(true, 10, 10, authorizationCodeDAO);
+        StoreBackedAuthorizationCodeDAOImpl issuingNodeDAO = new StoreBackedAuthorizationCodeDAOImpl(issuingNodeStore);
+        StoreBackedAuthorizationCodeDAOImpl otherNodeDAO = new StoreBackedAuthorizationCodeDAOImpl(
+                new AuthorizationCodeStore(true, 10, 10, authorizationCodeDAO));
+        Assert.assertTrue(issuingNodeStore.add(authzCode, consumerKey, CALLBACK, authzCodeDO));
+
+        AuthorizationCodeValidationResult first = issuingNodeDAO.validateAuthorizationCode(consumerKey, authzCode);
+        Assert.assertNotNull(first);
+        Assert.assertTrue(first.isActiveCode());
+        Assert.assertEquals(getAuthorizationCodeState(authzCodeID), OAuthConstants.AuthorizationCodeState.INACTIVE,
+                "A code redeemed from the store should be claimed in the database.");
+
+        AuthorizationCodeValidationResult second = otherNodeDAO.validateAuthorizationCode(consumerKey, authzCode);
+        Assert.assertNotNull(second);
+        Assert.assertFalse(second.isActiveCode(), "A code redeemed on another node should be treated as reused.");
+    }
+
+    private void mockCodeValidation() throws Exception {
+
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(mockedApplicationManagementService);
+        when(mockedApplicationManagementService.getServiceProviderByClientId(anyString(), any(), anyString())).
+                thenReturn(mockedServiceProvider);
+        when(OAuth2Util.getTenantDomain(1234)).thenReturn("super.wso2");
+        when(OAuth2Util.createAuthenticatedUser(anyString(), anyString(), anyString(), isNull())).
+                thenReturn(mockedAuthenticatedUser);
+        doNothing().when(mockedAuthenticatedUser, "setAuthenticatedSubjectIdentifier", anyString(), anyObject());
+    }
+
     @Test
     public void testGetAuthorizationCodeDOSetByConsumerKeyForOpenidScope() throws Exception {
 
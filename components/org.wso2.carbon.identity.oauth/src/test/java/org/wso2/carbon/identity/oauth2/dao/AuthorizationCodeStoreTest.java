@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for AuthorizationCodeStore.
+ */
+public class AuthorizationCodeStoreTest extends PowerMockIdentityBaseTest {
+
+    private static final String CONSUMER_KEY = "consumer-key";
+    private static final String CALLBACK_URL = "https://localhost/callback";
+    private static final String AUTHZ_CODE = "authz-code";
+    private static final long AUDIT_INTERVAL_MILLIS = 10;
+
+    @Mock
+    private AuthorizationCodeDAO mockedAuditDAO;
+
+    @BeforeMethod
+    public void setUp() {
+
+        initMocks(this);
+    }
+
+    @Test
+    public void testAddWhenDisabled() throws Exception {
+
+        AuthorizationCodeStore store = new AuthorizationCodeStore(false, 10, AUDIT_INTERVAL_MILLIS, mockedAuditDAO);
+        store.start();
+
+        assertFalse(store.isEnabled());
+        assertFalse(store.add(AUTHZ_CODE, CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()),
+                "Codes should be served by the database when the store is disabled.");
+        assertNull(store.redeem(CONSUMER_KEY, AUTHZ_CODE));
+        store.shutdown();
+        verify(mockedAuditDAO, never()).insertAuthorizationCode(anyString(), anyString(), anyString(),
+                any(AuthzCodeDO.class));
+    }
+
+    @Test
+    public void testAddWhenFull() throws Exception {
+
+        AuthorizationCodeStore store = new AuthorizationCodeStore(true, 1, AUDIT_INTERVAL_MILLIS, mockedAuditDAO);
+        store.start();
+        assertTrue(store.add(AUTHZ_CODE, CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+        assertFalse(store.add("another-code", CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+        assertEquals(store.getRejectedCount(), 1);
+        store.shutdown();
+    }
+
+    @Test
+    public void testSingleRedemption() throws Exception {
+
+        AuthorizationCodeStore store = new AuthorizationCodeStore(true, 10, AUDIT_INTERVAL_MILLIS, mockedAuditDAO);
+        store.start();
+        assertTrue(store.add(AUTHZ_CODE, CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+
+        assertNull(store.redeem("other-consumer-key", AUTHZ_CODE), "Codes of other clients should not match.");
+        assertNull(store.redeem(CONSUMER_KEY, "unknown-code"), "Unknown codes should be validated by the database.");
+
+        AuthorizationCodeValidationResult first = store.redeem(CONSUMER_KEY, AUTHZ_CODE);
+        assertTrue(first.isActiveCode());
+        assertEquals(first.getAuthzCodeDO().getCallbackUrl(), CALLBACK_URL);
+        assertTrue(store.deactivate(AUTHZ_CODE, "token-id"));
+
+        AuthorizationCodeValidationResult second = store.redeem(CONSUMER_KEY, AUTHZ_CODE);
+        if (second != null) {
+            // The code is still in the store until its deactivation is written to the database.
+            assertFalse(second.isActiveCode());
+            assertEquals(second.getTokenId(), "token-id");
+        }
+        store.shutdown();
+
+        assertEquals(store.getRedeemedCount(), 1);
+        // The row of the code is inserted by the caller before the code is added to the store.
+        verify(mockedAuditDAO, never()).insertAuthorizationCode(anyString(), anyString(), anyString(),
+                any(AuthzCodeDO.class));
+        ArgumentCaptor<AuthzCodeDO> deactivatedCode = ArgumentCaptor.forClass(AuthzCodeDO.class);
+        verify(mockedAuditDAO, times(1)).deactivateAuthorizationCode(deactivatedCode.capture());
+        assertEquals(deactivatedCode.getValue().getOauthTokenId(), "token-id");
+        assertEquals(store.getAuditFailedCount(), 0);
+    }
+
+    @Test
+    public void testConcurrentRedemption() throws Exception {
+
+        AuthorizationCodeStore store = new AuthorizationCodeStore(true, 10, AUDIT_INTERVAL_MILLIS, mockedAuditDAO);
+        store.start();
+        assertTrue(store.add(AUTHZ_CODE, CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+
+        int redemptions = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(redemptions);
+        List<Callable<AuthorizationCodeValidationResult>> tasks = new ArrayList<>();
+        for (int i = 0; i < redemptions; i++) {
+            tasks.add(() -> store.redeem(CONSUMER_KEY, AUTHZ_CODE));
+        }
+        int activeResults = 0;
+        for (Future<AuthorizationCodeValidationResult> result : executor.invokeAll(tasks)) {
+            if (result.get() != null && result.get().isActiveCode()) {
+                activeResults++;
+            }
+        }
+        executor.shutdown();
+        store.shutdown();
+
+        assertEquals(activeResults, 1, "An authorization code should be redeemed only once.");
+        assertEquals(store.getRedeemedCount(), 1);
+        assertEquals(store.getReuseCount(), redemptions - 1);
+    }
+
+    @Test
+    public void testFlushStateChanges() throws Exception {
+
+        AuthorizationCodeStore store = new AuthorizationCodeStore(true, 10, AUDIT_INTERVAL_MILLIS, mockedAuditDAO);
+        assertTrue(store.isConfigured());
+        store.start();
+        assertTrue(store.add(AUTHZ_CODE, CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+        assertTrue(store.updateState(AUTHZ_CODE, OAuthConstants.AuthorizationCodeState.EXPIRED));
+        assertEquals(store.getCodeId(AUTHZ_CODE), "code-id");
+
+        store.flush();
+        verify(mockedAuditDAO, times(1)).updateAuthorizationCodeState(AUTHZ_CODE,
+                OAuthConstants.AuthorizationCodeState.EXPIRED);
+        assertEquals(store.getAuditedCount(), 1);
+
+        // Consumed codes whose state is written are released from the store.
+        store.sweep();
+        assertEquals(store.getSize(), 0);
+        assertNull(store.redeem(CONSUMER_KEY, AUTHZ_CODE));
+        store.shutdown();
+    }
+
+    @Test
+    public void testSweepAuditsOnlyChangedCodes() throws Exception {
+
+        AuthorizationCodeStore store = new AuthorizationCodeStore(true, 10, AUDIT_INTERVAL_MILLIS, mockedAuditDAO);
+        assertTrue(store.add(AUTHZ_CODE, CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+        assertTrue(store.add("another-code", CONSUMER_KEY, CALLBACK_URL, buildAuthzCodeDO()));
+
+        // Codes whose state is already in the database are not written again.
+        store.sweep();
+        store.flush();
+        assertEquals(store.getAuditedCount(), 0);
+        verifyZeroInteractions(mockedAuditDAO);
+
+        assertTrue(store.updateState(AUTHZ_CODE, OAuthConstants.AuthorizationCodeState.REVOKED));
+        store.sweep();
+        store.sweep();
+        assertEquals(store.getAuditedCount(), 1);
+        verify(mockedAuditDAO, times(1)).updateAuthorizationCodeState(AUTHZ_CODE,
+                OAuthConstants.AuthorizationCodeState.REVOKED);
+        assertEquals(store.getSize(), 1, "Active codes should be kept in the store.");
+    }
+
+    private AuthzCodeDO buildAuthzCodeDO() {
+
+        return new AuthzCodeDO(null, new String[]{"openid"}, new Timestamp(System.currentTimeMillis()), 300000,
+                CALLBACK_URL, CONSUMER_KEY, AUTHZ_CODE, "code-id");
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for OldTokenArchiver.
+ */
+public class OldTokenArchiverTest extends PowerMockIdentityBaseTest {
+
+    private static final String PRIMARY_DOMAIN = "PRIMARY";
+    private static final String SECONDARY_DOMAIN = "SECONDARY";
+
+    @Mock
+    private OldTokensCleanDAO mockedOldTokensCleanDAO;
+
+    @BeforeMethod
+    public void setUp() {
+
+        initMocks(this);
+    }
+
+    @Test
+    public void testEnqueueWhenDisabled() throws Exception {
+
+        OldTokenArchiver archiver = new OldTokenArchiver(false, 10, 10, mockedOldTokensCleanDAO);
+        archiver.start();
+
+        assertFalse(archiver.isEnabled());
+        assertFalse(archiver.enqueue("token-1", PRIMARY_DOMAIN),
+                "Tokens should be cleaned up synchronously when asynchronous archiving is disabled.");
+        archiver.shutdown();
+        verify(mockedOldTokensCleanDAO, never()).cleanupTokensByTokenIds(anyList(), anyString());
+    }
+
+    @Test
+    public void testArchiveQueuedTokens() throws Exception {
+
+        OldTokenArchiver archiver = new OldTokenArchiver(true, 10, 10, mockedOldTokensCleanDAO);
+        archiver.start();
+        assertTrue(archiver.isEnabled());
+        assertTrue(archiver.enqueue("token-1", PRIMARY_DOMAIN));
+        assertTrue(archiver.enqueue("token-2", SECONDARY_DOMAIN));
+        assertTrue(archiver.enqueue("token-3", PRIMARY_DOMAIN));
+        // Shutting down archives whatever the consumer has not picked up yet.
+        archiver.shutdown();
+
+        ArgumentCaptor<List> primaryTokenIds = ArgumentCaptor.forClass(List.class);
+        verify(mockedOldTokensCleanDAO, atLeastOnce()).cleanupTokensByTokenIds(primaryTokenIds.capture(),
+                eq(PRIMARY_DOMAIN));
+        Set<Object> archivedPrimaryTokenIds = new HashSet<>();
+        for (List tokenIds : primaryTokenIds.getAllValues()) {
+            archivedPrimaryTokenIds.addAll(tokenIds);
+        }
+        assertEquals(archivedPrimaryTokenIds.size(), 2);
+        assertTrue(archivedPrimaryTokenIds.contains("token-1") && archivedPrimaryTokenIds.contains("token-3"));
+
+        assertEquals(archiver.getEnqueuedCount(), 3);
+        assertEquals(archiver.getArchivedCount(), 3);
+        assertEquals(archiver.getFailedCount(), 0);
+        assertEquals(archiver.getQueueDepth(), 0);
+        assertEquals(archiver.getCurrentArchiveLagMillis(), 0);
+        assertTrue(archiver.getBatchCount() > 0);
+    }
+
+    @Test
+    public void testArchiveFailure() throws Exception {
+
+        doThrow(new IdentityOAuth2Exception("Database error.")).when(mockedOldTokensCleanDAO)
+                .cleanupTokensByTokenIds(anyList(), anyString());
+        OldTokenArchiver archiver = new OldTokenArchiver(true, 10, 10, mockedOldTokensCleanDAO);
+        archiver.start();
+        assertTrue(archiver.enqueue("token-1", PRIMARY_DOMAIN));
+        archiver.shutdown();
+
+        // The token is given up once it runs out of attempts.
+        verify(mockedOldTokensCleanDAO, times(3)).cleanupTokensByTokenIds(anyList(), eq(PRIMARY_DOMAIN));
+        assertEquals(archiver.getArchivedCount(), 0);
+        assertEquals(archiver.getRetriedCount(), 2);
+        assertEquals(archiver.getFailedCount(), 1);
+        assertEquals(archiver.getQueueDepth(), 0);
+    }
+
+    @Test
+    public void testArchiveRetriedAfterFailure() throws Exception {
+
+        doThrow(new IdentityOAuth2Exception("Database error.")).doNothing().when(mockedOldTokensCleanDAO)
+                .cleanupTokensByTokenIds(anyList(), anyString());
+        OldTokenArchiver archiver = new OldTokenArchiver(true, 10, 10, mockedOldTokensCleanDAO);
+        archiver.start();
+        assertTrue(archiver.enqueue("token-1", PRIMARY_DOMAIN));
+        archiver.shutdown();
+
+        verify(mockedOldTokensCleanDAO, times(2)).cleanupTokensByTokenIds(anyList(), eq(PRIMARY_DOMAIN));
+        assertEquals(archiver.getArchivedCount(), 1);
+        assertEquals(archiver.getRetriedCount(), 1);
+        assertEquals(archiver.getFailedCount(), 0);
+        assertEquals(archiver.getQueueDepth(), 0);
+    }
+}
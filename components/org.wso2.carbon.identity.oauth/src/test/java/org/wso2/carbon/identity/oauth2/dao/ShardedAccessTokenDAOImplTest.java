@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor;
+import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
+import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRing;
+import org.wso2.carbon.identity.oauth2.util.TokenShardRouter;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.doAnswer;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for ShardedAccessTokenDAOImpl, TokenShardRebalanceDAO and TokenShardRebalancer, with a database per
+ * token shard.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, OAuth2Util.class, OAuth2TokenUtil.class, IdentityUtil.class,
+        OAuthServerConfiguration.class})
+public class ShardedAccessTokenDAOImplTest extends PowerMockIdentityBaseTest {
+
+    private static final String SHARD_1 = "testTokenShard1DB";
+    private static final String SHARD_2 = "testTokenShard2DB";
+    private static final String IDENTITY_DB_NAME = "testTokenShardIdentityDB";
+    private static final String CONSUMER_KEY = "shardedAccessTokenDAOConsumerKey";
+    private static final String APP_NAME = "shardedAccessTokenDAOApp";
+    private static final String CALLBACK = "http://localhost:8080/redirect";
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int TENANT_ID = -1234;
+    private static final int VIRTUAL_NODES = 160;
+    private static final int TOKEN_COUNT = 20;
+
+    @Mock
+    private OAuthServerConfiguration mockedServerConfig;
+
+    @Mock
+    private ApplicationManagementService mockedApplicationManagementService;
+
+    private TokenShardRing ring;
+    private TokenShardRing previousRing;
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        for (String database : Arrays.asList(SHARD_1, SHARD_2, IDENTITY_DB_NAME)) {
+            DAOUtils.initializeDataSource(database, DAOUtils.getFilePath("identity.sql"));
+            createApplication(database);
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        initMocks(this);
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection()).thenAnswer(
+                invocation -> getTransactionalConnection(IDENTITY_DB_NAME));
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(
+                invocation -> getTransactionalConnection(IDENTITY_DB_NAME));
+        doAnswer(invocation -> {
+            ((Connection) invocation.getArgument(0)).commit();
+            return null;
+        }).when(IdentityDatabaseUtil.class, "commitTransaction", any(Connection.class));
+        doAnswer(invocation -> {
+            ((Connection) invocation.getArgument(0)).rollback();
+            return null;
+        }).when(IdentityDatabaseUtil.class, "rollbackTransaction", any(Connection.class));
+        doAnswer(invocation -> {
+            closeConnection(invocation.getArgument(0));
+            return null;
+        }).when(IdentityDatabaseUtil.class);
+        IdentityDatabaseUtil.closeConnection(nullable(Connection.class));
+        doAnswer(invocation -> {
+            closeConnection(invocation.getArgument(0));
+            return null;
+        }).when(IdentityDatabaseUtil.class);
+        IdentityDatabaseUtil.closeAllConnections(nullable(Connection.class), nullable(ResultSet.class),
+                nullable(PreparedStatement.class));
+
+        mockStatic(OAuthServerConfiguration.class);
+        when(OAuthServerConfiguration.getInstance()).thenReturn(mockedServerConfig);
+        when(mockedServerConfig.getPersistenceProcessor()).thenReturn(new PlainTextPersistenceProcessor());
+        when(mockedServerConfig.getHashAlgorithm()).thenReturn("SHA-256");
+        when(mockedServerConfig.isTokenCleanupEnabled()).thenReturn(false);
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getPrimaryDomainName()).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        mockStatic(OAuth2TokenUtil.class);
+
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getOAuthTokenIssuerForOAuthApp(anyString())).thenReturn(mock(OauthTokenIssuer.class));
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(anyString(), any())).thenAnswer(
+                invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getSanitizedUserStoreDomain(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getUserStoreDomain(any())).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        when(OAuth2Util.getAuthenticatedIDP(any())).thenReturn("LOCAL");
+        when(OAuth2Util.getTenantId(anyString())).thenReturn(TENANT_ID);
+        when(OAuth2Util.buildScopeString(any())).thenCallRealMethod();
+        when(OAuth2Util.hashScopes(any(String[].class))).thenCallRealMethod();
+        when(OAuth2Util.createAuthenticatedUser(anyString(), anyString(), anyString(), anyString())).thenAnswer(
+                invocation -> mock(AuthenticatedUser.class));
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setConsentedTokenColumnEnabled(false);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(mockedApplicationManagementService);
+
+        authenticatedUser = new AuthenticatedUser();
+        authenticatedUser.setUserName("shardeduser");
+        authenticatedUser.setTenantDomain(TENANT_DOMAIN);
+        authenticatedUser.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+
+        previousRing = new TokenShardRing(Collections.singletonList(SHARD_1), VIRTUAL_NODES);
+        ring = new TokenShardRing(Arrays.asList(SHARD_1, SHARD_2), VIRTUAL_NODES);
+        for (String shard : Arrays.asList(SHARD_1, SHARD_2)) {
+            deleteAccessTokens(shard);
+        }
+    }
+
+    @Test
+    public void testAccessTokensInsertedOnTheirShard() throws Exception {
+
+        ShardedAccessTokenDAOImpl accessTokenDAO = new ShardedAccessTokenDAOImpl(createRouter(ring, null));
+        List<AccessTokenDO> accessTokenDOs = createAccessTokens("insert");
+        insertAccessTokens(accessTokenDAO, accessTokenDOs.subList(0, TOKEN_COUNT / 2));
+        for (AccessTokenDO accessTokenDO : accessTokenDOs.subList(TOKEN_COUNT / 2, TOKEN_COUNT)) {
+            accessTokenDAO.insertAccessToken(accessTokenDO.getAccessToken(), CONSUMER_KEY, accessTokenDO,
+                    UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        }
+
+        assertEquals(getTokenCount(SHARD_1) + getTokenCount(SHARD_2), TOKEN_COUNT);
+        assertTrue(getTokenCount(SHARD_1) > 0);
+        assertTrue(getTokenCount(SHARD_2) > 0);
+        assertTokensOnTheirShard();
+        // The tokens are not written to the identity database.
+        assertEquals(getTokenCount(IDENTITY_DB_NAME), 0);
+    }
+
+    @Test
+    public void testAccessTokensLookedUpAcrossShards() throws Exception {
+
+        ShardedAccessTokenDAOImpl accessTokenDAO = new ShardedAccessTokenDAOImpl(createRouter(ring, null));
+        List<AccessTokenDO> accessTokenDOs = createAccessTokens("lookup");
+        insertAccessTokens(accessTokenDAO, accessTokenDOs);
+
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            assertEquals(accessTokenDAO.getTokenIdByAccessToken(accessTokenDO.getAccessToken()),
+                    accessTokenDO.getTokenId());
+            assertEquals(accessTokenDAO.getAccessTokenByTokenId(accessTokenDO.getTokenId()),
+                    accessTokenDO.getAccessToken());
+        }
+        assertNull(accessTokenDAO.getTokenIdByAccessToken("unknownAccessToken"));
+
+        // The batches of the user are merged across the shards in token id order.
+        List<String> tokenIds = new ArrayList<>();
+        String lastTokenId = null;
+        List<AccessTokenDO> batch;
+        do {
+            batch = accessTokenDAO.getAccessTokensOfUser(authenticatedUser,
+                    UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, lastTokenId, 3);
+            assertTrue(batch.size() <= 3);
+            for (AccessTokenDO accessTokenDO : batch) {
+                tokenIds.add(accessTokenDO.getTokenId());
+                lastTokenId = accessTokenDO.getTokenId();
+            }
+        } while (!batch.isEmpty());
+        assertEquals(tokenIds, getTokenIds(accessTokenDOs));
+    }
+
+    @Test
+    public void testAccessTokenStateUpdatedOnItsShard() throws Exception {
+
+        ShardedAccessTokenDAOImpl accessTokenDAO = new ShardedAccessTokenDAOImpl(createRouter(ring, null));
+        List<AccessTokenDO> accessTokenDOs = createAccessTokens("update");
+        insertAccessTokens(accessTokenDAO, accessTokenDOs);
+
+        for (AccessTokenDO accessTokenDO : accessTokenDOs.subList(0, TOKEN_COUNT / 2)) {
+            accessTokenDAO.updateAccessTokenState(accessTokenDO.getTokenId(),
+                    OAuthConstants.TokenStates.TOKEN_STATE_REVOKED, "password");
+        }
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            AccessTokenDO accessTokenDO = accessTokenDOs.get(i);
+            assertEquals(getTokenState(getShard(accessTokenDO), accessTokenDO.getTokenId()), i < TOKEN_COUNT / 2 ?
+                    OAuthConstants.TokenStates.TOKEN_STATE_REVOKED : OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        }
+    }
+
+    @Test
+    public void testAccessTokensLookedUpOnPreviousShardWhileRebalancing() throws Exception {
+
+        insertAccessTokens(new ShardedAccessTokenDAOImpl(createRouter(previousRing, null)),
+                createAccessTokens("rebalancing"));
+        assertEquals(getTokenCount(SHARD_1), TOKEN_COUNT);
+
+        // Tokens which are not moved yet are found on their previous shard.
+        ShardedAccessTokenDAOImpl accessTokenDAO = new ShardedAccessTokenDAOImpl(createRouter(ring, previousRing));
+        List<AccessTokenDO> accessTokenDOs = createAccessTokens("rebalancing");
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            assertEquals(accessTokenDAO.getTokenIdByAccessToken(accessTokenDO.getAccessToken()),
+                    accessTokenDO.getTokenId());
+        }
+        accessTokenDAO.updateAccessTokenState(accessTokenDOs.get(0).getTokenId(),
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED, "password");
+        assertEquals(getTokenState(SHARD_1, accessTokenDOs.get(0).getTokenId()),
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+    }
+
+    @Test
+    public void testMisplacedAccessTokensMovedInChunks() throws Exception {
+
+        List<AccessTokenDO> accessTokenDOs = createAccessTokens("move");
+        insertAccessTokens(new ShardedAccessTokenDAOImpl(createRouter(previousRing, null)), accessTokenDOs);
+        int misplacedCount = 0;
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            if (SHARD_2.equals(getShard(accessTokenDO))) {
+                misplacedCount++;
+            }
+        }
+        assertTrue(misplacedCount > 0, "No token maps to the added shard.");
+
+        TokenShardRebalanceDAO rebalanceDAO = new TokenShardRebalanceDAO(createRouter(ring, previousRing));
+        int chunkSize = 7;
+        int examinedCount = 0;
+        int movedCount = 0;
+        int chunkCount = 0;
+        String lastKey = null;
+        do {
+            TokenShardRebalanceDAO.MoveChunk moveChunk = rebalanceDAO.moveAccessTokens(SHARD_1,
+                    UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, lastKey, chunkSize);
+            assertTrue(moveChunk.getExaminedCount() <= chunkSize);
+            assertEquals(moveChunk.getFailedCount(), 0);
+            examinedCount += moveChunk.getExaminedCount();
+            movedCount += moveChunk.getMovedCount();
+            chunkCount++;
+            lastKey = moveChunk.getLastKey();
+        } while (lastKey != null);
+
+        assertEquals(chunkCount, TOKEN_COUNT / chunkSize + 1);
+        assertEquals(examinedCount, TOKEN_COUNT);
+        assertEquals(movedCount, misplacedCount);
+        assertEquals(getTokenCount(SHARD_2), misplacedCount);
+        assertEquals(getTokenCount(SHARD_1), TOKEN_COUNT - misplacedCount);
+        assertTokensOnTheirShard();
+        // The scopes are moved along with their tokens.
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            assertEquals(getScopeCount(getShard(accessTokenDO), accessTokenDO.getTokenId()), 1);
+            assertEquals(getScopeCount(getOtherShard(accessTokenDO), accessTokenDO.getTokenId()), 0);
+        }
+
+        // Moving the tokens again examines them without moving any.
+        TokenShardRebalanceDAO.MoveChunk moveChunk = rebalanceDAO.moveAccessTokens(SHARD_1,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME, null, TOKEN_COUNT);
+        assertEquals(moveChunk.getMovedCount(), 0);
+        assertEquals(moveChunk.getExaminedCount(), TOKEN_COUNT - misplacedCount);
+    }
+
+    @Test
+    public void testRebalancerMovesAccessTokens() throws Exception {
+
+        List<AccessTokenDO> accessTokenDOs = createAccessTokens("rebalance");
+        insertAccessTokens(new ShardedAccessTokenDAOImpl(createRouter(previousRing, null)), accessTokenDOs);
+
+        TokenShardRouter router = createRouter(ring, previousRing);
+        TokenPurgeDAO leaseDAO = mock(TokenPurgeDAO.class);
+        when(leaseDAO.acquireLease(anyString(), anyString(), anyLong())).thenReturn(true);
+        TokenShardRebalancer rebalancer = new TokenShardRebalancer(router, 60000, 7, 1000, 60000,
+                new TokenShardRebalanceDAO(router), leaseDAO);
+        rebalancer.rebalance();
+
+        assertTrue(rebalancer.isCompleted());
+        assertEquals(rebalancer.getRunCount(), 1);
+        assertEquals(rebalancer.getFailedTokenCount(), 0);
+        assertEquals(rebalancer.getMovedTokenCount(), getTokenCount(SHARD_2));
+        assertEquals(getTokenCount(SHARD_1) + getTokenCount(SHARD_2), TOKEN_COUNT);
+        assertTokensOnTheirShard();
+        verify(leaseDAO).releaseLease(anyString(), anyString());
+    }
+
+    @Test
+    public void testRebalancerSkippedWithoutLease() throws Exception {
+
+        insertAccessTokens(new ShardedAccessTokenDAOImpl(createRouter(previousRing, null)),
+                createAccessTokens("skipped"));
+
+        TokenShardRouter router = createRouter(ring, previousRing);
+        TokenPurgeDAO leaseDAO = mock(TokenPurgeDAO.class);
+        when(leaseDAO.acquireLease(anyString(), anyString(), anyLong())).thenReturn(false);
+        TokenShardRebalancer rebalancer = new TokenShardRebalancer(router, 60000, 7, 1000, 60000,
+                new TokenShardRebalanceDAO(router), leaseDAO);
+        rebalancer.rebalance();
+
+        assertFalse(rebalancer.isCompleted());
+        assertEquals(rebalancer.getSkippedRunCount(), 1);
+        assertEquals(rebalancer.getMovedTokenCount(), 0);
+        assertEquals(getTokenCount(SHARD_1), TOKEN_COUNT);
+        verify(leaseDAO, never()).releaseLease(anyString(), anyString());
+    }
+
+    private TokenShardRouter createRouter(TokenShardRing currentRing, TokenShardRing previousShardRing)
+            throws Exception {
+
+        Map<String, DataSource> dataSources = new HashMap<>();
+        for (String shard : Arrays.asList(SHARD_1, SHARD_2)) {
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenAnswer(invocation -> DAOUtils.getConnection(shard));
+            dataSources.put(shard, dataSource);
+        }
+        return Whitebox.invokeConstructor(TokenShardRouter.class,
+                new Class[]{boolean.class, TokenShardRing.class, TokenShardRing.class, Map.class},
+                new Object[]{true, currentRing, previousShardRing, dataSources});
+    }
+
+    /**
+     * Assert that every token of the shards is on the shard its hash maps to.
+     */
+    private void assertTokensOnTheirShard() throws Exception {
+
+        for (String shard : Arrays.asList(SHARD_1, SHARD_2)) {
+            try (Connection connection = DAOUtils.getConnection(shard);
+                 PreparedStatement prepStmt = connection.prepareStatement(
+                         "SELECT TOKEN_ID, ACCESS_TOKEN_HASH FROM IDN_OAUTH2_ACCESS_TOKEN");
+                 ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    assertEquals(ring.getShard(resultSet.getString(2)), shard,
+                            "Access token with id: " + resultSet.getString(1) + " is on the wrong shard.");
+                }
+            }
+        }
+    }
+
+    private String getShard(AccessTokenDO accessTokenDO) throws Exception {
+
+        return ring.getShard(new HashingPersistenceProcessor().getProcessedAccessTokenIdentifier(
+                accessTokenDO.getAccessToken()));
+    }
+
+    private String getOtherShard(AccessTokenDO accessTokenDO) throws Exception {
+
+        return SHARD_1.equals(getShard(accessTokenDO)) ? SHARD_2 : SHARD_1;
+    }
+
+    private Connection getTransactionalConnection(String database) throws Exception {
+
+        Connection connection = DAOUtils.getConnection(database);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private void closeConnection(Connection connection) throws Exception {
+
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Create access tokens with fixed identifiers, so that their placement on the shards does not vary across runs.
+     */
+    private List<AccessTokenDO> createAccessTokens(String prefix) {
+
+        List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            AccessTokenDO accessTokenDO = new AccessTokenDO();
+            accessTokenDO.setTokenId(String.format("%s-token-id-%02d", prefix, i));
+            accessTokenDO.setAccessToken(prefix + "-access-token-" + i);
+            accessTokenDO.setRefreshToken(prefix + "-refresh-token-" + i);
+            accessTokenDO.setConsumerKey(CONSUMER_KEY);
+            accessTokenDO.setAuthzUser(authenticatedUser);
+            accessTokenDO.setScope(new String[]{"openid"});
+            accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+            accessTokenDO.setTokenType("APPLICATION_USER");
+            accessTokenDO.setGrantType("password");
+            accessTokenDO.setIssuedTime(new Timestamp(System.currentTimeMillis()));
+            accessTokenDO.setRefreshTokenIssuedTime(new Timestamp(System.currentTimeMillis()));
+            accessTokenDO.setValidityPeriodInMillis(3600000L);
+            accessTokenDO.setRefreshTokenValidityPeriodInMillis(84600000L);
+            accessTokenDOs.add(accessTokenDO);
+        }
+        return accessTokenDOs;
+    }
+
+    private void insertAccessTokens(ShardedAccessTokenDAOImpl accessTokenDAO, List<AccessTokenDO> accessTokenDOs)
+            throws Exception {
+
+        List<AccessContextTokenDO> accessContextTokenDOs = new ArrayList<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            accessContextTokenDOs.add(new AccessContextTokenDO(accessTokenDO.getAccessToken(), CONSUMER_KEY,
+                    accessTokenDO, null, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME));
+        }
+        assertTrue(accessTokenDAO.insertAccessTokens(accessContextTokenDOs).isEmpty());
+    }
+
+    private List<String> getTokenIds(List<AccessTokenDO> accessTokenDOs) {
+
+        List<String> tokenIds = new ArrayList<>();
+        for (AccessTokenDO accessTokenDO : accessTokenDOs) {
+            tokenIds.add(accessTokenDO.getTokenId());
+        }
+        return tokenIds;
+    }
+
+    private int getTokenCount(String database) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(database);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM IDN_OAUTH2_ACCESS_TOKEN");
+             ResultSet resultSet = prepStmt.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private String getTokenState(String database, String tokenId) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(database);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT TOKEN_STATE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private int getScopeCount(String database, String tokenId) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(database);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private void deleteAccessTokens(String database) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(database);
+             PreparedStatement prepStmt = connection.prepareStatement("DELETE FROM IDN_OAUTH2_ACCESS_TOKEN")) {
+            prepStmt.execute();
+        }
+    }
+
+    private void createApplication(String database) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(database);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+            prepStmt.setString(1, CONSUMER_KEY);
+            prepStmt.setString(2, UUID.randomUUID().toString());
+            prepStmt.setString(3, "user1");
+            prepStmt.setInt(4, TENANT_ID);
+            prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(6, APP_NAME);
+            prepStmt.setString(7, VERSION_2);
+            prepStmt.setString(8, CALLBACK);
+            prepStmt.setString(9, "password refresh_token");
+            prepStmt.setLong(10, 3600L);
+            prepStmt.setLong(11, 3600L);
+            prepStmt.setLong(12, 84600L);
+            prepStmt.setLong(13, 3600L);
+            prepStmt.execute();
+        }
+    }
+}
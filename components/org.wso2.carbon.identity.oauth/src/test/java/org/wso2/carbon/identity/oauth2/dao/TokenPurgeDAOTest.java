@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for TokenPurgeDAO.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, OAuth2Util.class, OAuthServerConfiguration.class})
+public class TokenPurgeDAOTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testTokenPurgeDB";
+    private static final String LEASE_NAME = "TEST_LEASE";
+    private static final String NODE_1 = "node-1";
+    private static final String NODE_2 = "node-2";
+    private static final long HOUR_MILLIS = 3600000L;
+
+    @Mock
+    private OAuthServerConfiguration mockedServerConfig;
+
+    private TokenPurgeDAO tokenPurgeDAO;
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        tokenPurgeDAO = new TokenPurgeDAO();
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        initMocks(this);
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(
+                invocation -> DAOUtils.getConnection(DB_NAME));
+        mockStatic(OAuthServerConfiguration.class);
+        when(OAuthServerConfiguration.getInstance()).thenReturn(mockedServerConfig);
+        when(mockedServerConfig.useRetainOldAccessTokens()).thenReturn(false);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(anyString(), anyString())).thenAnswer(
+                invocation -> invocation.getArgument(0));
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            for (String table : Arrays.asList("IDN_OAUTH2_ACCESS_TOKEN", "IDN_OAUTH2_AUTHORIZATION_CODE",
+                    "IDN_OAUTH2_DEVICE_FLOW", "IDN_OAUTH2_CIBA_AUTH_CODE", "IDN_OAUTH2_TASK_LEASE")) {
+                connection.createStatement().executeUpdate("DELETE FROM " + table);
+            }
+        }
+    }
+
+    @Test
+    public void testAcquireLease() throws Exception {
+
+        assertTrue(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_1, HOUR_MILLIS));
+        assertFalse(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_2, HOUR_MILLIS),
+                "A lease held by another node should not be granted.");
+        assertTrue(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_1, HOUR_MILLIS),
+                "The holder of a lease should be able to renew it.");
+
+        tokenPurgeDAO.releaseLease(LEASE_NAME, NODE_1);
+        assertTrue(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_2, HOUR_MILLIS),
+                "A released lease should be granted to another node.");
+    }
+
+    @Test
+    public void testAcquireExpiredLease() throws Exception {
+
+        assertTrue(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_1, -HOUR_MILLIS));
+        assertTrue(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_2, HOUR_MILLIS),
+                "An expired lease should be granted to another node.");
+        assertFalse(tokenPurgeDAO.acquireLease(LEASE_NAME, NODE_1, HOUR_MILLIS));
+    }
+
+    @Test
+    public void testPurgeAccessTokens() throws Exception {
+
+        long now = System.currentTimeMillis();
+        long past = now - 3 * HOUR_MILLIS;
+        insertAccessToken("token-1", OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE, past, HOUR_MILLIS, past,
+                HOUR_MILLIS);
+        // The refresh token is still valid.
+        insertAccessToken("token-2", OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE, past, HOUR_MILLIS, past,
+                10 * HOUR_MILLIS);
+        // The refresh token of a revoked token can not be used.
+        insertAccessToken("token-3", OAuthConstants.TokenStates.TOKEN_STATE_REVOKED, past, HOUR_MILLIS, past,
+                10 * HOUR_MILLIS);
+        insertAccessToken("token-4", OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED, past, HOUR_MILLIS, past,
+                HOUR_MILLIS);
+        insertAccessToken("token-5", OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE, now, HOUR_MILLIS, now,
+                HOUR_MILLIS);
+        // A token with a negative validity period never expires.
+        insertAccessToken("token-6", OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE, past, -1, past, -1);
+
+        int purgedCount = 0;
+        int chunkCount = 0;
+        String lastKey = null;
+        do {
+            TokenPurgeDAO.PurgeChunk purgeChunk = tokenPurgeDAO.purgeAccessTokens("PRIMARY", lastKey, 2, now);
+            purgedCount += purgeChunk.getPurgedCount();
+            lastKey = purgeChunk.getLastKey();
+            chunkCount++;
+        } while (lastKey != null);
+
+        assertEquals(purgedCount, 3);
+        assertEquals(chunkCount, 3, "The five rows created before the purge time should be examined in chunks of " +
+                "two.");
+        assertEquals(getKeys("SELECT TOKEN_ID FROM IDN_OAUTH2_ACCESS_TOKEN ORDER BY TOKEN_ID"),
+                Arrays.asList("token-2", "token-5", "token-6"));
+    }
+
+    @Test
+    public void testPurgeCodes() throws Exception {
+
+        long now = System.currentTimeMillis();
+        long past = now - 3 * HOUR_MILLIS;
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            insertAuthorizationCode(connection, "code-1", past);
+            insertAuthorizationCode(connection, "code-2", now);
+            insertDeviceCode(connection, "device-1", past);
+            insertDeviceCode(connection, "device-2", now + HOUR_MILLIS);
+            insertCibaAuthCode(connection, "ciba-1", past);
+            insertCibaAuthCode(connection, "ciba-2", now);
+        }
+
+        TokenPurgeDAO.PurgeChunk purgeChunk = tokenPurgeDAO.purgeAuthorizationCodes(null, 10, now);
+        assertEquals(purgeChunk.getPurgedCount(), 1);
+        assertNull(purgeChunk.getLastKey());
+        assertEquals(getKeys("SELECT CODE_ID FROM IDN_OAUTH2_AUTHORIZATION_CODE"), Arrays.asList("code-2"));
+
+        purgeChunk = tokenPurgeDAO.purgeDeviceCodes(null, 10, now);
+        assertEquals(purgeChunk.getPurgedCount(), 1);
+        assertEquals(getKeys("SELECT DEVICE_CODE FROM IDN_OAUTH2_DEVICE_FLOW"), Arrays.asList("device-2"));
+
+        purgeChunk = tokenPurgeDAO.purgeCibaAuthCodes(null, 10, now);
+        assertEquals(purgeChunk.getPurgedCount(), 1);
+        assertEquals(getKeys("SELECT TRIM(AUTH_CODE_KEY) FROM IDN_OAUTH2_CIBA_AUTH_CODE"), Arrays.asList("ciba-2"));
+    }
+
+    @Test
+    public void testPurgeChunkSizeCapped() throws Exception {
+
+        long now = System.currentTimeMillis();
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            for (int i = 0; i <= TokenPurgeDAO.MAX_CHUNK_SIZE; i++) {
+                insertAuthorizationCode(connection, String.format("code-%04d", i), now - 3 * HOUR_MILLIS);
+            }
+        }
+
+        TokenPurgeDAO.PurgeChunk purgeChunk = tokenPurgeDAO.purgeAuthorizationCodes(null,
+                TokenPurgeDAO.MAX_CHUNK_SIZE * 2, now);
+        assertEquals(purgeChunk.getPurgedCount(), TokenPurgeDAO.MAX_CHUNK_SIZE);
+        assertEquals(purgeChunk.getLastKey(), String.format("code-%04d", TokenPurgeDAO.MAX_CHUNK_SIZE - 1));
+
+        purgeChunk = tokenPurgeDAO.purgeAuthorizationCodes(purgeChunk.getLastKey(),
+                TokenPurgeDAO.MAX_CHUNK_SIZE * 2, now);
+        assertEquals(purgeChunk.getPurgedCount(), 1);
+        assertNull(purgeChunk.getLastKey());
+    }
+
+    private void insertAccessToken(String tokenId, String tokenState, long timeCreated, long validityPeriod,
+                                   long refreshTokenTimeCreated, long refreshTokenValidityPeriod) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_OAUTH2_ACCESS_TOKEN " +
+                     "(TOKEN_ID, TOKEN_STATE, TOKEN_STATE_ID, TIME_CREATED, VALIDITY_PERIOD, " +
+                     "REFRESH_TOKEN_TIME_CREATED, REFRESH_TOKEN_VALIDITY_PERIOD) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            prepStmt.setString(1, tokenId);
+            prepStmt.setString(2, tokenState);
+            prepStmt.setString(3, tokenId);
+            prepStmt.setTimestamp(4, new Timestamp(timeCreated), getUTCCalendar());
+            prepStmt.setLong(5, validityPeriod);
+            prepStmt.setTimestamp(6, new Timestamp(refreshTokenTimeCreated), getUTCCalendar());
+            prepStmt.setLong(7, refreshTokenValidityPeriod);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private void insertAuthorizationCode(Connection connection, String codeId, long timeCreated) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_OAUTH2_AUTHORIZATION_CODE " +
+                "(CODE_ID, TIME_CREATED, VALIDITY_PERIOD) VALUES (?, ?, ?)")) {
+            prepStmt.setString(1, codeId);
+            prepStmt.setTimestamp(2, new Timestamp(timeCreated), getUTCCalendar());
+            prepStmt.setLong(3, HOUR_MILLIS);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private void insertDeviceCode(Connection connection, String deviceCode, long expiryTime) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_OAUTH2_DEVICE_FLOW " +
+                "(DEVICE_CODE, LAST_POLL_TIME, EXPIRY_TIME) VALUES (?, ?, ?)")) {
+            prepStmt.setString(1, deviceCode);
+            prepStmt.setTimestamp(2, new Timestamp(expiryTime), getUTCCalendar());
+            prepStmt.setTimestamp(3, new Timestamp(expiryTime), getUTCCalendar());
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private void insertCibaAuthCode(Connection connection, String authCodeKey, long issuedTime) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_OAUTH2_CIBA_AUTH_CODE " +
+                "(AUTH_CODE_KEY, ISSUED_TIME, LAST_POLLED_TIME, EXPIRES_IN) VALUES (?, ?, ?, ?)")) {
+            prepStmt.setString(1, authCodeKey);
+            prepStmt.setTimestamp(2, new Timestamp(issuedTime), getUTCCalendar());
+            prepStmt.setTimestamp(3, new Timestamp(issuedTime), getUTCCalendar());
+            prepStmt.setInt(4, 3600);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private List<String> getKeys(String sql) throws Exception {
+
+        List<String> keys = new ArrayList<>();
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             ResultSet resultSet = connection.createStatement().executeQuery(sql)) {
+            while (resultSet.next()) {
+                keys.add(resultSet.getString(1));
+            }
+        }
+        return keys;
+    }
+
+    private Calendar getUTCCalendar() {
+
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
@@ -24,9 +24,13 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.TestConstants;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.stratos.common.beans.TenantInfoBean;
 
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
@@ -35,7 +39,7 @@ import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 
-@PrepareForTest({OAuthTenantMgtListenerImpl.class, OAuthServerConfiguration.class})
+@PrepareForTest({OAuthTenantMgtListenerImpl.class, OAuthServerConfiguration.class, TenantSigningKeyRegistry.class})
 public class OAuthTenantMgtListenerImplTest extends PowerMockIdentityBaseTest {
 
     @Mock
@@ -60,4 +64,21 @@ public class OAuthTenantMgtListenerImplTest extends PowerMockIdentityBaseTest {
         oAuthTenantMgtListener.onPreDelete(TestConstants.TENANT_ID);
         verify(oAuthTenantMgtListener).onPreDelete(TestConstants.TENANT_ID);
     }
+
+    @Test
+    public void testOnTenantUpdateReloadsSigningKey() throws Exception {
+
+        TenantSigningKeyRegistry tenantSigningKeyRegistry = mock(TenantSigningKeyRegistry.class);
+        mockStatic(TenantSigningKeyRegistry.class);
+        when(TenantSigningKeyRegistry.getInstance()).thenReturn(tenantSigningKeyRegistry);
+        doThrow(new IdentityOAuth2Exception("Signing key is not available.")).when(tenantSigningKeyRegistry)
+                .rotate(TestConstants.TENANT_DOMAIN);
+        TenantInfoBean tenantInfo = new TenantInfoBean();
+        tenantInfo.setTenantId(TestConstants.TENANT_ID);
+        tenantInfo.setTenantDomain(TestConstants.TENANT_DOMAIN);
+
+        // A signing key which cannot be reloaded does not fail the tenant update.
+        new OAuthTenantMgtListenerImpl().onTenantUpdate(tenantInfo);
+        verify(tenantSigningKeyRegistry).rotate(TestConstants.TENANT_DOMAIN);
+    }
 }
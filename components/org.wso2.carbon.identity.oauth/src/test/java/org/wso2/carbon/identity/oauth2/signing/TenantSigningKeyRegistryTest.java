@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.signing;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.openidconnect.util.TestUtils.getKeyStoreFromFile;
+
+/**
+ * Unit tests for TenantSigningKeyRegistry.
+ */
+@PrepareForTest({OAuth2Util.class, IdentityTenantUtil.class, IdentityUtil.class})
+public class TenantSigningKeyRegistryTest extends PowerMockIdentityBaseTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final int TENANT_ID = -1234;
+    private static final String THUMBPRINT = "thumbprint";
+    private static final String KEY_ID = "keyId";
+
+    private RSAPrivateKey privateKey;
+    private Certificate certificate;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        System.setProperty(CarbonBaseConstants.CARBON_HOME,
+                Paths.get(System.getProperty("user.dir"), "src", "test", "resources").toString());
+        KeyStore wso2KeyStore = getKeyStoreFromFile("wso2carbon.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME));
+        privateKey = (RSAPrivateKey) wso2KeyStore.getKey("wso2carbon", "wso2carbon".toCharArray());
+        certificate = wso2KeyStore.getCertificate("wso2carbon");
+
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(TENANT_ID);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getPrivateKey(anyString(), anyInt())).thenReturn(privateKey);
+        when(OAuth2Util.getCertificate(anyString(), anyInt())).thenReturn(certificate);
+        when(OAuth2Util.getThumbPrint(anyString(), anyInt())).thenReturn(THUMBPRINT);
+        when(OAuth2Util.getKID(any(Certificate.class), any(JWSAlgorithm.class), anyString())).thenReturn(KEY_ID);
+        when(OAuth2Util.createJWSSigner(any(RSAPrivateKey.class))).thenCallRealMethod();
+    }
+
+    @Test
+    public void testSigningKeyIsReused() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(0, 0);
+        SigningKey signingKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+
+        assertSame(registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256), signingKey);
+        assertSame(registry.getSigningKey(null, JWSAlgorithm.RS256), signingKey);
+        assertNotSame(registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS512), signingKey);
+        verifyStatic(OAuth2Util.class, times(1));
+        OAuth2Util.getPrivateKey(anyString(), anyInt());
+    }
+
+    @Test
+    public void testSign() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(0, 0);
+        SigningKey signingKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder().subject("subject").build();
+
+        SignedJWT signedJWT = signingKey.sign(claimsSet, new JOSEObjectType("at+jwt"));
+        assertEquals(signedJWT.getHeader().getAlgorithm(), JWSAlgorithm.RS256);
+        assertEquals(signedJWT.getHeader().getKeyID(), KEY_ID);
+        assertEquals(signedJWT.getHeader().getX509CertThumbprint().toString(), THUMBPRINT);
+        assertEquals(signedJWT.getHeader().getType().toString(), "at+jwt");
+        assertTrue(signedJWT.verify(new RSASSAVerifier((RSAPublicKey) certificate.getPublicKey())));
+        assertSame(signingKey.getHeader(new JOSEObjectType("at+jwt")),
+                signingKey.getHeader(new JOSEObjectType("at+jwt")));
+
+        assertNotNull(signingKey.getPublicJWK());
+        assertEquals(signingKey.getPublicJWK().getKeyID(), KEY_ID);
+        assertEquals(signingKey.getPublicJWK().getAlgorithm(), JWSAlgorithm.RS256);
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testGetSigningKeyForMismatchingAlgorithm() throws Exception {
+
+        new TenantSigningKeyRegistry(0, 0).getSigningKey(TENANT_DOMAIN, JWSAlgorithm.ES256);
+    }
+
+    @Test
+    public void testIsSupported() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(0, 0);
+        assertTrue(registry.isSupported(TENANT_DOMAIN, JWSAlgorithm.RS256));
+        assertTrue(registry.isSupported(null, JWSAlgorithm.PS256));
+        assertFalse(registry.isSupported(TENANT_DOMAIN, JWSAlgorithm.ES256));
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        when(OAuth2Util.getPrivateKey(anyString(), anyInt())).thenReturn(keyPairGenerator.generateKeyPair()
+                .getPrivate());
+        when(OAuth2Util.createJWSSigner(any(ECPrivateKey.class))).thenCallRealMethod();
+        registry = new TenantSigningKeyRegistry(0, 0);
+        assertTrue(registry.isSupported(TENANT_DOMAIN, JWSAlgorithm.ES256));
+        // Only the algorithm matching the curve of the key can be used.
+        assertFalse(registry.isSupported(TENANT_DOMAIN, JWSAlgorithm.ES384));
+        assertFalse(registry.isSupported(TENANT_DOMAIN, JWSAlgorithm.RS256));
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testIsSupportedWithoutSigningKey() throws Exception {
+
+        when(OAuth2Util.getPrivateKey(anyString(), anyInt())).thenReturn(null);
+        new TenantSigningKeyRegistry(0, 0).isSupported(TENANT_DOMAIN, JWSAlgorithm.RS256);
+    }
+
+    @Test
+    public void testRotateRetainsPreviousKeyWithinOverlapPeriod() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(0, 60000);
+        SigningKey previousKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        when(OAuth2Util.getPrivateKey(anyString(), anyInt())).thenReturn(keyPair.getPrivate());
+        when(OAuth2Util.getThumbPrint(anyString(), anyInt())).thenReturn("rotatedThumbprint");
+        registry.rotate(TENANT_DOMAIN);
+
+        SigningKey currentKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+        assertNotSame(currentKey, previousKey);
+        List<SigningKey> verificationKeys = registry.getVerificationKeys(TENANT_DOMAIN, JWSAlgorithm.RS256);
+        assertEquals(verificationKeys.size(), 2);
+        assertSame(verificationKeys.get(0), currentKey);
+        assertSame(verificationKeys.get(1), previousKey);
+    }
+
+    @Test
+    public void testRotateWithoutOverlapPeriod() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(0, 0);
+        SigningKey previousKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+
+        // Rotating without a key change keeps the already built signing keys.
+        registry.rotate(TENANT_DOMAIN);
+        assertSame(registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256), previousKey);
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        when(OAuth2Util.getPrivateKey(anyString(), anyInt())).thenReturn(keyPairGenerator.generateKeyPair()
+                .getPrivate());
+        registry.rotate(TENANT_DOMAIN);
+
+        List<SigningKey> verificationKeys = registry.getVerificationKeys(TENANT_DOMAIN, JWSAlgorithm.RS256);
+        assertEquals(verificationKeys.size(), 1);
+        assertNotSame(verificationKeys.get(0), previousKey);
+    }
+
+    @Test
+    public void testRotateDoesNotLoadUnusedSigningKey() throws Exception {
+
+        new TenantSigningKeyRegistry(0, 0).rotate(TENANT_DOMAIN);
+        verifyStatic(OAuth2Util.class, times(0));
+        OAuth2Util.getPrivateKey(anyString(), anyInt());
+    }
+
+    @Test
+    public void testInvalidateRemovesSigningKey() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(0, 60000);
+        SigningKey previousKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+
+        registry.invalidate(TENANT_ID);
+        SigningKey currentKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+        assertNotSame(currentKey, previousKey);
+        // The removed key is not retained for verification.
+        assertEquals(registry.getVerificationKeys(TENANT_DOMAIN, JWSAlgorithm.RS256).size(), 1);
+        verifyStatic(OAuth2Util.class, times(2));
+        OAuth2Util.getPrivateKey(anyString(), anyInt());
+    }
+
+    @Test
+    public void testSigningKeyRefreshedAfterRefreshInterval() throws Exception {
+
+        TenantSigningKeyRegistry registry = new TenantSigningKeyRegistry(1, 60000);
+        SigningKey previousKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        when(OAuth2Util.getPrivateKey(anyString(), anyInt())).thenReturn(keyPairGenerator.generateKeyPair()
+                .getPrivate());
+        Thread.sleep(10);
+
+        // The key changed in the key store is picked up without an explicit rotation.
+        SigningKey refreshedKey = registry.getSigningKey(TENANT_DOMAIN, JWSAlgorithm.RS256);
+        assertNotSame(refreshedKey, previousKey);
+        assertSame(registry.getVerificationKeys(TENANT_DOMAIN, JWSAlgorithm.RS256).get(1), previousKey);
+    }
+
+    @Test
+    public void testDefaultRefreshInterval() throws Exception {
+
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getProperty(anyString())).thenReturn(null);
+        Whitebox.setInternalState(TenantSigningKeyRegistry.class, "instance", (TenantSigningKeyRegistry) null);
+        try {
+            TenantSigningKeyRegistry registry = TenantSigningKeyRegistry.getInstance();
+            assertEquals((long) Whitebox.getInternalState(registry, "refreshIntervalMillis"),
+                    TimeUnit.MINUTES.toMillis(5));
+        } finally {
+            Whitebox.setInternalState(TenantSigningKeyRegistry.class, "instance", (TenantSigningKeyRegistry) null);
+        }
+    }
+}
@@ -18,6 +18,8 @@ package org.wso2.carbon.identity.oauth2.token;
 
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.PlainJWT;
@@ -45,14 +47,21 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeReqDTO;
+import org.wso2.carbon.identity.oauth2.signing.TenantSigningKeyRegistry;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.AuthorizationGrantHandler;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.openidconnect.CustomClaimsCallbackHandler;
 import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 
+import java.lang.reflect.Method;
 import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.security.KeyStore;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.ECGenParameterSpec;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
@@ -66,11 +75,13 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.powermock.api.mockito.PowerMockito.doAnswer;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.spy;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -126,6 +137,8 @@ public class JWTTokenIssuerTest extends PowerMockIdentityBaseTest {
         initMocks(this);
         mockStatic(OAuthServerConfiguration.class);
         when(OAuthServerConfiguration.getInstance()).thenReturn(oAuthServerConfiguration);
+        // Signing keys are mocked per test, hence should not be reused across tests.
+        TenantSigningKeyRegistry.getInstance().clear();
     }
 
     @AfterMethod
@@ -349,7 +362,7 @@ public class JWTTokenIssuerTest extends PowerMockIdentityBaseTest {
 
             when((OAuth2Util.getPrivateKey(anyString(), anyInt()))).thenReturn(rsaPrivateKey);
             JWSSigner signer = new RSASSASigner(rsaPrivateKey);
-            when(OAuth2Util.createJWSSigner(any())).thenReturn(signer);
+            when(OAuth2Util.createJWSSigner(any(RSAPrivateKey.class))).thenReturn(signer);
             when(oAuthServerConfiguration.getSignatureAlgorithm()).thenReturn(SHA256_WITH_RSA);
 
             mockStatic(IdentityTenantUtil.class);
@@ -385,16 +398,102 @@ public class JWTTokenIssuerTest extends PowerMockIdentityBaseTest {
         }
     }
 
-    @Test
-    public void testSignJWTWithECDSA() throws Exception {
+    @Test(dataProvider = "createJWTClaimSetDataProvider")
+    public void testSignJWTWithECDSA(Object authzReqMessageContext,
+                                     Object tokenReqMessageContext,
+                                     String sub,
+                                     long expectedExpiry) throws Exception {
+
+        OAuthAppDO appDO = spy(new OAuthAppDO());
+        mockGrantHandlers();
+        mockCustomClaimsCallbackHandler();
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getAppInformationByClientId(anyString())).thenReturn(appDO);
+        when(OAuth2Util.getThumbPrint(anyString(), anyInt())).thenReturn(THUMBPRINT);
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        ECPrivateKey ecPrivateKey = (ECPrivateKey) keyPair.getPrivate();
+
+        when((OAuth2Util.getPrivateKey(anyString(), anyInt()))).thenReturn(ecPrivateKey);
+        when(OAuth2Util.createJWSSigner(any(ECPrivateKey.class))).thenReturn(new ECDSASigner(ecPrivateKey));
         when(oAuthServerConfiguration.getSignatureAlgorithm()).thenReturn(SHA256_WITH_EC);
-        try {
-            new JWTTokenIssuer().signJWTWithECDSA(null, null, null);
-            fail("Looks like someone has implemented this method. Need to modify this testcase");
-        } catch (IdentityOAuth2Exception ex) {
-            assertTrue(ex.getMessage() != null && ex.getMessage().contains("is not supported"),
-                    "Looks like someone has implemented this method. Need to modify this testcase");
-        }
+
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(-1234);
+
+        JWTTokenIssuer jwtTokenIssuer = PowerMockito.spy(new JWTTokenIssuer());
+        PowerMockito.doReturn(sub).when(jwtTokenIssuer, "getSubjectClaim", anyString(), anyString(), any());
+        JWTClaimsSet jwtClaimSet = jwtTokenIssuer.createJWTClaimSet(
+                (OAuthAuthzReqMessageContext) authzReqMessageContext,
+                (OAuthTokenReqMessageContext) tokenReqMessageContext,
+                DUMMY_CLIENT_ID
+        );
+
+        String jwtToken = jwtTokenIssuer.signJWT(jwtClaimSet,
+                (OAuthTokenReqMessageContext) tokenReqMessageContext,
+                (OAuthAuthzReqMessageContext) authzReqMessageContext);
+        SignedJWT signedJWT = SignedJWT.parse(jwtToken);
+        assertNotNull(jwtToken);
+        assertEquals(signedJWT.getHeader().getAlgorithm(), JWSAlgorithm.ES256);
+        assertEquals(signedJWT.getHeader().getType().toString(), DEFAULT_TYP_HEADER_VALUE);
+        assertTrue(signedJWT.verify(new ECDSAVerifier((ECPublicKey) keyPair.getPublic())),
+                "JWT signed with ES256 should be verified with the public key of the signing key.");
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testSignJWTWithECDSAForRSAKey() throws Exception {
+
+        OAuthAppDO appDO = spy(new OAuthAppDO());
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getAppInformationByClientId(anyString())).thenReturn(appDO);
+
+        System.setProperty(CarbonBaseConstants.CARBON_HOME,
+                Paths.get(System.getProperty("user.dir"), "src", "test", "resources").toString());
+        KeyStore wso2KeyStore = getKeyStoreFromFile("wso2carbon.jks", "wso2carbon",
+                System.getProperty(CarbonBaseConstants.CARBON_HOME));
+        RSAPrivateKey rsaPrivateKey = (RSAPrivateKey) wso2KeyStore.getKey("wso2carbon", "wso2carbon".toCharArray());
+        when((OAuth2Util.getPrivateKey(anyString(), anyInt()))).thenReturn(rsaPrivateKey);
+        when(oAuthServerConfiguration.getSignatureAlgorithm()).thenReturn(SHA256_WITH_EC);
+
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(-1234);
+
+        AuthenticatedUser authenticatedUser = new AuthenticatedUser();
+        authenticatedUser.setUserName("DUMMY_USERNAME");
+        authenticatedUser.setTenantDomain("DUMMY_TENANT.COM");
+        OAuthTokenReqMessageContext tokenReqMessageContext =
+                new OAuthTokenReqMessageContext(new OAuth2AccessTokenReqDTO());
+        tokenReqMessageContext.setAuthorizedUser(authenticatedUser);
+
+        new JWTTokenIssuer().signJWTWithECDSA(new JWTClaimsSet.Builder().build(), tokenReqMessageContext, null);
+    }
+
+    @Test
+    public void testSignatureAlgorithmResolvedOncePerRequest() throws Exception {
+
+        OAuthAppDO appDO = new OAuthAppDO();
+        appDO.setTokenSignatureAlgorithm(SHA256_WITH_EC);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getAppInformationByClientId(DUMMY_CLIENT_ID)).thenReturn(appDO);
+        when(oAuthServerConfiguration.getSignatureAlgorithm()).thenReturn(SHA256_WITH_RSA);
+
+        OAuth2AccessTokenReqDTO tokenReqDTO = new OAuth2AccessTokenReqDTO();
+        tokenReqDTO.setClientId(DUMMY_CLIENT_ID);
+        OAuthTokenReqMessageContext tokenReqMessageContext = new OAuthTokenReqMessageContext(tokenReqDTO);
+        Method resolveSignatureAlgorithm = JWTTokenIssuer.class.getDeclaredMethod("resolveSignatureAlgorithm",
+                OAuthTokenReqMessageContext.class, OAuthAuthzReqMessageContext.class);
+        resolveSignatureAlgorithm.setAccessible(true);
+        JWTTokenIssuer jwtTokenIssuer = new JWTTokenIssuer();
+
+        // The algorithm of the service provider takes precedence and is reused for the rest of the request.
+        assertEquals(resolveSignatureAlgorithm.invoke(jwtTokenIssuer, tokenReqMessageContext, null),
+                JWSAlgorithm.ES256);
+        assertEquals(resolveSignatureAlgorithm.invoke(jwtTokenIssuer, tokenReqMessageContext, null),
+                JWSAlgorithm.ES256);
+        verifyStatic(OAuth2Util.class, times(1));
+        OAuth2Util.getAppInformationByClientId(DUMMY_CLIENT_ID);
     }
 
     @DataProvider(name = "signatureAlgorithmProvider")
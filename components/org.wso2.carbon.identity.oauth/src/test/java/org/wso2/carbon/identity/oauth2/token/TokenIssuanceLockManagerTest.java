@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2ServerException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for TokenIssuanceLockManager.
+ */
+public class TokenIssuanceLockManagerTest {
+
+    private static final String LOCK_KEY = "clientId:userId:openid:bindingRef";
+
+    @DataProvider(name = "stripeCountProvider")
+    public Object[][] stripeCountProvider() {
+
+        return new Object[][]{
+                {0, 1},
+                {1, 1},
+                {3, 4},
+                {1024, 1024},
+                {1025, 2048},
+                {Integer.MAX_VALUE, 1 << 16}
+        };
+    }
+
+    @Test(dataProvider = "stripeCountProvider")
+    public void testStripeCountIsRoundedToPowerOfTwo(int configuredCount, int expectedCount) {
+
+        TokenIssuanceLockManager lockManager = new TokenIssuanceLockManager(configuredCount, 0);
+        assertEquals(lockManager.getStripeCount(), expectedCount);
+    }
+
+    @Test
+    public void testSameKeyMapsToSameStripe() {
+
+        TokenIssuanceLockManager lockManager = new TokenIssuanceLockManager(64, 0);
+        assertSame(lockManager.getStripe(LOCK_KEY), lockManager.getStripe(new String(LOCK_KEY)));
+        assertSame(lockManager.getStripe(null), lockManager.getStripe(null));
+    }
+
+    @Test
+    public void testAcquireAndRelease() throws Exception {
+
+        TokenIssuanceLockManager lockManager = new TokenIssuanceLockManager(16, 0);
+        Lock lock = lockManager.acquire(LOCK_KEY);
+        try {
+            assertTrue(lockManager.getStripe(LOCK_KEY).isHeldByCurrentThread());
+        } finally {
+            lock.unlock();
+        }
+        assertEquals(lockManager.getAcquiredCount(), 1);
+        assertEquals(lockManager.getContendedCount(), 0);
+    }
+
+    @Test
+    public void testAcquireTimesOutWhenLockIsHeld() throws Exception {
+
+        final TokenIssuanceLockManager lockManager = new TokenIssuanceLockManager(16, 50);
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                Lock lock = lockManager.acquire(LOCK_KEY);
+                try {
+                    locked.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                } finally {
+                    lock.unlock();
+                }
+            } catch (IdentityOAuth2ServerException | InterruptedException e) {
+                // Verified by the main thread.
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS), "Lock holder thread did not acquire the lock.");
+
+        try {
+            lockManager.acquire(LOCK_KEY);
+            fail("Lock acquisition should have timed out.");
+        } catch (IdentityOAuth2ServerException e) {
+            assertEquals(lockManager.getTimedOutCount(), 1);
+            assertEquals(lockManager.getContendedCount(), 1);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Unit tests for IdentityConfigUtils.
+ */
+@PrepareForTest({IdentityUtil.class})
+public class IdentityConfigUtilsTest extends PowerMockIdentityBaseTest {
+
+    private static final String PROPERTY_NAME = "OAuth.Test.Property";
+
+    @BeforeMethod
+    public void setUp() {
+
+        mockStatic(IdentityUtil.class);
+    }
+
+    @DataProvider(name = "propertyValues")
+    public Object[][] propertyValues() {
+
+        return new Object[][]{
+                // Configured value, minimum value, expected value.
+                {null, 1, 10},
+                {" ", 1, 10},
+                {"25", 1, 25},
+                {" 25 ", 1, 25},
+                {"0", 1, 10},
+                {"0", 0, 0},
+                {"-5", 0, 10},
+                {"invalid", 0, 10},
+                {"99999999999", 0, 10}
+        };
+    }
+
+    @Test(dataProvider = "propertyValues")
+    public void testGetIntProperty(String value, int minValue, int expectedValue) {
+
+        when(IdentityUtil.getProperty(PROPERTY_NAME)).thenReturn(value);
+
+        assertEquals(IdentityConfigUtils.getIntProperty(PROPERTY_NAME, 10, minValue), expectedValue);
+        if (minValue == 1) {
+            assertEquals(IdentityConfigUtils.getPositiveIntProperty(PROPERTY_NAME, 10), expectedValue);
+        }
+    }
+
+    @Test(dataProvider = "propertyValues")
+    public void testGetLongProperty(String value, int minValue, int expectedValue) {
+
+        when(IdentityUtil.getProperty(PROPERTY_NAME)).thenReturn(value);
+
+        // Values beyond the integer range are valid long values.
+        long expectedLongValue = "99999999999".equals(value) ? 99999999999L : expectedValue;
+        assertEquals(IdentityConfigUtils.getLongProperty(PROPERTY_NAME, 10, minValue), expectedLongValue);
+        if (minValue == 1) {
+            assertEquals(IdentityConfigUtils.getPositiveLongProperty(PROPERTY_NAME, 10), expectedLongValue);
+        }
+    }
+}
@@ -57,6 +57,7 @@ import org.wso2.carbon.identity.oauth.cache.AppInfoCache;
 import org.wso2.carbon.identity.oauth.cache.CacheEntry;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
+import org.wso2.carbon.identity.oauth.cache.VerifiedClientSecretCache;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
@@ -65,6 +66,7 @@ import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
 import org.wso2.carbon.identity.oauth.dao.OAuthConsumerDAO;
 import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
 import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth.tokenprocessor.EncryptionDecryptionPersistenceProcessor;
 import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor;
 import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
 import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
@@ -125,7 +127,7 @@ import static org.wso2.carbon.identity.oauth2.util.OAuth2Util.getIdTokenIssuer;
         PrivilegedCarbonContext.class, IdentityTenantUtil.class, CarbonUtils.class,
         IdentityCoreServiceComponent.class, NetworkUtils.class, IdentityApplicationManagementUtil.class,
         IdentityProviderManager.class, FederatedAuthenticatorConfig.class, FrameworkUtils.class, LoggerUtils.class,
-        OAuth2ServiceComponentHolder.class, OAuthAdminServiceImpl.class})
+        OAuth2ServiceComponentHolder.class, OAuthAdminServiceImpl.class, VerifiedClientSecretCache.class})
 public class OAuth2UtilTest extends PowerMockIdentityBaseTest {
 
     private String[] scopeArraySorted = new String[]{"scope1", "scope2", "scope3"};
@@ -446,6 +448,74 @@ public class OAuth2UtilTest extends PowerMockIdentityBaseTest {
         assertEquals(OAuth2Util.authenticateClient(clientId, clientSecret), expectedResult);
     }
 
+    @Test
+    public void testAuthenticateClientWithVerifiedClientSecret() throws Exception {
+
+        VerifiedClientSecretCache verifiedClientSecretCache = mockAuthenticateClient("hashedSecret");
+        TokenPersistenceProcessor hashingProcessor = mock(HashingPersistenceProcessor.class);
+        when(oauthServerConfigurationMock.getPersistenceProcessor()).thenReturn(hashingProcessor);
+        when(verifiedClientSecretCache.isVerified(clientId, clientSecret, "hashedSecret")).thenReturn(true);
+
+        assertTrue(OAuth2Util.authenticateClient(clientId, clientSecret));
+        Mockito.verify(hashingProcessor, Mockito.never()).getProcessedClientSecret(anyString());
+    }
+
+    @Test
+    public void testAuthenticateClientCachesHashedClientSecret() throws Exception {
+
+        VerifiedClientSecretCache verifiedClientSecretCache = mockAuthenticateClient("hashedSecret");
+        TokenPersistenceProcessor hashingProcessor = mock(HashingPersistenceProcessor.class);
+        when(hashingProcessor.getProcessedClientSecret(clientSecret)).thenReturn("hashedSecret");
+        when(oauthServerConfigurationMock.getPersistenceProcessor()).thenReturn(hashingProcessor);
+
+        assertTrue(OAuth2Util.authenticateClient(clientId, clientSecret));
+        Mockito.verify(verifiedClientSecretCache).addVerified(clientId, clientSecret, "hashedSecret");
+    }
+
+    @Test
+    public void testAuthenticateClientCachesEncryptedClientSecret() throws Exception {
+
+        VerifiedClientSecretCache verifiedClientSecretCache = mockAuthenticateClient("encryptedSecret");
+        TokenPersistenceProcessor encryptionProcessor = mock(EncryptionDecryptionPersistenceProcessor.class);
+        when(encryptionProcessor.getProcessedClientSecret(clientSecret)).thenReturn("encryptedSecret");
+        when(oauthServerConfigurationMock.getPersistenceProcessor()).thenReturn(encryptionProcessor);
+
+        assertTrue(OAuth2Util.authenticateClient(clientId, clientSecret));
+        Mockito.verify(verifiedClientSecretCache).addVerified(clientId, clientSecret, "encryptedSecret");
+    }
+
+    @Test
+    public void testAuthenticateClientWithoutVerifiedClientSecretCache() throws Exception {
+
+        VerifiedClientSecretCache verifiedClientSecretCache = mockAuthenticateClient(clientSecret);
+        when(oauthServerConfigurationMock.getPersistenceProcessor()).thenReturn(new PlainTextPersistenceProcessor());
+
+        // Plain text client secrets are compared as they are, hence they are not cached.
+        assertTrue(OAuth2Util.authenticateClient(clientId, clientSecret));
+        Mockito.verify(verifiedClientSecretCache, Mockito.never()).isVerified(anyString(), anyString(), anyString());
+        Mockito.verify(verifiedClientSecretCache, Mockito.never()).addVerified(anyString(), anyString(),
+                anyString());
+    }
+
+    private VerifiedClientSecretCache mockAuthenticateClient(String clientSecretInDB) throws Exception {
+
+        OAuthAppDO appDO = new OAuthAppDO();
+        appDO.setOauthConsumerKey(clientId);
+        appDO.setOauthConsumerSecret(clientSecretInDB);
+
+        AppInfoCache appInfoCache = mock(AppInfoCache.class);
+        when(appInfoCache.getValueFromCache(clientId)).thenReturn(appDO);
+        mockStatic(AppInfoCache.class);
+        when(AppInfoCache.getInstance()).thenReturn(appInfoCache);
+
+        VerifiedClientSecretCache verifiedClientSecretCache = mock(VerifiedClientSecretCache.class);
+        mockStatic(VerifiedClientSecretCache.class);
+        when(VerifiedClientSecretCache.getInstance()).thenReturn(verifiedClientSecretCache);
+
+        when(oauthServerConfigurationMock.isClientSecretHashEnabled()).thenReturn(true);
+        return verifiedClientSecretCache;
+    }
+
     @Test
     public void testIsHashDisabled() {
         when(OAuthServerConfiguration.getInstance().isClientSecretHashEnabled()).thenReturn(true);
@@ -2176,6 +2246,67 @@ public class OAuth2UtilTest extends PowerMockIdentityBaseTest {
         assertEquals(OAuth2Util.getClientIdForAccessToken("dummyIdentifier"), accessTokenDO.getConsumerKey());
     }
 
+    @Test
+    public void testGetAccessTokenDOFromTokenIdentifierWithHashedCacheKey() throws Exception {
+
+        Mockito.reset(oAuthCacheMock);
+        AccessTokenDO accessTokenDO = getAccessTokenDOFromTokenIdentifier(false);
+        accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        TokenPersistenceProcessor hashingProcessor = mock(HashingPersistenceProcessor.class);
+        when(hashingProcessor.getProcessedAccessTokenIdentifier("dummyIdentifier")).thenReturn("hashedIdentifier");
+        when(oauthServerConfigurationMock.getPersistenceProcessor()).thenReturn(hashingProcessor);
+        when(oauthServerConfigurationMock.isClientSecretHashEnabled()).thenReturn(true);
+
+        // The token is cached by its hash, which is also the token identifier read back from the database.
+        assertEquals(OAuth2Util.getAccessTokenCacheKeyString("dummyIdentifier"), "hashedIdentifier");
+        assertEquals(OAuth2Util.getAccessTokenDOFromTokenIdentifier("dummyIdentifier", false), accessTokenDO);
+        Mockito.verify(oAuthCacheMock).getValueFromCache(new OAuthCacheKey("hashedIdentifier"));
+        Mockito.verify(oAuthCacheMock).addToCache(new OAuthCacheKey("hashedIdentifier"), accessTokenDO);
+        Mockito.verify(oAuthCacheMock, Mockito.never()).addToCache(Mockito.eq(new OAuthCacheKey("dummyIdentifier")),
+                any(AccessTokenDO.class));
+    }
+
+    @Test
+    public void testGetAccessTokenDOFromTokenIdentifierDoesNotCacheInactiveToken() throws Exception {
+
+        Mockito.reset(oAuthCacheMock);
+        AccessTokenDO accessTokenDO = getAccessTokenDOFromTokenIdentifier(false);
+        accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+
+        assertEquals(OAuth2Util.getAccessTokenDOFromTokenIdentifier("dummyIdentifier", true), accessTokenDO);
+        Mockito.verify(oAuthCacheMock, Mockito.never()).addToCache(any(OAuthCacheKey.class),
+                any(AccessTokenDO.class));
+    }
+
+    @Test
+    public void testLoadAccessTokensToCacheSkipsInactiveTokens() throws Exception {
+
+        Mockito.reset(oAuthCacheMock);
+        mockStatic(OAuthCache.class);
+        when(OAuthCache.getInstance()).thenReturn(oAuthCacheMock);
+        when(oAuthCacheMock.isEnabled()).thenReturn(true);
+        when(oauthServerConfigurationMock.isClientSecretHashEnabled()).thenReturn(false);
+        OauthTokenIssuer oauthTokenIssuer = mock(OauthTokenIssuer.class);
+        Map<String, OauthTokenIssuer> oauthTokenIssuerMap = new HashMap<>();
+        oauthTokenIssuerMap.put(OAuthServerConfiguration.DEFAULT_TOKEN_TYPE, oauthTokenIssuer);
+        when(oauthServerConfigurationMock.getOauthTokenIssuerMap()).thenReturn(oauthTokenIssuerMap);
+
+        AccessTokenDO activeAccessTokenDO = new AccessTokenDO();
+        activeAccessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        AccessTokenDO expiredAccessTokenDO = new AccessTokenDO();
+        expiredAccessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED);
+        Map<String, AccessTokenDO> accessTokenDOs = new HashMap<>();
+        accessTokenDOs.put("activeToken", activeAccessTokenDO);
+        accessTokenDOs.put("expiredToken", expiredAccessTokenDO);
+        WhiteboxImpl.setInternalState(OAuthTokenPersistenceFactory.getInstance(), "tokenDAO", accessTokenDAO);
+        when(accessTokenDAO.getAccessTokens(Mockito.anyCollection(), Mockito.eq(true))).thenReturn(accessTokenDOs);
+
+        OAuth2Util.loadAccessTokensToCache(Arrays.asList("activeToken", "expiredToken"));
+        Mockito.verify(oAuthCacheMock).addToCache(new OAuthCacheKey("activeToken"), activeAccessTokenDO);
+        Mockito.verify(oAuthCacheMock, Mockito.never()).addToCache(Mockito.eq(new OAuthCacheKey("expiredToken")),
+                any(AccessTokenDO.class));
+    }
+
     private AccessTokenDO getAccessTokenDOFromTokenIdentifier(boolean isCacheAvailable) throws Exception {
 
         when(oauthServerConfigurationMock.getPersistenceProcessor()).thenReturn(new PlainTextPersistenceProcessor());
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.SQLQueries;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for PartitionedSqlRegistry.
+ */
+@PrepareForTest({OAuthServerConfiguration.class, IdentityUtil.class})
+public class PartitionedSqlRegistryTest extends PowerMockIdentityBaseTest {
+
+    private static final String SQL = "SELECT S.TOKEN_SCOPE FROM IDN_OAUTH2_ACCESS_TOKEN A JOIN " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE S ON A.TOKEN_ID = S.TOKEN_ID WHERE A.ACCESS_TOKEN_HASH = ?";
+    private static final String PARTITIONED_SQL = "SELECT S.TOKEN_SCOPE FROM IDN_OAUTH2_ACCESS_TOKEN_A A JOIN " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE_A S ON A.TOKEN_ID = S.TOKEN_ID WHERE A.ACCESS_TOKEN_HASH = ?";
+
+    @Mock
+    private OAuthServerConfiguration mockedOAuthServerConfiguration;
+
+    private PartitionedSqlRegistry registry;
+
+    @BeforeMethod
+    public void setUp() {
+
+        initMocks(this);
+        mockStatic(OAuthServerConfiguration.class);
+        when(OAuthServerConfiguration.getInstance()).thenReturn(mockedOAuthServerConfiguration);
+        when(mockedOAuthServerConfiguration.isAccessTokenPartitioningEnabled()).thenReturn(true);
+        when(mockedOAuthServerConfiguration.isUserNameAssertionEnabled()).thenReturn(true);
+        when(mockedOAuthServerConfiguration.getAccessTokenPartitioningDomains()).thenReturn("A:H2, B:AD");
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getPrimaryDomainName()).thenReturn("PRIMARY");
+        registry = new PartitionedSqlRegistry(Collections.singletonList(SQL));
+    }
+
+    @Test
+    public void testRegisteredQueryIsPrecomputed() throws Exception {
+
+        registry.refresh();
+        String partitionedSql = registry.getTokenPartitionedSql(SQL, "h2");
+        assertEquals(partitionedSql, PARTITIONED_SQL);
+        assertSame(registry.getTokenPartitionedSql(SQL, "H2"), partitionedSql);
+    }
+
+    @Test
+    public void testPrimaryAndBlankDomainsUseDefaultTables() throws Exception {
+
+        assertSame(registry.getTokenPartitionedSql(SQL, "PRIMARY"), SQL);
+        assertSame(registry.getTokenPartitionedSql(SQL, null), SQL);
+        assertNull(registry.getTableSuffix("primary"));
+    }
+
+    @Test
+    public void testUnmappedDomainUsesDomainAsSuffix() throws Exception {
+
+        assertEquals(registry.getTableSuffix("LDAP"), "LDAP");
+        assertEquals(registry.getTokenPartitionedSql(SQL, "LDAP"), PARTITIONED_SQL.replace("_A ", "_LDAP "));
+    }
+
+    @Test
+    public void testUnregisteredQueryIsPartitioned() throws Exception {
+
+        String sql = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID IN (?, ?)";
+        assertEquals(registry.getTokenPartitionedSql(sql, "AD"),
+                "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN_B WHERE TOKEN_ID IN (?, ?)");
+    }
+
+    @Test
+    public void testConfigurationChangeRebuildsPartitions() throws Exception {
+
+        registry.refresh();
+        assertEquals(registry.getTableSuffix("H2"), "A");
+        when(mockedOAuthServerConfiguration.getAccessTokenPartitioningDomains()).thenReturn("C:H2");
+        assertEquals(registry.getTableSuffix("H2"), "C");
+        assertEquals(registry.getTokenPartitionedSql(SQL, "H2"), PARTITIONED_SQL.replace("_A ", "_C "));
+        assertFalse(registry.getUserStoreDomainMappings().containsKey("AD"));
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testInvalidDomainMappings() throws Exception {
+
+        when(mockedOAuthServerConfiguration.getAccessTokenPartitioningDomains()).thenReturn("A: , B:AD");
+        registry.refresh();
+    }
+
+    @Test
+    public void testTokenQueriesAreCollected() {
+
+        List<String> tokenQueries = PartitionedSqlRegistry.getTokenQueries(SQLQueries.class);
+        assertTrue(tokenQueries.contains(SQLQueries.DELETE_ACCESS_TOKEN));
+        assertFalse(tokenQueries.contains(SQLQueries.RENEW_TASK_LEASE));
+    }
+}
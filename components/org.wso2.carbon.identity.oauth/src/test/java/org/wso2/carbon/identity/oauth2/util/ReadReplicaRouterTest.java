@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for ReadReplicaRouter.
+ */
+@PrepareForTest({IdentityDatabaseUtil.class})
+public class ReadReplicaRouterTest extends PowerMockIdentityBaseTest {
+
+    private static final String DATA_SOURCE_NAME = "jdbc/WSO2IdentityReplicaDB";
+
+    @Mock
+    private DataSource mockedDataSource;
+
+    @Mock
+    private Connection mockedReplicaConnection;
+
+    @Mock
+    private Connection mockedPrimaryConnection;
+
+    @BeforeMethod
+    public void setUp() {
+
+        initMocks(this);
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(false)).thenReturn(mockedPrimaryConnection);
+    }
+
+    @Test
+    public void testReadsRoutedToReplica() throws Exception {
+
+        when(mockedDataSource.getConnection()).thenReturn(mockedReplicaConnection);
+        ReadReplicaRouter router = new ReadReplicaRouter(true, DATA_SOURCE_NAME, mockedDataSource, 60000);
+
+        assertTrue(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedReplicaConnection);
+        verify(mockedReplicaConnection).setAutoCommit(true);
+        verify(mockedReplicaConnection).setReadOnly(true);
+        assertEquals(router.getReplicaReadCount(), 1);
+        assertEquals(router.getPrimaryReadCount(), 0);
+    }
+
+    @Test
+    public void testFallbackToPrimaryWhenReplicaUnavailable() throws Exception {
+
+        when(mockedDataSource.getConnection()).thenThrow(new SQLException("Replica is down."));
+        ReadReplicaRouter router = new ReadReplicaRouter(true, DATA_SOURCE_NAME, mockedDataSource, 60000);
+
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+        assertFalse(router.isEnabled(), "Replica should be backed off after a connection failure.");
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+        // The replica should not be retried within the retry interval.
+        verify(mockedDataSource, times(1)).getConnection();
+        assertEquals(router.getReplicaFailureCount(), 1);
+        assertEquals(router.getPrimaryReadCount(), 2);
+    }
+
+    @Test
+    public void testReplicaRetriedAfterRetryInterval() throws Exception {
+
+        when(mockedDataSource.getConnection()).thenThrow(new SQLException("Replica is down."))
+                .thenReturn(mockedReplicaConnection);
+        ReadReplicaRouter router = new ReadReplicaRouter(true, DATA_SOURCE_NAME, mockedDataSource, 1);
+
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+        Thread.sleep(10);
+        assertTrue(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedReplicaConnection);
+    }
+
+    @Test
+    public void testPrimaryReadsOfThread() throws Exception {
+
+        when(mockedDataSource.getConnection()).thenReturn(mockedReplicaConnection);
+        ReadReplicaRouter router = new ReadReplicaRouter(true, DATA_SOURCE_NAME, mockedDataSource, 60000);
+
+        router.startPrimaryReads();
+        router.startPrimaryReads();
+        assertFalse(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+        router.endPrimaryReads();
+        // Reads stay on the primary database until the outermost call is ended.
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+
+        // Reads of other threads are not affected.
+        AtomicReference<Connection> otherThreadConnection = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherThreadConnection.set(router.getReadConnection()));
+        thread.start();
+        thread.join();
+        assertSame(otherThreadConnection.get(), mockedReplicaConnection);
+
+        router.endPrimaryReads();
+        assertTrue(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedReplicaConnection);
+        assertEquals(router.getReplicaReadCount(), 2);
+        assertEquals(router.getPrimaryReadCount(), 2);
+    }
+
+    @Test
+    public void testPrimaryReadsOnlyForCachedReads() throws Exception {
+
+        when(mockedDataSource.getConnection()).thenReturn(mockedReplicaConnection);
+        ReadReplicaRouter router = new ReadReplicaRouter(true, DATA_SOURCE_NAME, mockedDataSource, 60000);
+
+        // Reads whose results are not cached stay on the replica.
+        router.startPrimaryReads(false);
+        assertTrue(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedReplicaConnection);
+        router.endPrimaryReads(false);
+
+        router.startPrimaryReads(true);
+        assertFalse(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+        router.endPrimaryReads(true);
+        assertTrue(router.isEnabled());
+    }
+
+    @Test
+    public void testReadsRoutedToPrimaryWhenDisabled() throws Exception {
+
+        ReadReplicaRouter router = new ReadReplicaRouter(false, DATA_SOURCE_NAME, mockedDataSource, 60000);
+
+        assertFalse(router.isEnabled());
+        assertSame(router.getReadConnection(), mockedPrimaryConnection);
+        verify(mockedDataSource, never()).getConnection();
+        router.recordReplicaMiss();
+        assertEquals(router.getReplicaMissCount(), 1);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for TokenShardRing.
+ */
+public class TokenShardRingTest {
+
+    private static final int KEY_COUNT = 10000;
+    private static final int VIRTUAL_NODES = 160;
+
+    @Test
+    public void testMappingIsDeterministic() {
+
+        TokenShardRing ring = new TokenShardRing(Arrays.asList("jdbc/Shard1", "jdbc/Shard2", "jdbc/Shard3"),
+                VIRTUAL_NODES);
+        TokenShardRing sameRing = new TokenShardRing(Arrays.asList("jdbc/Shard3", "jdbc/Shard1", "jdbc/Shard2"),
+                VIRTUAL_NODES);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = "token-hash-" + i;
+            assertEquals(sameRing.getShard(key), ring.getShard(key), "Mapping of key: " + key + " differs.");
+        }
+    }
+
+    @Test
+    public void testKeysAreSpreadAcrossShards() {
+
+        List<String> shards = Arrays.asList("jdbc/Shard1", "jdbc/Shard2", "jdbc/Shard3", "jdbc/Shard4");
+        TokenShardRing ring = new TokenShardRing(shards, VIRTUAL_NODES);
+        Map<String, Integer> keyCounts = new HashMap<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keyCounts.merge(ring.getShard("token-hash-" + i), 1, Integer::sum);
+        }
+        assertEquals(keyCounts.keySet(), new HashSet<>(shards));
+        int expectedCount = KEY_COUNT / shards.size();
+        for (Map.Entry<String, Integer> keyCount : keyCounts.entrySet()) {
+            assertTrue(Math.abs(keyCount.getValue() - expectedCount) < expectedCount / 4,
+                    "Shard: " + keyCount.getKey() + " holds " + keyCount.getValue() + " keys.");
+        }
+    }
+
+    @Test
+    public void testAddingShardOnlyMovesKeysToNewShard() {
+
+        TokenShardRing ring = new TokenShardRing(Arrays.asList("jdbc/Shard1", "jdbc/Shard2", "jdbc/Shard3"),
+                VIRTUAL_NODES);
+        TokenShardRing expandedRing = new TokenShardRing(Arrays.asList("jdbc/Shard1", "jdbc/Shard2", "jdbc/Shard3",
+                "jdbc/Shard4"), VIRTUAL_NODES);
+        int movedCount = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = "token-hash-" + i;
+            String shard = ring.getShard(key);
+            String newShard = expandedRing.getShard(key);
+            if (!shard.equals(newShard)) {
+                assertEquals(newShard, "jdbc/Shard4", "Key: " + key + " moved between existing shards.");
+                movedCount++;
+            }
+        }
+        // Roughly a quarter of the keys move to the new shard.
+        assertTrue(movedCount > KEY_COUNT / 8 && movedCount < KEY_COUNT / 2, "Moved keys: " + movedCount);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testEmptyShards() {
+
+        new TokenShardRing(Collections.emptyList(), VIRTUAL_NODES);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for TokenShardRouter.
+ */
+@PrepareForTest({IdentityDatabaseUtil.class})
+public class TokenShardRouterTest extends PowerMockIdentityBaseTest {
+
+    private static final String SHARD_1 = "jdbc/TokenShard1";
+    private static final String SHARD_2 = "jdbc/TokenShard2";
+    private static final String SHARD_3 = "jdbc/TokenShard3";
+    private static final int VIRTUAL_NODES = 160;
+    private static final int KEY_COUNT = 1000;
+
+    @Mock
+    private DataSource mockedShard1DataSource;
+
+    @Mock
+    private DataSource mockedShard2DataSource;
+
+    @Mock
+    private Connection mockedShard1Connection;
+
+    @Mock
+    private Connection mockedShard2Connection;
+
+    @Mock
+    private Connection mockedIdentityDBConnection;
+
+    private TokenShardRing ring;
+    private Map<String, DataSource> dataSources;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        initMocks(this);
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(true)).thenReturn(mockedIdentityDBConnection);
+        when(mockedShard1DataSource.getConnection()).thenReturn(mockedShard1Connection);
+        when(mockedShard2DataSource.getConnection()).thenReturn(mockedShard2Connection);
+
+        ring = new TokenShardRing(Arrays.asList(SHARD_1, SHARD_2), VIRTUAL_NODES);
+        dataSources = new HashMap<>();
+        dataSources.put(SHARD_1, mockedShard1DataSource);
+        dataSources.put(SHARD_2, mockedShard2DataSource);
+    }
+
+    @Test
+    public void testTokensRoutedByRing() {
+
+        TokenShardRouter router = new TokenShardRouter(true, ring, null, dataSources);
+
+        assertTrue(router.isEnabled());
+        assertFalse(router.isRebalancing());
+        assertEquals(router.getShards(), Arrays.asList(SHARD_1, SHARD_2));
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String tokenHash = "token-hash-" + i;
+            assertEquals(router.getShard(tokenHash), ring.getShard(tokenHash));
+            assertNull(router.getPreviousShard(tokenHash));
+        }
+    }
+
+    @Test
+    public void testTokensRoutedWhileRebalancing() {
+
+        TokenShardRing expandedRing = new TokenShardRing(Arrays.asList(SHARD_1, SHARD_2, SHARD_3), VIRTUAL_NODES);
+        TokenShardRouter router = new TokenShardRouter(true, expandedRing, ring, dataSources);
+
+        assertTrue(router.isRebalancing());
+        assertEquals(router.getShards(), Arrays.asList(SHARD_1, SHARD_2, SHARD_3));
+        int movedCount = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String tokenHash = "token-hash-" + i;
+            assertEquals(router.getShard(tokenHash), expandedRing.getShard(tokenHash));
+            assertEquals(router.getPreviousShard(tokenHash), ring.getShard(tokenHash));
+            if (!router.getShard(tokenHash).equals(router.getPreviousShard(tokenHash))) {
+                movedCount++;
+            }
+        }
+        assertTrue(movedCount > 0, "No token maps to the added shard.");
+
+        // Shards which are only drained by the rebalance are still searched.
+        TokenShardRouter shrinkingRouter = new TokenShardRouter(true,
+                new TokenShardRing(Collections.singletonList(SHARD_2), VIRTUAL_NODES), ring, dataSources);
+        assertEquals(shrinkingRouter.getShards(), Arrays.asList(SHARD_2, SHARD_1));
+    }
+
+    @Test
+    public void testShardBoundToThreadDuringOperation() throws Exception {
+
+        TokenShardRouter router = new TokenShardRouter(true, ring, null, dataSources);
+        List<String> boundShards = new ArrayList<>();
+
+        String result = router.executeOnShard(SHARD_1, () -> {
+            boundShards.add(router.getBoundShard());
+            router.executeOnShard(SHARD_2, () -> {
+                boundShards.add(router.getBoundShard());
+                return null;
+            });
+            // The shard of the outer operation is restored once the nested operation completes.
+            boundShards.add(router.getBoundShard());
+            return "result";
+        });
+
+        assertEquals(result, "result");
+        assertEquals(boundShards, Arrays.asList(SHARD_1, SHARD_2, SHARD_1));
+        assertNull(router.getBoundShard());
+    }
+
+    @Test
+    public void testShardReleasedWhenOperationFails() {
+
+        TokenShardRouter router = new TokenShardRouter(true, ring, null, dataSources);
+        try {
+            router.executeOnShard(SHARD_1, () -> {
+                throw new IdentityOAuth2Exception("Operation failed.");
+            });
+            fail("The failure of the operation should be propagated.");
+        } catch (IdentityOAuth2Exception e) {
+            assertEquals(e.getMessage(), "Operation failed.");
+        }
+        assertNull(router.getBoundShard());
+    }
+
+    @Test
+    public void testShardNotBoundToOtherThreads() throws Exception {
+
+        TokenShardRouter router = new TokenShardRouter(true, ring, null, dataSources);
+        AtomicReference<String> otherThreadShard = new AtomicReference<>(SHARD_2);
+
+        router.executeOnShard(SHARD_1, () -> {
+            Thread thread = new Thread(() -> otherThreadShard.set(router.getBoundShard()));
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertNull(otherThreadShard.get());
+    }
+
+    @Test
+    public void testConnectionOfBoundShard() throws Exception {
+
+        TokenShardRouter router = new TokenShardRouter(true, ring, null, dataSources);
+
+        Connection connection = router.executeOnShard(SHARD_2, () -> router.getConnection(true));
+        assertSame(connection, mockedShard2Connection);
+        verify(mockedShard2Connection).setAutoCommit(false);
+
+        assertSame(router.getShardConnection(SHARD_1, false), mockedShard1Connection);
+        verify(mockedShard1Connection).setAutoCommit(true);
+
+        // Connections are obtained from the identity database when no shard is bound.
+        assertSame(router.getConnection(true), mockedIdentityDBConnection);
+    }
+
+    @Test
+    public void testExecuteOnAllShards() throws Exception {
+
+        TokenShardRing expandedRing = new TokenShardRing(Arrays.asList(SHARD_1, SHARD_2, SHARD_3), VIRTUAL_NODES);
+        TokenShardRouter router = new TokenShardRouter(true, expandedRing, ring, dataSources);
+
+        List<String> boundShards = router.executeOnAllShards(router::getBoundShard);
+        assertEquals(boundShards, router.getShards());
+        assertNull(router.getBoundShard());
+    }
+}
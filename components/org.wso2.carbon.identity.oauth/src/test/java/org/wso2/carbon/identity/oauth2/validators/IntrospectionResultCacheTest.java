@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.validators;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2IntrospectionResponseDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationRequestDTO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import static org.mockito.Matchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for IntrospectionResultCache.
+ */
+@PrepareForTest({OAuth2Util.class})
+public class IntrospectionResultCacheTest extends PowerMockIdentityBaseTest {
+
+    private static final String TOKEN = "dc0a3fd9-6b7e-3c55-8a25-d9a4e2bf6d1e";
+    private static final String HASHED_TOKEN = "{\"algorithm\":\"SHA-256\",\"hash\":\"hashedToken\"}";
+    private static final String TENANT_DOMAIN = "carbon.super";
+
+    @BeforeMethod
+    public void setUp() {
+
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.isHashEnabled()).thenReturn(false);
+    }
+
+    @Test
+    public void testActiveResultIsCached() {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 10000, 10);
+        OAuth2IntrospectionResponseDTO response = buildActiveResponse(System.currentTimeMillis() / 1000 + 3600);
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, response);
+
+        OAuth2IntrospectionResponseDTO cachedResponse = cache.getResult(TOKEN, null, TENANT_DOMAIN);
+        assertNotNull(cachedResponse);
+        assertNotSame(cachedResponse, response);
+        assertTrue(cachedResponse.isActive());
+        assertEquals(cachedResponse.getClientId(), response.getClientId());
+        assertEquals(cachedResponse.getScope(), response.getScope());
+        assertEquals(cachedResponse.getExp(), response.getExp());
+        assertEquals(cache.getHitCount(), 1);
+
+        // Results are specific to the tenant and the token type hint of the request.
+        assertNull(cache.getResult(TOKEN, "refresh_token", TENANT_DOMAIN));
+        assertNull(cache.getResult(TOKEN, null, "wso2.com"));
+        assertEquals(cache.getMissCount(), 2);
+    }
+
+    @Test
+    public void testActiveResultIsCappedAtTokenExpiry() {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 10000, 10);
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, buildActiveResponse(System.currentTimeMillis() / 1000 - 1));
+        assertNull(cache.getResult(TOKEN, null, TENANT_DOMAIN));
+        assertEquals(cache.getSize(), 0);
+
+        // Tokens which never expire are kept for the configured time to live.
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+        assertNotNull(cache.getResult(TOKEN, null, TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testInactiveResultIsCached() throws Exception {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 50, 10);
+        OAuth2IntrospectionResponseDTO response = new OAuth2IntrospectionResponseDTO();
+        response.setActive(false);
+        response.setError("Token validation failed");
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, response);
+
+        OAuth2IntrospectionResponseDTO cachedResponse = cache.getResult(TOKEN, null, TENANT_DOMAIN);
+        assertNotNull(cachedResponse);
+        assertFalse(cachedResponse.isActive());
+        assertEquals(cachedResponse.getError(), "Token validation failed");
+        assertEquals(cache.getNegativeHitCount(), 1);
+
+        Thread.sleep(100);
+        assertNull(cache.getResult(TOKEN, null, TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testClearResult() {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 10000, 10);
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+        cache.clearResult(TOKEN);
+        assertNull(cache.getResult(TOKEN, null, TENANT_DOMAIN));
+        assertEquals(cache.getInvalidationCount(), 1);
+    }
+
+    @Test
+    public void testClearResultWithHashedToken() throws Exception {
+
+        when(OAuth2Util.isHashEnabled()).thenReturn(true);
+        when(OAuth2Util.getAccessTokenCacheKeyString(anyString())).thenReturn(HASHED_TOKEN);
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 10000, 10);
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+
+        // Revocation paths clear the entry with the hashed token read from the database.
+        when(OAuth2Util.getAccessTokenCacheKeyString(HASHED_TOKEN)).thenReturn("doubleHashedToken");
+        cache.clearResult(HASHED_TOKEN);
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getInvalidationCount(), 1);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 10000, 2);
+        cache.addResult("token1", null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+        cache.addResult("token2", null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+        cache.addResult("token3", null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+
+        assertEquals(cache.getSize(), 2);
+        assertEquals(cache.getRejectedCount(), 1);
+        assertNull(cache.getResult("token3", null, TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testRequestPropertiesAreNotCached() {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(true, 60000, 10000, 10);
+        OAuth2IntrospectionResponseDTO response = buildActiveResponse(Long.MAX_VALUE);
+        OAuth2TokenValidationMessageContext messageContext =
+                new OAuth2TokenValidationMessageContext(new OAuth2TokenValidationRequestDTO(), null);
+        response.getProperties().put(OAuth2Util.OAUTH2_VALIDATION_MESSAGE_CONTEXT, messageContext);
+        response.getProperties().put("listenerProperty", "listenerValue");
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, response);
+
+        // A cache hit must not carry the context of the request the result was built for.
+        OAuth2IntrospectionResponseDTO cachedResponse = cache.getResult(TOKEN, null, TENANT_DOMAIN);
+        assertNotNull(cachedResponse);
+        assertNotNull(cachedResponse.getProperties());
+        assertTrue(cachedResponse.getProperties().isEmpty());
+
+        // Properties set on a hit by the current request do not leak into the next hit.
+        cachedResponse.getProperties().put(OAuth2Util.OAUTH2_VALIDATION_MESSAGE_CONTEXT, messageContext);
+        assertTrue(cache.getResult(TOKEN, null, TENANT_DOMAIN).getProperties().isEmpty());
+    }
+
+    @Test
+    public void testDisabledCache() {
+
+        IntrospectionResultCache cache = new IntrospectionResultCache(false, 60000, 10000, 10);
+        cache.addResult(TOKEN, null, TENANT_DOMAIN, buildActiveResponse(Long.MAX_VALUE));
+        assertNull(cache.getResult(TOKEN, null, TENANT_DOMAIN));
+        assertEquals(cache.getSize(), 0);
+    }
+
+    private OAuth2IntrospectionResponseDTO buildActiveResponse(long exp) {
+
+        OAuth2IntrospectionResponseDTO response = new OAuth2IntrospectionResponseDTO();
+        response.setActive(true);
+        response.setClientId("clientId");
+        response.setScope("openid profile");
+        response.setExp(exp);
+        response.setTokenType("Bearer");
+        return response;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.validators;
+
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.AccessTokenDAO;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for RevokedTokenRegistry.
+ */
+@PrepareForTest({OAuth2Util.class, OAuthServerConfiguration.class, OAuthTokenPersistenceFactory.class})
+public class RevokedTokenRegistryTest extends PowerMockIdentityBaseTest {
+
+    private static final String JTI = "0c5e8f5a-4d3b-4f6e-9e4b-3a2f6d1c7b90";
+    private static final String OTHER_JTI = "7b1e2d44-9f0a-4c1e-8c4d-52a1f0e3b6a7";
+
+    @Mock
+    private OAuthServerConfiguration mockedServerConfig;
+
+    @Mock
+    private OAuthTokenPersistenceFactory mockedPersistenceFactory;
+
+    @Mock
+    private AccessTokenDAO mockedAccessTokenDAO;
+
+    private String hashedJti;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        initMocks(this);
+        mockStatic(OAuthServerConfiguration.class);
+        when(OAuthServerConfiguration.getInstance()).thenReturn(mockedServerConfig);
+        when(mockedServerConfig.getHashAlgorithm()).thenReturn("SHA-256");
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.isHashEnabled()).thenReturn(false);
+        mockStatic(OAuthTokenPersistenceFactory.class);
+        when(OAuthTokenPersistenceFactory.getInstance()).thenReturn(mockedPersistenceFactory);
+        when(mockedPersistenceFactory.getAccessTokenDAO()).thenReturn(mockedAccessTokenDAO);
+        hashedJti = new HashingPersistenceProcessor().getProcessedAccessTokenIdentifier(JTI);
+    }
+
+    @Test
+    public void testAddRevokedAccessToken() {
+
+        RevokedTokenRegistry registry = new RevokedTokenRegistry(true, false, 60000, 3600000);
+        assertFalse(registry.isRevoked(JTI));
+
+        registry.addRevokedAccessToken(JTI);
+        assertTrue(registry.isRevoked(JTI));
+        assertFalse(registry.isRevoked(OTHER_JTI));
+        assertEquals(registry.getRevokedHitCount(), 1);
+
+        // Access tokens read from the database are already hashed when token hashing is enabled.
+        when(OAuth2Util.isHashEnabled()).thenReturn(true);
+        registry = new RevokedTokenRegistry(true, false, 60000, 3600000);
+        registry.addRevokedAccessToken(hashedJti);
+        assertTrue(registry.isRevoked(JTI));
+    }
+
+    @Test
+    public void testRevocationVersions() throws Exception {
+
+        RevokedTokenRegistry registry = new RevokedTokenRegistry(false, true, 60000, 3600000);
+        assertTrue(registry.isEnabled());
+        assertFalse(registry.isLocalValidationEnabled());
+        assertEquals(registry.getVersion(), 0);
+
+        registry.addRevokedAccessToken(JTI);
+        // Registering an already tracked token does not create a new version.
+        registry.addRevokedAccessTokenHashes(Collections.singletonList(hashedJti));
+        assertEquals(registry.getVersion(), 1);
+        String otherHashedJti = new HashingPersistenceProcessor().getProcessedAccessTokenIdentifier(OTHER_JTI);
+        registry.addRevokedAccessTokenHashes(Collections.singletonList(otherHashedJti));
+        assertEquals(registry.getVersion(), 2);
+
+        assertEquals(registry.getRevokedAccessTokenHashes(0, 2), Arrays.asList(hashedJti, otherHashedJti));
+        assertEquals(registry.getRevokedAccessTokenHashes(1, 2), Collections.singletonList(otherHashedJti));
+        assertTrue(registry.getRevokedAccessTokenHashes(2, 2).isEmpty());
+    }
+
+    @Test
+    public void testRegistryIsNotUpdatedWhenDisabled() {
+
+        RevokedTokenRegistry registry = new RevokedTokenRegistry(false, false, 60000, 3600000);
+        registry.addRevokedAccessToken(JTI);
+        registry.addRevokedAccessTokenHashes(Collections.singletonList(hashedJti));
+
+        assertFalse(registry.isRevoked(JTI));
+        assertEquals(registry.getSize(), 0);
+        assertFalse(registry.isReconciled());
+    }
+
+    @Test
+    public void testReconcile() throws Exception {
+
+        RevokedTokenRegistry registry = new RevokedTokenRegistry(true, false, 60000, 3600000);
+        assertFalse(registry.isReconciled());
+
+        Map<String, Long> revokedTokens = new HashMap<>();
+        revokedTokens.put(hashedJti, System.currentTimeMillis() + 60000);
+        revokedTokens.put(new HashingPersistenceProcessor().getProcessedAccessTokenIdentifier(OTHER_JTI),
+                System.currentTimeMillis() - 1);
+        when(mockedAccessTokenDAO.getRevokedAccessTokenHashes(any(Timestamp.class))).thenReturn(revokedTokens);
+        registry.reconcile();
+
+        assertTrue(registry.isReconciled());
+        assertTrue(registry.isRevoked(JTI));
+        // Entries of expired tokens are removed.
+        assertFalse(registry.isRevoked(OTHER_JTI));
+        assertEquals(registry.getSize(), 1);
+        assertEquals(registry.getReconcileCount(), 1);
+    }
+
+    @Test
+    public void testReconcileFailure() throws Exception {
+
+        RevokedTokenRegistry registry = new RevokedTokenRegistry(true, false, 60000, 3600000);
+        when(mockedAccessTokenDAO.getRevokedAccessTokenHashes(any(Timestamp.class)))
+                .thenThrow(new IdentityOAuth2Exception("Database error"));
+        registry.reconcile();
+
+        assertFalse(registry.isReconciled());
+        assertEquals(registry.getReconcileFailureCount(), 1);
+    }
+}
@@ -141,8 +141,7 @@ public class OpenIDConnectSystemClaimImplTest extends PowerMockTestCase {
 
         String signatureAlgorithm = "SHA256withRSA";
         JWSAlgorithm algorithm = OAuth2Util.mapSignatureAlgorithmForJWSAlgorithm(signatureAlgorithm);
-        WhiteboxImpl.setInternalState(openIDConnectSystemClaim, "signatureAlgorithm", algorithm);
-        String hashValue = WhiteboxImpl.invokeMethod(openIDConnectSystemClaim, "getHashValue", value);
+        String hashValue = WhiteboxImpl.invokeMethod(openIDConnectSystemClaim, "getHashValue", value, algorithm);
         return hashValue;
     }
 }
@@ -162,6 +162,31 @@ CREATE TABLE IF NOT EXISTS IDN_OAUTH2_AUTHZ_CODE_SCOPE(
 
 CREATE INDEX IDX_AUTHORIZATION_CODE ON IDN_OAUTH2_AUTHORIZATION_CODE (AUTHORIZATION_CODE,CONSUMER_KEY_ID);
 
+CREATE TABLE IF NOT EXISTS IDN_OAUTH2_CIBA_AUTH_CODE (
+            AUTH_CODE_KEY CHAR (36),
+            AUTH_REQ_ID CHAR(36),
+            ISSUED_TIME TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+            CONSUMER_KEY VARCHAR(255),
+            LAST_POLLED_TIME TIMESTAMP NOT NULL,
+            POLLING_INTERVAL INTEGER,
+            EXPIRES_IN  INTEGER,
+            AUTHENTICATED_USER_NAME VARCHAR(255),
+            USER_STORE_DOMAIN VARCHAR(100),
+            TENANT_ID INTEGER,
+            AUTH_REQ_STATUS VARCHAR (100) DEFAULT ('REQUESTED'),
+            IDP_ID INTEGER,
+            UNIQUE (AUTH_REQ_ID),
+            PRIMARY KEY (AUTH_CODE_KEY),
+            FOREIGN KEY (CONSUMER_KEY) REFERENCES IDN_OAUTH_CONSUMER_APPS(CONSUMER_KEY) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS IDN_OAUTH2_TASK_LEASE (
+            LEASE_NAME VARCHAR (255),
+            HOLDER_ID VARCHAR (255),
+            EXPIRY_TIME BIGINT,
+            PRIMARY KEY (LEASE_NAME)
+);
+
 CREATE TABLE IF NOT EXISTS IDN_OAUTH2_ACCESS_TOKEN_SCOPE (
             TOKEN_ID VARCHAR (255),
             TOKEN_SCOPE VARCHAR (60),
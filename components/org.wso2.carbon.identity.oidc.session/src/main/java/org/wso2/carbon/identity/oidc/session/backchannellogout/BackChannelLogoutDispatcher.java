@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oidc.session.backchannellogout;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLContexts;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.wso2.carbon.identity.base.IdentityConstants;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.util.IdentityConfigUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatches back-channel logout requests to the session participants.
+ * <p>
+ * Requests are sent by a fixed set of worker threads fed from a bounded queue, over a shared pooled HTTP client.
+ * The number of concurrent connections to a single RP is limited by the per host connection limit of the pool.
+ * Requests failing with an I/O error or a 5xx/429 response are retried with an exponential backoff with jitter,
+ * while requests which cannot be queued are dropped and counted as rejected.
+ */
+public class BackChannelLogoutDispatcher {
+
+    private static final Log log = LogFactory.getLog(BackChannelLogoutDispatcher.class);
+
+    private static final String THREAD_POOL_SIZE = "OAuth.OpenIDConnect.BackChannelLogout.ThreadPoolSize";
+    private static final String QUEUE_CAPACITY = "OAuth.OpenIDConnect.BackChannelLogout.QueueCapacity";
+    private static final String MAX_CONNECTIONS = "OAuth.OpenIDConnect.BackChannelLogout.MaxConnections";
+    private static final String MAX_CONNECTIONS_PER_HOST =
+            "OAuth.OpenIDConnect.BackChannelLogout.MaxConnectionsPerHost";
+    private static final String CONNECT_TIMEOUT = "OAuth.OpenIDConnect.BackChannelLogout.ConnectTimeout";
+    private static final String READ_TIMEOUT = "OAuth.OpenIDConnect.BackChannelLogout.ReadTimeout";
+    private static final String MAX_RETRIES = "OAuth.OpenIDConnect.BackChannelLogout.MaxRetries";
+    private static final String RETRY_BASE_DELAY = "OAuth.OpenIDConnect.BackChannelLogout.RetryBaseDelay";
+    private static final String RETRY_MAX_DELAY = "OAuth.OpenIDConnect.BackChannelLogout.RetryMaxDelay";
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 50;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 5;
+    private static final int DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = 5000;
+    private static final int DEFAULT_READ_TIMEOUT_IN_MILLIS = 5000;
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    private static final int DEFAULT_RETRY_BASE_DELAY_IN_MILLIS = 500;
+    private static final int DEFAULT_RETRY_MAX_DELAY_IN_MILLIS = 10000;
+    private static final int MAX_BACKOFF_EXPONENT = 20;
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    private static final String LOGOUT_TOKEN = "logout_token";
+
+    private static volatile BackChannelLogoutDispatcher instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+    private final CloseableHttpClient httpClient;
+    private final int maxRetries;
+    private final long retryBaseDelay;
+    private final long retryMaxDelay;
+
+    private final AtomicLong deliveredRequestCount = new AtomicLong();
+    private final AtomicLong failedRequestCount = new AtomicLong();
+    private final AtomicLong retriedRequestCount = new AtomicLong();
+    private final AtomicLong rejectedRequestCount = new AtomicLong();
+
+    BackChannelLogoutDispatcher(int threadPoolSize, int queueCapacity, int maxConnections, int maxConnectionsPerHost,
+                                int connectTimeout, int readTimeout, int maxRetries, long retryBaseDelay,
+                                long retryMaxDelay, boolean hostNameVerificationEnabled) {
+
+        this.maxRetries = maxRetries;
+        this.retryBaseDelay = retryBaseDelay;
+        this.retryMaxDelay = retryMaxDelay;
+
+        SSLConnectionSocketFactory sslConnectionSocketFactory;
+        if (hostNameVerificationEnabled) {
+            sslConnectionSocketFactory = SSLConnectionSocketFactory.getSocketFactory();
+        } else {
+            sslConnectionSocketFactory = new SSLConnectionSocketFactory(SSLContexts.createDefault(),
+                    SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
+        }
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslConnectionSocketFactory)
+                .build();
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .disableAutomaticRetries()
+                .build();
+
+        this.executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new DispatcherThreadFactory("BackChannelLogoutDispatcher"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new DispatcherThreadFactory("BackChannelLogoutRetryScheduler"));
+    }
+
+    /**
+     * Returns the dispatcher configured as per identity.xml.
+     *
+     * @return BackChannelLogoutDispatcher instance.
+     */
+    public static BackChannelLogoutDispatcher getInstance() {
+
+        if (instance == null) {
+            synchronized (BackChannelLogoutDispatcher.class) {
+                if (instance == null) {
+                    instance = new BackChannelLogoutDispatcher(
+                            IdentityConfigUtils.getIntProperty(THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE, 1),
+                            IdentityConfigUtils.getIntProperty(QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY, 1),
+                            IdentityConfigUtils.getIntProperty(MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS, 1),
+                            IdentityConfigUtils.getIntProperty(MAX_CONNECTIONS_PER_HOST,
+                                    DEFAULT_MAX_CONNECTIONS_PER_HOST, 1),
+                            IdentityConfigUtils.getIntProperty(CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT_IN_MILLIS, 1),
+                            IdentityConfigUtils.getIntProperty(READ_TIMEOUT, DEFAULT_READ_TIMEOUT_IN_MILLIS, 1),
+                            IdentityConfigUtils.getIntProperty(MAX_RETRIES, DEFAULT_MAX_RETRIES, 0),
+                            IdentityConfigUtils.getIntProperty(RETRY_BASE_DELAY, DEFAULT_RETRY_BASE_DELAY_IN_MILLIS, 0),
+                            IdentityConfigUtils.getIntProperty(RETRY_MAX_DELAY, DEFAULT_RETRY_MAX_DELAY_IN_MILLIS, 0),
+                            isHostNameVerificationEnabled());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shuts down the dispatcher if it was initialized. Requests which are still queued are sent before the worker
+     * threads terminate, while pending retries are discarded.
+     */
+    public static void shutdown() {
+
+        BackChannelLogoutDispatcher dispatcher;
+        synchronized (BackChannelLogoutDispatcher.class) {
+            dispatcher = instance;
+            instance = null;
+        }
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    /**
+     * Queues a back-channel logout request to be sent to the given RP.
+     *
+     * @param logoutToken          Logout token.
+     * @param backChannelLogoutUrl Back-channel logout URL of the RP.
+     * @return True if the request was queued, false if it was rejected as the queue is full.
+     */
+    public boolean dispatch(String logoutToken, String backChannelLogoutUrl) {
+
+        return submit(new LogoutRequestTask(logoutToken, backChannelLogoutUrl, 0));
+    }
+
+    public long getDeliveredRequestCount() {
+
+        return deliveredRequestCount.get();
+    }
+
+    public long getFailedRequestCount() {
+
+        return failedRequestCount.get();
+    }
+
+    public long getRetriedRequestCount() {
+
+        return retriedRequestCount.get();
+    }
+
+    public long getRejectedRequestCount() {
+
+        return rejectedRequestCount.get();
+    }
+
+    public int getQueuedRequestCount() {
+
+        return executor.getQueue().size();
+    }
+
+    void close() {
+
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(DEFAULT_READ_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.error("Error while closing the back-channel logout HTTP client.", e);
+        }
+    }
+
+    private boolean submit(LogoutRequestTask task) {
+
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedRequestCount.incrementAndGet();
+            log.warn("Back-channel logout request to: " + task.backChannelLogoutUrl + " is dropped as the " +
+                    "dispatcher queue is full or the dispatcher is shut down.");
+            return false;
+        }
+    }
+
+    private void retry(LogoutRequestTask task, String reason) {
+
+        if (task.attempt >= maxRetries) {
+            failedRequestCount.incrementAndGet();
+            log.error("Error sending back-channel logout request to: " + task.backChannelLogoutUrl + " after " +
+                    (task.attempt + 1) + " attempt(s). " + reason);
+            return;
+        }
+        long delay = getRetryDelay(task.attempt);
+        if (log.isDebugEnabled()) {
+            log.debug("Back-channel logout request to: " + task.backChannelLogoutUrl + " failed. " + reason +
+                    " Retrying in " + delay + "ms.");
+        }
+        retriedRequestCount.incrementAndGet();
+        LogoutRequestTask nextAttempt = new LogoutRequestTask(task.logoutToken, task.backChannelLogoutUrl,
+                task.attempt + 1);
+        try {
+            retryScheduler.schedule(() -> submit(nextAttempt), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The dispatcher is shutting down.
+            rejectedRequestCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter, i.e. a random delay between half and the full backoff.
+     */
+    private long getRetryDelay(int attempt) {
+
+        long backoff = Math.min(retryMaxDelay, retryBaseDelay << Math.min(attempt, MAX_BACKOFF_EXPONENT));
+        long halfBackoff = backoff / 2;
+        return halfBackoff + ThreadLocalRandom.current().nextLong(backoff - halfBackoff + 1);
+    }
+
+    private static boolean isHostNameVerificationEnabled() {
+
+        String hostNameVerificationEnabledProperty =
+                IdentityUtil.getProperty(IdentityConstants.ServerConfig.SLO_HOST_NAME_VERIFICATION_ENABLED);
+        return !"false".equalsIgnoreCase(hostNameVerificationEnabledProperty);
+    }
+
+    /**
+     * A single attempt of sending a logout token to a session participant.
+     */
+    private class LogoutRequestTask implements Runnable {
+
+        private final String logoutToken;
+        private final String backChannelLogoutUrl;
+        private final int attempt;
+
+        LogoutRequestTask(String logoutToken, String backChannelLogoutUrl, int attempt) {
+
+            this.logoutToken = logoutToken;
+            this.backChannelLogoutUrl = backChannelLogoutUrl;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void run() {
+
+            if (log.isDebugEnabled()) {
+                log.debug("Starting backchannel logout request to: " + backChannelLogoutUrl);
+            }
+            List<NameValuePair> logoutReqParams =
+                    Collections.singletonList(new BasicNameValuePair(LOGOUT_TOKEN, logoutToken));
+            try {
+                HttpPost httpPost = new HttpPost(backChannelLogoutUrl);
+                httpPost.setEntity(new UrlEncodedFormEntity(logoutReqParams, StandardCharsets.UTF_8));
+                send(httpPost);
+            } catch (IOException e) {
+                retry(this, e.getMessage());
+            } catch (RuntimeException e) {
+                failedRequestCount.incrementAndGet();
+                log.error("Error sending logout requests to: " + backChannelLogoutUrl, e);
+            }
+        }
+
+        private void send(HttpPost httpPost) throws IOException {
+
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                // Consume the response so that the connection is released back to the pool.
+                EntityUtils.consumeQuietly(response.getEntity());
+                if (log.isDebugEnabled()) {
+                    log.debug("Backchannel logout response: " + response.getStatusLine());
+                }
+                if (statusCode >= 500 || statusCode == SC_TOO_MANY_REQUESTS) {
+                    retry(this, "Received response: " + response.getStatusLine());
+                } else if (statusCode >= 400) {
+                    failedRequestCount.incrementAndGet();
+                    log.error("Back-channel logout request to: " + backChannelLogoutUrl + " is rejected by the RP " +
+                            "with response: " + response.getStatusLine());
+                } else {
+                    deliveredRequestCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates named daemon threads for the dispatcher.
+     */
+    private static class DispatcherThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        DispatcherThreadFactory(String namePrefix) {
+
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, namePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -20,7 +20,6 @@ package org.wso2.carbon.identity.oidc.session.backchannellogout;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
@@ -45,7 +44,7 @@ import org.wso2.carbon.identity.oidc.session.util.OIDCSessionManagementUtil;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementException;
 import org.wso2.carbon.idp.mgt.IdentityProviderManager;
 
-import java.security.interfaces.RSAPublicKey;
+import java.security.PublicKey;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -464,7 +463,7 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
             return false;
         }
         int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-        RSAPublicKey publicKey;
+        PublicKey publicKey;
 
         try {
             KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
@@ -472,13 +471,13 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
             if (!tenantDomain.equals(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
                 String ksName = tenantDomain.trim().replace(".", "-");
                 String jksName = ksName + ".jks";
-                publicKey = (RSAPublicKey) keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain)
+                publicKey = keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain)
                         .getPublicKey();
             } else {
-                publicKey = (RSAPublicKey) keyStoreManager.getDefaultPublicKey();
+                publicKey = keyStoreManager.getDefaultPublicKey();
             }
             SignedJWT signedJWT = SignedJWT.parse(idToken);
-            JWSVerifier verifier = new RSASSAVerifier(publicKey);
+            JWSVerifier verifier = OAuth2Util.createJWSVerifier(publicKey);
 
             return signedJWT.verify(verifier);
         } catch (JOSEException | ParseException e) {
@@ -20,7 +20,6 @@ package org.wso2.carbon.identity.oidc.session.servlet;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
@@ -67,7 +66,7 @@ import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.security.interfaces.RSAPublicKey;
+import java.security.PublicKey;
 import java.text.ParseException;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -402,7 +401,7 @@ public class OIDCLogoutServlet extends HttpServlet {
             return false;
         }
         int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-        RSAPublicKey publicKey;
+        PublicKey publicKey;
 
         try {
             KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
@@ -410,13 +409,13 @@ public class OIDCLogoutServlet extends HttpServlet {
             if (!tenantDomain.equals(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
                 String ksName = tenantDomain.trim().replace(".", "-");
                 String jksName = ksName + ".jks";
-                publicKey = (RSAPublicKey) keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain)
+                publicKey = keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain)
                         .getPublicKey();
             } else {
-                publicKey = (RSAPublicKey) keyStoreManager.getDefaultPublicKey();
+                publicKey = keyStoreManager.getDefaultPublicKey();
             }
             SignedJWT signedJWT = SignedJWT.parse(idToken);
-            JWSVerifier verifier = new RSASSAVerifier(publicKey);
+            JWSVerifier verifier = OAuth2Util.createJWSVerifier(publicKey);
 
             return signedJWT.verify(verifier);
         } catch (JOSEException | ParseException e) {
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oidc.session.backchannellogout;
+
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for BackChannelLogoutDispatcher.
+ */
+public class BackChannelLogoutDispatcherTest extends PowerMockIdentityBaseTest {
+
+    private static final String LOGOUT_TOKEN = "logoutToken";
+    private static final long TIMEOUT_IN_MILLIS = 10000;
+
+    private HttpServer server;
+    private String backChannelLogoutUrl;
+    private Queue<Integer> responseCodes;
+    private List<String> receivedRequests;
+    private volatile CountDownLatch responseLatch;
+    private BackChannelLogoutDispatcher dispatcher;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        responseCodes = new ConcurrentLinkedQueue<>();
+        receivedRequests = new CopyOnWriteArrayList<>();
+        responseLatch = new CountDownLatch(0);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/logout", exchange -> {
+            receivedRequests.add(readBody(exchange.getRequestBody()));
+            try {
+                responseLatch.await(TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Integer responseCode = responseCodes.poll();
+            exchange.sendResponseHeaders(responseCode != null ? responseCode : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        backChannelLogoutUrl = "http://localhost:" + server.getAddress().getPort() + "/logout";
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+
+        dispatcher = createDispatcher(2, 10, 2);
+        assertTrue(dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl));
+
+        waitFor(dispatcher::getDeliveredRequestCount, 1);
+        assertEquals(receivedRequests.size(), 1);
+        assertEquals(receivedRequests.get(0), "logout_token=" + LOGOUT_TOKEN);
+        assertEquals(dispatcher.getRetriedRequestCount(), 0);
+        assertEquals(dispatcher.getFailedRequestCount(), 0);
+    }
+
+    @Test
+    public void testRetryOnServerError() throws Exception {
+
+        responseCodes.add(503);
+        dispatcher = createDispatcher(2, 10, 2);
+        dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl);
+
+        waitFor(dispatcher::getDeliveredRequestCount, 1);
+        assertEquals(receivedRequests.size(), 2);
+        assertEquals(dispatcher.getRetriedRequestCount(), 1);
+        assertEquals(dispatcher.getFailedRequestCount(), 0);
+    }
+
+    @Test
+    public void testFailureAfterMaxRetries() throws Exception {
+
+        responseCodes.add(500);
+        responseCodes.add(500);
+        dispatcher = createDispatcher(2, 10, 1);
+        dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl);
+
+        waitFor(dispatcher::getFailedRequestCount, 1);
+        assertEquals(receivedRequests.size(), 2);
+        assertEquals(dispatcher.getRetriedRequestCount(), 1);
+        assertEquals(dispatcher.getDeliveredRequestCount(), 0);
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+
+        responseCodes.add(400);
+        dispatcher = createDispatcher(2, 10, 2);
+        dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl);
+
+        waitFor(dispatcher::getFailedRequestCount, 1);
+        assertEquals(receivedRequests.size(), 1);
+        assertEquals(dispatcher.getRetriedRequestCount(), 0);
+    }
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws Exception {
+
+        responseLatch = new CountDownLatch(1);
+        dispatcher = createDispatcher(1, 1, 0);
+
+        // The first request is taken by the only worker thread, while the second one waits in the queue.
+        assertTrue(dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl));
+        assertTrue(dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl));
+        assertFalse(dispatcher.dispatch(LOGOUT_TOKEN, backChannelLogoutUrl));
+        assertEquals(dispatcher.getRejectedRequestCount(), 1);
+
+        responseLatch.countDown();
+        waitFor(dispatcher::getDeliveredRequestCount, 2);
+    }
+
+    private BackChannelLogoutDispatcher createDispatcher(int threadPoolSize, int queueCapacity, int maxRetries) {
+
+        return new BackChannelLogoutDispatcher(threadPoolSize, queueCapacity, 10, 2, 2000, 2000, maxRetries, 10,
+                50, true);
+    }
+
+    private String readBody(InputStream inputStream) throws IOException {
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            body.write(buffer, 0, length);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void waitFor(LongSupplier counter, long expectedValue) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_IN_MILLIS;
+        while (counter.getAsLong() < expectedValue && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(counter.getAsLong(), expectedValue);
+    }
+}
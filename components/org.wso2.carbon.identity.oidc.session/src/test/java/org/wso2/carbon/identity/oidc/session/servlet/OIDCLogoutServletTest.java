@@ -53,6 +53,7 @@ import org.wso2.carbon.identity.oidc.session.internal.OIDCSessionManagementCompo
 import org.wso2.carbon.identity.oidc.session.util.OIDCSessionManagementUtil;
 
 import java.security.KeyStore;
+import java.security.PublicKey;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
@@ -384,6 +385,7 @@ public class OIDCLogoutServletTest extends TestOIDCSessionBase {
         when(IdentityDatabaseUtil.getDBConnection()).thenAnswer(invocationOnMock -> dataSource.getConnection());
         mockStatic(OAuth2Util.class);
         when(OAuth2Util.getAppInformationByClientId(anyString())).thenCallRealMethod();
+        when(OAuth2Util.createJWSVerifier(any(PublicKey.class))).thenCallRealMethod();
         when(OAuth2Util.getTenantDomainOfOauthApp(anyString())).thenReturn("wso2.com");
         when(OAuth2Util.getTenantDomainOfOauthApp(any(oAuthAppDO.getClass()))).thenReturn("wso2.com");
         when(keyStoreManager.getKeyStore(anyString())).thenReturn(TestUtil.loadKeyStoreFromFileSystem(TestUtil
@@ -494,6 +496,7 @@ public class OIDCLogoutServletTest extends TestOIDCSessionBase {
 
         mockStatic(OAuth2Util.class);
         when(OAuth2Util.getAppInformationByClientId(anyString())).thenCallRealMethod();
+        when(OAuth2Util.createJWSVerifier(any(PublicKey.class))).thenCallRealMethod();
         when(OAuth2Util.getTenantDomainOfOauthApp(any(oAuthAppDO.getClass()))).thenReturn("wso2.com");
 
         mockStatic(IdentityTenantUtil.class);
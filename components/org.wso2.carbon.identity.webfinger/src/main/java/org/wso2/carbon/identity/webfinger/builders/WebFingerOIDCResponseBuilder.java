@@ -21,8 +21,11 @@ package org.wso2.carbon.identity.webfinger.builders;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.ServerConfigurationException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCacheEntry;
 import org.wso2.carbon.identity.webfinger.WebFingerConstants;
 import org.wso2.carbon.identity.webfinger.WebFingerEndpointException;
 import org.wso2.carbon.identity.webfinger.WebFingerRequest;
@@ -58,12 +61,22 @@ public class WebFingerOIDCResponseBuilder {
 
     private String getOidcIssuerLocation(String tenantDomain) throws IdentityOAuth2Exception, URISyntaxException {
 
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        OIDCDiscoveryDocumentCache discoveryDocumentCache = OIDCDiscoveryDocumentCache.getInstance();
+        OIDCDiscoveryDocumentCacheEntry cachedIssuerLocation = discoveryDocumentCache.getDocument(
+                OIDCDiscoveryDocumentCache.WEBFINGER_ISSUER, tenantId);
+        if (cachedIssuerLocation != null) {
+            return cachedIssuerLocation.getDocument();
+        }
+
         String oidcIssuerLocation;
         if (isUseEntityIdAsIssuerInOidcDiscovery()) {
             oidcIssuerLocation = OAuth2Util.getIssuerLocation(tenantDomain);
         } else {
             oidcIssuerLocation = OAuth2Util.OAuthURL.getOidcDiscoveryEPUrl(tenantDomain);
         }
+        discoveryDocumentCache.addDocument(OIDCDiscoveryDocumentCache.WEBFINGER_ISSUER,
+                new OIDCDiscoveryDocumentCacheEntry(oidcIssuerLocation), tenantId);
         return oidcIssuerLocation;
     }
 
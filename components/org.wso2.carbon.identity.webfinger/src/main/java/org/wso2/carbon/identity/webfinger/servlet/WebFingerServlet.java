@@ -21,6 +21,7 @@ package org.wso2.carbon.identity.webfinger.servlet;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.ServerConfigurationException;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCacheEntry;
 import org.wso2.carbon.identity.webfinger.WebFingerConstants;
 import org.wso2.carbon.identity.webfinger.WebFingerEndpointException;
 import org.wso2.carbon.identity.webfinger.WebFingerProcessor;
@@ -39,6 +40,10 @@ import javax.servlet.http.HttpServletResponse;
  */
 public class WebFingerServlet extends HttpServlet {
     private static final Log log = LogFactory.getLog(WebFingerServlet.class);
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String ETAG = "ETag";
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String CACHE_CONTROL_NO_CACHE = "no-cache";
 
     @Override
     protected void doGet(HttpServletRequest httpServletRequest,
@@ -61,6 +66,13 @@ public class WebFingerServlet extends HttpServlet {
             httpServletResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             return;
         }
+        String eTag = OIDCDiscoveryDocumentCacheEntry.generateETag(response);
+        httpServletResponse.setHeader(ETAG, eTag);
+        httpServletResponse.setHeader(CACHE_CONTROL, CACHE_CONTROL_NO_CACHE);
+        if (OIDCDiscoveryDocumentCacheEntry.isETagMatched(httpServletRequest.getHeader(IF_NONE_MATCH), eTag)) {
+            httpServletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
         httpServletResponse.setContentType(WebFingerConstants.RESPONSE_CONTENT_TYPE);
         PrintWriter out = httpServletResponse.getWriter();
         out.print(response);
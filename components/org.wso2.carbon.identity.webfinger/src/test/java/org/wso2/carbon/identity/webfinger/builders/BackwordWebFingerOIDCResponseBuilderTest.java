@@ -23,7 +23,9 @@ import org.powermock.modules.testng.PowerMockTestCase;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.base.ServerConfigurationException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
 import org.wso2.carbon.identity.webfinger.WebFingerEndpointException;
 import org.wso2.carbon.identity.webfinger.WebFingerRequest;
 import org.wso2.carbon.identity.webfinger.WebFingerResponse;
@@ -36,7 +38,7 @@ import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
 
-@PrepareForTest({OAuth2Util.OAuthURL.class})
+@PrepareForTest({OAuth2Util.OAuthURL.class, IdentityTenantUtil.class, OIDCDiscoveryDocumentCache.class})
 /**
  * Unit test coverage for WebFingerOIDCResponseBuilder class
  */
@@ -56,6 +58,9 @@ public class BackwordWebFingerOIDCResponseBuilderTest extends PowerMockTestCase
     @Mock
     OAuth2Util.OAuthURL oAuthURL;
 
+    @Mock
+    OIDCDiscoveryDocumentCache oidcDiscoveryDocumentCache;
+
     @BeforeMethod
     public void setUp() throws Exception {
         webFingerOIDCResponseBuilder = new WebFingerOIDCResponseBuilder();
@@ -69,6 +74,10 @@ public class BackwordWebFingerOIDCResponseBuilderTest extends PowerMockTestCase
         webFingerRequest.setTenant(tenant);
 
         mockStatic(OAuth2Util.OAuthURL.class);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(-1234);
+        mockStatic(OIDCDiscoveryDocumentCache.class);
+        when(OIDCDiscoveryDocumentCache.getInstance()).thenReturn(oidcDiscoveryDocumentCache);
     }
 
     @Test
@@ -23,18 +23,27 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.base.ServerConfigurationException;
 import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCacheEntry;
 import org.wso2.carbon.identity.webfinger.WebFingerEndpointException;
 import org.wso2.carbon.identity.webfinger.WebFingerRequest;
 import org.wso2.carbon.identity.webfinger.WebFingerResponse;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
 
-@PrepareForTest({OAuth2Util.class})
+@PrepareForTest({OAuth2Util.class, IdentityTenantUtil.class, OIDCDiscoveryDocumentCache.class})
 /**
  * Unit test coverage for WebFingerOIDCResponseBuilder class.
  */
@@ -51,6 +60,8 @@ public class WebFingerOIDCResponseBuilderTest extends PowerMockTestCase {
     private final String scheme = "https";
     private final int port = 9443;
 
+    private OIDCDiscoveryDocumentCache oidcDiscoveryDocumentCache;
+
     @BeforeMethod
     public void setUp() throws Exception {
 
@@ -64,6 +75,11 @@ public class WebFingerOIDCResponseBuilderTest extends PowerMockTestCase {
         webFingerRequest.setTenant(tenant);
 
         mockStatic(OAuth2Util.class);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(-1234);
+        oidcDiscoveryDocumentCache = mock(OIDCDiscoveryDocumentCache.class);
+        mockStatic(OIDCDiscoveryDocumentCache.class);
+        when(OIDCDiscoveryDocumentCache.getInstance()).thenReturn(oidcDiscoveryDocumentCache);
     }
 
     @Test
@@ -78,6 +94,18 @@ public class WebFingerOIDCResponseBuilderTest extends PowerMockTestCase {
                 "subject is properly assigned");
     }
 
+    @Test
+    public void testBuildWebFingerResponseFromCache() throws Exception {
+
+        when(oidcDiscoveryDocumentCache.getDocument(eq(OIDCDiscoveryDocumentCache.WEBFINGER_ISSUER), anyInt()))
+                .thenReturn(new OIDCDiscoveryDocumentCacheEntry(oidcDiscoveryUrl));
+        WebFingerResponse webFingerResponse = webFingerOIDCResponseBuilder.buildWebFingerResponse(webFingerRequest);
+        assertEquals(webFingerResponse.getLinks().get(0).getHref(), oidcDiscoveryUrl,
+                "href is properly assigned from the cache");
+        verify(oidcDiscoveryDocumentCache, never()).addDocument(anyString(),
+                any(OIDCDiscoveryDocumentCacheEntry.class), anyInt());
+    }
+
     @Test(expectedExceptions = ServerConfigurationException.class)
     public void testBuildWebFingerException() throws WebFingerEndpointException, ServerConfigurationException,
             IdentityException {
@@ -0,0 +1,6 @@
+CREATE TABLE IDN_OAUTH2_TASK_LEASE (
+            LEASE_NAME VARCHAR (255) NOT NULL,
+            HOLDER_ID VARCHAR (255),
+            EXPIRY_TIME BIGINT,
+            PRIMARY KEY (LEASE_NAME))
+/
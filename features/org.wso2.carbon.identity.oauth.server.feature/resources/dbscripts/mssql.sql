@@ -0,0 +1,7 @@
+IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_OAUTH2_TASK_LEASE]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_OAUTH2_TASK_LEASE (
+            LEASE_NAME VARCHAR (255) NOT NULL,
+            HOLDER_ID VARCHAR (255),
+            EXPIRY_TIME BIGINT,
+            PRIMARY KEY (LEASE_NAME)
+);
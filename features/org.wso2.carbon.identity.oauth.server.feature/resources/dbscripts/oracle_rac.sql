@@ -0,0 +1,6 @@
+CREATE TABLE IDN_OAUTH2_TASK_LEASE (
+            LEASE_NAME VARCHAR2 (255) NOT NULL,
+            HOLDER_ID VARCHAR2 (255),
+            EXPIRY_TIME NUMBER(19),
+            PRIMARY KEY (LEASE_NAME))
+/